@@ -31,6 +31,19 @@ public class Constants {
 
   public static final String SESSION_NOT_FOUND = "Session not found";
   public static final String ATTENDANCE_NOT_FOUND = "Attendance not found";
+  public static final String CALENDAR_FEED_NOT_FOUND = "Calendar feed not found";
+  public static final String SESSION_SERIES_NOT_FOUND = "Session series not found";
+  public static final String INVALID_RECURRENCE_RULE = "Invalid or unsupported recurrence rule";
+  public static final String OCCURRENCE_NOT_FOUND = "The series has no occurrence at that time";
+  public static final String INVALID_DATE_RANGE =
+      "The range must end on or after its start and span at most 366 days";
+  public static final String INVALID_AVAILABILITY =
+      "Each range needs a day, and start and end times on 15-minute boundaries with the end after"
+          + " the start";
+  public static final String INVALID_SLOT_SEARCH =
+      "Duration must be 15 to 720 minutes and limit 1 to 50";
+  public static final String OCCURRENCE_CONFLICT =
+      "The occurrence was changed at the same time, please retry";
 
   public static final String MESSAGE_CONTENT_EMPTY = "Message content cannot be empty";
 
@@ -39,6 +52,14 @@ public class Constants {
       "Private message content cannot be empty";
 
   public static final String NOTIFICATION_NOT_FOUND = "Notification not found";
+  public static final String INVALID_NOTIFICATION_PREFERENCE = "Unknown notification type or mode";
+  public static final String INVALID_BULK_READ =
+      "Give exactly one of ids (at most 500), type or before";
+  public static final String NOT_GAME_ADMIN = "Only game admins receive this notification";
 
   public static final String CHARACTER_SHEET_NOT_FOUND = "Character sheet not found";
+
+  public static final String INVALID_CURSOR = "Invalid cursor";
+
+  public static final String RATE_LIMIT_EXCEEDED = "Too many requests, please retry later";
 }
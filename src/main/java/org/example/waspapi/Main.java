@@ -9,6 +9,7 @@ import io.swagger.v3.oas.annotations.servers.Server;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @OpenAPIDefinition(
     info =
@@ -27,6 +28,7 @@ import org.springframework.scheduling.annotation.EnableAsync;
       @SecurityRequirement(name = "bearerAuth") // nombre del esquema que declares en configuración
     })
 @EnableAsync
+@EnableScheduling
 @SpringBootApplication
 public class Main {
   public static void main(String[] args) {
@@ -0,0 +1,78 @@
+package org.example.waspapi.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import org.example.waspapi.dto.responses.message.GetMessageResponse;
+import org.example.waspapi.dto.responses.notification.GetNotificationResponse;
+import org.example.waspapi.dto.responses.privatemessage.GetConversationResponse;
+import org.example.waspapi.dto.responses.privatemessage.GetPrivateMessageResponse;
+import org.springframework.data.domain.Page;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+
+/**
+ * CBOR converter restricted to the high-volume chat and notification payloads.
+ *
+ * <p>Clients opt in with {@code Accept: application/cbor}. Only the response types listed in {@link
+ * #COMPACT_TYPES}, either on their own or wrapped in a {@link Page} or a collection, are written as
+ * CBOR; every other endpoint keeps negotiating JSON only.
+ */
+public class CompactCborHttpMessageConverter extends MappingJackson2CborHttpMessageConverter {
+
+  static final Set<Class<?>> COMPACT_TYPES =
+      Collections.unmodifiableSet(
+          new HashSet<>(
+              Arrays.asList(
+                  GetMessageResponse.class,
+                  GetNotificationResponse.class,
+                  GetPrivateMessageResponse.class,
+                  GetConversationResponse.class)));
+
+  public CompactCborHttpMessageConverter(ObjectMapper objectMapper) {
+    super(objectMapper);
+  }
+
+  @Override
+  public boolean canRead(Type type, Class<?> contextClass, MediaType mediaType) {
+    return false;
+  }
+
+  @Override
+  public boolean canRead(Class<?> clazz, MediaType mediaType) {
+    return false;
+  }
+
+  @Override
+  public boolean canWrite(Class<?> clazz, MediaType mediaType) {
+    return COMPACT_TYPES.contains(clazz) && super.canWrite(clazz, mediaType);
+  }
+
+  @Override
+  public boolean canWrite(Type type, Class<?> clazz, MediaType mediaType) {
+    return isCompactType(type != null ? type : clazz) && super.canWrite(clazz, mediaType);
+  }
+
+  private static boolean isCompactType(Type type) {
+    if (type instanceof Class) {
+      return COMPACT_TYPES.contains(type);
+    }
+    if (type instanceof ParameterizedType) {
+      ParameterizedType parameterized = (ParameterizedType) type;
+      Type raw = parameterized.getRawType();
+      Type[] args = parameterized.getActualTypeArguments();
+      if (raw instanceof Class
+          && args.length == 1
+          && (Page.class.isAssignableFrom((Class<?>) raw)
+              || Collection.class.isAssignableFrom((Class<?>) raw))) {
+        return isCompactType(args[0]);
+      }
+    }
+    return false;
+  }
+}
@@ -0,0 +1,101 @@
+package org.example.waspapi.config;
+
+import static org.example.waspapi.Constants.RATE_LIMIT_EXCEEDED;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import org.example.waspapi.config.RateLimitProperties.KeyType;
+import org.example.waspapi.config.RateLimitProperties.Policy;
+import org.example.waspapi.service.RateLimiterService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.util.UrlPathHelper;
+
+/** Applies the configured rate limit policies before the request reaches a controller. */
+@Component
+public class RateLimitInterceptor implements HandlerInterceptor {
+
+  private static final Logger logger = LoggerFactory.getLogger(RateLimitInterceptor.class);
+  private static final String GAME_ID_VARIABLE = "gameId";
+
+  private final RateLimitProperties properties;
+  private final RateLimiterService rateLimiterService;
+  private final AntPathMatcher pathMatcher = new AntPathMatcher();
+  private final UrlPathHelper urlPathHelper = new UrlPathHelper();
+
+  public RateLimitInterceptor(
+      RateLimitProperties properties, RateLimiterService rateLimiterService) {
+    this.properties = properties;
+    this.rateLimiterService = rateLimiterService;
+  }
+
+  @Override
+  public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler)
+      throws IOException {
+    if (!properties.isEnabled()) {
+      return true;
+    }
+    String path = urlPathHelper.getPathWithinApplication(request);
+    for (Policy policy : properties.getPolicies()) {
+      if (!policy.getMethod().equalsIgnoreCase(request.getMethod())
+          || !pathMatcher.match(policy.getPathPattern(), path)
+          || isExcluded(policy, path)) {
+        continue;
+      }
+      String key = resolveKey(policy.getKey(), request);
+      if (key == null) {
+        continue;
+      }
+      long waitNanos = rateLimiterService.tryAcquire(policy, key);
+      if (waitNanos > 0) {
+        long retryAfterSeconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos - 1) + 1);
+        // Debug only: a runaway client would flood the log; RateLimiterService counts rejections
+        logger.debug(
+            "Rate limit {} exceeded for {} on {} {}",
+            policy.getName(),
+            key,
+            request.getMethod(),
+            path);
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        response.setContentType(MediaType.TEXT_PLAIN_VALUE);
+        response.getWriter().write(RATE_LIMIT_EXCEEDED);
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private boolean isExcluded(Policy policy, String path) {
+    for (String pattern : policy.getExcludePathPatterns()) {
+      if (pathMatcher.match(pattern, path)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private String resolveKey(KeyType keyType, HttpServletRequest request) {
+    if (keyType == KeyType.GAME) {
+      @SuppressWarnings("unchecked")
+      Map<String, String> variables =
+          (Map<String, String>)
+              request.getAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE);
+      return variables == null ? null : variables.get(GAME_ID_VARIABLE);
+    }
+    Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+    return authentication == null ? null : authentication.getName();
+  }
+}
@@ -0,0 +1,146 @@
+package org.example.waspapi.config;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Per-route rate limit policies, bound from {@code wasp.rate-limit} in application.yml.
+ *
+ * <p>Each policy matches a HTTP method and an Ant-style path pattern and limits requests per key,
+ * where the key is either the authenticated user or the {@code gameId} path variable. Paths
+ * matching one of the policy's exclude patterns are not limited by it. A request must pass every
+ * policy it matches.
+ */
+@Component
+@ConfigurationProperties(prefix = "wasp.rate-limit")
+public class RateLimitProperties {
+
+  private boolean enabled = true;
+  private long idleEvictionSeconds = 600;
+  private List<Policy> policies = new ArrayList<>();
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  public void setEnabled(boolean enabled) {
+    this.enabled = enabled;
+  }
+
+  public long getIdleEvictionSeconds() {
+    return idleEvictionSeconds;
+  }
+
+  public void setIdleEvictionSeconds(long idleEvictionSeconds) {
+    this.idleEvictionSeconds = idleEvictionSeconds;
+  }
+
+  public List<Policy> getPolicies() {
+    return policies;
+  }
+
+  public void setPolicies(List<Policy> policies) {
+    this.policies = policies;
+  }
+
+  public enum KeyType {
+    USER,
+    GAME
+  }
+
+  public static class Policy {
+    private String name;
+    private String method = "POST";
+    private String pathPattern;
+    private List<String> excludePathPatterns = new ArrayList<>();
+    private KeyType key = KeyType.USER;
+    private int capacity;
+    private int refillTokens;
+    private long refillPeriodSeconds = 60;
+
+    public Policy() {}
+
+    public Policy(
+        String name,
+        String method,
+        String pathPattern,
+        KeyType key,
+        int capacity,
+        int refillTokens,
+        long refillPeriodSeconds) {
+      this.name = name;
+      this.method = method;
+      this.pathPattern = pathPattern;
+      this.key = key;
+      this.capacity = capacity;
+      this.refillTokens = refillTokens;
+      this.refillPeriodSeconds = refillPeriodSeconds;
+    }
+
+    public String getName() {
+      return name;
+    }
+
+    public void setName(String name) {
+      this.name = name;
+    }
+
+    public String getMethod() {
+      return method;
+    }
+
+    public void setMethod(String method) {
+      this.method = method;
+    }
+
+    public String getPathPattern() {
+      return pathPattern;
+    }
+
+    public void setPathPattern(String pathPattern) {
+      this.pathPattern = pathPattern;
+    }
+
+    public List<String> getExcludePathPatterns() {
+      return excludePathPatterns;
+    }
+
+    public void setExcludePathPatterns(List<String> excludePathPatterns) {
+      this.excludePathPatterns = excludePathPatterns;
+    }
+
+    public KeyType getKey() {
+      return key;
+    }
+
+    public void setKey(KeyType key) {
+      this.key = key;
+    }
+
+    public int getCapacity() {
+      return capacity;
+    }
+
+    public void setCapacity(int capacity) {
+      this.capacity = capacity;
+    }
+
+    public int getRefillTokens() {
+      return refillTokens;
+    }
+
+    public void setRefillTokens(int refillTokens) {
+      this.refillTokens = refillTokens;
+    }
+
+    public long getRefillPeriodSeconds() {
+      return refillPeriodSeconds;
+    }
+
+    public void setRefillPeriodSeconds(long refillPeriodSeconds) {
+      this.refillPeriodSeconds = refillPeriodSeconds;
+    }
+  }
+}
@@ -3,6 +3,7 @@ package org.example.waspapi.config;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpMethod;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.oauth2.jose.jws.SignatureAlgorithm;
 import org.springframework.security.oauth2.jwt.JwtDecoder;
@@ -27,6 +28,9 @@ public class SecurityConfig {
         .authorizeRequests()
         .antMatchers("/swagger-ui/**", "/v3/api-docs/**", "/swagger-ui.html")
         .permitAll()
+        // Calendar apps cannot send a bearer token, the feed URL carries its own secret
+        .antMatchers(HttpMethod.GET, "/calendar/*.ics")
+        .permitAll()
         .anyRequest()
         .authenticated()
         .and()
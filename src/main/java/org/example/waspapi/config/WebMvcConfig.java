@@ -0,0 +1,60 @@
+package org.example.waspapi.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ser.std.ToStringSerializer;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import java.util.List;
+import java.util.UUID;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+public class WebMvcConfig implements WebMvcConfigurer {
+
+  private final Jackson2ObjectMapperBuilder objectMapperBuilder;
+  private final RateLimitInterceptor rateLimitInterceptor;
+
+  @Value("${wasp.cbor.compact-uuids:true}")
+  private boolean compactUuids;
+
+  public WebMvcConfig(
+      Jackson2ObjectMapperBuilder objectMapperBuilder, RateLimitInterceptor rateLimitInterceptor) {
+    this.objectMapperBuilder = objectMapperBuilder;
+    this.rateLimitInterceptor = rateLimitInterceptor;
+  }
+
+  @Override
+  public void addInterceptors(InterceptorRegistry registry) {
+    registry.addInterceptor(rateLimitInterceptor);
+  }
+
+  /**
+   * Replaces the generic CBOR converter Boot registers once Jackson's CBOR module is on the
+   * classpath, which would otherwise write every response as CBOR ahead of the restricted one.
+   */
+  @Override
+  public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+    converters.removeIf(converter -> converter instanceof MappingJackson2CborHttpMessageConverter);
+    converters.add(new CompactCborHttpMessageConverter(cborObjectMapper()));
+  }
+
+  /**
+   * Builds the CBOR mapper from the same builder as the JSON one so dates and modules match.
+   *
+   * <p>Jackson writes UUIDs as 16-byte binary strings whenever the format supports native binary,
+   * which CBOR does. With {@code wasp.cbor.compact-uuids=false} they are written as the usual
+   * 36-character text form instead, for clients whose decoder cannot map byte strings to UUIDs.
+   */
+  private ObjectMapper cborObjectMapper() {
+    Jackson2ObjectMapperBuilder builder = objectMapperBuilder.factory(new CBORFactory());
+    if (!compactUuids) {
+      builder.serializerByType(UUID.class, ToStringSerializer.instance);
+    }
+    return builder.build();
+  }
+}
@@ -0,0 +1,56 @@
+package org.example.waspapi.controller;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import java.time.LocalDate;
+import java.util.UUID;
+import org.example.waspapi.service.CalendarFeedService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+@RestController
+@Tag(name = "Sessions", description = "Endpoints for managing sessions within a game")
+@RequestMapping("/calendar")
+public class CalendarFeedController {
+
+  private static final Logger logger = LoggerFactory.getLogger(CalendarFeedController.class);
+  private static final MediaType TEXT_CALENDAR = new MediaType("text", "calendar");
+
+  private final CalendarFeedService calendarFeedService;
+
+  public CalendarFeedController(CalendarFeedService calendarFeedService) {
+    this.calendarFeedService = calendarFeedService;
+  }
+
+  @Operation(
+      summary = "Calendar feed",
+      description =
+          "Returns the sessions of the token owner's games as an iCalendar document, for calendar"
+              + " apps to subscribe to. No authentication: the token in the URL is the secret."
+              + " Supports If-None-Match; an unchanged feed answers 304 Not Modified.",
+      operationId = "getCalendarFeed")
+  @GetMapping("/{token}.ics")
+  public ResponseEntity<StreamingResponseBody> getFeed(
+      @PathVariable String token, WebRequest webRequest) {
+    UUID userId = calendarFeedService.findUserId(token);
+    LocalDate windowStart = calendarFeedService.windowStart();
+    String etag = calendarFeedService.etag(userId, windowStart);
+    if (webRequest.checkNotModified(etag)) {
+      logger.debug("Calendar feed of user {} not modified", userId);
+      return null;
+    }
+
+    logger.debug("Streaming calendar feed of user {}", userId);
+    return ResponseEntity.ok()
+        .eTag(etag)
+        .cacheControl(CacheControl.noCache().cachePrivate())
+        .contentType(TEXT_CALENDAR)
+        .body(out -> calendarFeedService.write(userId, windowStart, out));
+  }
+}
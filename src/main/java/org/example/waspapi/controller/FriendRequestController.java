@@ -7,10 +7,14 @@ import java.util.List;
 import java.util.UUID;
 import java.util.stream.Collectors;
 import org.example.waspapi.dto.requests.friendrequest.CreateFriendRequestRequest;
+import org.example.waspapi.dto.responses.CursorPageResponse;
 import org.example.waspapi.dto.responses.friendrequest.GetFriendRequestResponse;
+import org.example.waspapi.dto.responses.friendrequest.GetFriendResponse;
+import org.example.waspapi.dto.responses.friendrequest.GetFriendSuggestionResponse;
+import org.example.waspapi.dto.responses.friendrequest.GetMutualFriendsResponse;
 import org.example.waspapi.model.FriendRequest;
-import org.example.waspapi.model.User;
 import org.example.waspapi.service.FriendRequestService;
+import org.example.waspapi.service.SocialGraphService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.http.HttpStatus;
@@ -25,10 +29,15 @@ import org.springframework.web.bind.annotation.*;
 public class FriendRequestController {
 
   private static final Logger logger = LoggerFactory.getLogger(FriendRequestController.class);
+  private static final int MAX_SUGGESTIONS = 50;
+
   private final FriendRequestService friendRequestService;
+  private final SocialGraphService socialGraphService;
 
-  public FriendRequestController(FriendRequestService friendRequestService) {
+  public FriendRequestController(
+      FriendRequestService friendRequestService, SocialGraphService socialGraphService) {
     this.friendRequestService = friendRequestService;
+    this.socialGraphService = socialGraphService;
   }
 
   @Operation(
@@ -67,6 +76,23 @@ public class FriendRequestController {
     return ResponseEntity.ok(responses);
   }
 
+  @Operation(
+      summary = "Get a page of pending friend requests",
+      description =
+          "Returns pending friend requests received by the authenticated user, newest first, one"
+              + " page at a time. Call without a cursor for the first page and keep passing"
+              + " nextCursor while hasMore is true.",
+      operationId = "getPendingFriendRequestsPage")
+  @GetMapping("/requests/pending/page")
+  public ResponseEntity<CursorPageResponse<GetFriendRequestResponse>> getPendingFriendRequestsPage(
+      @Parameter(hidden = true) @AuthenticationPrincipal Jwt jwt,
+      @RequestParam(required = false) String cursor,
+      @RequestParam(defaultValue = "50") int limit) {
+    UUID userId = UUID.fromString(jwt.getSubject());
+    logger.info("Fetching a page of pending friend requests for user {}", userId);
+    return ResponseEntity.ok(friendRequestService.getPendingReceivedPage(userId, cursor, limit));
+  }
+
   @Operation(
       summary = "Accept a friend request",
       description = "Accepts a pending friend request. Only the receiver can accept.",
@@ -105,12 +131,56 @@ public class FriendRequestController {
     UUID userId = UUID.fromString(jwt.getSubject());
     logger.info("Fetching friends for user {}", userId);
 
-    List<GetFriendResponse> responses =
-        friendRequestService.getFriends(userId).stream()
-            .map(this::toFriendResponse)
-            .collect(Collectors.toList());
+    return ResponseEntity.ok(friendRequestService.getFriends(userId));
+  }
 
-    return ResponseEntity.ok(responses);
+  @Operation(
+      summary = "Get a page of friends",
+      description =
+          "Returns the authenticated user's friends ordered by nickname, one page at a time. Call"
+              + " without a cursor for the first page and keep passing nextCursor while hasMore"
+              + " is true.",
+      operationId = "getFriendsPage")
+  @GetMapping("/page")
+  public ResponseEntity<CursorPageResponse<GetFriendResponse>> getFriendsPage(
+      @Parameter(hidden = true) @AuthenticationPrincipal Jwt jwt,
+      @RequestParam(required = false) String cursor,
+      @RequestParam(defaultValue = "50") int limit) {
+    UUID userId = UUID.fromString(jwt.getSubject());
+    logger.info("Fetching a page of friends for user {}, limit={}", userId, limit);
+    return ResponseEntity.ok(friendRequestService.getFriendsPage(userId, cursor, limit));
+  }
+
+  @Operation(
+      summary = "Get friend suggestions",
+      description =
+          "Returns people the authenticated user may know: friends of their friends, ranked by"
+              + " mutual friends and games played together.",
+      operationId = "getFriendSuggestions")
+  @GetMapping("/suggestions")
+  public ResponseEntity<List<GetFriendSuggestionResponse>> getFriendSuggestions(
+      @Parameter(hidden = true) @AuthenticationPrincipal Jwt jwt,
+      @RequestParam(defaultValue = "10") int limit) {
+    UUID userId = UUID.fromString(jwt.getSubject());
+    logger.info("Fetching friend suggestions for user {}", userId);
+
+    int boundedLimit = Math.max(1, Math.min(limit, MAX_SUGGESTIONS));
+    return ResponseEntity.ok(socialGraphService.getSuggestions(userId, boundedLimit));
+  }
+
+  @Operation(
+      summary = "Count mutual friends",
+      description = "Returns how many friends the authenticated user shares with another user.",
+      operationId = "getMutualFriends")
+  @GetMapping("/{otherUserId}/mutual")
+  public ResponseEntity<GetMutualFriendsResponse> getMutualFriends(
+      @Parameter(hidden = true) @AuthenticationPrincipal Jwt jwt, @PathVariable UUID otherUserId) {
+    UUID userId = UUID.fromString(jwt.getSubject());
+    logger.info("Counting mutual friends of {} and {}", userId, otherUserId);
+
+    return ResponseEntity.ok(
+        new GetMutualFriendsResponse(
+            otherUserId, socialGraphService.countMutualFriends(userId, otherUserId)));
   }
 
   @Operation(
@@ -137,46 +207,4 @@ public class FriendRequestController {
         friendRequest.getStatus(),
         friendRequest.getCreatedAt());
   }
-
-  private GetFriendResponse toFriendResponse(User user) {
-    return new GetFriendResponse(user.getId(), user.getNickname(), user.getProfilePhoto());
-  }
-
-  static class GetFriendResponse {
-    private UUID userId;
-    private String nickname;
-    private String profilePhoto;
-
-    public GetFriendResponse() {}
-
-    public GetFriendResponse(UUID userId, String nickname, String profilePhoto) {
-      this.userId = userId;
-      this.nickname = nickname;
-      this.profilePhoto = profilePhoto;
-    }
-
-    public UUID getUserId() {
-      return userId;
-    }
-
-    public void setUserId(UUID userId) {
-      this.userId = userId;
-    }
-
-    public String getNickname() {
-      return nickname;
-    }
-
-    public void setNickname(String nickname) {
-      this.nickname = nickname;
-    }
-
-    public String getProfilePhoto() {
-      return profilePhoto;
-    }
-
-    public void setProfilePhoto(String profilePhoto) {
-      this.profilePhoto = profilePhoto;
-    }
-  }
 }
@@ -3,18 +3,30 @@ package org.example.waspapi.controller;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import java.util.List;
 import java.util.UUID;
+import org.example.waspapi.dto.requests.notification.MarkNotificationsReadRequest;
+import org.example.waspapi.dto.requests.notification.UpdateNotificationPreferenceRequest;
+import org.example.waspapi.dto.responses.notification.GetNotificationPreferenceResponse;
 import org.example.waspapi.dto.responses.notification.GetNotificationResponse;
+import org.example.waspapi.dto.responses.notification.MarkNotificationsReadResponse;
+import org.example.waspapi.dto.responses.notification.NotificationPollResponse;
 import org.example.waspapi.model.Notification;
+import org.example.waspapi.service.NotificationPreferenceService;
+import org.example.waspapi.service.NotificationReferenceResolver;
 import org.example.waspapi.service.NotificationService;
+import org.example.waspapi.service.NotificationStreamService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 @RestController
 @Tag(name = "Notifications", description = "Endpoints for managing user notifications")
@@ -23,44 +35,68 @@ public class NotificationController {
 
   private static final Logger logger = LoggerFactory.getLogger(NotificationController.class);
   private final NotificationService notificationService;
+  private final NotificationStreamService notificationStreamService;
+  private final NotificationReferenceResolver notificationReferenceResolver;
+  private final NotificationPreferenceService notificationPreferenceService;
 
-  public NotificationController(NotificationService notificationService) {
+  public NotificationController(
+      NotificationService notificationService,
+      NotificationStreamService notificationStreamService,
+      NotificationReferenceResolver notificationReferenceResolver,
+      NotificationPreferenceService notificationPreferenceService) {
     this.notificationService = notificationService;
+    this.notificationStreamService = notificationStreamService;
+    this.notificationReferenceResolver = notificationReferenceResolver;
+    this.notificationPreferenceService = notificationPreferenceService;
   }
 
   @Operation(
       summary = "Get all notifications",
-      description = "Returns paginated notifications for the authenticated user.",
+      description =
+          "Returns paginated notifications for the authenticated user. With hydrate=true each"
+              + " notification also carries a summary of the session, game, request or user it"
+              + " points to.",
       operationId = "getNotifications")
   @GetMapping
   public ResponseEntity<Page<GetNotificationResponse>> getNotifications(
       @Parameter(hidden = true) @AuthenticationPrincipal Jwt jwt,
       @RequestParam(defaultValue = "0") int page,
-      @RequestParam(defaultValue = "20") int size) {
+      @RequestParam(defaultValue = "20") int size,
+      @RequestParam(defaultValue = "false") boolean hydrate) {
     UUID userId = UUID.fromString(jwt.getSubject());
     logger.info("User {} fetching notifications", userId);
     Page<GetNotificationResponse> notifications =
         notificationService
             .getNotifications(userId, PageRequest.of(page, size))
             .map(this::toResponse);
+    if (hydrate) {
+      notificationReferenceResolver.hydrate(notifications.getContent());
+    }
     return ResponseEntity.ok(notifications);
   }
 
   @Operation(
       summary = "Get unread notifications",
-      description = "Returns paginated unread notifications for the authenticated user.",
+      description =
+          "Returns paginated unread notifications for the authenticated user. With hydrate=true each"
+              + " notification also carries a summary of the session, game, request or user it"
+              + " points to.",
       operationId = "getUnreadNotifications")
   @GetMapping("/unread")
   public ResponseEntity<Page<GetNotificationResponse>> getUnreadNotifications(
       @Parameter(hidden = true) @AuthenticationPrincipal Jwt jwt,
       @RequestParam(defaultValue = "0") int page,
-      @RequestParam(defaultValue = "20") int size) {
+      @RequestParam(defaultValue = "20") int size,
+      @RequestParam(defaultValue = "false") boolean hydrate) {
     UUID userId = UUID.fromString(jwt.getSubject());
     logger.info("User {} fetching unread notifications", userId);
     Page<GetNotificationResponse> notifications =
         notificationService
             .getUnreadNotifications(userId, PageRequest.of(page, size))
             .map(this::toResponse);
+    if (hydrate) {
+      notificationReferenceResolver.hydrate(notifications.getContent());
+    }
     return ResponseEntity.ok(notifications);
   }
 
@@ -76,6 +112,39 @@ public class NotificationController {
     return ResponseEntity.ok(notificationService.getUnreadCount(userId));
   }
 
+  @Operation(
+      summary = "Stream notifications",
+      description =
+          "Opens a Server-Sent Events stream for the authenticated user. Each new notification is"
+              + " pushed as a 'notification' event, and each unread count change as an"
+              + " 'unread-count' event, starting with the current count. The stream is shared"
+              + " with other per-user events such as 'private-message'.",
+      operationId = "streamNotifications")
+  @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+  public SseEmitter streamNotifications(
+      @Parameter(hidden = true) @AuthenticationPrincipal Jwt jwt) {
+    UUID userId = UUID.fromString(jwt.getSubject());
+    logger.info("User {} opening notification stream", userId);
+    return notificationStreamService.connect(userId);
+  }
+
+  @Operation(
+      summary = "Long-poll notifications",
+      description =
+          "Fallback for clients that cannot hold an event stream. Answers as soon as the"
+              + " authenticated user's notifications change, or after about 25 seconds, with any"
+              + " new notification and the unread count. Pass the last unread count received as"
+              + " knownCount so changes made between polls are answered right away.",
+      operationId = "pollNotifications")
+  @GetMapping("/poll")
+  public DeferredResult<NotificationPollResponse> pollNotifications(
+      @Parameter(hidden = true) @AuthenticationPrincipal Jwt jwt,
+      @RequestParam(required = false) Long knownCount) {
+    UUID userId = UUID.fromString(jwt.getSubject());
+    logger.debug("User {} long-polling notifications, knownCount={}", userId, knownCount);
+    return notificationStreamService.poll(userId, knownCount);
+  }
+
   @Operation(
       summary = "Mark notification as read",
       description = "Marks a specific notification as read.",
@@ -90,6 +159,28 @@ public class NotificationController {
     return ResponseEntity.ok(toResponse(notification));
   }
 
+  @Operation(
+      summary = "Mark several notifications as read",
+      description =
+          "Marks as read, in one update, either the listed notification ids (at most 500), every"
+              + " notification of a type, or every notification last updated at or before the"
+              + " given instant. Give exactly one of them. Ids of other users' notifications are"
+              + " ignored. Returns how many notifications changed and the new unread count.",
+      operationId = "markNotificationsAsRead")
+  @PostMapping("/read")
+  public ResponseEntity<MarkNotificationsReadResponse> markManyAsRead(
+      @Parameter(hidden = true) @AuthenticationPrincipal Jwt jwt,
+      @RequestBody MarkNotificationsReadRequest request) {
+    UUID userId = UUID.fromString(jwt.getSubject());
+    logger.info("User {} marking notifications as read in bulk", userId);
+    int updated =
+        notificationService.markAsRead(
+            userId, request.getIds(), request.getType(), request.getBefore());
+    // The cached count is adjusted on commit, which has happened by now
+    return ResponseEntity.ok(
+        new MarkNotificationsReadResponse(updated, notificationService.getUnreadCount(userId)));
+  }
+
   @Operation(
       summary = "Mark unread messages notification as read for a game",
       description =
@@ -133,12 +224,41 @@ public class NotificationController {
     return ResponseEntity.noContent().build();
   }
 
+  @Operation(
+      summary = "Get notification preferences for a game",
+      description =
+          "Returns the authenticated user's setting (ON, MUTED or DIGEST) for each notification"
+              + " type that can be configured per game.",
+      operationId = "getNotificationPreferences")
+  @GetMapping("/preferences/games/{gameId}")
+  public ResponseEntity<List<GetNotificationPreferenceResponse>> getPreferences(
+      @Parameter(hidden = true) @AuthenticationPrincipal Jwt jwt, @PathVariable UUID gameId) {
+    UUID userId = UUID.fromString(jwt.getSubject());
+    logger.info("User {} fetching notification preferences for game {}", userId, gameId);
+    return ResponseEntity.ok(notificationPreferenceService.getPreferences(userId, gameId));
+  }
+
+  @Operation(
+      summary = "Set a notification preference for a game",
+      description =
+          "Sets how the authenticated user hears about one notification type in a game: ON,"
+              + " MUTED (no notifications) or DIGEST (one daily notification summarizing what"
+              + " happened). Types are UNREAD_MESSAGES, SESSION_CREATED and, for admins,"
+              + " JOIN_REQUEST.",
+      operationId = "setNotificationPreference")
+  @PutMapping("/preferences/games/{gameId}/{type}")
+  public ResponseEntity<GetNotificationPreferenceResponse> setPreference(
+      @Parameter(hidden = true) @AuthenticationPrincipal Jwt jwt,
+      @PathVariable UUID gameId,
+      @PathVariable String type,
+      @RequestBody UpdateNotificationPreferenceRequest request) {
+    UUID userId = UUID.fromString(jwt.getSubject());
+    logger.info("User {} setting {} notifications of game {}", userId, type, gameId);
+    return ResponseEntity.ok(
+        notificationPreferenceService.setPreference(userId, gameId, type, request.getMode()));
+  }
+
   private GetNotificationResponse toResponse(Notification notification) {
-    return new GetNotificationResponse(
-        notification.getId(),
-        notification.getType(),
-        notification.getReferenceId(),
-        notification.getIsRead(),
-        notification.getCreatedAt());
+    return notificationService.toResponse(notification);
   }
 }
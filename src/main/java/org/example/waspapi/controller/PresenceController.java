@@ -0,0 +1,87 @@
+package org.example.waspapi.controller;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import java.util.UUID;
+import org.example.waspapi.dto.responses.presence.GetOnlineUsersResponse;
+import org.example.waspapi.service.PresenceService;
+import org.example.waspapi.service.SubscriptionService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@Tag(name = "Presence", description = "Endpoints for reporting and querying who is online")
+@RequestMapping("/presence")
+public class PresenceController {
+
+  private static final Logger logger = LoggerFactory.getLogger(PresenceController.class);
+  private final PresenceService presenceService;
+  private final SubscriptionService subscriptionService;
+
+  public PresenceController(
+      PresenceService presenceService, SubscriptionService subscriptionService) {
+    this.presenceService = presenceService;
+    this.subscriptionService = subscriptionService;
+  }
+
+  @Operation(
+      summary = "Send a presence heartbeat",
+      description =
+          "Marks the authenticated user as online for the next minute. Clients without an open"
+              + " event stream should call it periodically while in the foreground.",
+      operationId = "sendHeartbeat")
+  @PostMapping("/heartbeat")
+  public ResponseEntity<Void> heartbeat(
+      @Parameter(hidden = true) @AuthenticationPrincipal Jwt jwt) {
+    UUID userId = UUID.fromString(jwt.getSubject());
+    logger.debug("Heartbeat from user {}", userId);
+    presenceService.heartbeat(userId);
+    return ResponseEntity.noContent().build();
+  }
+
+  @Operation(
+      summary = "Go offline",
+      description = "Marks the authenticated user as offline right away.",
+      operationId = "signOff")
+  @DeleteMapping("/heartbeat")
+  public ResponseEntity<Void> signOff(@Parameter(hidden = true) @AuthenticationPrincipal Jwt jwt) {
+    UUID userId = UUID.fromString(jwt.getSubject());
+    logger.debug("User {} signing off", userId);
+    presenceService.signOff(userId);
+    return ResponseEntity.noContent().build();
+  }
+
+  @Operation(
+      summary = "Get online game members",
+      description = "Returns the members of a game that are online right now.",
+      operationId = "getOnlineGameMembers")
+  @GetMapping("/games/{gameId}")
+  public ResponseEntity<GetOnlineUsersResponse> getOnlineGameMembers(
+      @Parameter(hidden = true) @AuthenticationPrincipal Jwt jwt, @PathVariable UUID gameId) {
+    UUID userId = UUID.fromString(jwt.getSubject());
+    logger.info("User {} fetching online members of game {}", userId, gameId);
+
+    if (!subscriptionService.isSubscribed(userId, gameId)) {
+      return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+    }
+    return ResponseEntity.ok(new GetOnlineUsersResponse(presenceService.getOnlineMembers(gameId)));
+  }
+
+  @Operation(
+      summary = "Get online friends",
+      description = "Returns the friends of the authenticated user that are online right now.",
+      operationId = "getOnlineFriends")
+  @GetMapping("/friends")
+  public ResponseEntity<GetOnlineUsersResponse> getOnlineFriends(
+      @Parameter(hidden = true) @AuthenticationPrincipal Jwt jwt) {
+    UUID userId = UUID.fromString(jwt.getSubject());
+    logger.info("User {} fetching online friends", userId);
+    return ResponseEntity.ok(new GetOnlineUsersResponse(presenceService.getOnlineFriends(userId)));
+  }
+}
@@ -10,11 +10,13 @@ import java.util.List;
 import java.util.UUID;
 import javax.validation.Valid;
 import org.example.waspapi.dto.requests.privatemessage.SendPrivateMessageRequest;
+import org.example.waspapi.dto.responses.CursorPageResponse;
 import org.example.waspapi.dto.responses.privatemessage.GetConversationResponse;
 import org.example.waspapi.dto.responses.privatemessage.GetPrivateMessageResponse;
 import org.example.waspapi.exceptions.HandledException;
 import org.example.waspapi.model.PrivateMessage;
 import org.example.waspapi.service.PrivateMessageService;
+import org.example.waspapi.service.UserStreamService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
@@ -26,6 +28,7 @@ import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 @RestController
 @Tag(name = "Private Messages", description = "Endpoints for private messaging between friends")
@@ -34,9 +37,12 @@ public class PrivateMessageController {
 
   private static final Logger logger = LoggerFactory.getLogger(PrivateMessageController.class);
   private final PrivateMessageService privateMessageService;
+  private final UserStreamService userStreamService;
 
-  public PrivateMessageController(PrivateMessageService privateMessageService) {
+  public PrivateMessageController(
+      PrivateMessageService privateMessageService, UserStreamService userStreamService) {
     this.privateMessageService = privateMessageService;
+    this.userStreamService = userStreamService;
   }
 
   @Operation(
@@ -106,9 +112,56 @@ public class PrivateMessageController {
     return ResponseEntity.ok(messages);
   }
 
+  @Operation(
+      summary = "Mark a conversation as read",
+      description =
+          "Resets the authenticated user's unread count for the conversation with a friend.",
+      operationId = "markConversationAsRead")
+  @PostMapping("/{friendUserId}/messages/read")
+  public ResponseEntity<Void> markConversationAsRead(
+      @Parameter(hidden = true) @AuthenticationPrincipal Jwt jwt, @PathVariable UUID friendUserId) {
+    UUID userId = UUID.fromString(jwt.getSubject());
+    logger.info("User {} marking conversation with {} as read", userId, friendUserId);
+
+    privateMessageService.markConversationAsRead(userId, friendUserId);
+    return ResponseEntity.noContent().build();
+  }
+
+  @Operation(
+      summary = "Stream private messages",
+      description =
+          "Opens a Server-Sent Events stream that pushes every private message sent or received"
+              + " by the authenticated user as a 'private-message' event once it is stored.",
+      operationId = "streamPrivateMessages")
+  @GetMapping(value = "/messages/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+  public SseEmitter streamMessages(@Parameter(hidden = true) @AuthenticationPrincipal Jwt jwt) {
+    UUID userId = UUID.fromString(jwt.getSubject());
+    logger.info("User {} opening private message stream", userId);
+    return userStreamService.connect(userId);
+  }
+
+  @Operation(
+      summary = "Sync private messages since a cursor",
+      description =
+          "Returns the authenticated user's private messages across all conversations after the"
+              + " given cursor, oldest first. Call without a cursor to get the current position."
+              + " Keep calling with nextCursor while hasMore is true.",
+      operationId = "syncPrivateMessages")
+  @GetMapping("/messages/sync")
+  public ResponseEntity<CursorPageResponse<GetPrivateMessageResponse>> syncMessages(
+      @Parameter(hidden = true) @AuthenticationPrincipal Jwt jwt,
+      @RequestParam(required = false) String cursor,
+      @RequestParam(defaultValue = "100") int limit) {
+    UUID userId = UUID.fromString(jwt.getSubject());
+    logger.info("User {} syncing private messages, limit={}", userId, limit);
+    return ResponseEntity.ok(privateMessageService.sync(userId, cursor, limit));
+  }
+
   @Operation(
       summary = "Get all conversations",
-      description = "Returns a list of all conversations with the latest message preview for each.",
+      description =
+          "Returns a list of all conversations with the latest message preview and the unread"
+              + " count for each, most recent first.",
       operationId = "getConversations")
   @GetMapping("/conversations")
   public ResponseEntity<List<GetConversationResponse>> getConversations(
@@ -121,13 +174,6 @@ public class PrivateMessageController {
   }
 
   private GetPrivateMessageResponse toResponse(PrivateMessage message) {
-    return new GetPrivateMessageResponse(
-        message.getId(),
-        message.getContent(),
-        privateMessageService.resolveImageUrl(message.getImageUrl()),
-        message.getCreatedAt(),
-        message.getSender().getId(),
-        message.getSender().getNickname(),
-        message.getSender().getProfilePhoto());
+    return privateMessageService.toResponse(message);
   }
 }
@@ -3,20 +3,26 @@ package org.example.waspapi.controller;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 import java.util.stream.Collectors;
 import javax.validation.Valid;
 import org.example.waspapi.dto.requests.session.CreateSessionRequest;
 import org.example.waspapi.dto.requests.session.UpdateSessionRequest;
+import org.example.waspapi.dto.responses.session.GetAttendanceMatrixResponse;
+import org.example.waspapi.dto.responses.session.GetCandidateSlotsResponse;
 import org.example.waspapi.dto.responses.session.GetSessionAttendanceResponse;
 import org.example.waspapi.dto.responses.session.GetSessionResponse;
 import org.example.waspapi.model.Session;
 import org.example.waspapi.model.SessionAttendance;
+import org.example.waspapi.service.AvailabilityService;
 import org.example.waspapi.service.SessionService;
 import org.example.waspapi.service.SubscriptionService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
@@ -31,10 +37,15 @@ public class SessionController {
   private static final Logger logger = LoggerFactory.getLogger(SessionController.class);
   private final SessionService sessionService;
   private final SubscriptionService subscriptionService;
+  private final AvailabilityService availabilityService;
 
-  public SessionController(SessionService sessionService, SubscriptionService subscriptionService) {
+  public SessionController(
+      SessionService sessionService,
+      SubscriptionService subscriptionService,
+      AvailabilityService availabilityService) {
     this.sessionService = sessionService;
     this.subscriptionService = subscriptionService;
+    this.availabilityService = availabilityService;
   }
 
   @Operation(
@@ -69,10 +80,7 @@ public class SessionController {
       return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
     }
 
-    List<GetSessionResponse> sessions =
-        sessionService.getByGameId(gameId).stream()
-            .map(this::toResponse)
-            .collect(Collectors.toList());
+    List<GetSessionResponse> sessions = toResponses(sessionService.getByGameId(gameId));
     return ResponseEntity.ok(sessions);
   }
 
@@ -216,17 +224,85 @@ public class SessionController {
     return ResponseEntity.ok(attendees);
   }
 
+  @Operation(
+      summary = "Get the attendance matrix of a game",
+      description =
+          "Returns the game's active players, with their attendance rates, and for each session"
+              + " from one day to another (both included, at most 366 days) the indexes of the"
+              + " players who confirmed and who declined. Players not listed are pending. Requires"
+              + " subscription.",
+      operationId = "getAttendanceMatrix")
+  @GetMapping("/attendance-matrix")
+  public ResponseEntity<GetAttendanceMatrixResponse> getAttendanceMatrix(
+      @Parameter(hidden = true) @AuthenticationPrincipal Jwt jwt,
+      @PathVariable UUID gameId,
+      @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+      @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+    UUID userId = UUID.fromString(jwt.getSubject());
+    logger.info("User {} fetching attendance matrix for game {}", userId, gameId);
+    if (!subscriptionService.isSubscribed(userId, gameId)) {
+      return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+    }
+
+    return ResponseEntity.ok(sessionService.getAttendanceMatrix(gameId, from, to));
+  }
+
+  @Operation(
+      summary = "Find times for a session",
+      description =
+          "Returns the best starts, in the week of the given day (this week by default), for a"
+              + " session of the given length. Ranked by how many active players declared"
+              + " themselves available and are not busy with another session then. Requires"
+              + " subscription.",
+      operationId = "getCandidateSlots")
+  @GetMapping("/candidate-slots")
+  public ResponseEntity<GetCandidateSlotsResponse> getCandidateSlots(
+      @Parameter(hidden = true) @AuthenticationPrincipal Jwt jwt,
+      @PathVariable UUID gameId,
+      @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate week,
+      @RequestParam(defaultValue = "180") int durationMinutes,
+      @RequestParam(defaultValue = "5") int limit) {
+    UUID userId = UUID.fromString(jwt.getSubject());
+    logger.info("User {} looking for session times for game {}", userId, gameId);
+    if (!subscriptionService.isSubscribed(userId, gameId)) {
+      return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+    }
+
+    return ResponseEntity.ok(
+        availabilityService.findCandidateSlots(
+            gameId, week == null ? LocalDate.now() : week, durationMinutes, limit));
+  }
+
+  private List<GetSessionResponse> toResponses(List<Session> sessions) {
+    Map<UUID, Long> confirmed =
+        sessionService.countConfirmed(
+            sessions.stream().map(Session::getId).collect(Collectors.toList()));
+    return sessions.stream()
+        .map(session -> toResponse(session, confirmed.get(session.getId())))
+        .collect(Collectors.toList());
+  }
+
   private GetSessionResponse toResponse(Session session) {
-    return new GetSessionResponse(
-        session.getId(),
-        session.getName(),
-        session.getIsPresential(),
-        session.getDatetime(),
-        session.getPlace(),
-        session.getObservations(),
-        session.getGame().getId(),
-        session.getGame().getName(),
-        sessionService.countConfirmed(session.getId()));
+    return toResponse(session, sessionService.countConfirmed(session.getId()));
+  }
+
+  private GetSessionResponse toResponse(Session session, long confirmed) {
+    GetSessionResponse response =
+        new GetSessionResponse(
+            session.getId(),
+            session.getName(),
+            session.getIsPresential(),
+            session.getDatetime(),
+            session.getPlace(),
+            session.getObservations(),
+            session.getGame().getId(),
+            session.getGame().getName(),
+            confirmed);
+    if (session.getSeries() != null) {
+      response.setSeriesId(session.getSeries().getId());
+      response.setOccurrenceDatetime(session.getOccurrenceDatetime());
+    }
+    return response;
   }
 
   private GetSessionAttendanceResponse toAttendanceResponse(SessionAttendance attendance) {
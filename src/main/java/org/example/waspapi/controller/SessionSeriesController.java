@@ -0,0 +1,184 @@
+package org.example.waspapi.controller;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import javax.validation.Valid;
+import org.example.waspapi.dto.requests.session.CreateSessionSeriesRequest;
+import org.example.waspapi.dto.responses.session.GetSessionResponse;
+import org.example.waspapi.dto.responses.session.GetSessionSeriesResponse;
+import org.example.waspapi.model.Session;
+import org.example.waspapi.model.SessionSeries;
+import org.example.waspapi.service.SessionSeriesService;
+import org.example.waspapi.service.SessionService;
+import org.example.waspapi.service.SubscriptionService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@Tag(name = "Sessions", description = "Endpoints for managing sessions within a game")
+@RequestMapping("/games/{gameId}/series")
+public class SessionSeriesController {
+
+  private static final Logger logger = LoggerFactory.getLogger(SessionSeriesController.class);
+  private final SessionSeriesService seriesService;
+  private final SessionService sessionService;
+  private final SubscriptionService subscriptionService;
+
+  public SessionSeriesController(
+      SessionSeriesService seriesService,
+      SessionService sessionService,
+      SubscriptionService subscriptionService) {
+    this.seriesService = seriesService;
+    this.sessionService = sessionService;
+    this.subscriptionService = subscriptionService;
+  }
+
+  @Operation(
+      summary = "Create a session series",
+      description =
+          "Creates sessions that repeat by a recurrence rule (FREQ=DAILY, WEEKLY or MONTHLY, with"
+              + " optional INTERVAL, BYDAY for weekly rules, and COUNT or UNTIL). Occurrences show"
+              + " up in calendars without being stored one by one. Requires admin privileges.",
+      operationId = "createSessionSeries")
+  @PostMapping
+  public ResponseEntity<GetSessionSeriesResponse> createSeries(
+      @Parameter(hidden = true) @AuthenticationPrincipal Jwt jwt,
+      @PathVariable UUID gameId,
+      @Valid @RequestBody CreateSessionSeriesRequest request) {
+    UUID userId = UUID.fromString(jwt.getSubject());
+    logger.info("User {} creating session series for game {}", userId, gameId);
+    if (!subscriptionService.isAdmin(userId, gameId)) {
+      return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+    }
+
+    SessionSeries series = seriesService.create(request, gameId);
+    return ResponseEntity.ok(toResponse(series, gameId));
+  }
+
+  @Operation(
+      summary = "List session series of a game",
+      description = "Returns the session series of the specified game. Requires subscription.",
+      operationId = "getSessionSeriesByGame")
+  @GetMapping
+  public ResponseEntity<List<GetSessionSeriesResponse>> getSeriesByGame(
+      @Parameter(hidden = true) @AuthenticationPrincipal Jwt jwt, @PathVariable UUID gameId) {
+    UUID userId = UUID.fromString(jwt.getSubject());
+    logger.info("User {} listing session series for game {}", userId, gameId);
+    if (!subscriptionService.isSubscribed(userId, gameId)) {
+      return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+    }
+
+    List<GetSessionSeriesResponse> series =
+        seriesService.getByGameId(gameId).stream()
+            .map(s -> toResponse(s, gameId))
+            .collect(Collectors.toList());
+    return ResponseEntity.ok(series);
+  }
+
+  @Operation(
+      summary = "Delete a session series",
+      description =
+          "Deletes a session series and its upcoming occurrences. Occurrences already stored as"
+              + " sessions are kept as standalone sessions. Requires admin privileges.",
+      operationId = "deleteSessionSeries")
+  @DeleteMapping("/{seriesId}")
+  public ResponseEntity<Void> deleteSeries(
+      @Parameter(hidden = true) @AuthenticationPrincipal Jwt jwt,
+      @PathVariable UUID gameId,
+      @PathVariable UUID seriesId) {
+    UUID userId = UUID.fromString(jwt.getSubject());
+    logger.info("User {} deleting session series {} for game {}", userId, seriesId, gameId);
+    if (!subscriptionService.isAdmin(userId, gameId)) {
+      return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+    }
+
+    seriesService.delete(gameId, seriesId);
+    return ResponseEntity.noContent().build();
+  }
+
+  @Operation(
+      summary = "Get an occurrence as a session",
+      description =
+          "Returns the session of the occurrence starting at the given time, storing it first if"
+              + " needed. Its id can then be used with the session endpoints to move or edit it,"
+              + " or to answer attendance. Requires subscription.",
+      operationId = "materializeOccurrence")
+  @PostMapping("/{seriesId}/occurrences")
+  public ResponseEntity<GetSessionResponse> materializeOccurrence(
+      @Parameter(hidden = true) @AuthenticationPrincipal Jwt jwt,
+      @PathVariable UUID gameId,
+      @PathVariable UUID seriesId,
+      @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime at) {
+    UUID userId = UUID.fromString(jwt.getSubject());
+    logger.info("User {} opening occurrence {} of series {}", userId, at, seriesId);
+    if (!subscriptionService.isSubscribed(userId, gameId)) {
+      return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+    }
+
+    Session session = seriesService.materialize(gameId, seriesId, at);
+    return ResponseEntity.ok(toResponse(session));
+  }
+
+  @Operation(
+      summary = "Cancel an occurrence",
+      description =
+          "Cancels the occurrence of the series starting at the given time. Requires admin"
+              + " privileges.",
+      operationId = "cancelOccurrence")
+  @DeleteMapping("/{seriesId}/occurrences")
+  public ResponseEntity<Void> cancelOccurrence(
+      @Parameter(hidden = true) @AuthenticationPrincipal Jwt jwt,
+      @PathVariable UUID gameId,
+      @PathVariable UUID seriesId,
+      @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime at) {
+    UUID userId = UUID.fromString(jwt.getSubject());
+    logger.info("User {} cancelling occurrence {} of series {}", userId, at, seriesId);
+    if (!subscriptionService.isAdmin(userId, gameId)) {
+      return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+    }
+
+    seriesService.cancelOccurrence(gameId, seriesId, at);
+    return ResponseEntity.noContent().build();
+  }
+
+  private GetSessionSeriesResponse toResponse(SessionSeries series, UUID gameId) {
+    return new GetSessionSeriesResponse(
+        series.getId(),
+        series.getName(),
+        series.getIsPresential(),
+        series.getStartDatetime(),
+        series.getRrule(),
+        series.getUntilDatetime(),
+        series.getPlace(),
+        series.getObservations(),
+        gameId);
+  }
+
+  private GetSessionResponse toResponse(Session session) {
+    GetSessionResponse response =
+        new GetSessionResponse(
+            session.getId(),
+            session.getName(),
+            session.getIsPresential(),
+            session.getDatetime(),
+            session.getPlace(),
+            session.getObservations(),
+            session.getGame().getId(),
+            session.getGame().getName(),
+            sessionService.countConfirmed(session.getId()));
+    response.setSeriesId(session.getSeries().getId());
+    response.setOccurrenceDatetime(session.getOccurrenceDatetime());
+    return response;
+  }
+}
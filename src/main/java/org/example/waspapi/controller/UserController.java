@@ -8,9 +8,12 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import java.util.UUID;
 import javax.validation.Valid;
 import org.example.waspapi.dto.requests.users.RegisterUserRequest;
+import org.example.waspapi.dto.requests.users.UpdateAvailabilityRequest;
 import org.example.waspapi.dto.requests.users.UpdateUserRequest;
+import org.example.waspapi.dto.responses.users.GetAvailabilityResponse;
 import org.example.waspapi.dto.responses.users.GetUserResponse;
 import org.example.waspapi.model.User;
+import org.example.waspapi.service.AvailabilityService;
 import org.example.waspapi.service.SupabaseAuthService;
 import org.example.waspapi.service.UserService;
 import org.slf4j.Logger;
@@ -28,10 +31,15 @@ public class UserController {
   private static final Logger logger = LoggerFactory.getLogger(UserController.class);
   private final UserService userService;
   private final SupabaseAuthService supabaseAuthService;
+  private final AvailabilityService availabilityService;
 
-  public UserController(UserService userService, SupabaseAuthService supabaseAuthService) {
+  public UserController(
+      UserService userService,
+      SupabaseAuthService supabaseAuthService,
+      AvailabilityService availabilityService) {
     this.userService = userService;
     this.supabaseAuthService = supabaseAuthService;
+    this.availabilityService = availabilityService;
   }
 
   @Operation(
@@ -110,6 +118,35 @@ public class UserController {
     return ResponseEntity.ok(user);
   }
 
+  @Operation(
+      summary = "Get my weekly availability",
+      description =
+          "Returns the authenticated user's usual weekly availability as ranges per day, in"
+              + " 15-minute slots. Used to find times for sessions.",
+      operationId = "getMyAvailability")
+  @GetMapping("/me/availability")
+  public ResponseEntity<GetAvailabilityResponse> getMyAvailability(
+      @Parameter(hidden = true) @AuthenticationPrincipal Jwt jwt) {
+    UUID userId = UUID.fromString(jwt.getSubject());
+    logger.info("Fetching availability of user {}", userId);
+    return ResponseEntity.ok(availabilityService.getAvailability(userId));
+  }
+
+  @Operation(
+      summary = "Set my weekly availability",
+      description =
+          "Replaces the authenticated user's usual weekly availability. Times must be on 15-minute"
+              + " boundaries; an end of 00:00 means the end of the day.",
+      operationId = "updateMyAvailability")
+  @PutMapping("/me/availability")
+  public ResponseEntity<GetAvailabilityResponse> updateMyAvailability(
+      @Parameter(hidden = true) @AuthenticationPrincipal Jwt jwt,
+      @Valid @RequestBody UpdateAvailabilityRequest request) {
+    UUID userId = UUID.fromString(jwt.getSubject());
+    logger.info("Updating availability of user {}", userId);
+    return ResponseEntity.ok(availabilityService.updateAvailability(userId, request));
+  }
+
   @Operation(
       summary = "Get user by nickname",
       description = "Endpoint to retrieve a user's ID and profile photo by their nickname.",
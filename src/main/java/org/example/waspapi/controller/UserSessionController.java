@@ -5,9 +5,9 @@ import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import java.util.List;
 import java.util.UUID;
-import java.util.stream.Collectors;
+import org.example.waspapi.dto.responses.session.GetCalendarFeedResponse;
 import org.example.waspapi.dto.responses.session.GetSessionResponse;
-import org.example.waspapi.model.Session;
+import org.example.waspapi.service.CalendarFeedService;
 import org.example.waspapi.service.SessionService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -23,15 +23,19 @@ public class UserSessionController {
 
   private static final Logger logger = LoggerFactory.getLogger(UserSessionController.class);
   private final SessionService sessionService;
+  private final CalendarFeedService calendarFeedService;
 
-  public UserSessionController(SessionService sessionService) {
+  public UserSessionController(
+      SessionService sessionService, CalendarFeedService calendarFeedService) {
     this.sessionService = sessionService;
+    this.calendarFeedService = calendarFeedService;
   }
 
   @Operation(
       summary = "Get my sessions by month",
       description =
-          "Returns all sessions for the authenticated user's games in the specified month.",
+          "Returns all sessions for the authenticated user's games in the specified month, with"
+              + " the confirmed count and the user's own attendance (myAttendance).",
       operationId = "getMySessions")
   @GetMapping("/me")
   public ResponseEntity<List<GetSessionResponse>> getMySessions(
@@ -40,24 +44,21 @@ public class UserSessionController {
       @RequestParam int month) {
     UUID userId = UUID.fromString(jwt.getSubject());
     logger.info("User {} fetching sessions for {}-{}", userId, year, month);
-
-    List<GetSessionResponse> sessions =
-        sessionService.getByUserAndMonth(userId, year, month).stream()
-            .map(this::toResponse)
-            .collect(Collectors.toList());
-    return ResponseEntity.ok(sessions);
+    return ResponseEntity.ok(sessionService.getCalendar(userId, year, month));
   }
 
-  private GetSessionResponse toResponse(Session session) {
-    return new GetSessionResponse(
-        session.getId(),
-        session.getName(),
-        session.getIsPresential(),
-        session.getDatetime(),
-        session.getPlace(),
-        session.getObservations(),
-        session.getGame().getId(),
-        session.getGame().getName(),
-        sessionService.countConfirmed(session.getId()));
+  @Operation(
+      summary = "Create my calendar feed",
+      description =
+          "Issues a secret URL path serving the authenticated user's sessions as an iCalendar feed."
+              + " Calling it again replaces the token, so the previous URL stops working.",
+      operationId = "createCalendarFeed")
+  @PostMapping("/me/calendar-feed")
+  public ResponseEntity<GetCalendarFeedResponse> createCalendarFeed(
+      @Parameter(hidden = true) @AuthenticationPrincipal Jwt jwt) {
+    UUID userId = UUID.fromString(jwt.getSubject());
+    logger.info("User {} creating a calendar feed", userId);
+    String token = calendarFeedService.rotateToken(userId);
+    return ResponseEntity.ok(new GetCalendarFeedResponse(token, "/calendar/" + token + ".ics"));
   }
 }
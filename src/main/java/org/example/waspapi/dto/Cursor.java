@@ -0,0 +1,66 @@
+package org.example.waspapi.dto;
+
+import static org.example.waspapi.Constants.INVALID_CURSOR;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.UUID;
+import org.example.waspapi.exceptions.HandledException;
+import org.springframework.http.HttpStatus;
+
+/**
+ * Opaque keyset cursor: the sort key of the last row a client has seen plus its id as tie-breaker.
+ *
+ * <p>Encoded as URL-safe base64 so clients treat it as a token rather than something to build.
+ */
+public final class Cursor {
+
+  private static final char SEPARATOR = '\n';
+
+  private final String sortKey;
+  private final UUID id;
+
+  public Cursor(String sortKey, UUID id) {
+    this.sortKey = sortKey;
+    this.id = id;
+  }
+
+  public static Cursor of(Instant instant, UUID id) {
+    return new Cursor(instant.toString(), id);
+  }
+
+  public static Cursor decode(String encoded) {
+    try {
+      String raw = new String(Base64.getUrlDecoder().decode(encoded), StandardCharsets.UTF_8);
+      int separator = raw.lastIndexOf(SEPARATOR);
+      return new Cursor(raw.substring(0, separator), UUID.fromString(raw.substring(separator + 1)));
+    } catch (IllegalArgumentException | StringIndexOutOfBoundsException e) {
+      throw new HandledException(INVALID_CURSOR, HttpStatus.BAD_REQUEST);
+    }
+  }
+
+  public String encode() {
+    String raw = sortKey + SEPARATOR + id;
+    return Base64.getUrlEncoder()
+        .withoutPadding()
+        .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+  }
+
+  public String getSortKey() {
+    return sortKey;
+  }
+
+  public Instant getSortKeyAsInstant() {
+    try {
+      return Instant.parse(sortKey);
+    } catch (DateTimeParseException e) {
+      throw new HandledException(INVALID_CURSOR, HttpStatus.BAD_REQUEST);
+    }
+  }
+
+  public UUID getId() {
+    return id;
+  }
+}
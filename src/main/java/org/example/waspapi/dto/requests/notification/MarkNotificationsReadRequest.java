@@ -0,0 +1,47 @@
+package org.example.waspapi.dto.requests.notification;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Selects the notifications to mark as read: either {@code ids}, {@code type} or {@code before}.
+ */
+public class MarkNotificationsReadRequest {
+
+  private List<UUID> ids;
+  private String type;
+  private Instant before;
+
+  public MarkNotificationsReadRequest() {}
+
+  public MarkNotificationsReadRequest(List<UUID> ids, String type, Instant before) {
+    this.ids = ids;
+    this.type = type;
+    this.before = before;
+  }
+
+  public List<UUID> getIds() {
+    return ids;
+  }
+
+  public void setIds(List<UUID> ids) {
+    this.ids = ids;
+  }
+
+  public String getType() {
+    return type;
+  }
+
+  public void setType(String type) {
+    this.type = type;
+  }
+
+  public Instant getBefore() {
+    return before;
+  }
+
+  public void setBefore(Instant before) {
+    this.before = before;
+  }
+}
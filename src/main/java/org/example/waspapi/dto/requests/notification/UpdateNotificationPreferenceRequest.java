@@ -0,0 +1,20 @@
+package org.example.waspapi.dto.requests.notification;
+
+public class UpdateNotificationPreferenceRequest {
+
+  private String mode;
+
+  public UpdateNotificationPreferenceRequest() {}
+
+  public UpdateNotificationPreferenceRequest(String mode) {
+    this.mode = mode;
+  }
+
+  public String getMode() {
+    return mode;
+  }
+
+  public void setMode(String mode) {
+    this.mode = mode;
+  }
+}
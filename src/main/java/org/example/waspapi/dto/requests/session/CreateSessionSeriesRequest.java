@@ -0,0 +1,87 @@
+package org.example.waspapi.dto.requests.session;
+
+import java.time.LocalDateTime;
+import javax.validation.constraints.NotBlank;
+import javax.validation.constraints.NotNull;
+
+public class CreateSessionSeriesRequest {
+
+  private String name;
+
+  private Boolean isPresential;
+
+  /** Start of the first occurrence. */
+  @NotNull private LocalDateTime startDatetime;
+
+  /** Recurrence rule, e.g. {@code FREQ=WEEKLY;INTERVAL=2;BYDAY=FR;COUNT=10}. */
+  @NotBlank private String rrule;
+
+  private String place;
+
+  private String observations;
+
+  public CreateSessionSeriesRequest() {}
+
+  public CreateSessionSeriesRequest(
+      String name,
+      Boolean isPresential,
+      LocalDateTime startDatetime,
+      String rrule,
+      String place,
+      String observations) {
+    this.name = name;
+    this.isPresential = isPresential;
+    this.startDatetime = startDatetime;
+    this.rrule = rrule;
+    this.place = place;
+    this.observations = observations;
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public void setName(String name) {
+    this.name = name;
+  }
+
+  public Boolean getIsPresential() {
+    return isPresential;
+  }
+
+  public void setIsPresential(Boolean isPresential) {
+    this.isPresential = isPresential;
+  }
+
+  public LocalDateTime getStartDatetime() {
+    return startDatetime;
+  }
+
+  public void setStartDatetime(LocalDateTime startDatetime) {
+    this.startDatetime = startDatetime;
+  }
+
+  public String getRrule() {
+    return rrule;
+  }
+
+  public void setRrule(String rrule) {
+    this.rrule = rrule;
+  }
+
+  public String getPlace() {
+    return place;
+  }
+
+  public void setPlace(String place) {
+    this.place = place;
+  }
+
+  public String getObservations() {
+    return observations;
+  }
+
+  public void setObservations(String observations) {
+    this.observations = observations;
+  }
+}
@@ -0,0 +1,67 @@
+package org.example.waspapi.dto.requests.users;
+
+import java.time.DayOfWeek;
+import java.time.LocalTime;
+import java.util.List;
+import javax.validation.Valid;
+import javax.validation.constraints.NotNull;
+
+public class UpdateAvailabilityRequest {
+
+  /** The whole weekly availability; it replaces the previous one. */
+  @NotNull @Valid private List<Range> ranges;
+
+  public UpdateAvailabilityRequest() {}
+
+  public UpdateAvailabilityRequest(List<Range> ranges) {
+    this.ranges = ranges;
+  }
+
+  public List<Range> getRanges() {
+    return ranges;
+  }
+
+  public void setRanges(List<Range> ranges) {
+    this.ranges = ranges;
+  }
+
+  /** Times on 15-minute boundaries; an end of 00:00 means the end of the day. */
+  public static class Range {
+
+    @NotNull private DayOfWeek day;
+    @NotNull private LocalTime start;
+    @NotNull private LocalTime end;
+
+    public Range() {}
+
+    public Range(DayOfWeek day, LocalTime start, LocalTime end) {
+      this.day = day;
+      this.start = start;
+      this.end = end;
+    }
+
+    public DayOfWeek getDay() {
+      return day;
+    }
+
+    public void setDay(DayOfWeek day) {
+      this.day = day;
+    }
+
+    public LocalTime getStart() {
+      return start;
+    }
+
+    public void setStart(LocalTime start) {
+      this.start = start;
+    }
+
+    public LocalTime getEnd() {
+      return end;
+    }
+
+    public void setEnd(LocalTime end) {
+      this.end = end;
+    }
+  }
+}
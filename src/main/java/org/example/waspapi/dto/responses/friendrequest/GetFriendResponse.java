@@ -0,0 +1,42 @@
+package org.example.waspapi.dto.responses.friendrequest;
+
+import java.util.UUID;
+
+public class GetFriendResponse {
+
+  private UUID userId;
+  private String nickname;
+  private String profilePhoto;
+
+  public GetFriendResponse() {}
+
+  public GetFriendResponse(UUID userId, String nickname, String profilePhoto) {
+    this.userId = userId;
+    this.nickname = nickname;
+    this.profilePhoto = profilePhoto;
+  }
+
+  public UUID getUserId() {
+    return userId;
+  }
+
+  public void setUserId(UUID userId) {
+    this.userId = userId;
+  }
+
+  public String getNickname() {
+    return nickname;
+  }
+
+  public void setNickname(String nickname) {
+    this.nickname = nickname;
+  }
+
+  public String getProfilePhoto() {
+    return profilePhoto;
+  }
+
+  public void setProfilePhoto(String profilePhoto) {
+    this.profilePhoto = profilePhoto;
+  }
+}
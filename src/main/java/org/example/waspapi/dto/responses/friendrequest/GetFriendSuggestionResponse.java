@@ -0,0 +1,63 @@
+package org.example.waspapi.dto.responses.friendrequest;
+
+import java.util.UUID;
+
+public class GetFriendSuggestionResponse {
+
+  private UUID userId;
+  private String nickname;
+  private String profilePhoto;
+  private int mutualFriends;
+  private int sharedGames;
+
+  public GetFriendSuggestionResponse() {}
+
+  public GetFriendSuggestionResponse(
+      UUID userId, String nickname, String profilePhoto, int mutualFriends, int sharedGames) {
+    this.userId = userId;
+    this.nickname = nickname;
+    this.profilePhoto = profilePhoto;
+    this.mutualFriends = mutualFriends;
+    this.sharedGames = sharedGames;
+  }
+
+  public UUID getUserId() {
+    return userId;
+  }
+
+  public void setUserId(UUID userId) {
+    this.userId = userId;
+  }
+
+  public String getNickname() {
+    return nickname;
+  }
+
+  public void setNickname(String nickname) {
+    this.nickname = nickname;
+  }
+
+  public String getProfilePhoto() {
+    return profilePhoto;
+  }
+
+  public void setProfilePhoto(String profilePhoto) {
+    this.profilePhoto = profilePhoto;
+  }
+
+  public int getMutualFriends() {
+    return mutualFriends;
+  }
+
+  public void setMutualFriends(int mutualFriends) {
+    this.mutualFriends = mutualFriends;
+  }
+
+  public int getSharedGames() {
+    return sharedGames;
+  }
+
+  public void setSharedGames(int sharedGames) {
+    this.sharedGames = sharedGames;
+  }
+}
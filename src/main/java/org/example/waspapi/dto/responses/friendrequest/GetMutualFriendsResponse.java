@@ -0,0 +1,32 @@
+package org.example.waspapi.dto.responses.friendrequest;
+
+import java.util.UUID;
+
+public class GetMutualFriendsResponse {
+
+  private UUID userId;
+  private int mutualFriends;
+
+  public GetMutualFriendsResponse() {}
+
+  public GetMutualFriendsResponse(UUID userId, int mutualFriends) {
+    this.userId = userId;
+    this.mutualFriends = mutualFriends;
+  }
+
+  public UUID getUserId() {
+    return userId;
+  }
+
+  public void setUserId(UUID userId) {
+    this.userId = userId;
+  }
+
+  public int getMutualFriends() {
+    return mutualFriends;
+  }
+
+  public void setMutualFriends(int mutualFriends) {
+    this.mutualFriends = mutualFriends;
+  }
+}
@@ -0,0 +1,42 @@
+package org.example.waspapi.dto.responses.notification;
+
+import java.util.UUID;
+
+public class GetNotificationPreferenceResponse {
+
+  private UUID gameId;
+  private String type;
+  private String mode;
+
+  public GetNotificationPreferenceResponse() {}
+
+  public GetNotificationPreferenceResponse(UUID gameId, String type, String mode) {
+    this.gameId = gameId;
+    this.type = type;
+    this.mode = mode;
+  }
+
+  public UUID getGameId() {
+    return gameId;
+  }
+
+  public void setGameId(UUID gameId) {
+    this.gameId = gameId;
+  }
+
+  public String getType() {
+    return type;
+  }
+
+  public void setType(String type) {
+    this.type = type;
+  }
+
+  public String getMode() {
+    return mode;
+  }
+
+  public void setMode(String mode) {
+    this.mode = mode;
+  }
+}
@@ -0,0 +1,106 @@
+package org.example.waspapi.dto.responses.notification;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Summary of what a notification points to. Only the fields that apply to the notification type are
+ * set: the session name and date for sessions, the game for game related types, the other user for
+ * requests and private messages, and the request status.
+ */
+public class GetNotificationReferenceResponse {
+
+  private String name;
+  private LocalDateTime datetime;
+  private UUID gameId;
+  private String gameName;
+  private UUID userId;
+  private String nickname;
+  private String profilePhoto;
+  private String status;
+
+  public GetNotificationReferenceResponse() {}
+
+  public GetNotificationReferenceResponse(
+      String name,
+      LocalDateTime datetime,
+      UUID gameId,
+      String gameName,
+      UUID userId,
+      String nickname,
+      String profilePhoto,
+      String status) {
+    this.name = name;
+    this.datetime = datetime;
+    this.gameId = gameId;
+    this.gameName = gameName;
+    this.userId = userId;
+    this.nickname = nickname;
+    this.profilePhoto = profilePhoto;
+    this.status = status;
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public void setName(String name) {
+    this.name = name;
+  }
+
+  public LocalDateTime getDatetime() {
+    return datetime;
+  }
+
+  public void setDatetime(LocalDateTime datetime) {
+    this.datetime = datetime;
+  }
+
+  public UUID getGameId() {
+    return gameId;
+  }
+
+  public void setGameId(UUID gameId) {
+    this.gameId = gameId;
+  }
+
+  public String getGameName() {
+    return gameName;
+  }
+
+  public void setGameName(String gameName) {
+    this.gameName = gameName;
+  }
+
+  public UUID getUserId() {
+    return userId;
+  }
+
+  public void setUserId(UUID userId) {
+    this.userId = userId;
+  }
+
+  public String getNickname() {
+    return nickname;
+  }
+
+  public void setNickname(String nickname) {
+    this.nickname = nickname;
+  }
+
+  public String getProfilePhoto() {
+    return profilePhoto;
+  }
+
+  public void setProfilePhoto(String profilePhoto) {
+    this.profilePhoto = profilePhoto;
+  }
+
+  public String getStatus() {
+    return status;
+  }
+
+  public void setStatus(String status) {
+    this.status = status;
+  }
+}
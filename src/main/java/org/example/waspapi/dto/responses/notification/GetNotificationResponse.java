@@ -1,5 +1,6 @@
 package org.example.waspapi.dto.responses.notification;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import java.time.Instant;
 import java.util.UUID;
 
@@ -10,16 +11,33 @@ public class GetNotificationResponse {
   private UUID referenceId;
   private Boolean isRead;
   private Instant createdAt;
+  private int aggregateCount;
+  private UUID latestActorId;
+  private Instant updatedAt;
+
+  /** Set only when the feed is requested hydrated. */
+  @JsonInclude(JsonInclude.Include.NON_NULL)
+  private GetNotificationReferenceResponse reference;
 
   public GetNotificationResponse() {}
 
   public GetNotificationResponse(
-      UUID id, String type, UUID referenceId, Boolean isRead, Instant createdAt) {
+      UUID id,
+      String type,
+      UUID referenceId,
+      Boolean isRead,
+      Instant createdAt,
+      int aggregateCount,
+      UUID latestActorId,
+      Instant updatedAt) {
     this.id = id;
     this.type = type;
     this.referenceId = referenceId;
     this.isRead = isRead;
     this.createdAt = createdAt;
+    this.aggregateCount = aggregateCount;
+    this.latestActorId = latestActorId;
+    this.updatedAt = updatedAt;
   }
 
   public UUID getId() {
@@ -61,4 +79,36 @@ public class GetNotificationResponse {
   public void setCreatedAt(Instant createdAt) {
     this.createdAt = createdAt;
   }
+
+  public int getAggregateCount() {
+    return aggregateCount;
+  }
+
+  public void setAggregateCount(int aggregateCount) {
+    this.aggregateCount = aggregateCount;
+  }
+
+  public UUID getLatestActorId() {
+    return latestActorId;
+  }
+
+  public void setLatestActorId(UUID latestActorId) {
+    this.latestActorId = latestActorId;
+  }
+
+  public Instant getUpdatedAt() {
+    return updatedAt;
+  }
+
+  public void setUpdatedAt(Instant updatedAt) {
+    this.updatedAt = updatedAt;
+  }
+
+  public GetNotificationReferenceResponse getReference() {
+    return reference;
+  }
+
+  public void setReference(GetNotificationReferenceResponse reference) {
+    this.reference = reference;
+  }
 }
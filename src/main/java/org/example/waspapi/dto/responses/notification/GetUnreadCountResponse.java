@@ -0,0 +1,20 @@
+package org.example.waspapi.dto.responses.notification;
+
+public class GetUnreadCountResponse {
+
+  private long unreadCount;
+
+  public GetUnreadCountResponse() {}
+
+  public GetUnreadCountResponse(long unreadCount) {
+    this.unreadCount = unreadCount;
+  }
+
+  public long getUnreadCount() {
+    return unreadCount;
+  }
+
+  public void setUnreadCount(long unreadCount) {
+    this.unreadCount = unreadCount;
+  }
+}
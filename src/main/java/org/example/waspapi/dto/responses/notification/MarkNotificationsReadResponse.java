@@ -0,0 +1,30 @@
+package org.example.waspapi.dto.responses.notification;
+
+public class MarkNotificationsReadResponse {
+
+  private int updated;
+  private long unreadCount;
+
+  public MarkNotificationsReadResponse() {}
+
+  public MarkNotificationsReadResponse(int updated, long unreadCount) {
+    this.updated = updated;
+    this.unreadCount = unreadCount;
+  }
+
+  public int getUpdated() {
+    return updated;
+  }
+
+  public void setUpdated(int updated) {
+    this.updated = updated;
+  }
+
+  public long getUnreadCount() {
+    return unreadCount;
+  }
+
+  public void setUnreadCount(long unreadCount) {
+    this.unreadCount = unreadCount;
+  }
+}
@@ -0,0 +1,32 @@
+package org.example.waspapi.dto.responses.notification;
+
+import java.util.List;
+
+public class NotificationPollResponse {
+
+  private List<GetNotificationResponse> notifications;
+  private long unreadCount;
+
+  public NotificationPollResponse() {}
+
+  public NotificationPollResponse(List<GetNotificationResponse> notifications, long unreadCount) {
+    this.notifications = notifications;
+    this.unreadCount = unreadCount;
+  }
+
+  public List<GetNotificationResponse> getNotifications() {
+    return notifications;
+  }
+
+  public void setNotifications(List<GetNotificationResponse> notifications) {
+    this.notifications = notifications;
+  }
+
+  public long getUnreadCount() {
+    return unreadCount;
+  }
+
+  public void setUnreadCount(long unreadCount) {
+    this.unreadCount = unreadCount;
+  }
+}
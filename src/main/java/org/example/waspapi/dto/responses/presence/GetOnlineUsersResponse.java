@@ -0,0 +1,33 @@
+package org.example.waspapi.dto.responses.presence;
+
+import java.util.List;
+import java.util.UUID;
+
+public class GetOnlineUsersResponse {
+
+  private List<UUID> userIds;
+  private int onlineCount;
+
+  public GetOnlineUsersResponse() {}
+
+  public GetOnlineUsersResponse(List<UUID> userIds) {
+    this.userIds = userIds;
+    this.onlineCount = userIds.size();
+  }
+
+  public List<UUID> getUserIds() {
+    return userIds;
+  }
+
+  public void setUserIds(List<UUID> userIds) {
+    this.userIds = userIds;
+  }
+
+  public int getOnlineCount() {
+    return onlineCount;
+  }
+
+  public void setOnlineCount(int onlineCount) {
+    this.onlineCount = onlineCount;
+  }
+}
@@ -11,6 +11,7 @@ public class GetConversationResponse {
   private String lastMessageContent;
   private Instant lastMessageCreatedAt;
   private UUID lastMessageSenderUserId;
+  private int unreadCount;
 
   public GetConversationResponse() {}
 
@@ -20,13 +21,15 @@ public class GetConversationResponse {
       String friendProfilePhoto,
       String lastMessageContent,
       Instant lastMessageCreatedAt,
-      UUID lastMessageSenderUserId) {
+      UUID lastMessageSenderUserId,
+      int unreadCount) {
     this.friendUserId = friendUserId;
     this.friendNickname = friendNickname;
     this.friendProfilePhoto = friendProfilePhoto;
     this.lastMessageContent = lastMessageContent;
     this.lastMessageCreatedAt = lastMessageCreatedAt;
     this.lastMessageSenderUserId = lastMessageSenderUserId;
+    this.unreadCount = unreadCount;
   }
 
   public UUID getFriendUserId() {
@@ -76,4 +79,12 @@ public class GetConversationResponse {
   public void setLastMessageSenderUserId(UUID lastMessageSenderUserId) {
     this.lastMessageSenderUserId = lastMessageSenderUserId;
   }
+
+  public int getUnreadCount() {
+    return unreadCount;
+  }
+
+  public void setUnreadCount(int unreadCount) {
+    this.unreadCount = unreadCount;
+  }
 }
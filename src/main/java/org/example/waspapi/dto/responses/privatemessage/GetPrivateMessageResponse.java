@@ -12,6 +12,7 @@ public class GetPrivateMessageResponse {
   private UUID senderUserId;
   private String senderNickname;
   private String senderProfilePhoto;
+  private UUID receiverUserId;
 
   public GetPrivateMessageResponse() {}
 
@@ -22,7 +23,8 @@ public class GetPrivateMessageResponse {
       Instant createdAt,
       UUID senderUserId,
       String senderNickname,
-      String senderProfilePhoto) {
+      String senderProfilePhoto,
+      UUID receiverUserId) {
     this.id = id;
     this.content = content;
     this.imageUrl = imageUrl;
@@ -30,6 +32,7 @@ public class GetPrivateMessageResponse {
     this.senderUserId = senderUserId;
     this.senderNickname = senderNickname;
     this.senderProfilePhoto = senderProfilePhoto;
+    this.receiverUserId = receiverUserId;
   }
 
   public UUID getId() {
@@ -87,4 +90,12 @@ public class GetPrivateMessageResponse {
   public void setSenderProfilePhoto(String senderProfilePhoto) {
     this.senderProfilePhoto = senderProfilePhoto;
   }
+
+  public UUID getReceiverUserId() {
+    return receiverUserId;
+  }
+
+  public void setReceiverUserId(UUID receiverUserId) {
+    this.receiverUserId = receiverUserId;
+  }
 }
@@ -0,0 +1,196 @@
+package org.example.waspapi.dto.responses.session;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Attendance of a game's active players to its sessions in a range. Each session lists the indexes
+ * into {@code players} of who confirmed and who declined; everyone else is pending.
+ */
+public class GetAttendanceMatrixResponse {
+
+  private LocalDateTime from;
+  private LocalDateTime to;
+  private List<PlayerInfo> players;
+  private List<SessionInfo> sessions;
+
+  public GetAttendanceMatrixResponse() {}
+
+  public GetAttendanceMatrixResponse(
+      LocalDateTime from, LocalDateTime to, List<PlayerInfo> players, List<SessionInfo> sessions) {
+    this.from = from;
+    this.to = to;
+    this.players = players;
+    this.sessions = sessions;
+  }
+
+  public LocalDateTime getFrom() {
+    return from;
+  }
+
+  public void setFrom(LocalDateTime from) {
+    this.from = from;
+  }
+
+  public LocalDateTime getTo() {
+    return to;
+  }
+
+  public void setTo(LocalDateTime to) {
+    this.to = to;
+  }
+
+  public List<PlayerInfo> getPlayers() {
+    return players;
+  }
+
+  public void setPlayers(List<PlayerInfo> players) {
+    this.players = players;
+  }
+
+  public List<SessionInfo> getSessions() {
+    return sessions;
+  }
+
+  public void setSessions(List<SessionInfo> sessions) {
+    this.sessions = sessions;
+  }
+
+  public static class PlayerInfo {
+
+    private UUID userId;
+    private String nickname;
+    private String profilePhoto;
+    private long confirmed;
+    private long declined;
+
+    /** Share of the range's sessions the player confirmed, or null if there were none. */
+    private Double attendanceRate;
+
+    public PlayerInfo() {}
+
+    public PlayerInfo(
+        UUID userId,
+        String nickname,
+        String profilePhoto,
+        long confirmed,
+        long declined,
+        Double attendanceRate) {
+      this.userId = userId;
+      this.nickname = nickname;
+      this.profilePhoto = profilePhoto;
+      this.confirmed = confirmed;
+      this.declined = declined;
+      this.attendanceRate = attendanceRate;
+    }
+
+    public UUID getUserId() {
+      return userId;
+    }
+
+    public void setUserId(UUID userId) {
+      this.userId = userId;
+    }
+
+    public String getNickname() {
+      return nickname;
+    }
+
+    public void setNickname(String nickname) {
+      this.nickname = nickname;
+    }
+
+    public String getProfilePhoto() {
+      return profilePhoto;
+    }
+
+    public void setProfilePhoto(String profilePhoto) {
+      this.profilePhoto = profilePhoto;
+    }
+
+    public long getConfirmed() {
+      return confirmed;
+    }
+
+    public void setConfirmed(long confirmed) {
+      this.confirmed = confirmed;
+    }
+
+    public long getDeclined() {
+      return declined;
+    }
+
+    public void setDeclined(long declined) {
+      this.declined = declined;
+    }
+
+    public Double getAttendanceRate() {
+      return attendanceRate;
+    }
+
+    public void setAttendanceRate(Double attendanceRate) {
+      this.attendanceRate = attendanceRate;
+    }
+  }
+
+  public static class SessionInfo {
+
+    private UUID id;
+    private String name;
+    private LocalDateTime datetime;
+    private int[] confirmed;
+    private int[] declined;
+
+    public SessionInfo() {}
+
+    public SessionInfo(
+        UUID id, String name, LocalDateTime datetime, int[] confirmed, int[] declined) {
+      this.id = id;
+      this.name = name;
+      this.datetime = datetime;
+      this.confirmed = confirmed;
+      this.declined = declined;
+    }
+
+    public UUID getId() {
+      return id;
+    }
+
+    public void setId(UUID id) {
+      this.id = id;
+    }
+
+    public String getName() {
+      return name;
+    }
+
+    public void setName(String name) {
+      this.name = name;
+    }
+
+    public LocalDateTime getDatetime() {
+      return datetime;
+    }
+
+    public void setDatetime(LocalDateTime datetime) {
+      this.datetime = datetime;
+    }
+
+    public int[] getConfirmed() {
+      return confirmed;
+    }
+
+    public void setConfirmed(int[] confirmed) {
+      this.confirmed = confirmed;
+    }
+
+    public int[] getDeclined() {
+      return declined;
+    }
+
+    public void setDeclined(int[] declined) {
+      this.declined = declined;
+    }
+  }
+}
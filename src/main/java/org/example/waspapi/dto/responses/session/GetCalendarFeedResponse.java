@@ -0,0 +1,30 @@
+package org.example.waspapi.dto.responses.session;
+
+public class GetCalendarFeedResponse {
+
+  private String token;
+  private String path;
+
+  public GetCalendarFeedResponse() {}
+
+  public GetCalendarFeedResponse(String token, String path) {
+    this.token = token;
+    this.path = path;
+  }
+
+  public String getToken() {
+    return token;
+  }
+
+  public void setToken(String token) {
+    this.token = token;
+  }
+
+  public String getPath() {
+    return path;
+  }
+
+  public void setPath(String path) {
+    this.path = path;
+  }
+}
@@ -0,0 +1,124 @@
+package org.example.waspapi.dto.responses.session;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Best times in a week to hold a session of a game, most available players first. Only players who
+ * declared their availability are counted; the others are listed apart.
+ */
+public class GetCandidateSlotsResponse {
+
+  private LocalDate weekStart;
+  private int durationMinutes;
+  private int declaredPlayers;
+  private List<UUID> undeclaredUserIds;
+  private List<SlotInfo> slots;
+
+  public GetCandidateSlotsResponse() {}
+
+  public GetCandidateSlotsResponse(
+      LocalDate weekStart,
+      int durationMinutes,
+      int declaredPlayers,
+      List<UUID> undeclaredUserIds,
+      List<SlotInfo> slots) {
+    this.weekStart = weekStart;
+    this.durationMinutes = durationMinutes;
+    this.declaredPlayers = declaredPlayers;
+    this.undeclaredUserIds = undeclaredUserIds;
+    this.slots = slots;
+  }
+
+  public LocalDate getWeekStart() {
+    return weekStart;
+  }
+
+  public void setWeekStart(LocalDate weekStart) {
+    this.weekStart = weekStart;
+  }
+
+  public int getDurationMinutes() {
+    return durationMinutes;
+  }
+
+  public void setDurationMinutes(int durationMinutes) {
+    this.durationMinutes = durationMinutes;
+  }
+
+  public int getDeclaredPlayers() {
+    return declaredPlayers;
+  }
+
+  public void setDeclaredPlayers(int declaredPlayers) {
+    this.declaredPlayers = declaredPlayers;
+  }
+
+  public List<UUID> getUndeclaredUserIds() {
+    return undeclaredUserIds;
+  }
+
+  public void setUndeclaredUserIds(List<UUID> undeclaredUserIds) {
+    this.undeclaredUserIds = undeclaredUserIds;
+  }
+
+  public List<SlotInfo> getSlots() {
+    return slots;
+  }
+
+  public void setSlots(List<SlotInfo> slots) {
+    this.slots = slots;
+  }
+
+  public static class SlotInfo {
+
+    private LocalDateTime start;
+    private LocalDateTime end;
+    private int availableCount;
+    private List<UUID> unavailableUserIds;
+
+    public SlotInfo() {}
+
+    public SlotInfo(
+        LocalDateTime start, LocalDateTime end, int availableCount, List<UUID> unavailableUserIds) {
+      this.start = start;
+      this.end = end;
+      this.availableCount = availableCount;
+      this.unavailableUserIds = unavailableUserIds;
+    }
+
+    public LocalDateTime getStart() {
+      return start;
+    }
+
+    public void setStart(LocalDateTime start) {
+      this.start = start;
+    }
+
+    public LocalDateTime getEnd() {
+      return end;
+    }
+
+    public void setEnd(LocalDateTime end) {
+      this.end = end;
+    }
+
+    public int getAvailableCount() {
+      return availableCount;
+    }
+
+    public void setAvailableCount(int availableCount) {
+      this.availableCount = availableCount;
+    }
+
+    public List<UUID> getUnavailableUserIds() {
+      return unavailableUserIds;
+    }
+
+    public void setUnavailableUserIds(List<UUID> unavailableUserIds) {
+      this.unavailableUserIds = unavailableUserIds;
+    }
+  }
+}
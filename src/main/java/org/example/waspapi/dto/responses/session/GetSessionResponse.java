@@ -1,5 +1,6 @@
 package org.example.waspapi.dto.responses.session;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import java.time.LocalDateTime;
 import java.util.UUID;
 
@@ -15,6 +16,20 @@ public class GetSessionResponse {
   private String gameName;
   private long confirmedCount;
 
+  /** The caller's attendance (CONFIRMED, DECLINED or PENDING); set only in calendar views. */
+  @JsonInclude(JsonInclude.Include.NON_NULL)
+  private String myAttendance;
+
+  /**
+   * The series the session is an occurrence of. Occurrences that were never stored have no {@code
+   * id}; they are addressed by this and {@code occurrenceDatetime}.
+   */
+  @JsonInclude(JsonInclude.Include.NON_NULL)
+  private UUID seriesId;
+
+  @JsonInclude(JsonInclude.Include.NON_NULL)
+  private LocalDateTime occurrenceDatetime;
+
   public GetSessionResponse() {}
 
   public GetSessionResponse(
@@ -109,4 +124,28 @@ public class GetSessionResponse {
   public void setConfirmedCount(long confirmedCount) {
     this.confirmedCount = confirmedCount;
   }
+
+  public String getMyAttendance() {
+    return myAttendance;
+  }
+
+  public void setMyAttendance(String myAttendance) {
+    this.myAttendance = myAttendance;
+  }
+
+  public UUID getSeriesId() {
+    return seriesId;
+  }
+
+  public void setSeriesId(UUID seriesId) {
+    this.seriesId = seriesId;
+  }
+
+  public LocalDateTime getOccurrenceDatetime() {
+    return occurrenceDatetime;
+  }
+
+  public void setOccurrenceDatetime(LocalDateTime occurrenceDatetime) {
+    this.occurrenceDatetime = occurrenceDatetime;
+  }
 }
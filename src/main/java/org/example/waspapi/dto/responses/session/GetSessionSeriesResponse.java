@@ -0,0 +1,112 @@
+package org.example.waspapi.dto.responses.session;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+public class GetSessionSeriesResponse {
+
+  private UUID id;
+  private String name;
+  private Boolean isPresential;
+  private LocalDateTime startDatetime;
+  private String rrule;
+  private LocalDateTime untilDatetime;
+  private String place;
+  private String observations;
+  private UUID gameId;
+
+  public GetSessionSeriesResponse() {}
+
+  public GetSessionSeriesResponse(
+      UUID id,
+      String name,
+      Boolean isPresential,
+      LocalDateTime startDatetime,
+      String rrule,
+      LocalDateTime untilDatetime,
+      String place,
+      String observations,
+      UUID gameId) {
+    this.id = id;
+    this.name = name;
+    this.isPresential = isPresential;
+    this.startDatetime = startDatetime;
+    this.rrule = rrule;
+    this.untilDatetime = untilDatetime;
+    this.place = place;
+    this.observations = observations;
+    this.gameId = gameId;
+  }
+
+  public UUID getId() {
+    return id;
+  }
+
+  public void setId(UUID id) {
+    this.id = id;
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public void setName(String name) {
+    this.name = name;
+  }
+
+  public Boolean getIsPresential() {
+    return isPresential;
+  }
+
+  public void setIsPresential(Boolean isPresential) {
+    this.isPresential = isPresential;
+  }
+
+  public LocalDateTime getStartDatetime() {
+    return startDatetime;
+  }
+
+  public void setStartDatetime(LocalDateTime startDatetime) {
+    this.startDatetime = startDatetime;
+  }
+
+  public String getRrule() {
+    return rrule;
+  }
+
+  public void setRrule(String rrule) {
+    this.rrule = rrule;
+  }
+
+  public LocalDateTime getUntilDatetime() {
+    return untilDatetime;
+  }
+
+  public void setUntilDatetime(LocalDateTime untilDatetime) {
+    this.untilDatetime = untilDatetime;
+  }
+
+  public String getPlace() {
+    return place;
+  }
+
+  public void setPlace(String place) {
+    this.place = place;
+  }
+
+  public String getObservations() {
+    return observations;
+  }
+
+  public void setObservations(String observations) {
+    this.observations = observations;
+  }
+
+  public UUID getGameId() {
+    return gameId;
+  }
+
+  public void setGameId(UUID gameId) {
+    this.gameId = gameId;
+  }
+}
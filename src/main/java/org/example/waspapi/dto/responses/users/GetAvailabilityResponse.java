@@ -0,0 +1,85 @@
+package org.example.waspapi.dto.responses.users;
+
+import java.time.DayOfWeek;
+import java.time.Instant;
+import java.time.LocalTime;
+import java.util.List;
+
+public class GetAvailabilityResponse {
+
+  private int slotMinutes;
+  private List<Range> ranges;
+  private Instant updatedAt;
+
+  public GetAvailabilityResponse() {}
+
+  public GetAvailabilityResponse(int slotMinutes, List<Range> ranges, Instant updatedAt) {
+    this.slotMinutes = slotMinutes;
+    this.ranges = ranges;
+    this.updatedAt = updatedAt;
+  }
+
+  public int getSlotMinutes() {
+    return slotMinutes;
+  }
+
+  public void setSlotMinutes(int slotMinutes) {
+    this.slotMinutes = slotMinutes;
+  }
+
+  public List<Range> getRanges() {
+    return ranges;
+  }
+
+  public void setRanges(List<Range> ranges) {
+    this.ranges = ranges;
+  }
+
+  public Instant getUpdatedAt() {
+    return updatedAt;
+  }
+
+  public void setUpdatedAt(Instant updatedAt) {
+    this.updatedAt = updatedAt;
+  }
+
+  /** An end of 00:00 means the end of the day. */
+  public static class Range {
+
+    private DayOfWeek day;
+    private LocalTime start;
+    private LocalTime end;
+
+    public Range() {}
+
+    public Range(DayOfWeek day, LocalTime start, LocalTime end) {
+      this.day = day;
+      this.start = start;
+      this.end = end;
+    }
+
+    public DayOfWeek getDay() {
+      return day;
+    }
+
+    public void setDay(DayOfWeek day) {
+      this.day = day;
+    }
+
+    public LocalTime getStart() {
+      return start;
+    }
+
+    public void setStart(LocalTime start) {
+      this.start = start;
+    }
+
+    public LocalTime getEnd() {
+      return end;
+    }
+
+    public void setEnd(LocalTime end) {
+      this.end = end;
+    }
+  }
+}
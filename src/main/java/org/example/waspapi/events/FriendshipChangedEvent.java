@@ -0,0 +1,30 @@
+package org.example.waspapi.events;
+
+import java.util.UUID;
+
+/** Published when a friend request is accepted or a friendship is removed. */
+public class FriendshipChangedEvent {
+
+  private final UUID userId;
+  private final UUID friendUserId;
+  private final boolean friends;
+
+  public FriendshipChangedEvent(UUID userId, UUID friendUserId, boolean friends) {
+    this.userId = userId;
+    this.friendUserId = friendUserId;
+    this.friends = friends;
+  }
+
+  public UUID getUserId() {
+    return userId;
+  }
+
+  public UUID getFriendUserId() {
+    return friendUserId;
+  }
+
+  /** True when the users became friends, false when the friendship was removed. */
+  public boolean isFriends() {
+    return friends;
+  }
+}
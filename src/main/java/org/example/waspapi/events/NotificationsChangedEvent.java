@@ -0,0 +1,35 @@
+package org.example.waspapi.events;
+
+import java.util.UUID;
+import org.example.waspapi.model.Notification;
+
+/**
+ * Published by {@code NotificationService} whenever a user's notifications change, inside the
+ * transaction that changes them.
+ */
+public class NotificationsChangedEvent {
+
+  private final UUID userId;
+  private final long unreadDelta;
+  private final Notification created;
+
+  public NotificationsChangedEvent(UUID userId, long unreadDelta, Notification created) {
+    this.userId = userId;
+    this.unreadDelta = unreadDelta;
+    this.created = created;
+  }
+
+  public UUID getUserId() {
+    return userId;
+  }
+
+  /** Change of the user's unread count: +1 per new notification, minus those marked as read. */
+  public long getUnreadDelta() {
+    return unreadDelta;
+  }
+
+  /** The new notification, or null when notifications were only marked as read. */
+  public Notification getCreated() {
+    return created;
+  }
+}
@@ -0,0 +1,15 @@
+package org.example.waspapi.events;
+
+/** Published when a transaction writes outbox events, so the dispatcher runs once it commits. */
+public class OutboxEnqueuedEvent {
+
+  private final String eventType;
+
+  public OutboxEnqueuedEvent(String eventType) {
+    this.eventType = eventType;
+  }
+
+  public String getEventType() {
+    return eventType;
+  }
+}
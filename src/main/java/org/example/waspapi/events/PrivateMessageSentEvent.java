@@ -0,0 +1,31 @@
+package org.example.waspapi.events;
+
+import java.util.UUID;
+import org.example.waspapi.dto.responses.privatemessage.GetPrivateMessageResponse;
+
+/** Published inside the transaction that stores a private message. */
+public class PrivateMessageSentEvent {
+
+  private final UUID senderId;
+  private final UUID receiverId;
+  private final GetPrivateMessageResponse message;
+
+  public PrivateMessageSentEvent(
+      UUID senderId, UUID receiverId, GetPrivateMessageResponse message) {
+    this.senderId = senderId;
+    this.receiverId = receiverId;
+    this.message = message;
+  }
+
+  public UUID getSenderId() {
+    return senderId;
+  }
+
+  public UUID getReceiverId() {
+    return receiverId;
+  }
+
+  public GetPrivateMessageResponse getMessage() {
+    return message;
+  }
+}
@@ -0,0 +1,41 @@
+package org.example.waspapi.events;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Published when a session is created, updated or deleted, or its attendance changes. {@code
+ * previousDatetime} is null for a new session and {@code datetime} is null for a deleted one; both
+ * are equal when only attendance changed.
+ */
+public class SessionChangedEvent {
+
+  private final UUID sessionId;
+  private final UUID gameId;
+  private final LocalDateTime previousDatetime;
+  private final LocalDateTime datetime;
+
+  public SessionChangedEvent(
+      UUID sessionId, UUID gameId, LocalDateTime previousDatetime, LocalDateTime datetime) {
+    this.sessionId = sessionId;
+    this.gameId = gameId;
+    this.previousDatetime = previousDatetime;
+    this.datetime = datetime;
+  }
+
+  public UUID getSessionId() {
+    return sessionId;
+  }
+
+  public UUID getGameId() {
+    return gameId;
+  }
+
+  public LocalDateTime getPreviousDatetime() {
+    return previousDatetime;
+  }
+
+  public LocalDateTime getDatetime() {
+    return datetime;
+  }
+}
@@ -0,0 +1,26 @@
+package org.example.waspapi.events;
+
+import java.util.UUID;
+
+/**
+ * Published when a session series is created or deleted, or one of its occurrences is cancelled.
+ * Any month of the series may be affected.
+ */
+public class SessionSeriesChangedEvent {
+
+  private final UUID seriesId;
+  private final UUID gameId;
+
+  public SessionSeriesChangedEvent(UUID seriesId, UUID gameId) {
+    this.seriesId = seriesId;
+    this.gameId = gameId;
+  }
+
+  public UUID getSeriesId() {
+    return seriesId;
+  }
+
+  public UUID getGameId() {
+    return gameId;
+  }
+}
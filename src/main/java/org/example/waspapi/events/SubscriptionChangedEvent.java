@@ -0,0 +1,29 @@
+package org.example.waspapi.events;
+
+import java.util.UUID;
+
+/** Published when a user joins, leaves or rejoins a game. */
+public class SubscriptionChangedEvent {
+
+  private final UUID userId;
+  private final UUID gameId;
+  private final boolean active;
+
+  public SubscriptionChangedEvent(UUID userId, UUID gameId, boolean active) {
+    this.userId = userId;
+    this.gameId = gameId;
+    this.active = active;
+  }
+
+  public UUID getUserId() {
+    return userId;
+  }
+
+  public UUID getGameId() {
+    return gameId;
+  }
+
+  public boolean isActive() {
+    return active;
+  }
+}
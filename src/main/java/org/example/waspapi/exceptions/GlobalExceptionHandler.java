@@ -5,6 +5,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.HttpMediaTypeNotAcceptableException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 import org.springframework.web.method.annotation.MethodArgumentTypeMismatchException;
@@ -33,6 +34,13 @@ public class GlobalExceptionHandler {
     return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
   }
 
+  /** An {@code Accept} the endpoint cannot produce, such as CBOR outside the chat payloads. */
+  @ExceptionHandler(HttpMediaTypeNotAcceptableException.class)
+  public ResponseEntity<Void> handleNotAcceptable(HttpMediaTypeNotAcceptableException e) {
+    logger.debug("Not acceptable: {}", e.getMessage());
+    return ResponseEntity.status(HttpStatus.NOT_ACCEPTABLE).build();
+  }
+
   @ExceptionHandler(ClientAbortException.class)
   public void handleClientAbort(ClientAbortException e) {
     logger.debug("Client disconnected: {}", e.getMessage());
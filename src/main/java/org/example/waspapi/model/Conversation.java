@@ -0,0 +1,141 @@
+package org.example.waspapi.model;
+
+import java.time.Instant;
+import java.util.UUID;
+import javax.persistence.*;
+
+/**
+ * One row per pair of users that have exchanged private messages, keyed by the canonical (low,
+ * high) pair. It holds the latest message and each participant's unread count so the conversations
+ * list never has to scan {@code private_messages}.
+ */
+@Entity
+@Table(
+    name = "conversations",
+    schema = "public",
+    indexes = {
+      @Index(name = "conversations_user_low_last_idx", columnList = "user_low_id, last_message_at"),
+      @Index(
+          name = "conversations_user_high_last_idx",
+          columnList = "user_high_id, last_message_at")
+    })
+@IdClass(ConversationId.class)
+public class Conversation {
+
+  public static final int PREVIEW_LENGTH = 200;
+
+  @Id
+  @ManyToOne(fetch = FetchType.LAZY)
+  @JoinColumn(name = "user_low_id", foreignKey = @ForeignKey(name = "conversations_user_low_fkey"))
+  private User userLow;
+
+  @Id
+  @ManyToOne(fetch = FetchType.LAZY)
+  @JoinColumn(
+      name = "user_high_id",
+      foreignKey = @ForeignKey(name = "conversations_user_high_fkey"))
+  private User userHigh;
+
+  @Column(name = "last_message_id", nullable = false)
+  private UUID lastMessageId;
+
+  @Column(name = "last_message_at", nullable = false)
+  private Instant lastMessageAt;
+
+  @Column(name = "last_message_preview", length = PREVIEW_LENGTH)
+  private String lastMessagePreview;
+
+  @Column(name = "last_sender_id", nullable = false)
+  private UUID lastSenderId;
+
+  @Column(name = "message_count", nullable = false)
+  private long messageCount;
+
+  @Column(name = "unread_low", nullable = false)
+  private int unreadLow;
+
+  @Column(name = "unread_high", nullable = false)
+  private int unreadHigh;
+
+  public User getUserLow() {
+    return userLow;
+  }
+
+  public void setUserLow(User userLow) {
+    this.userLow = userLow;
+  }
+
+  public User getUserHigh() {
+    return userHigh;
+  }
+
+  public void setUserHigh(User userHigh) {
+    this.userHigh = userHigh;
+  }
+
+  public UUID getLastMessageId() {
+    return lastMessageId;
+  }
+
+  public void setLastMessageId(UUID lastMessageId) {
+    this.lastMessageId = lastMessageId;
+  }
+
+  public Instant getLastMessageAt() {
+    return lastMessageAt;
+  }
+
+  public void setLastMessageAt(Instant lastMessageAt) {
+    this.lastMessageAt = lastMessageAt;
+  }
+
+  public String getLastMessagePreview() {
+    return lastMessagePreview;
+  }
+
+  public void setLastMessagePreview(String lastMessagePreview) {
+    this.lastMessagePreview = lastMessagePreview;
+  }
+
+  public UUID getLastSenderId() {
+    return lastSenderId;
+  }
+
+  public void setLastSenderId(UUID lastSenderId) {
+    this.lastSenderId = lastSenderId;
+  }
+
+  public long getMessageCount() {
+    return messageCount;
+  }
+
+  public void setMessageCount(long messageCount) {
+    this.messageCount = messageCount;
+  }
+
+  public int getUnreadLow() {
+    return unreadLow;
+  }
+
+  public void setUnreadLow(int unreadLow) {
+    this.unreadLow = unreadLow;
+  }
+
+  public int getUnreadHigh() {
+    return unreadHigh;
+  }
+
+  public void setUnreadHigh(int unreadHigh) {
+    this.unreadHigh = unreadHigh;
+  }
+
+  /** The participant that is not {@code userId}. */
+  public User getOther(UUID userId) {
+    return userLow.getId().equals(userId) ? userHigh : userLow;
+  }
+
+  /** Unread messages for {@code userId} in this conversation. */
+  public int getUnreadFor(UUID userId) {
+    return userLow.getId().equals(userId) ? unreadLow : unreadHigh;
+  }
+}
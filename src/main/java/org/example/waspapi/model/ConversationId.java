@@ -0,0 +1,31 @@
+package org.example.waspapi.model;
+
+import java.io.Serializable;
+import java.util.Objects;
+import java.util.UUID;
+
+public class ConversationId implements Serializable {
+
+  private UUID userLow;
+  private UUID userHigh;
+
+  public ConversationId() {}
+
+  public ConversationId(UUID userLow, UUID userHigh) {
+    this.userLow = userLow;
+    this.userHigh = userHigh;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) return true;
+    if (o == null || getClass() != o.getClass()) return false;
+    ConversationId that = (ConversationId) o;
+    return Objects.equals(userLow, that.userLow) && Objects.equals(userHigh, that.userHigh);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(userLow, userHigh);
+  }
+}
@@ -5,7 +5,19 @@ import java.util.UUID;
 import javax.persistence.*;
 
 @Entity
-@Table(name = "friend_requests", schema = "public")
+@Table(
+    name = "friend_requests",
+    schema = "public",
+    uniqueConstraints =
+        @UniqueConstraint(
+            name = "friend_requests_user_pair_key",
+            columnNames = {"user_low_id", "user_high_id"}),
+    indexes = {
+      @Index(name = "friend_requests_user_high_idx", columnList = "user_high_id, status"),
+      @Index(
+          name = "friend_requests_receiver_status_created_idx",
+          columnList = "receiver_id, status, created_at")
+    })
 public class FriendRequest {
 
   @Id
@@ -27,6 +39,16 @@ public class FriendRequest {
       foreignKey = @ForeignKey(name = "friend_requests_receiver_id_fkey"))
   private User receiver;
 
+  /**
+   * Canonical (low, high) pair of sender and receiver, see {@link UserPair}. At most one request
+   * exists per pair, so it doubles as the friendship edge.
+   */
+  @Column(name = "user_low_id")
+  private UUID userLowId;
+
+  @Column(name = "user_high_id")
+  private UUID userHighId;
+
   @Column(nullable = false)
   private String status;
 
@@ -40,6 +62,9 @@ public class FriendRequest {
     this.receiver = receiver;
     this.status = status;
     this.createdAt = Instant.now();
+    UserPair pair = UserPair.of(sender.getId(), receiver.getId());
+    this.userLowId = pair.getLow();
+    this.userHighId = pair.getHigh();
   }
 
   public UUID getId() {
@@ -66,6 +91,22 @@ public class FriendRequest {
     this.receiver = receiver;
   }
 
+  public UUID getUserLowId() {
+    return userLowId;
+  }
+
+  public void setUserLowId(UUID userLowId) {
+    this.userLowId = userLowId;
+  }
+
+  public UUID getUserHighId() {
+    return userHighId;
+  }
+
+  public void setUserHighId(UUID userHighId) {
+    this.userHighId = userHighId;
+  }
+
   public String getStatus() {
     return status;
   }
@@ -5,7 +5,11 @@ import java.util.UUID;
 import javax.persistence.*;
 
 @Entity
-@Table(name = "notifications", schema = "public")
+@Table(
+    name = "notifications",
+    schema = "public",
+    indexes =
+        @Index(name = "notifications_user_type_group_idx", columnList = "user_id, type, group_key"))
 public class Notification {
 
   @Id
@@ -32,6 +36,23 @@ public class Notification {
   @Column(name = "created_at", nullable = false, updatable = false)
   private Instant createdAt;
 
+  /**
+   * Notifications of an aggregated type with the same group key (e.g. the game of a session)
+   * collapse into one unread row; {@code referenceId} and {@code latestActorId} then point to the
+   * most recent occurrence and {@code aggregateCount} counts them.
+   */
+  @Column(name = "group_key")
+  private UUID groupKey;
+
+  @Column(name = "aggregate_count")
+  private Integer aggregateCount = 1;
+
+  @Column(name = "latest_actor_id")
+  private UUID latestActorId;
+
+  @Column(name = "updated_at")
+  private Instant updatedAt;
+
   public Notification() {}
 
   public Notification(User user, String type, UUID referenceId) {
@@ -40,6 +61,16 @@ public class Notification {
     this.referenceId = referenceId;
     this.isRead = false;
     this.createdAt = Instant.now();
+    this.updatedAt = this.createdAt;
+    this.aggregateCount = 1;
+  }
+
+  /** Folds another occurrence of the same group into this notification. */
+  public void aggregate(UUID referenceId, UUID actorId, Instant occurredAt) {
+    this.referenceId = referenceId;
+    this.latestActorId = actorId;
+    this.updatedAt = occurredAt;
+    this.aggregateCount = getAggregateCount() + 1;
   }
 
   public UUID getId() {
@@ -89,4 +120,36 @@ public class Notification {
   public void setCreatedAt(Instant createdAt) {
     this.createdAt = createdAt;
   }
+
+  public UUID getGroupKey() {
+    return groupKey;
+  }
+
+  public void setGroupKey(UUID groupKey) {
+    this.groupKey = groupKey;
+  }
+
+  public int getAggregateCount() {
+    return aggregateCount == null ? 1 : aggregateCount;
+  }
+
+  public void setAggregateCount(Integer aggregateCount) {
+    this.aggregateCount = aggregateCount;
+  }
+
+  public UUID getLatestActorId() {
+    return latestActorId;
+  }
+
+  public void setLatestActorId(UUID latestActorId) {
+    this.latestActorId = latestActorId;
+  }
+
+  public Instant getUpdatedAt() {
+    return updatedAt;
+  }
+
+  public void setUpdatedAt(Instant updatedAt) {
+    this.updatedAt = updatedAt;
+  }
 }
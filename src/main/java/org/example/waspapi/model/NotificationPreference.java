@@ -0,0 +1,137 @@
+package org.example.waspapi.model;
+
+import java.time.Instant;
+import java.util.UUID;
+import javax.persistence.*;
+
+/**
+ * How a user wants to hear about one notification type in one game. Without a row the type is
+ * {@code ON}. {@code MUTED} users are left out of the fan-out, and {@code DIGEST} users too, but
+ * their occurrences are counted here and delivered as one notification by the digest job.
+ */
+@Entity
+@Table(
+    name = "notification_preferences",
+    schema = "public",
+    uniqueConstraints =
+        @UniqueConstraint(
+            name = "notification_preferences_user_game_type_key",
+            columnNames = {"user_id", "game_id", "type"}),
+    indexes =
+        @Index(name = "notification_preferences_game_type_idx", columnList = "game_id, type, mode"))
+public class NotificationPreference {
+
+  public static final String ON = "ON";
+  public static final String MUTED = "MUTED";
+  public static final String DIGEST = "DIGEST";
+
+  @Id
+  @GeneratedValue
+  @Column(name = "notification_preference_id", updatable = false, nullable = false)
+  private UUID id;
+
+  @ManyToOne(fetch = FetchType.LAZY)
+  @JoinColumn(
+      name = "user_id",
+      nullable = false,
+      foreignKey = @ForeignKey(name = "notification_preferences_user_id_fkey"))
+  private User user;
+
+  @ManyToOne(fetch = FetchType.LAZY)
+  @JoinColumn(
+      name = "game_id",
+      nullable = false,
+      foreignKey = @ForeignKey(name = "notification_preferences_game_id_fkey"))
+  private Game game;
+
+  @Column(nullable = false)
+  private String type;
+
+  @Column(nullable = false)
+  private String mode = ON;
+
+  /** Occurrences since the last digest, and the most recent one's reference. */
+  @Column(name = "pending_count", nullable = false)
+  private Integer pendingCount = 0;
+
+  @Column(name = "pending_reference_id")
+  private UUID pendingReferenceId;
+
+  @Column(name = "updated_at")
+  private Instant updatedAt;
+
+  public NotificationPreference() {}
+
+  public NotificationPreference(User user, Game game, String type, String mode) {
+    this.user = user;
+    this.game = game;
+    this.type = type;
+    this.mode = mode;
+    this.pendingCount = 0;
+    this.updatedAt = Instant.now();
+  }
+
+  public UUID getId() {
+    return id;
+  }
+
+  public void setId(UUID id) {
+    this.id = id;
+  }
+
+  public User getUser() {
+    return user;
+  }
+
+  public void setUser(User user) {
+    this.user = user;
+  }
+
+  public Game getGame() {
+    return game;
+  }
+
+  public void setGame(Game game) {
+    this.game = game;
+  }
+
+  public String getType() {
+    return type;
+  }
+
+  public void setType(String type) {
+    this.type = type;
+  }
+
+  public String getMode() {
+    return mode;
+  }
+
+  public void setMode(String mode) {
+    this.mode = mode;
+  }
+
+  public int getPendingCount() {
+    return pendingCount == null ? 0 : pendingCount;
+  }
+
+  public void setPendingCount(Integer pendingCount) {
+    this.pendingCount = pendingCount;
+  }
+
+  public UUID getPendingReferenceId() {
+    return pendingReferenceId;
+  }
+
+  public void setPendingReferenceId(UUID pendingReferenceId) {
+    this.pendingReferenceId = pendingReferenceId;
+  }
+
+  public Instant getUpdatedAt() {
+    return updatedAt;
+  }
+
+  public void setUpdatedAt(Instant updatedAt) {
+    this.updatedAt = updatedAt;
+  }
+}
@@ -0,0 +1,164 @@
+package org.example.waspapi.model;
+
+import java.time.Instant;
+import java.util.UUID;
+import javax.persistence.*;
+
+/**
+ * A side effect recorded in the same transaction as the change that causes it, and run later by the
+ * outbox dispatcher. Events of the same aggregate run in {@code id} order, which is why the id is a
+ * database sequence rather than a random UUID.
+ */
+@Entity
+@Table(
+    name = "outbox_events",
+    schema = "public",
+    indexes = {
+      @Index(name = "outbox_events_pending_idx", columnList = "status, available_at"),
+      @Index(
+          name = "outbox_events_aggregate_idx",
+          columnList = "aggregate_type, aggregate_id, status")
+    })
+public class OutboxEvent {
+
+  public static final String PENDING = "PENDING";
+  public static final String DONE = "DONE";
+  public static final String FAILED = "FAILED";
+
+  @Id
+  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @Column(name = "outbox_event_id", updatable = false, nullable = false)
+  private Long id;
+
+  @Column(name = "aggregate_type", nullable = false)
+  private String aggregateType;
+
+  @Column(name = "aggregate_id", nullable = false)
+  private UUID aggregateId;
+
+  @Column(name = "event_type", nullable = false)
+  private String eventType;
+
+  @Column(columnDefinition = "text", nullable = false)
+  private String payload;
+
+  @Column(nullable = false)
+  private String status = PENDING;
+
+  @Column(nullable = false)
+  private Integer attempts = 0;
+
+  /** When the event may be claimed next: now when created, later while leased or backing off. */
+  @Column(name = "available_at", nullable = false)
+  private Instant availableAt;
+
+  @Column(name = "created_at", nullable = false, updatable = false)
+  private Instant createdAt;
+
+  @Column(name = "processed_at")
+  private Instant processedAt;
+
+  @Column(name = "last_error", columnDefinition = "text")
+  private String lastError;
+
+  public OutboxEvent() {}
+
+  public OutboxEvent(String aggregateType, UUID aggregateId, String eventType, String payload) {
+    this.aggregateType = aggregateType;
+    this.aggregateId = aggregateId;
+    this.eventType = eventType;
+    this.payload = payload;
+    this.status = PENDING;
+    this.attempts = 0;
+    this.createdAt = Instant.now();
+    this.availableAt = this.createdAt;
+  }
+
+  public Long getId() {
+    return id;
+  }
+
+  public void setId(Long id) {
+    this.id = id;
+  }
+
+  public String getAggregateType() {
+    return aggregateType;
+  }
+
+  public void setAggregateType(String aggregateType) {
+    this.aggregateType = aggregateType;
+  }
+
+  public UUID getAggregateId() {
+    return aggregateId;
+  }
+
+  public void setAggregateId(UUID aggregateId) {
+    this.aggregateId = aggregateId;
+  }
+
+  public String getEventType() {
+    return eventType;
+  }
+
+  public void setEventType(String eventType) {
+    this.eventType = eventType;
+  }
+
+  public String getPayload() {
+    return payload;
+  }
+
+  public void setPayload(String payload) {
+    this.payload = payload;
+  }
+
+  public String getStatus() {
+    return status;
+  }
+
+  public void setStatus(String status) {
+    this.status = status;
+  }
+
+  public int getAttempts() {
+    return attempts == null ? 0 : attempts;
+  }
+
+  public void setAttempts(Integer attempts) {
+    this.attempts = attempts;
+  }
+
+  public Instant getAvailableAt() {
+    return availableAt;
+  }
+
+  public void setAvailableAt(Instant availableAt) {
+    this.availableAt = availableAt;
+  }
+
+  public Instant getCreatedAt() {
+    return createdAt;
+  }
+
+  public void setCreatedAt(Instant createdAt) {
+    this.createdAt = createdAt;
+  }
+
+  public Instant getProcessedAt() {
+    return processedAt;
+  }
+
+  public void setProcessedAt(Instant processedAt) {
+    this.processedAt = processedAt;
+  }
+
+  public String getLastError() {
+    return lastError;
+  }
+
+  public void setLastError(String lastError) {
+    this.lastError = lastError;
+  }
+}
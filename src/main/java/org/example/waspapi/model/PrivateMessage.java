@@ -5,7 +5,16 @@ import java.util.UUID;
 import javax.persistence.*;
 
 @Entity
-@Table(name = "private_messages", schema = "public")
+@Table(
+    name = "private_messages",
+    schema = "public",
+    indexes = {
+      @Index(
+          name = "private_messages_conversation_created_idx",
+          columnList = "user_low_id, user_high_id, created_at"),
+      @Index(name = "private_messages_sender_created_idx", columnList = "sender_id, created_at"),
+      @Index(name = "private_messages_receiver_created_idx", columnList = "receiver_id, created_at")
+    })
 public class PrivateMessage {
 
   @Id
@@ -27,6 +36,13 @@ public class PrivateMessage {
       foreignKey = @ForeignKey(name = "private_messages_receiver_id_fkey"))
   private User receiver;
 
+  /** Canonical (low, high) pair of sender and receiver, see {@link UserPair}. */
+  @Column(name = "user_low_id")
+  private UUID userLowId;
+
+  @Column(name = "user_high_id")
+  private UUID userHighId;
+
   @Column(columnDefinition = "text")
   private String content;
 
@@ -43,6 +59,9 @@ public class PrivateMessage {
     this.receiver = receiver;
     this.content = content;
     this.createdAt = Instant.now();
+    UserPair pair = UserPair.of(sender.getId(), receiver.getId());
+    this.userLowId = pair.getLow();
+    this.userHighId = pair.getHigh();
   }
 
   public UUID getId() {
@@ -69,6 +88,22 @@ public class PrivateMessage {
     this.receiver = receiver;
   }
 
+  public UUID getUserLowId() {
+    return userLowId;
+  }
+
+  public void setUserLowId(UUID userLowId) {
+    this.userLowId = userLowId;
+  }
+
+  public UUID getUserHighId() {
+    return userHighId;
+  }
+
+  public void setUserHighId(UUID userHighId) {
+    this.userHighId = userHighId;
+  }
+
   public String getContent() {
     return content;
   }
@@ -5,7 +5,17 @@ import java.util.UUID;
 import javax.persistence.*;
 
 @Entity
-@Table(name = "sessions", schema = "public")
+@Table(
+    name = "sessions",
+    schema = "public",
+    indexes = {
+      @Index(name = "sessions_game_datetime_idx", columnList = "game_id, datetime"),
+      @Index(name = "sessions_datetime_idx", columnList = "datetime")
+    },
+    uniqueConstraints =
+        @UniqueConstraint(
+            name = "sessions_series_occurrence_key",
+            columnNames = {"series_id", "occurrence_datetime"}))
 public class Session {
 
   @Id
@@ -31,6 +41,17 @@ public class Session {
   @JoinColumn(name = "game_id", foreignKey = @ForeignKey(name = "sessions_game_id_fkey"))
   private Game game;
 
+  /**
+   * The series this session is an occurrence of, or null. {@code occurrenceDatetime} is the start
+   * the series gave it, which stays the same when the session is moved.
+   */
+  @ManyToOne(fetch = FetchType.LAZY)
+  @JoinColumn(name = "series_id", foreignKey = @ForeignKey(name = "sessions_series_id_fkey"))
+  private SessionSeries series;
+
+  @Column(name = "occurrence_datetime", columnDefinition = "timestamptz")
+  private LocalDateTime occurrenceDatetime;
+
   public Session() {}
 
   public UUID getId() {
@@ -88,4 +109,20 @@ public class Session {
   public void setGame(Game game) {
     this.game = game;
   }
+
+  public SessionSeries getSeries() {
+    return series;
+  }
+
+  public void setSeries(SessionSeries series) {
+    this.series = series;
+  }
+
+  public LocalDateTime getOccurrenceDatetime() {
+    return occurrenceDatetime;
+  }
+
+  public void setOccurrenceDatetime(LocalDateTime occurrenceDatetime) {
+    this.occurrenceDatetime = occurrenceDatetime;
+  }
 }
@@ -0,0 +1,142 @@
+package org.example.waspapi.model;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import javax.persistence.*;
+
+/**
+ * Sessions of a game that repeat by a recurrence rule. Occurrences are not stored: they are
+ * expanded from {@code startDatetime} and {@code rrule} when read. Only an occurrence that gets
+ * attendance or is moved becomes a {@link Session} pointing back here, and a cancelled one leaves a
+ * {@link SessionSeriesCancellation}.
+ */
+@Entity
+@Table(
+    name = "session_series",
+    schema = "public",
+    indexes = @Index(name = "session_series_game_idx", columnList = "game_id"))
+public class SessionSeries {
+
+  @Id
+  @GeneratedValue
+  @Column(name = "series_id", updatable = false, nullable = false)
+  private UUID id;
+
+  @ManyToOne(fetch = FetchType.LAZY)
+  @JoinColumn(
+      name = "game_id",
+      nullable = false,
+      foreignKey = @ForeignKey(name = "session_series_game_id_fkey"))
+  private Game game;
+
+  @Column private String name;
+
+  @Column(name = "is_presential")
+  private Boolean isPresential;
+
+  @Column(columnDefinition = "text")
+  private String place;
+
+  @Column(columnDefinition = "text")
+  private String observations;
+
+  /** Start of the first occurrence; later ones keep its time of day. */
+  @Column(name = "start_datetime", columnDefinition = "timestamptz", nullable = false)
+  private LocalDateTime startDatetime;
+
+  @Column(nullable = false)
+  private String rrule;
+
+  /** Start of the last occurrence, or null if the series never ends; lets reads skip the series. */
+  @Column(name = "until_datetime", columnDefinition = "timestamptz")
+  private LocalDateTime untilDatetime;
+
+  @Column(name = "created_at", nullable = false, updatable = false)
+  private Instant createdAt;
+
+  public SessionSeries() {}
+
+  @PrePersist
+  void onCreate() {
+    if (createdAt == null) {
+      createdAt = Instant.now();
+    }
+  }
+
+  public UUID getId() {
+    return id;
+  }
+
+  public void setId(UUID id) {
+    this.id = id;
+  }
+
+  public Game getGame() {
+    return game;
+  }
+
+  public void setGame(Game game) {
+    this.game = game;
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public void setName(String name) {
+    this.name = name;
+  }
+
+  public Boolean getIsPresential() {
+    return isPresential;
+  }
+
+  public void setIsPresential(Boolean isPresential) {
+    this.isPresential = isPresential;
+  }
+
+  public String getPlace() {
+    return place;
+  }
+
+  public void setPlace(String place) {
+    this.place = place;
+  }
+
+  public String getObservations() {
+    return observations;
+  }
+
+  public void setObservations(String observations) {
+    this.observations = observations;
+  }
+
+  public LocalDateTime getStartDatetime() {
+    return startDatetime;
+  }
+
+  public void setStartDatetime(LocalDateTime startDatetime) {
+    this.startDatetime = startDatetime;
+  }
+
+  public String getRrule() {
+    return rrule;
+  }
+
+  public void setRrule(String rrule) {
+    this.rrule = rrule;
+  }
+
+  public LocalDateTime getUntilDatetime() {
+    return untilDatetime;
+  }
+
+  public void setUntilDatetime(LocalDateTime untilDatetime) {
+    this.untilDatetime = untilDatetime;
+  }
+
+  public Instant getCreatedAt() {
+    return createdAt;
+  }
+}
@@ -0,0 +1,51 @@
+package org.example.waspapi.model;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+import javax.persistence.*;
+
+/** An occurrence of a {@link SessionSeries} that will not be held. */
+@Entity
+@Table(
+    name = "session_series_cancellations",
+    schema = "public",
+    uniqueConstraints =
+        @UniqueConstraint(
+            name = "session_series_cancellations_occurrence_key",
+            columnNames = {"series_id", "occurrence_datetime"}))
+public class SessionSeriesCancellation {
+
+  @Id
+  @GeneratedValue
+  @Column(name = "cancellation_id", updatable = false, nullable = false)
+  private UUID id;
+
+  @ManyToOne(fetch = FetchType.LAZY)
+  @JoinColumn(
+      name = "series_id",
+      nullable = false,
+      foreignKey = @ForeignKey(name = "session_series_cancellations_series_id_fkey"))
+  private SessionSeries series;
+
+  @Column(name = "occurrence_datetime", columnDefinition = "timestamptz", nullable = false)
+  private LocalDateTime occurrenceDatetime;
+
+  public SessionSeriesCancellation() {}
+
+  public SessionSeriesCancellation(SessionSeries series, LocalDateTime occurrenceDatetime) {
+    this.series = series;
+    this.occurrenceDatetime = occurrenceDatetime;
+  }
+
+  public UUID getId() {
+    return id;
+  }
+
+  public SessionSeries getSeries() {
+    return series;
+  }
+
+  public LocalDateTime getOccurrenceDatetime() {
+    return occurrenceDatetime;
+  }
+}
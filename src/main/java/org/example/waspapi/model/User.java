@@ -14,6 +14,10 @@ public class User {
   @Column(nullable = false, unique = true)
   private String email;
 
+  /** Secret that grants read access to the user's calendar feed; null until one is requested. */
+  @Column(name = "calendar_token", unique = true)
+  private String calendarToken;
+
   public UUID getId() {
     return id;
   }
@@ -90,4 +94,12 @@ public class User {
     this.email = email;
     this.nickname = nickname;
   }
+
+  public String getCalendarToken() {
+    return calendarToken;
+  }
+
+  public void setCalendarToken(String calendarToken) {
+    this.calendarToken = calendarToken;
+  }
 }
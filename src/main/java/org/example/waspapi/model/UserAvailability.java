@@ -0,0 +1,50 @@
+package org.example.waspapi.model;
+
+import java.time.Instant;
+import java.util.UUID;
+import javax.persistence.*;
+
+/**
+ * A user's usual weekly availability as a {@link org.example.waspapi.service.WeeklyAvailability}
+ * bitmap, kept apart from {@link User} so that loading users does not read it.
+ */
+@Entity
+@Table(name = "user_availability", schema = "public")
+public class UserAvailability {
+
+  @Id
+  @Column(name = "user_id", updatable = false, nullable = false)
+  private UUID userId;
+
+  @Column(nullable = false)
+  private byte[] slots;
+
+  @Column(name = "updated_at", nullable = false)
+  private Instant updatedAt;
+
+  public UserAvailability() {}
+
+  public UserAvailability(UUID userId) {
+    this.userId = userId;
+  }
+
+  public UUID getUserId() {
+    return userId;
+  }
+
+  public byte[] getSlots() {
+    return slots;
+  }
+
+  public void setSlots(byte[] slots) {
+    this.slots = slots;
+  }
+
+  public Instant getUpdatedAt() {
+    return updatedAt;
+  }
+
+  public void setUpdatedAt(Instant updatedAt) {
+    this.updatedAt = updatedAt;
+  }
+}
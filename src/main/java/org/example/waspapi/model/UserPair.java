@@ -0,0 +1,63 @@
+package org.example.waspapi.model;
+
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Two user ids in canonical (low, high) order.
+ *
+ * <p>Ids are compared as unsigned 128-bit values, which is the order PostgreSQL uses for {@code
+ * uuid} columns, so {@code LEAST(a, b)} and {@code GREATEST(a, b)} in SQL agree with {@link
+ * #getLow()} and {@link #getHigh()}.
+ */
+public final class UserPair {
+
+  private final UUID low;
+  private final UUID high;
+
+  private UserPair(UUID low, UUID high) {
+    this.low = low;
+    this.high = high;
+  }
+
+  public static UserPair of(UUID a, UUID b) {
+    return compare(a, b) <= 0 ? new UserPair(a, b) : new UserPair(b, a);
+  }
+
+  public static int compare(UUID a, UUID b) {
+    int cmp = Long.compareUnsigned(a.getMostSignificantBits(), b.getMostSignificantBits());
+    if (cmp != 0) {
+      return cmp;
+    }
+    return Long.compareUnsigned(a.getLeastSignificantBits(), b.getLeastSignificantBits());
+  }
+
+  public UUID getLow() {
+    return low;
+  }
+
+  public UUID getHigh() {
+    return high;
+  }
+
+  public boolean isLow(UUID userId) {
+    return low.equals(userId);
+  }
+
+  public UUID other(UUID userId) {
+    return low.equals(userId) ? high : low;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) return true;
+    if (o == null || getClass() != o.getClass()) return false;
+    UserPair that = (UserPair) o;
+    return low.equals(that.low) && high.equals(that.high);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(low, high);
+  }
+}
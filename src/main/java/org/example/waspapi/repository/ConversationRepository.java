@@ -0,0 +1,21 @@
+package org.example.waspapi.repository;
+
+import java.util.List;
+import java.util.UUID;
+import org.example.waspapi.model.Conversation;
+import org.example.waspapi.model.ConversationId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ConversationRepository
+    extends JpaRepository<Conversation, ConversationId>, ConversationRepositoryCustom {
+
+  @Query(
+      "SELECT c FROM Conversation c JOIN FETCH c.userLow JOIN FETCH c.userHigh"
+          + " WHERE c.userLow.id = :userId OR c.userHigh.id = :userId"
+          + " ORDER BY c.lastMessageAt DESC")
+  List<Conversation> findByUserId(@Param("userId") UUID userId);
+}
@@ -0,0 +1,43 @@
+package org.example.waspapi.repository;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Conversation writes issued over JDBC. The statements only use SQL that PostgreSQL and H2 in
+ * PostgreSQL mode both accept, so the same statements run in production and in tests.
+ */
+public interface ConversationRepositoryCustom {
+
+  /**
+   * Inserts the conversation or moves its last message forward, adding the unread increments.
+   *
+   * <p>Concurrent first messages between two users cannot race on the insert, and a message that
+   * commits late never replaces a newer last message.
+   */
+  void upsertLastMessage(
+      UUID low,
+      UUID high,
+      UUID messageId,
+      Instant createdAt,
+      String preview,
+      UUID senderId,
+      int unreadLow,
+      int unreadHigh);
+
+  /**
+   * Sets the user's unread count in the conversation back to zero.
+   *
+   * @return the number of conversations updated, 0 if the pair has none
+   */
+  int resetUnread(UUID low, UUID high, UUID userId);
+
+  /**
+   * Creates missing conversation rows from the latest message of each pair, and recounts the
+   * messages of rows created by a new message before the backfill ran. Messages must already have
+   * their canonical pair columns.
+   *
+   * @return the number of conversations created or recounted
+   */
+  int backfillFromPrivateMessages();
+}
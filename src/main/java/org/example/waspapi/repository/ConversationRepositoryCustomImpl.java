@@ -0,0 +1,122 @@
+package org.example.waspapi.repository;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.UUID;
+import org.example.waspapi.model.Conversation;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+public class ConversationRepositoryCustomImpl implements ConversationRepositoryCustom {
+
+  // A message that commits late only adds to the counters; the last message stays the newest one
+  private static final String UPDATE_LAST_MESSAGE =
+      "UPDATE conversations SET"
+          + " last_message_id = CASE WHEN last_message_at <= :createdAt"
+          + " THEN :messageId ELSE last_message_id END,"
+          + " last_message_preview = CASE WHEN last_message_at <= :createdAt"
+          + " THEN :preview ELSE last_message_preview END,"
+          + " last_sender_id = CASE WHEN last_message_at <= :createdAt"
+          + " THEN :senderId ELSE last_sender_id END,"
+          + " last_message_at = CASE WHEN last_message_at <= :createdAt"
+          + " THEN :createdAt ELSE last_message_at END,"
+          + " message_count = message_count + 1,"
+          + " unread_low = unread_low + :unreadLow, unread_high = unread_high + :unreadHigh"
+          + " WHERE user_low_id = :low AND user_high_id = :high";
+
+  /**
+   * H2 only accepts {@code ON CONFLICT} without a conflict target; the primary key is the only
+   * unique constraint of the table, so PostgreSQL resolves the same conflict either way.
+   */
+  private static final String INSERT_CONVERSATION =
+      "INSERT INTO conversations (user_low_id, user_high_id, last_message_id, last_message_at,"
+          + " last_message_preview, last_sender_id, message_count, unread_low, unread_high)"
+          + " VALUES (:low, :high, :messageId, :createdAt, :preview, :senderId, 1,"
+          + " :unreadLow, :unreadHigh)"
+          + " ON CONFLICT DO NOTHING";
+
+  private static final String RESET_UNREAD =
+      "UPDATE conversations"
+          + " SET unread_low = CASE WHEN user_low_id = :userId THEN 0 ELSE unread_low END,"
+          + " unread_high = CASE WHEN user_high_id = :userId THEN 0 ELSE unread_high END"
+          + " WHERE user_low_id = :low AND user_high_id = :high";
+
+  private static final String BACKFILL_FROM_PRIVATE_MESSAGES =
+      "INSERT INTO conversations (user_low_id, user_high_id, last_message_id, last_message_at,"
+          + " last_message_preview, last_sender_id, message_count, unread_low, unread_high)"
+          + " SELECT user_low_id, user_high_id, private_message_id, created_at,"
+          + " LEFT(content, "
+          + Conversation.PREVIEW_LENGTH
+          + "), sender_id, message_count, 0, 0"
+          + " FROM (SELECT pm.user_low_id, pm.user_high_id, pm.private_message_id, pm.created_at,"
+          + " pm.content, pm.sender_id,"
+          + " ROW_NUMBER() OVER (PARTITION BY pm.user_low_id, pm.user_high_id"
+          + " ORDER BY pm.created_at DESC, pm.private_message_id DESC) AS recency,"
+          + " COUNT(*) OVER (PARTITION BY pm.user_low_id, pm.user_high_id) AS message_count"
+          + " FROM private_messages pm WHERE pm.user_low_id IS NOT NULL) latest"
+          + " WHERE recency = 1"
+          + " ON CONFLICT DO NOTHING";
+
+  /**
+   * A pair whose first new message arrived before the backfill already has a row, counting only the
+   * messages since. Only raises counts, so a message committing meanwhile is never lost.
+   */
+  private static final String RECOUNT_FROM_PRIVATE_MESSAGES =
+      "UPDATE conversations c SET message_count = (SELECT COUNT(*) FROM private_messages pm"
+          + " WHERE pm.user_low_id = c.user_low_id AND pm.user_high_id = c.user_high_id)"
+          + " WHERE c.message_count < (SELECT COUNT(*) FROM private_messages pm"
+          + " WHERE pm.user_low_id = c.user_low_id AND pm.user_high_id = c.user_high_id)";
+
+  private final NamedParameterJdbcTemplate jdbcTemplate;
+
+  public ConversationRepositoryCustomImpl(NamedParameterJdbcTemplate jdbcTemplate) {
+    this.jdbcTemplate = jdbcTemplate;
+  }
+
+  /**
+   * Updates the conversation and inserts it only when there is none yet. An insert that loses to a
+   * concurrent first message does nothing, and the row it conflicted with is visible to the second
+   * update, so the message is never dropped from the counters.
+   */
+  @Override
+  public void upsertLastMessage(
+      UUID low,
+      UUID high,
+      UUID messageId,
+      Instant createdAt,
+      String preview,
+      UUID senderId,
+      int unreadLow,
+      int unreadHigh) {
+    MapSqlParameterSource params =
+        new MapSqlParameterSource("low", low)
+            .addValue("high", high)
+            .addValue("messageId", messageId)
+            .addValue("createdAt", Timestamp.from(createdAt))
+            .addValue("preview", preview)
+            .addValue("senderId", senderId)
+            .addValue("unreadLow", unreadLow)
+            .addValue("unreadHigh", unreadHigh);
+    if (jdbcTemplate.update(UPDATE_LAST_MESSAGE, params) > 0) {
+      return;
+    }
+    if (jdbcTemplate.update(INSERT_CONVERSATION, params) > 0) {
+      return;
+    }
+    jdbcTemplate.update(UPDATE_LAST_MESSAGE, params);
+  }
+
+  @Override
+  public int resetUnread(UUID low, UUID high, UUID userId) {
+    return jdbcTemplate.update(
+        RESET_UNREAD,
+        new MapSqlParameterSource("low", low).addValue("high", high).addValue("userId", userId));
+  }
+
+  @Override
+  public int backfillFromPrivateMessages() {
+    MapSqlParameterSource params = new MapSqlParameterSource();
+    return jdbcTemplate.update(BACKFILL_FROM_PRIVATE_MESSAGES, params)
+        + jdbcTemplate.update(RECOUNT_FROM_PRIVATE_MESSAGES, params);
+  }
+}
@@ -1,26 +1,112 @@
 package org.example.waspapi.repository;
 
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import org.example.waspapi.dto.responses.friendrequest.GetFriendRequestResponse;
+import org.example.waspapi.dto.responses.friendrequest.GetFriendResponse;
 import org.example.waspapi.model.FriendRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 @Repository
-public interface FriendRequestRepository extends JpaRepository<FriendRequest, UUID> {
+public interface FriendRequestRepository
+    extends JpaRepository<FriendRequest, UUID>, FriendRequestRepositoryCustom {
 
-  List<FriendRequest> findByReceiverIdAndStatus(UUID receiverId, String status);
+  @Query(
+      "SELECT fr FROM FriendRequest fr JOIN FETCH fr.sender JOIN FETCH fr.receiver"
+          + " WHERE fr.receiver.id = :receiverId AND fr.status = :status")
+  List<FriendRequest> findByReceiverIdAndStatus(
+      @Param("receiverId") UUID receiverId, @Param("status") String status);
+
+  Optional<FriendRequest> findByUserLowIdAndUserHighId(UUID userLowId, UUID userHighId);
 
+  boolean existsByUserLowIdAndUserHighIdAndStatus(UUID userLowId, UUID userHighId, String status);
+
+  @Modifying
   @Query(
-      "SELECT fr FROM FriendRequest fr WHERE fr.status = :status"
-          + " AND (fr.sender.id = :userId OR fr.receiver.id = :userId)")
-  List<FriendRequest> findByUserIdAndStatus(
+      "DELETE FROM FriendRequest fr"
+          + " WHERE fr.userLowId = :low AND fr.userHighId = :high AND fr.status = :status")
+  int deleteByPairAndStatus(
+      @Param("low") UUID low, @Param("high") UUID high, @Param("status") String status);
+
+  /** Canonical (low, high) pairs of every request in the given status. */
+  @Query("SELECT fr.userLowId, fr.userHighId FROM FriendRequest fr WHERE fr.status = :status")
+  List<Object[]> findPairsByStatus(@Param("status") String status);
+
+  /** Friends of the user with their profile summary, one query over the pair indexes. */
+  @Query(
+      "SELECT new org.example.waspapi.dto.responses.friendrequest.GetFriendResponse("
+          + "u.id, u.nickname, u.profilePhoto)"
+          + " FROM FriendRequest fr, User u"
+          + " WHERE fr.status = :status"
+          + " AND ((fr.userLowId = :userId AND u.id = fr.userHighId)"
+          + " OR (fr.userHighId = :userId AND u.id = fr.userLowId))"
+          + " ORDER BY u.nickname, u.id")
+  List<GetFriendResponse> findFriendSummaries(
       @Param("userId") UUID userId, @Param("status") String status);
 
-  Optional<FriendRequest> findBySenderIdAndReceiverId(UUID senderId, UUID receiverId);
+  @Query(
+      "SELECT new org.example.waspapi.dto.responses.friendrequest.GetFriendResponse("
+          + "u.id, u.nickname, u.profilePhoto)"
+          + " FROM FriendRequest fr, User u"
+          + " WHERE fr.status = :status"
+          + " AND ((fr.userLowId = :userId AND u.id = fr.userHighId)"
+          + " OR (fr.userHighId = :userId AND u.id = fr.userLowId))"
+          + " ORDER BY u.nickname, u.id")
+  List<GetFriendResponse> findFriendSummaries(
+      @Param("userId") UUID userId, @Param("status") String status, Pageable pageable);
+
+  @Query(
+      "SELECT new org.example.waspapi.dto.responses.friendrequest.GetFriendResponse("
+          + "u.id, u.nickname, u.profilePhoto)"
+          + " FROM FriendRequest fr, User u"
+          + " WHERE fr.status = :status"
+          + " AND ((fr.userLowId = :userId AND u.id = fr.userHighId)"
+          + " OR (fr.userHighId = :userId AND u.id = fr.userLowId))"
+          + " AND (u.nickname > :afterNickname OR (u.nickname = :afterNickname AND u.id > :afterId))"
+          + " ORDER BY u.nickname, u.id")
+  List<GetFriendResponse> findFriendSummariesAfter(
+      @Param("userId") UUID userId,
+      @Param("status") String status,
+      @Param("afterNickname") String afterNickname,
+      @Param("afterId") UUID afterId,
+      Pageable pageable);
+
+  @Query(
+      "SELECT new org.example.waspapi.dto.responses.friendrequest.GetFriendRequestResponse("
+          + "fr.id, s.id, s.nickname, r.id, r.nickname, fr.status, fr.createdAt)"
+          + " FROM FriendRequest fr JOIN fr.sender s JOIN fr.receiver r"
+          + " WHERE r.id = :receiverId AND fr.status = :status"
+          + " ORDER BY fr.createdAt DESC, fr.id DESC")
+  List<GetFriendRequestResponse> findReceivedSummaries(
+      @Param("receiverId") UUID receiverId, @Param("status") String status, Pageable pageable);
 
-  boolean existsBySenderIdAndReceiverId(UUID senderId, UUID receiverId);
+  @Query(
+      "SELECT new org.example.waspapi.dto.responses.friendrequest.GetFriendRequestResponse("
+          + "fr.id, s.id, s.nickname, r.id, r.nickname, fr.status, fr.createdAt)"
+          + " FROM FriendRequest fr JOIN fr.sender s JOIN fr.receiver r"
+          + " WHERE r.id = :receiverId AND fr.status = :status"
+          + " AND (fr.createdAt < :before OR (fr.createdAt = :before AND fr.id < :beforeId))"
+          + " ORDER BY fr.createdAt DESC, fr.id DESC")
+  List<GetFriendRequestResponse> findReceivedSummariesBefore(
+      @Param("receiverId") UUID receiverId,
+      @Param("status") String status,
+      @Param("before") Instant before,
+      @Param("beforeId") UUID beforeId,
+      Pageable pageable);
+
+  /**
+   * (request id, status, sender id, nickname, photo, receiver id, nickname, photo) of each request.
+   */
+  @Query(
+      "SELECT fr.id, fr.status, s.id, s.nickname, s.profilePhoto, r.id, r.nickname, r.profilePhoto"
+          + " FROM FriendRequest fr JOIN fr.sender s JOIN fr.receiver r WHERE fr.id IN :ids")
+  List<Object[]> findSummariesByIdIn(@Param("ids") Collection<UUID> ids);
 }
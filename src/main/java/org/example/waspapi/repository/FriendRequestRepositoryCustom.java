@@ -0,0 +1,20 @@
+package org.example.waspapi.repository;
+
+/**
+ * Friend request maintenance issued over JDBC, in SQL that PostgreSQL and H2 in PostgreSQL mode
+ * both accept.
+ */
+public interface FriendRequestRepositoryCustom {
+
+  /**
+   * Fills the canonical pair columns of requests written before they existed. Must run in a
+   * transaction.
+   *
+   * <p>Legacy data can hold several requests for one pair, e.g. one in each direction, which the
+   * unique pair constraint would reject. Each such pair first keeps a single request: the accepted
+   * one, otherwise the oldest; the others are deleted.
+   *
+   * @return the number of requests given their canonical pair
+   */
+  int backfillCanonicalPairs();
+}
@@ -0,0 +1,52 @@
+package org.example.waspapi.repository;
+
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+public class FriendRequestRepositoryCustomImpl implements FriendRequestRepositoryCustom {
+
+  private static final String COUNT_LEGACY =
+      "SELECT COUNT(*) FROM friend_requests WHERE user_low_id IS NULL";
+
+  /**
+   * Deletes each request of a pair with a legacy request when another request of the pair ranks
+   * before it: accepted first, then oldest, then lowest id.
+   */
+  private static final String DELETE_DUPLICATE_PAIRS =
+      "DELETE FROM friend_requests fr"
+          + " WHERE EXISTS (SELECT 1 FROM friend_requests l WHERE l.user_low_id IS NULL"
+          + " AND LEAST(l.sender_id, l.receiver_id) = LEAST(fr.sender_id, fr.receiver_id)"
+          + " AND GREATEST(l.sender_id, l.receiver_id) = GREATEST(fr.sender_id, fr.receiver_id))"
+          + " AND EXISTS (SELECT 1 FROM friend_requests o"
+          + " WHERE LEAST(o.sender_id, o.receiver_id) = LEAST(fr.sender_id, fr.receiver_id)"
+          + " AND GREATEST(o.sender_id, o.receiver_id) = GREATEST(fr.sender_id, fr.receiver_id)"
+          + " AND o.friend_request_id <> fr.friend_request_id"
+          + " AND (CASE WHEN o.status = 'ACCEPTED' THEN 0 ELSE 1 END"
+          + " < CASE WHEN fr.status = 'ACCEPTED' THEN 0 ELSE 1 END"
+          + " OR (CASE WHEN o.status = 'ACCEPTED' THEN 0 ELSE 1 END"
+          + " = CASE WHEN fr.status = 'ACCEPTED' THEN 0 ELSE 1 END"
+          + " AND (o.created_at < fr.created_at OR (o.created_at = fr.created_at"
+          + " AND o.friend_request_id < fr.friend_request_id)))))";
+
+  private static final String UPDATE_CANONICAL_PAIRS =
+      "UPDATE friend_requests SET user_low_id = LEAST(sender_id, receiver_id),"
+          + " user_high_id = GREATEST(sender_id, receiver_id)"
+          + " WHERE user_low_id IS NULL";
+
+  private final NamedParameterJdbcTemplate jdbcTemplate;
+
+  public FriendRequestRepositoryCustomImpl(NamedParameterJdbcTemplate jdbcTemplate) {
+    this.jdbcTemplate = jdbcTemplate;
+  }
+
+  @Override
+  public int backfillCanonicalPairs() {
+    MapSqlParameterSource none = new MapSqlParameterSource();
+    Long legacy = jdbcTemplate.queryForObject(COUNT_LEGACY, none, Long.class);
+    if (legacy == null || legacy == 0) {
+      return 0;
+    }
+    jdbcTemplate.update(DELETE_DUPLICATE_PAIRS, none);
+    return jdbcTemplate.update(UPDATE_CANONICAL_PAIRS, none);
+  }
+}
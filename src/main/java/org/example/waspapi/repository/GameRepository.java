@@ -1,5 +1,7 @@
 package org.example.waspapi.repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.UUID;
 import org.example.waspapi.model.Game;
 import org.springframework.data.domain.Page;
@@ -18,4 +20,8 @@ public interface GameRepository extends JpaRepository<Game, UUID> {
           + " AND (:themeName IS NULL OR LOWER(g.theme.name) LIKE LOWER(CONCAT('%', :themeName, '%')))")
   Page<Game> findPublicGamesWithFilters(
       @Param("name") String name, @Param("themeName") String themeName, Pageable pageable);
+
+  /** (game id, name) of each game. */
+  @Query("SELECT g.id, g.name FROM Game g WHERE g.id IN :ids")
+  List<Object[]> findNamesByIdIn(@Param("ids") Collection<UUID> ids);
 }
@@ -1,9 +1,12 @@
 package org.example.waspapi.repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 import org.example.waspapi.model.JoinRequest;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 @Repository
@@ -12,4 +15,10 @@ public interface JoinRequestRepository extends JpaRepository<JoinRequest, UUID>
   List<JoinRequest> findByGameIdAndStatus(UUID gameId, String status);
 
   boolean existsByUserIdAndGameId(UUID userId, UUID gameId);
+
+  /** (request id, status, user id, nickname, profile photo, game id, game name) of each request. */
+  @Query(
+      "SELECT jr.id, jr.status, u.id, u.nickname, u.profilePhoto, g.id, g.name"
+          + " FROM JoinRequest jr JOIN jr.user u JOIN jr.game g WHERE jr.id IN :ids")
+  List<Object[]> findSummariesByIdIn(@Param("ids") Collection<UUID> ids);
 }
@@ -0,0 +1,67 @@
+package org.example.waspapi.repository;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import org.example.waspapi.model.NotificationPreference;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface NotificationPreferenceRepository
+    extends JpaRepository<NotificationPreference, UUID> {
+
+  List<NotificationPreference> findByUserIdAndGameId(UUID userId, UUID gameId);
+
+  Optional<NotificationPreference> findByUserIdAndGameIdAndType(
+      UUID userId, UUID gameId, String type);
+
+  /**
+   * Counts one occurrence for every digest subscriber of the type in the game. Preferences outlive
+   * a membership, so only members still active in the game are counted.
+   */
+  @Modifying
+  @Query(
+      "UPDATE NotificationPreference p SET p.pendingCount = p.pendingCount + 1,"
+          + " p.pendingReferenceId = :referenceId"
+          + " WHERE p.game.id = :gameId AND p.type = :type AND p.mode = 'DIGEST'"
+          + " AND EXISTS (SELECT sub.user.id FROM Subscription sub"
+          + " WHERE sub.user.id = p.user.id AND sub.game.id = p.game.id AND sub.isActive = true)")
+  int recordDigestOccurrence(
+      @Param("gameId") UUID gameId,
+      @Param("type") String type,
+      @Param("referenceId") UUID referenceId);
+
+  /** Same as {@link #recordDigestOccurrence} for everyone but the user who caused it. */
+  @Modifying
+  @Query(
+      "UPDATE NotificationPreference p SET p.pendingCount = p.pendingCount + 1,"
+          + " p.pendingReferenceId = :referenceId"
+          + " WHERE p.game.id = :gameId AND p.type = :type AND p.mode = 'DIGEST'"
+          + " AND p.user.id <> :actorId"
+          + " AND EXISTS (SELECT sub.user.id FROM Subscription sub"
+          + " WHERE sub.user.id = p.user.id AND sub.game.id = p.game.id AND sub.isActive = true)")
+  int recordDigestOccurrenceExcept(
+      @Param("gameId") UUID gameId,
+      @Param("type") String type,
+      @Param("referenceId") UUID referenceId,
+      @Param("actorId") UUID actorId);
+
+  /** Removes the delivered occurrences, keeping any counted since the digest was read. */
+  @Modifying
+  @Query(
+      "UPDATE NotificationPreference p SET p.pendingCount = p.pendingCount - :delivered"
+          + " WHERE p.id = :id")
+  int consumeDigest(@Param("id") UUID id, @Param("delivered") int delivered);
+
+  /** Pending digests ordered by id, starting after {@code afterId}. */
+  @Query(
+      "SELECT p FROM NotificationPreference p"
+          + " WHERE p.mode = 'DIGEST' AND p.pendingCount > 0 AND p.id > :afterId ORDER BY p.id")
+  List<NotificationPreference> findPendingDigests(
+      @Param("afterId") UUID afterId, Pageable pageable);
+}
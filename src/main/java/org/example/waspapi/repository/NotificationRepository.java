@@ -1,5 +1,7 @@
 package org.example.waspapi.repository;
 
+import java.time.Instant;
+import java.util.Collection;
 import java.util.UUID;
 import org.example.waspapi.model.Notification;
 import org.springframework.data.domain.Page;
@@ -11,28 +13,69 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 @Repository
-public interface NotificationRepository extends JpaRepository<Notification, UUID> {
+public interface NotificationRepository
+    extends JpaRepository<Notification, UUID>, NotificationRepositoryCustom {
 
-  Page<Notification> findByUserIdOrderByCreatedAtDesc(UUID userId, Pageable pageable);
+  Page<Notification> findByUserIdOrderByUpdatedAtDesc(UUID userId, Pageable pageable);
 
-  Page<Notification> findByUserIdAndIsReadFalseOrderByCreatedAtDesc(UUID userId, Pageable pageable);
+  Page<Notification> findByUserIdAndIsReadFalseOrderByUpdatedAtDesc(UUID userId, Pageable pageable);
 
   long countByUserIdAndIsReadFalse(UUID userId);
 
-  boolean existsByUserIdAndTypeAndReferenceIdAndIsReadFalse(
-      UUID userId, String type, UUID referenceId);
+  /** Counts further occurrences into a notification in place, without loading it. */
+  @Modifying
+  @Query(
+      "UPDATE Notification n SET n.aggregateCount = COALESCE(n.aggregateCount, 1) + :occurrences"
+          + " WHERE n.id = :id")
+  int addOccurrences(@Param("id") UUID id, @Param("occurrences") int occurrences);
 
   @Modifying
   @Query(
       "UPDATE Notification n SET n.isRead = true"
           + " WHERE n.user.id = :userId AND n.type = :type AND n.referenceId = :referenceId"
           + " AND n.isRead = false")
-  void markAsReadByUserIdAndTypeAndReferenceId(
+  int markAsReadByUserIdAndTypeAndReferenceId(
       @Param("userId") UUID userId,
       @Param("type") String type,
       @Param("referenceId") UUID referenceId);
 
   @Modifying
   @Query("UPDATE Notification n SET n.isRead = true WHERE n.user.id = :userId AND n.isRead = false")
-  void markAllAsReadByUserId(@Param("userId") UUID userId);
+  int markAllAsReadByUserId(@Param("userId") UUID userId);
+
+  /** Marks the listed notifications as read; ids belonging to other users are left untouched. */
+  @Modifying
+  @Query(
+      "UPDATE Notification n SET n.isRead = true"
+          + " WHERE n.user.id = :userId AND n.id IN :ids AND n.isRead = false")
+  int markAsReadByUserIdAndIdIn(@Param("userId") UUID userId, @Param("ids") Collection<UUID> ids);
+
+  @Modifying
+  @Query(
+      "UPDATE Notification n SET n.isRead = true"
+          + " WHERE n.user.id = :userId AND n.type = :type AND n.isRead = false")
+  int markAsReadByUserIdAndType(@Param("userId") UUID userId, @Param("type") String type);
+
+  /** Marks as read everything last updated at or before the cursor, i.e. what the user has seen. */
+  @Modifying
+  @Query(
+      "UPDATE Notification n SET n.isRead = true"
+          + " WHERE n.user.id = :userId AND n.updatedAt <= :before AND n.isRead = false")
+  int markAsReadByUserIdAndUpdatedAtBefore(
+      @Param("userId") UUID userId, @Param("before") Instant before);
+
+  /** Deletes up to {@code batchSize} read notifications last updated before the cutoff. */
+  @Modifying
+  @Query(
+      value =
+          "DELETE FROM notifications WHERE notification_id IN ("
+              + "SELECT notification_id FROM notifications"
+              + " WHERE is_read = true AND updated_at < :cutoff LIMIT :batchSize)",
+      nativeQuery = true)
+  int deleteReadBefore(@Param("cutoff") Instant cutoff, @Param("batchSize") int batchSize);
+
+  /** Gives rows written before aggregation existed their last-update time. */
+  @Modifying
+  @Query("UPDATE Notification n SET n.updatedAt = n.createdAt WHERE n.updatedAt IS NULL")
+  int backfillUpdatedAt();
 }
@@ -0,0 +1,56 @@
+package org.example.waspapi.repository;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Map;
+import java.util.UUID;
+import org.example.waspapi.model.Notification;
+
+/**
+ * Set-based notification writes for fan-outs to many users, issued over JDBC so that no user or
+ * notification entity is loaded per recipient. The returned notifications are detached and carry no
+ * {@link Notification#getUser() user}.
+ */
+public interface NotificationRepositoryCustom {
+
+  /**
+   * Inserts one unread notification per user as a single JDBC batch. Each row is selected from
+   * {@code users}, so ids that match no user insert nothing instead of failing the batch.
+   *
+   * @return the inserted notifications by user id
+   */
+  Map<UUID, Notification> insertForUsers(
+      Collection<UUID> userIds,
+      String type,
+      UUID referenceId,
+      UUID groupKey,
+      UUID actorId,
+      Instant createdAt);
+
+  /**
+   * Inserts an unread notification for each user that does not already have one with the same type
+   * and reference, one statement per user sent as a single batch. Concurrent callers cannot create
+   * duplicates: the losing insert does nothing.
+   *
+   * @return the inserted notifications by user id
+   */
+  Map<UUID, Notification> insertUnreadIfAbsent(
+      Collection<UUID> userIds, String type, UUID referenceId, Instant createdAt);
+
+  /**
+   * Folds an occurrence into each user's unread notification of the group that was last updated
+   * after {@code openSince}, with one query and one update batch for all users. A notification read
+   * after the query is left alone.
+   *
+   * @return the updated notifications by user id; users with no open notification, or whose open
+   *     notification was read meanwhile, are absent and need a new one
+   */
+  Map<UUID, Notification> aggregateOpen(
+      Collection<UUID> userIds,
+      String type,
+      UUID groupKey,
+      UUID referenceId,
+      UUID actorId,
+      Instant openSince,
+      Instant now);
+}
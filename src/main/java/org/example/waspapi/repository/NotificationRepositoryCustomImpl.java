@@ -0,0 +1,259 @@
+package org.example.waspapi.repository;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import org.example.waspapi.model.Notification;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+public class NotificationRepositoryCustomImpl implements NotificationRepositoryCustom {
+
+  // Parameters in a SELECT list have no target type on PostgreSQL, hence the casts
+  private static final String INSERT_FOR_USER =
+      "INSERT INTO notifications (notification_id, user_id, type, reference_id, is_read,"
+          + " created_at, group_key, aggregate_count, latest_actor_id, updated_at)"
+          + " SELECT CAST(? AS uuid), u.user_id, CAST(? AS varchar), CAST(? AS uuid), false,"
+          + " CAST(? AS timestamp), CAST(? AS uuid), 1, CAST(? AS uuid), CAST(? AS timestamp)"
+          + " FROM users u WHERE u.user_id = ?";
+
+  /**
+   * Skips users that already have the same notification unread. For the deduplicated types the
+   * partial unique index {@code notifications_unread_message_dedup_idx} settles concurrent inserts
+   * through {@code ON CONFLICT}; the {@code NOT EXISTS} covers other types and partitioned tables,
+   * whose unique indexes only span one partition.
+   */
+  private static final String INSERT_UNREAD_IF_ABSENT =
+      INSERT_FOR_USER
+          + " AND NOT EXISTS (SELECT 1 FROM notifications n WHERE n.user_id = u.user_id"
+          + " AND n.type = ? AND n.reference_id = ? AND n.is_read = false)"
+          + " ON CONFLICT DO NOTHING";
+
+  /** H2 has neither partial indexes nor {@code ON CONFLICT}, so dedup is a single MERGE there. */
+  private static final String MERGE_UNREAD_IF_ABSENT =
+      "MERGE INTO notifications n"
+          + " USING (SELECT u.user_id FROM users u WHERE u.user_id = ?) src"
+          + " ON (n.user_id = src.user_id AND n.type = ? AND n.reference_id = ?"
+          + " AND n.is_read = false)"
+          + " WHEN NOT MATCHED THEN INSERT (notification_id, user_id, type, reference_id, is_read,"
+          + " created_at, group_key, aggregate_count, latest_actor_id, updated_at)"
+          + " VALUES (?, src.user_id, ?, ?, false, ?, NULL, 1, NULL, ?)";
+
+  private static final String SELECT_OPEN =
+      "SELECT notification_id, user_id, aggregate_count, created_at FROM notifications"
+          + " WHERE user_id IN (:userIds) AND type = :type AND group_key = :groupKey"
+          + " AND is_read = false AND updated_at > :openSince"
+          + " ORDER BY updated_at DESC";
+
+  /**
+   * Re-checks that the row is still unread: a user may read it between the select and the update,
+   * and an occurrence must not disappear into a notification that was already seen.
+   */
+  private static final String UPDATE_OPEN =
+      "UPDATE notifications SET aggregate_count = COALESCE(aggregate_count, 1) + 1,"
+          + " reference_id = ?, latest_actor_id = ?, updated_at = ?"
+          + " WHERE notification_id = ? AND is_read = false";
+
+  private final NamedParameterJdbcTemplate jdbcTemplate;
+  private volatile Boolean postgres;
+
+  public NotificationRepositoryCustomImpl(NamedParameterJdbcTemplate jdbcTemplate) {
+    this.jdbcTemplate = jdbcTemplate;
+  }
+
+  @Override
+  public Map<UUID, Notification> insertForUsers(
+      Collection<UUID> userIds,
+      String type,
+      UUID referenceId,
+      UUID groupKey,
+      UUID actorId,
+      Instant createdAt) {
+    return insert(userIds, type, referenceId, groupKey, actorId, createdAt, false);
+  }
+
+  @Override
+  public Map<UUID, Notification> insertUnreadIfAbsent(
+      Collection<UUID> userIds, String type, UUID referenceId, Instant createdAt) {
+    return insert(userIds, type, referenceId, null, null, createdAt, true);
+  }
+
+  private Map<UUID, Notification> insert(
+      Collection<UUID> userIds,
+      String type,
+      UUID referenceId,
+      UUID groupKey,
+      UUID actorId,
+      Instant createdAt,
+      boolean ifAbsent) {
+    if (userIds.isEmpty()) {
+      return Collections.emptyMap();
+    }
+    List<UUID> recipients = new ArrayList<>(userIds);
+    UUID[] ids = new UUID[recipients.size()];
+    for (int i = 0; i < ids.length; i++) {
+      ids[i] = UUID.randomUUID();
+    }
+    Timestamp at = Timestamp.from(createdAt);
+    boolean merge = ifAbsent && !isPostgres();
+
+    int[] counts =
+        jdbcTemplate
+            .getJdbcTemplate()
+            .batchUpdate(
+                merge
+                    ? MERGE_UNREAD_IF_ABSENT
+                    : ifAbsent ? INSERT_UNREAD_IF_ABSENT : INSERT_FOR_USER,
+                new BatchPreparedStatementSetter() {
+                  @Override
+                  public void setValues(PreparedStatement ps, int i) throws SQLException {
+                    if (merge) {
+                      ps.setObject(1, recipients.get(i));
+                      ps.setString(2, type);
+                      ps.setObject(3, referenceId);
+                      ps.setObject(4, ids[i]);
+                      ps.setString(5, type);
+                      ps.setObject(6, referenceId);
+                      ps.setTimestamp(7, at);
+                      ps.setTimestamp(8, at);
+                      return;
+                    }
+                    ps.setObject(1, ids[i]);
+                    ps.setString(2, type);
+                    ps.setObject(3, referenceId);
+                    ps.setTimestamp(4, at);
+                    ps.setObject(5, groupKey);
+                    ps.setObject(6, actorId);
+                    ps.setTimestamp(7, at);
+                    ps.setObject(8, recipients.get(i));
+                    if (ifAbsent) {
+                      ps.setString(9, type);
+                      ps.setObject(10, referenceId);
+                    }
+                  }
+
+                  @Override
+                  public int getBatchSize() {
+                    return recipients.size();
+                  }
+                });
+
+    Map<UUID, Notification> inserted = new LinkedHashMap<>();
+    for (int i = 0; i < counts.length; i++) {
+      if (counts[i] == 0) {
+        continue;
+      }
+      Notification notification = new Notification();
+      notification.setId(ids[i]);
+      notification.setType(type);
+      notification.setReferenceId(referenceId);
+      notification.setIsRead(false);
+      notification.setCreatedAt(createdAt);
+      notification.setUpdatedAt(createdAt);
+      notification.setGroupKey(groupKey);
+      notification.setAggregateCount(1);
+      notification.setLatestActorId(actorId);
+      inserted.put(recipients.get(i), notification);
+    }
+    return inserted;
+  }
+
+  @Override
+  public Map<UUID, Notification> aggregateOpen(
+      Collection<UUID> userIds,
+      String type,
+      UUID groupKey,
+      UUID referenceId,
+      UUID actorId,
+      Instant openSince,
+      Instant now) {
+    if (userIds.isEmpty()) {
+      return Collections.emptyMap();
+    }
+    Map<UUID, Notification> open = new LinkedHashMap<>();
+    jdbcTemplate.query(
+        SELECT_OPEN,
+        new MapSqlParameterSource("userIds", userIds)
+            .addValue("type", type)
+            .addValue("groupKey", groupKey)
+            .addValue("openSince", Timestamp.from(openSince)),
+        rs -> {
+          UUID userId = rs.getObject("user_id", UUID.class);
+          // Newest first, so a user with several open rows keeps aggregating into the latest
+          if (open.containsKey(userId)) {
+            return;
+          }
+          int count = rs.getInt("aggregate_count");
+          boolean noCount = rs.wasNull();
+          Notification notification = new Notification();
+          notification.setId(rs.getObject("notification_id", UUID.class));
+          notification.setType(type);
+          notification.setIsRead(false);
+          notification.setCreatedAt(rs.getTimestamp("created_at").toInstant());
+          notification.setGroupKey(groupKey);
+          notification.setAggregateCount(noCount ? 1 : count);
+          notification.aggregate(referenceId, actorId, now);
+          open.put(userId, notification);
+        });
+    if (open.isEmpty()) {
+      return open;
+    }
+
+    // One statement per row in a single batch, so the update counts tell which rows were folded
+    List<Map.Entry<UUID, Notification>> rows = new ArrayList<>(open.entrySet());
+    Timestamp at = Timestamp.from(now);
+    int[] counts =
+        jdbcTemplate
+            .getJdbcTemplate()
+            .batchUpdate(
+                UPDATE_OPEN,
+                new BatchPreparedStatementSetter() {
+                  @Override
+                  public void setValues(PreparedStatement ps, int i) throws SQLException {
+                    ps.setObject(1, referenceId);
+                    ps.setObject(2, actorId);
+                    ps.setTimestamp(3, at);
+                    ps.setObject(4, rows.get(i).getValue().getId());
+                  }
+
+                  @Override
+                  public int getBatchSize() {
+                    return rows.size();
+                  }
+                });
+
+    Map<UUID, Notification> aggregated = new LinkedHashMap<>();
+    for (int i = 0; i < counts.length; i++) {
+      if (counts[i] != 0) {
+        aggregated.put(rows.get(i).getKey(), rows.get(i).getValue());
+      }
+    }
+    return aggregated;
+  }
+
+  private boolean isPostgres() {
+    Boolean current = postgres;
+    if (current == null) {
+      current =
+          "PostgreSQL"
+              .equals(
+                  jdbcTemplate
+                      .getJdbcTemplate()
+                      .execute(
+                          (ConnectionCallback<String>)
+                              connection -> connection.getMetaData().getDatabaseProductName()));
+      postgres = current;
+    }
+    return current;
+  }
+}
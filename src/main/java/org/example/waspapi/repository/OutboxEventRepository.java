@@ -0,0 +1,57 @@
+package org.example.waspapi.repository;
+
+import java.time.Instant;
+import java.util.List;
+import javax.persistence.LockModeType;
+import javax.persistence.QueryHint;
+import org.example.waspapi.model.OutboxEvent;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+  /**
+   * Pending events that are due, oldest first, locked for the caller. Only the earliest pending
+   * event of an aggregate is returned, so a later one waits until it is done or failed. Rows locked
+   * by another dispatcher are skipped ({@code SKIP LOCKED}) where the database supports it; since a
+   * skipped event still holds back the rest of its aggregate, dispatchers whose claims overlap keep
+   * each aggregate in order.
+   */
+  @Lock(LockModeType.PESSIMISTIC_WRITE)
+  @QueryHints(@QueryHint(name = "javax.persistence.lock.timeout", value = "-2"))
+  @Query(
+      "SELECT e FROM OutboxEvent e WHERE e.status = 'PENDING' AND e.availableAt <= :now"
+          + " AND NOT EXISTS (SELECT p.id FROM OutboxEvent p WHERE p.status = 'PENDING'"
+          + " AND p.aggregateType = e.aggregateType AND p.aggregateId = e.aggregateId"
+          + " AND p.id < e.id)"
+          + " ORDER BY e.id")
+  List<OutboxEvent> findClaimable(@Param("now") Instant now, Pageable pageable);
+
+  @Modifying
+  @Query(
+      "UPDATE OutboxEvent e SET e.status = 'DONE', e.processedAt = :now, e.lastError = NULL"
+          + " WHERE e.id = :id")
+  int markDone(@Param("id") Long id, @Param("now") Instant now);
+
+  long countByStatus(String status);
+
+  @Query("SELECT MIN(e.createdAt) FROM OutboxEvent e WHERE e.status = 'PENDING'")
+  Instant findOldestPendingCreatedAt();
+
+  /** Deletes up to {@code batchSize} processed events older than the cutoff. */
+  @Modifying
+  @Query(
+      value =
+          "DELETE FROM outbox_events WHERE outbox_event_id IN ("
+              + "SELECT outbox_event_id FROM outbox_events"
+              + " WHERE status = 'DONE' AND processed_at < :cutoff LIMIT :batchSize)",
+      nativeQuery = true)
+  int deleteDoneBefore(@Param("cutoff") Instant cutoff, @Param("batchSize") int batchSize);
+}
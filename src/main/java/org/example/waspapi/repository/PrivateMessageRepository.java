@@ -1,31 +1,64 @@
 package org.example.waspapi.repository;
 
+import java.time.Instant;
 import java.util.List;
 import java.util.UUID;
 import org.example.waspapi.model.PrivateMessage;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
 public interface PrivateMessageRepository extends JpaRepository<PrivateMessage, UUID> {
 
   @Query(
-      "SELECT pm FROM PrivateMessage pm"
-          + " WHERE (pm.sender.id = :userA AND pm.receiver.id = :userB)"
-          + " OR (pm.sender.id = :userB AND pm.receiver.id = :userA)"
+      "SELECT pm FROM PrivateMessage pm JOIN FETCH pm.sender"
+          + " WHERE pm.userLowId = :low AND pm.userHighId = :high"
           + " ORDER BY pm.createdAt DESC")
-  Page<PrivateMessage> findConversation(
-      @Param("userA") UUID userA, @Param("userB") UUID userB, Pageable pageable);
+  List<PrivateMessage> findConversation(
+      @Param("low") UUID low, @Param("high") UUID high, Pageable pageable);
 
+  long countByUserLowIdAndUserHighId(UUID userLowId, UUID userHighId);
+
+  /**
+   * Sync branch for sent messages. Sync reads sent and received messages with two queries so each
+   * one can walk its own {@code (user, created_at)} index; an OR of both columns could use neither.
+   */
+  @Query(
+      "SELECT pm FROM PrivateMessage pm JOIN FETCH pm.sender"
+          + " WHERE pm.sender.id = :userId"
+          + " AND (pm.createdAt > :after OR (pm.createdAt = :after AND pm.id > :afterId))"
+          + " AND pm.createdAt < :until"
+          + " ORDER BY pm.createdAt, pm.id")
+  List<PrivateMessage> findSentSince(
+      @Param("userId") UUID userId,
+      @Param("after") Instant after,
+      @Param("afterId") UUID afterId,
+      @Param("until") Instant until,
+      Pageable pageable);
+
+  /** Sync branch for received messages, see {@link #findSentSince}. */
+  @Query(
+      "SELECT pm FROM PrivateMessage pm JOIN FETCH pm.sender"
+          + " WHERE pm.receiver.id = :userId"
+          + " AND (pm.createdAt > :after OR (pm.createdAt = :after AND pm.id > :afterId))"
+          + " AND pm.createdAt < :until"
+          + " ORDER BY pm.createdAt, pm.id")
+  List<PrivateMessage> findReceivedSince(
+      @Param("userId") UUID userId,
+      @Param("after") Instant after,
+      @Param("afterId") UUID afterId,
+      @Param("until") Instant until,
+      Pageable pageable);
+
+  /** Fills the canonical pair columns of messages written before they existed. */
+  @Modifying
   @Query(
       value =
-          "SELECT DISTINCT ON (LEAST(sender_id, receiver_id), GREATEST(sender_id, receiver_id))"
-              + " * FROM private_messages"
-              + " WHERE sender_id = :userId OR receiver_id = :userId"
-              + " ORDER BY LEAST(sender_id, receiver_id), GREATEST(sender_id, receiver_id),"
-              + " created_at DESC",
+          "UPDATE private_messages SET user_low_id = LEAST(sender_id, receiver_id),"
+              + " user_high_id = GREATEST(sender_id, receiver_id)"
+              + " WHERE user_low_id IS NULL",
       nativeQuery = true)
-  List<PrivateMessage> findLatestMessagePerConversation(@Param("userId") UUID userId);
+  int backfillCanonicalPairs();
 }
@@ -1,11 +1,15 @@
 package org.example.waspapi.repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 import org.example.waspapi.model.SessionAttendance;
 import org.example.waspapi.model.SessionAttendanceId;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 @Repository
@@ -17,4 +21,49 @@ public interface SessionAttendanceRepository
   boolean existsByUserIdAndSessionId(UUID userId, UUID sessionId);
 
   Optional<SessionAttendance> findByUserIdAndSessionId(UUID userId, UUID sessionId);
+
+  long countBySessionIdAndConfirmAssistTrue(UUID sessionId);
+
+  /** (session id, confirmed count) of each listed session with at least one confirmation. */
+  @Query(
+      "SELECT a.session.id, COUNT(a) FROM SessionAttendance a"
+          + " WHERE a.session.id IN :sessionIds AND a.confirmAssist = true"
+          + " GROUP BY a.session.id")
+  List<Object[]> countConfirmedBySessionIdIn(@Param("sessionIds") Collection<UUID> sessionIds);
+
+  /**
+   * (user id, nickname, profile photo, confirmed, declined, attendance rate) of each active player
+   * of the game over its sessions in the range, by nickname. The rate is null without sessions.
+   */
+  @Query(
+      "SELECT u.id, u.nickname, u.profilePhoto,"
+          + " SUM(CASE WHEN a.confirmAssist = true THEN 1 ELSE 0 END),"
+          + " SUM(CASE WHEN a.confirmAssist = false THEN 1 ELSE 0 END),"
+          + " SUM(CASE WHEN a.confirmAssist = true THEN 1.0 ELSE 0.0 END) / NULLIF(COUNT(s.id), 0)"
+          + " FROM Subscription sub JOIN sub.user u"
+          + " LEFT JOIN Session s ON s.game = sub.game"
+          + " AND s.datetime >= :from AND s.datetime < :to"
+          + " LEFT JOIN SessionAttendance a ON a.session = s AND a.user = u"
+          + " WHERE sub.game.id = :gameId AND sub.isActive = true"
+          + " GROUP BY u.id, u.nickname, u.profilePhoto"
+          + " ORDER BY u.nickname, u.id")
+  List<Object[]> findMatrixPlayerRows(
+      @Param("gameId") UUID gameId,
+      @Param("from") LocalDateTime from,
+      @Param("to") LocalDateTime to);
+
+  /**
+   * (session id, name, datetime, user id, confirm assist) of each answered attendance to the game's
+   * sessions in the range, plus one row with a null user for each session without any, in start
+   * order.
+   */
+  @Query(
+      "SELECT s.id, s.name, s.datetime, a.user.id, a.confirmAssist FROM Session s"
+          + " LEFT JOIN SessionAttendance a ON a.session = s AND a.confirmAssist IS NOT NULL"
+          + " WHERE s.game.id = :gameId AND s.datetime >= :from AND s.datetime < :to"
+          + " ORDER BY s.datetime, s.id")
+  List<Object[]> findMatrixCells(
+      @Param("gameId") UUID gameId,
+      @Param("from") LocalDateTime from,
+      @Param("to") LocalDateTime to);
 }
@@ -1,26 +1,115 @@
 package org.example.waspapi.repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
+import javax.persistence.QueryHint;
 import org.example.waspapi.model.Session;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 @Repository
 public interface SessionRepository extends JpaRepository<Session, UUID> {
 
-  List<Session> findByGameId(UUID gameId);
+  @Query("SELECT s FROM Session s JOIN FETCH s.game g WHERE g.id = :gameId")
+  List<Session> findByGameId(@Param("gameId") UUID gameId);
 
+  /**
+   * The user's calendar: (session id, name, is presential, datetime, place, observations, game id,
+   * game name, confirmed count, the user's confirm assist, series id, occurrence datetime) of every
+   * session in the range of the games the user is an active member of, in one query.
+   */
   @Query(
-      "SELECT s FROM Session s JOIN FETCH s.game g "
-          + "WHERE g.id IN :gameIds "
-          + "AND s.datetime >= :start AND s.datetime < :end "
-          + "ORDER BY s.datetime")
-  List<Session> findByGameIdsAndDateRange(
-      @Param("gameIds") List<UUID> gameIds,
+      "SELECT s.id, s.name, s.isPresential, s.datetime, s.place, s.observations, g.id, g.name,"
+          + " (SELECT COUNT(c) FROM SessionAttendance c"
+          + " WHERE c.session = s AND c.confirmAssist = true),"
+          + " (SELECT m.confirmAssist FROM SessionAttendance m"
+          + " WHERE m.session = s AND m.user.id = :userId),"
+          + " s.series.id, s.occurrenceDatetime"
+          + " FROM Subscription sub JOIN sub.game g, Session s"
+          + " WHERE s.game = g AND sub.user.id = :userId AND sub.isActive = true"
+          + " AND (g.isDeleted IS NULL OR g.isDeleted = false)"
+          + " AND s.datetime >= :start AND s.datetime < :end"
+          + " ORDER BY s.datetime")
+  List<Object[]> findCalendarRows(
+      @Param("userId") UUID userId,
       @Param("start") LocalDateTime start,
       @Param("end") LocalDateTime end);
+
+  /**
+   * (session id, name, is presential, datetime, place, observations, game name, series id,
+   * occurrence datetime) of the sessions of the user's active games from {@code from} to {@code
+   * to}, in start order. Rows are fetched in chunks while the stream is read, which must happen
+   * inside a transaction.
+   */
+  @QueryHints(@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE, value = "200"))
+  @Query(
+      "SELECT s.id, s.name, s.isPresential, s.datetime, s.place, s.observations, g.name,"
+          + " s.series.id, s.occurrenceDatetime"
+          + " FROM Subscription sub JOIN sub.game g, Session s"
+          + " WHERE s.game = g AND sub.user.id = :userId AND sub.isActive = true"
+          + " AND (g.isDeleted IS NULL OR g.isDeleted = false)"
+          + " AND s.datetime >= :from AND s.datetime < :to"
+          + " ORDER BY s.datetime, s.id")
+  Stream<Object[]> streamFeedRows(
+      @Param("userId") UUID userId,
+      @Param("from") LocalDateTime from,
+      @Param("to") LocalDateTime to);
+
+  /** (session id, datetime) of the sessions of non-deleted games in the range. */
+  @Query(
+      "SELECT s.id, s.datetime FROM Session s JOIN s.game g"
+          + " WHERE s.datetime >= :from AND s.datetime < :to"
+          + " AND (g.isDeleted IS NULL OR g.isDeleted = false)")
+  List<Object[]> findScheduleRows(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+  /** (session id, name, datetime, game id, game name) of each session. */
+  @Query(
+      "SELECT s.id, s.name, s.datetime, g.id, g.name FROM Session s JOIN s.game g"
+          + " WHERE s.id IN :ids")
+  List<Object[]> findSummariesByIdIn(@Param("ids") Collection<UUID> ids);
+
+  Optional<Session> findBySeriesIdAndOccurrenceDatetime(
+      UUID seriesId, LocalDateTime occurrenceDatetime);
+
+  /**
+   * (series id, occurrence datetime) of the occurrences of the series in the range that are stored
+   * as sessions, wherever they were moved to.
+   */
+  @Query(
+      "SELECT s.series.id, s.occurrenceDatetime FROM Session s"
+          + " WHERE s.series.id IN :seriesIds"
+          + " AND s.occurrenceDatetime >= :start AND s.occurrenceDatetime < :end")
+  List<Object[]> findOccurrenceKeysBySeriesIdIn(
+      @Param("seriesIds") Collection<UUID> seriesIds,
+      @Param("start") LocalDateTime start,
+      @Param("end") LocalDateTime end);
+
+  /** Turns the stored occurrences of the series into standalone sessions. */
+  @Modifying
+  @Query(
+      "UPDATE Session s SET s.series = null, s.occurrenceDatetime = null"
+          + " WHERE s.series.id = :seriesId")
+  int detachFromSeries(@Param("seriesId") UUID seriesId);
+
+  /**
+   * (user id, session datetime) of the sessions from {@code from} to {@code to} of every game each
+   * of the users is an active member of.
+   */
+  @Query(
+      "SELECT sub.user.id, s.datetime FROM Subscription sub JOIN sub.game g, Session s"
+          + " WHERE s.game = g AND sub.user.id IN :userIds AND sub.isActive = true"
+          + " AND (g.isDeleted IS NULL OR g.isDeleted = false)"
+          + " AND s.datetime >= :from AND s.datetime < :to")
+  List<Object[]> findBusyRowsByUserIdIn(
+      @Param("userIds") Collection<UUID> userIds,
+      @Param("from") LocalDateTime from,
+      @Param("to") LocalDateTime to);
 }
@@ -0,0 +1,33 @@
+package org.example.waspapi.repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import org.example.waspapi.model.SessionSeriesCancellation;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface SessionSeriesCancellationRepository
+    extends JpaRepository<SessionSeriesCancellation, UUID> {
+
+  boolean existsBySeriesIdAndOccurrenceDatetime(UUID seriesId, LocalDateTime occurrenceDatetime);
+
+  /** (series id, occurrence datetime) of the cancellations of the series in the range. */
+  @Query(
+      "SELECT c.series.id, c.occurrenceDatetime FROM SessionSeriesCancellation c"
+          + " WHERE c.series.id IN :seriesIds"
+          + " AND c.occurrenceDatetime >= :start AND c.occurrenceDatetime < :end")
+  List<Object[]> findKeysBySeriesIdIn(
+      @Param("seriesIds") Collection<UUID> seriesIds,
+      @Param("start") LocalDateTime start,
+      @Param("end") LocalDateTime end);
+
+  @Modifying
+  @Query("DELETE FROM SessionSeriesCancellation c WHERE c.series.id = :seriesId")
+  int deleteBySeriesId(@Param("seriesId") UUID seriesId);
+}
@@ -0,0 +1,67 @@
+package org.example.waspapi.repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import org.example.waspapi.model.SessionSeries;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface SessionSeriesRepository extends JpaRepository<SessionSeries, UUID> {
+
+  @Query(
+      "SELECT ss FROM SessionSeries ss JOIN FETCH ss.game g WHERE g.id = :gameId"
+          + " ORDER BY ss.startDatetime")
+  List<SessionSeries> findByGameId(@Param("gameId") UUID gameId);
+
+  /**
+   * The series of the user's active games that may have occurrences from {@code start} to {@code
+   * end}, with their games fetched.
+   */
+  @Query(
+      "SELECT ss FROM Subscription sub JOIN sub.game g, SessionSeries ss JOIN FETCH ss.game"
+          + " WHERE ss.game = g AND sub.user.id = :userId AND sub.isActive = true"
+          + " AND (g.isDeleted IS NULL OR g.isDeleted = false)"
+          + " AND ss.startDatetime < :end"
+          + " AND (ss.untilDatetime IS NULL OR ss.untilDatetime >= :start)")
+  List<SessionSeries> findOverlappingByUserId(
+      @Param("userId") UUID userId,
+      @Param("start") LocalDateTime start,
+      @Param("end") LocalDateTime end);
+
+  /**
+   * (user id, series) of the series of the users' active games that may have occurrences from
+   * {@code start} to {@code end}.
+   */
+  @Query(
+      "SELECT sub.user.id, ss FROM Subscription sub JOIN sub.game g, SessionSeries ss"
+          + " WHERE ss.game = g AND sub.user.id IN :userIds AND sub.isActive = true"
+          + " AND (g.isDeleted IS NULL OR g.isDeleted = false)"
+          + " AND ss.startDatetime < :end"
+          + " AND (ss.untilDatetime IS NULL OR ss.untilDatetime >= :start)")
+  List<Object[]> findOverlappingByUserIdIn(
+      @Param("userIds") Collection<UUID> userIds,
+      @Param("start") LocalDateTime start,
+      @Param("end") LocalDateTime end);
+
+  /**
+   * The series of games not deleted that may have occurrences from {@code start} to {@code end}.
+   */
+  @Query(
+      "SELECT ss FROM SessionSeries ss JOIN ss.game g"
+          + " WHERE (g.isDeleted IS NULL OR g.isDeleted = false)"
+          + " AND ss.startDatetime < :end"
+          + " AND (ss.untilDatetime IS NULL OR ss.untilDatetime >= :start)")
+  List<SessionSeries> findOverlapping(
+      @Param("start") LocalDateTime start, @Param("end") LocalDateTime end);
+
+  /** (series id, name, start datetime, game id, game name) of each series. */
+  @Query(
+      "SELECT ss.id, ss.name, ss.startDatetime, g.id, g.name FROM SessionSeries ss JOIN ss.game g"
+          + " WHERE ss.id IN :ids")
+  List<Object[]> findSummariesByIdIn(@Param("ids") Collection<UUID> ids);
+}
@@ -1,10 +1,13 @@
 package org.example.waspapi.repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.UUID;
 import org.example.waspapi.model.Subscription;
 import org.example.waspapi.model.SubscriptionId;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 @Repository
@@ -18,9 +21,71 @@ public interface SubscriptionRepository extends JpaRepository<Subscription, Subs
 
   List<Subscription> findByUserIdAndIsActiveTrue(UUID userId);
 
+  /**
+   * Active members of the session's game who have not declined it, or none if the session no longer
+   * starts between {@code earliest} and {@code latest}.
+   */
+  @Query(
+      "SELECT s.user.id FROM Subscription s, Session x"
+          + " WHERE x.id = :sessionId AND x.datetime BETWEEN :earliest AND :latest"
+          + " AND s.game = x.game AND s.isActive = true"
+          + " AND NOT EXISTS (SELECT a FROM SessionAttendance a"
+          + " WHERE a.session = x AND a.user = s.user AND a.confirmAssist = false)")
+  List<UUID> findRemindableUserIds(
+      @Param("sessionId") UUID sessionId,
+      @Param("earliest") LocalDateTime earliest,
+      @Param("latest") LocalDateTime latest);
+
+  /**
+   * Active members of the series' game, or none if the occurrence starting at {@code occurrence}
+   * has since been cancelled or stored as a session, or the series deleted.
+   */
+  @Query(
+      "SELECT s.user.id FROM Subscription s, SessionSeries ss"
+          + " WHERE ss.id = :seriesId AND s.game = ss.game AND s.isActive = true"
+          + " AND NOT EXISTS (SELECT c FROM SessionSeriesCancellation c"
+          + " WHERE c.series = ss AND c.occurrenceDatetime = :occurrence)"
+          + " AND NOT EXISTS (SELECT x FROM Session x"
+          + " WHERE x.series = ss AND x.occurrenceDatetime = :occurrence)")
+  List<UUID> findRemindableUserIdsForOccurrence(
+      @Param("seriesId") UUID seriesId, @Param("occurrence") LocalDateTime occurrence);
+
+  /** (game id, game name) of the user's active, non-deleted games. */
+  @Query(
+      "SELECT g.id, g.name FROM Subscription s JOIN s.game g"
+          + " WHERE s.user.id = :userId AND s.isActive = true"
+          + " AND (g.isDeleted IS NULL OR g.isDeleted = false)")
+  List<Object[]> findActiveGamesByUserId(@Param("userId") UUID userId);
+
   long countByGameIdAndIsActiveTrue(UUID gameId);
 
   List<Subscription> findByGameIdAndIsActiveTrue(UUID gameId);
 
   Subscription findByUserIdAndGameId(UUID userId, UUID gameId);
+
+  @Query("SELECT s.user.id FROM Subscription s WHERE s.game.id = :gameId AND s.isActive = true")
+  List<UUID> findActiveUserIdsByGameId(@Param("gameId") UUID gameId);
+
+  /** Active members to notify of the type, leaving out those who muted it or take a digest. */
+  @Query(
+      "SELECT s.user.id FROM Subscription s WHERE s.game.id = :gameId AND s.isActive = true"
+          + " AND NOT EXISTS (SELECT p.id FROM NotificationPreference p"
+          + " WHERE p.user.id = s.user.id AND p.game.id = :gameId AND p.type = :type"
+          + " AND p.mode <> 'ON')")
+  List<UUID> findNotifiableUserIds(@Param("gameId") UUID gameId, @Param("type") String type);
+
+  /** Same as {@link #findNotifiableUserIds} restricted to the game's admins. */
+  @Query(
+      "SELECT s.user.id FROM Subscription s"
+          + " WHERE s.game.id = :gameId AND s.isActive = true AND s.isAdmin = true"
+          + " AND NOT EXISTS (SELECT p.id FROM NotificationPreference p"
+          + " WHERE p.user.id = s.user.id AND p.game.id = :gameId AND p.type = :type"
+          + " AND p.mode <> 'ON')")
+  List<UUID> findNotifiableAdminIds(@Param("gameId") UUID gameId, @Param("type") String type);
+
+  /** (user id, game id) of every active subscription to a game that is not deleted. */
+  @Query(
+      "SELECT s.user.id, s.game.id FROM Subscription s"
+          + " WHERE s.isActive = true AND (s.game.isDeleted IS NULL OR s.game.isDeleted = false)")
+  List<Object[]> findActiveMemberships();
 }
@@ -0,0 +1,21 @@
+package org.example.waspapi.repository;
+
+import java.util.List;
+import java.util.UUID;
+import org.example.waspapi.model.UserAvailability;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface UserAvailabilityRepository extends JpaRepository<UserAvailability, UUID> {
+
+  /** (user id, slots) of each active member of the game; slots are null if never set. */
+  @Query(
+      "SELECT u.id, av.slots FROM Subscription sub JOIN sub.user u"
+          + " LEFT JOIN UserAvailability av ON av.userId = u.id"
+          + " WHERE sub.game.id = :gameId AND sub.isActive = true"
+          + " ORDER BY u.nickname, u.id")
+  List<Object[]> findSlotsByGameId(@Param("gameId") UUID gameId);
+}
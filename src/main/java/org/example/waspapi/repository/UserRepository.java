@@ -1,9 +1,13 @@
 package org.example.waspapi.repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 import org.example.waspapi.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 public interface UserRepository extends JpaRepository<User, UUID> {
   Optional<User> findByEmail(String email);
@@ -11,4 +15,11 @@ public interface UserRepository extends JpaRepository<User, UUID> {
   Optional<User> findByNickname(String nickname);
 
   boolean existsByNickname(String nickname);
+
+  @Query("SELECT u.id FROM User u WHERE u.calendarToken = :token")
+  Optional<UUID> findIdByCalendarToken(@Param("token") String token);
+
+  /** (user id, nickname, profile photo) of each user. */
+  @Query("SELECT u.id, u.nickname, u.profilePhoto FROM User u WHERE u.id IN :ids")
+  List<Object[]> findSummariesByIdIn(@Param("ids") Collection<UUID> ids);
 }
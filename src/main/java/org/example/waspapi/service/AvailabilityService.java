@@ -0,0 +1,287 @@
+package org.example.waspapi.service;
+
+import static org.example.waspapi.Constants.INVALID_AVAILABILITY;
+import static org.example.waspapi.Constants.INVALID_SLOT_SEARCH;
+import static org.example.waspapi.Constants.USER_NOT_FOUND;
+
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import org.example.waspapi.dto.requests.users.UpdateAvailabilityRequest;
+import org.example.waspapi.dto.responses.session.GetCandidateSlotsResponse;
+import org.example.waspapi.dto.responses.users.GetAvailabilityResponse;
+import org.example.waspapi.exceptions.HandledException;
+import org.example.waspapi.model.UserAvailability;
+import org.example.waspapi.repository.SessionRepository;
+import org.example.waspapi.repository.UserAvailabilityRepository;
+import org.example.waspapi.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Weekly availability of users, as {@link WeeklyAvailability} bitmaps, and the search for the best
+ * times to hold a session of a game.
+ *
+ * <p>The search reads the active players' bitmaps with one query and the sessions and series
+ * occurrences that already take their time that week with two more. For each player it keeps the
+ * starts from which the whole session fits their availability and overlaps none of those, then sums
+ * the players per start in bit-sliced counters, all a word at a time. Candidates are ranked by how
+ * many players can attend, earliest first, and never overlap each other.
+ */
+@Service
+public class AvailabilityService {
+
+  private static final Logger logger = LoggerFactory.getLogger(AvailabilityService.class);
+  private static final int MAX_DURATION_MINUTES = 720;
+  private static final int MAX_SLOTS = 50;
+
+  private final UserAvailabilityRepository availabilityRepository;
+  private final UserRepository userRepository;
+  private final SessionRepository sessionRepository;
+  private final SessionSeriesService seriesService;
+
+  /** How long an existing session keeps its players busy. */
+  @Value("${wasp.sessions.scheduling.busy-minutes:180}")
+  private long busyMinutes;
+
+  public AvailabilityService(
+      UserAvailabilityRepository availabilityRepository,
+      UserRepository userRepository,
+      SessionRepository sessionRepository,
+      SessionSeriesService seriesService) {
+    this.availabilityRepository = availabilityRepository;
+    this.userRepository = userRepository;
+    this.sessionRepository = sessionRepository;
+    this.seriesService = seriesService;
+  }
+
+  public GetAvailabilityResponse getAvailability(UUID userId) {
+    UserAvailability stored = availabilityRepository.findById(userId).orElse(null);
+    if (stored == null) {
+      return new GetAvailabilityResponse(
+          WeeklyAvailability.SLOT_MINUTES, Collections.emptyList(), null);
+    }
+    return new GetAvailabilityResponse(
+        WeeklyAvailability.SLOT_MINUTES,
+        toRanges(WeeklyAvailability.fromBytes(stored.getSlots())),
+        stored.getUpdatedAt());
+  }
+
+  /** Replaces the user's weekly availability. */
+  @Transactional
+  public GetAvailabilityResponse updateAvailability(
+      UUID userId, UpdateAvailabilityRequest request) {
+    if (!userRepository.existsById(userId)) {
+      throw new HandledException(USER_NOT_FOUND, HttpStatus.NOT_FOUND);
+    }
+    WeeklyAvailability availability = WeeklyAvailability.empty();
+    for (UpdateAvailabilityRequest.Range range : request.getRanges()) {
+      if (range == null
+          || range.getDay() == null
+          || !onBoundary(range.getStart())
+          || !onBoundary(range.getEnd())) {
+        throw new HandledException(INVALID_AVAILABILITY, HttpStatus.BAD_REQUEST);
+      }
+      int from = WeeklyAvailability.slotOf(range.getDay(), range.getStart());
+      int to =
+          LocalTime.MIDNIGHT.equals(range.getEnd())
+              ? range.getDay().getValue() * WeeklyAvailability.SLOTS_PER_DAY
+              : WeeklyAvailability.slotOf(range.getDay(), range.getEnd());
+      if (to <= from) {
+        throw new HandledException(INVALID_AVAILABILITY, HttpStatus.BAD_REQUEST);
+      }
+      availability.set(from, to);
+    }
+
+    UserAvailability stored =
+        availabilityRepository.findById(userId).orElseGet(() -> new UserAvailability(userId));
+    stored.setSlots(availability.toBytes());
+    stored.setUpdatedAt(Instant.now());
+    availabilityRepository.save(stored);
+    logger.info("User {} set {} available slots", userId, availability.cardinality());
+    return new GetAvailabilityResponse(
+        WeeklyAvailability.SLOT_MINUTES, toRanges(availability), stored.getUpdatedAt());
+  }
+
+  /**
+   * The best starts in the week of {@code day} for a session of the game lasting {@code
+   * durationMinutes}, leaving out times already past.
+   */
+  public GetCandidateSlotsResponse findCandidateSlots(
+      UUID gameId, LocalDate day, int durationMinutes, int limit) {
+    if (durationMinutes < WeeklyAvailability.SLOT_MINUTES
+        || durationMinutes > MAX_DURATION_MINUTES
+        || limit < 1
+        || limit > MAX_SLOTS) {
+      throw new HandledException(INVALID_SLOT_SEARCH, HttpStatus.BAD_REQUEST);
+    }
+    LocalDate weekStart = day.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+    LocalDateTime start = weekStart.atStartOfDay();
+    LocalDateTime end = start.plusDays(7);
+    int length = ceilSlots(durationMinutes);
+
+    List<UUID> playerIds = new ArrayList<>();
+    List<WeeklyAvailability> availabilities = new ArrayList<>();
+    List<UUID> undeclared = new ArrayList<>();
+    for (Object[] row : availabilityRepository.findSlotsByGameId(gameId)) {
+      if (row[1] == null) {
+        undeclared.add((UUID) row[0]);
+      } else {
+        playerIds.add((UUID) row[0]);
+        availabilities.add(WeeklyAvailability.fromBytes((byte[]) row[1]));
+      }
+    }
+    if (playerIds.isEmpty()) {
+      return new GetCandidateSlotsResponse(
+          weekStart, durationMinutes, 0, undeclared, Collections.emptyList());
+    }
+
+    Map<UUID, WeeklyAvailability> busy = loadBusy(playerIds, start, end);
+    WeeklyAvailability past = WeeklyAvailability.empty();
+    past.set(0, ceilSlots(Duration.between(start, LocalDateTime.now()).toMinutes()));
+
+    // Starts each player can make, summed per slot
+    List<WeeklyAvailability> fits = new ArrayList<>(playerIds.size());
+    WeeklyAvailability.Counter counter = new WeeklyAvailability.Counter();
+    WeeklyAvailability anyone = WeeklyAvailability.empty();
+    for (int i = 0; i < playerIds.size(); i++) {
+      WeeklyAvailability fit = availabilities.get(i).allOf(length).andNot(past);
+      WeeklyAvailability taken = busy.get(playerIds.get(i));
+      if (taken != null) {
+        fit = fit.andNot(taken.anyOf(length));
+      }
+      fits.add(fit);
+      counter.add(fit);
+      anyone = anyone.or(fit);
+    }
+
+    List<int[]> candidates = new ArrayList<>();
+    for (int slot = anyone.nextSetSlot(0); slot >= 0; slot = anyone.nextSetSlot(slot + 1)) {
+      candidates.add(new int[] {slot, counter.count(slot)});
+    }
+    candidates.sort((a, b) -> a[1] != b[1] ? Integer.compare(b[1], a[1]) : a[0] - b[0]);
+
+    List<GetCandidateSlotsResponse.SlotInfo> slots = new ArrayList<>();
+    List<Integer> chosen = new ArrayList<>();
+    for (int[] candidate : candidates) {
+      if (slots.size() == limit) {
+        break;
+      }
+      if (overlapsAny(candidate[0], chosen, length)) {
+        continue;
+      }
+      chosen.add(candidate[0]);
+      List<UUID> unavailable = new ArrayList<>();
+      for (int i = 0; i < playerIds.size(); i++) {
+        if (!fits.get(i).get(candidate[0])) {
+          unavailable.add(playerIds.get(i));
+        }
+      }
+      LocalDateTime slotStart =
+          start.plusMinutes((long) candidate[0] * WeeklyAvailability.SLOT_MINUTES);
+      slots.add(
+          new GetCandidateSlotsResponse.SlotInfo(
+              slotStart, slotStart.plusMinutes(durationMinutes), candidate[1], unavailable));
+    }
+    logger.debug(
+        "Found {} candidate slots for game {} in week {} among {} players",
+        slots.size(),
+        gameId,
+        weekStart,
+        playerIds.size());
+    return new GetCandidateSlotsResponse(
+        weekStart, durationMinutes, playerIds.size(), undeclared, slots);
+  }
+
+  /** Slots of the week taken by each player's sessions and series occurrences. */
+  private Map<UUID, WeeklyAvailability> loadBusy(
+      List<UUID> playerIds, LocalDateTime start, LocalDateTime end) {
+    // A session that began before the week may still run into it
+    LocalDateTime from = start.minusMinutes(busyMinutes);
+    Map<UUID, WeeklyAvailability> busy = new HashMap<>();
+    for (Object[] row : sessionRepository.findBusyRowsByUserIdIn(playerIds, from, end)) {
+      markBusy(busy, (UUID) row[0], (LocalDateTime) row[1], start);
+    }
+    for (Map.Entry<UUID, List<LocalDateTime>> entry :
+        seriesService.occurrencesByUser(playerIds, from, end).entrySet()) {
+      for (LocalDateTime occurrence : entry.getValue()) {
+        markBusy(busy, entry.getKey(), occurrence, start);
+      }
+    }
+    return busy;
+  }
+
+  private void markBusy(
+      Map<UUID, WeeklyAvailability> busy,
+      UUID userId,
+      LocalDateTime datetime,
+      LocalDateTime weekStart) {
+    long offset = Duration.between(weekStart, datetime).toMinutes();
+    int from = (int) Math.max(-1, Math.floorDiv(offset, WeeklyAvailability.SLOT_MINUTES));
+    busy.computeIfAbsent(userId, id -> WeeklyAvailability.empty())
+        .set(from, ceilSlots(offset + busyMinutes));
+  }
+
+  private static boolean overlapsAny(int slot, List<Integer> chosen, int length) {
+    for (int other : chosen) {
+      if (Math.abs(slot - other) < length) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /** Slots needed to cover {@code minutes} from the start of the week, clamped to the week. */
+  private static int ceilSlots(long minutes) {
+    long slots =
+        Math.floorDiv(
+            minutes + WeeklyAvailability.SLOT_MINUTES - 1, WeeklyAvailability.SLOT_MINUTES);
+    return (int) Math.max(0, Math.min(slots, WeeklyAvailability.SLOTS));
+  }
+
+  private static boolean onBoundary(LocalTime time) {
+    return time != null
+        && time.getSecond() == 0
+        && time.getNano() == 0
+        && time.getMinute() % WeeklyAvailability.SLOT_MINUTES == 0;
+  }
+
+  /** The set slots as ranges per day; runs across midnight are split at it. */
+  private static List<GetAvailabilityResponse.Range> toRanges(WeeklyAvailability availability) {
+    List<GetAvailabilityResponse.Range> ranges = new ArrayList<>();
+    int slot = availability.nextSetSlot(0);
+    while (slot >= 0) {
+      int dayEnd = (slot / WeeklyAvailability.SLOTS_PER_DAY + 1) * WeeklyAvailability.SLOTS_PER_DAY;
+      int end = slot + 1;
+      while (end < dayEnd && availability.get(end)) {
+        end++;
+      }
+      ranges.add(
+          new GetAvailabilityResponse.Range(
+              DayOfWeek.of(slot / WeeklyAvailability.SLOTS_PER_DAY + 1),
+              timeOf(slot),
+              timeOf(end)));
+      slot = availability.nextSetSlot(end);
+    }
+    return ranges;
+  }
+
+  private static LocalTime timeOf(int slot) {
+    return LocalTime.MIDNIGHT.plusMinutes(
+        (long) (slot % WeeklyAvailability.SLOTS_PER_DAY) * WeeklyAvailability.SLOT_MINUTES);
+  }
+}
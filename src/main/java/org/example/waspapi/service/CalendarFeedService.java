@@ -0,0 +1,265 @@
+package org.example.waspapi.service;
+
+import static org.example.waspapi.Constants.CALENDAR_FEED_NOT_FOUND;
+import static org.example.waspapi.Constants.USER_NOT_FOUND;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+import org.example.waspapi.dto.responses.session.GetSessionResponse;
+import org.example.waspapi.events.SessionChangedEvent;
+import org.example.waspapi.events.SessionSeriesChangedEvent;
+import org.example.waspapi.exceptions.HandledException;
+import org.example.waspapi.model.User;
+import org.example.waspapi.repository.SessionRepository;
+import org.example.waspapi.repository.SubscriptionRepository;
+import org.example.waspapi.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * ICS feeds of the sessions of a user's games, for calendar apps to subscribe to.
+ *
+ * <p>A feed is addressed by a random token instead of a bearer token, since calendar apps cannot
+ * authenticate. They poll often, so every feed carries a strong ETag built only from the user's
+ * games and an in-memory version per game that session changes bump after commit. Computing it
+ * takes one small query, and a matching {@code If-None-Match} is answered without reading any
+ * session. The versions start over on restart, so the ETag also includes the start time of this
+ * process.
+ *
+ * <p>The feed covers the sessions from {@code past-days} ago to {@code horizon-days} ahead, counted
+ * from the current day, which is part of the ETag too. Occurrences of session series are included
+ * whether stored or not, with a UID made of the series and the original start so that calendar apps
+ * update the same event when an occurrence is stored or moved.
+ */
+@Service
+public class CalendarFeedService {
+
+  private static final Logger logger = LoggerFactory.getLogger(CalendarFeedService.class);
+  private static final SecureRandom RANDOM = new SecureRandom();
+  private static final DateTimeFormatter OCCURRENCE_KEY =
+      DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss");
+
+  private final UserRepository userRepository;
+  private final SubscriptionRepository subscriptionRepository;
+  private final SessionRepository sessionRepository;
+  private final SessionSeriesService seriesService;
+  private final TransactionTemplate readOnlyTransaction;
+  private final Map<UUID, AtomicLong> gameVersions = new ConcurrentHashMap<>();
+  private final long startedAt = System.currentTimeMillis();
+
+  @Value("${wasp.calendar.feed.past-days:30}")
+  private int pastDays;
+
+  @Value("${wasp.calendar.feed.horizon-days:366}")
+  private int horizonDays;
+
+  @Value("${wasp.calendar.feed.event-duration-minutes:180}")
+  private long eventDurationMinutes;
+
+  public CalendarFeedService(
+      UserRepository userRepository,
+      SubscriptionRepository subscriptionRepository,
+      SessionRepository sessionRepository,
+      SessionSeriesService seriesService,
+      PlatformTransactionManager transactionManager) {
+    this.userRepository = userRepository;
+    this.subscriptionRepository = subscriptionRepository;
+    this.sessionRepository = sessionRepository;
+    this.seriesService = seriesService;
+    this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+    this.readOnlyTransaction.setReadOnly(true);
+  }
+
+  /** Issues a new feed token for the user; the previous feed URL stops working. */
+  @Transactional
+  public String rotateToken(UUID userId) {
+    User user =
+        userRepository
+            .findById(userId)
+            .orElseThrow(() -> new HandledException(USER_NOT_FOUND, HttpStatus.NOT_FOUND));
+    byte[] secret = new byte[32];
+    RANDOM.nextBytes(secret);
+    String token = Base64.getUrlEncoder().withoutPadding().encodeToString(secret);
+    user.setCalendarToken(token);
+    userRepository.save(user);
+    logger.info("Calendar feed token issued for user {}", userId);
+    return token;
+  }
+
+  public UUID findUserId(String token) {
+    return userRepository
+        .findIdByCalendarToken(token)
+        .orElseThrow(() -> new HandledException(CALENDAR_FEED_NOT_FOUND, HttpStatus.NOT_FOUND));
+  }
+
+  /** First day of the feed as of now; pass the same value to {@link #etag} and {@link #write}. */
+  public LocalDate windowStart() {
+    return LocalDate.now().minusDays(pastDays);
+  }
+
+  /** Strong validator of the feed: it changes whenever the feed's content may have changed. */
+  public String etag(UUID userId, LocalDate windowStart) {
+    List<Object[]> games = subscriptionRepository.findActiveGamesByUserId(userId);
+    games.sort(Comparator.comparing(row -> (UUID) row[0]));
+
+    StringBuilder state = new StringBuilder();
+    state.append(startedAt).append('|').append(windowStart);
+    for (Object[] game : games) {
+      AtomicLong version = gameVersions.get((UUID) game[0]);
+      state
+          .append('|')
+          .append(game[0])
+          .append(':')
+          .append(version == null ? 0 : version.get())
+          .append(':')
+          .append(game[1]);
+    }
+    return sha256Hex(state.toString()).substring(0, 32);
+  }
+
+  /**
+   * Streams the feed to {@code out}, reading the sessions in chunks and merging in the occurrences
+   * of series that are not stored as sessions.
+   */
+  public void write(UUID userId, LocalDate windowStart, OutputStream out) {
+    LocalDateTime from = windowStart.atStartOfDay();
+    LocalDateTime to = windowStart.plusDays((long) pastDays + horizonDays).atStartOfDay();
+    Instant stamp = from.atZone(ZoneId.systemDefault()).toInstant();
+    Duration duration = Duration.ofMinutes(eventDurationMinutes);
+
+    readOnlyTransaction.executeWithoutResult(
+        status -> {
+          IcsWriter ics = new IcsWriter(out);
+          int events = 0;
+          Iterator<GetSessionResponse> occurrences =
+              seriesService.expandForUser(userId, from, to).iterator();
+          GetSessionResponse occurrence = occurrences.hasNext() ? occurrences.next() : null;
+          try (Stream<Object[]> rows = sessionRepository.streamFeedRows(userId, from, to)) {
+            ics.begin("Wasp sessions");
+            for (Object[] row : (Iterable<Object[]>) rows::iterator) {
+              LocalDateTime datetime = (LocalDateTime) row[3];
+              while (occurrence != null && occurrence.getDatetime().isBefore(datetime)) {
+                writeOccurrence(ics, stamp, duration, occurrence);
+                occurrence = occurrences.hasNext() ? occurrences.next() : null;
+                events++;
+              }
+              String key =
+                  row[7] == null
+                      ? row[0].toString()
+                      : occurrenceKey((UUID) row[7], (LocalDateTime) row[8]);
+              writeEvent(
+                  ics,
+                  key,
+                  stamp,
+                  datetime,
+                  duration,
+                  (String) row[1],
+                  (String) row[6],
+                  (String) row[4],
+                  (String) row[5]);
+              events++;
+            }
+            while (occurrence != null) {
+              writeOccurrence(ics, stamp, duration, occurrence);
+              occurrence = occurrences.hasNext() ? occurrences.next() : null;
+              events++;
+            }
+            ics.end();
+          } catch (IOException e) {
+            throw new UncheckedIOException(e);
+          }
+          logger.debug("Calendar feed of user {} written with {} events", userId, events);
+        });
+  }
+
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onSessionChanged(SessionChangedEvent event) {
+    gameVersions.computeIfAbsent(event.getGameId(), id -> new AtomicLong()).incrementAndGet();
+  }
+
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onSessionSeriesChanged(SessionSeriesChangedEvent event) {
+    gameVersions.computeIfAbsent(event.getGameId(), id -> new AtomicLong()).incrementAndGet();
+  }
+
+  private static void writeOccurrence(
+      IcsWriter ics, Instant stamp, Duration duration, GetSessionResponse occurrence)
+      throws IOException {
+    writeEvent(
+        ics,
+        occurrenceKey(occurrence.getSeriesId(), occurrence.getOccurrenceDatetime()),
+        stamp,
+        occurrence.getDatetime(),
+        duration,
+        occurrence.getName(),
+        occurrence.getGameName(),
+        occurrence.getPlace(),
+        occurrence.getObservations());
+  }
+
+  private static void writeEvent(
+      IcsWriter ics,
+      String key,
+      Instant stamp,
+      LocalDateTime datetime,
+      Duration duration,
+      String name,
+      String gameName,
+      String place,
+      String observations)
+      throws IOException {
+    ics.event(
+        key,
+        stamp,
+        datetime.atZone(ZoneId.systemDefault()).toInstant(),
+        duration,
+        name == null || name.trim().isEmpty() ? gameName : name + " (" + gameName + ")",
+        place,
+        observations);
+  }
+
+  private static String occurrenceKey(UUID seriesId, LocalDateTime occurrence) {
+    return seriesId + "-" + OCCURRENCE_KEY.format(occurrence);
+  }
+
+  private static String sha256Hex(String value) {
+    try {
+      byte[] digest =
+          MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8));
+      StringBuilder hex = new StringBuilder(digest.length * 2);
+      for (byte b : digest) {
+        hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+      }
+      return hex.toString();
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+}
@@ -0,0 +1,87 @@
+package org.example.waspapi.service;
+
+import org.example.waspapi.repository.ConversationRepository;
+import org.example.waspapi.repository.FriendRequestRepository;
+import org.example.waspapi.repository.NotificationRepository;
+import org.example.waspapi.repository.PrivateMessageRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Fills the canonical user pair columns of rows written before they existed: private messages (and
+ * the conversations table built from them) and friend requests.
+ *
+ * <p>Runs once per startup and is a no-op once every row has its canonical pair, so only the first
+ * deployment pays for the scan. A failed pair backfill fails startup rather than serving data it
+ * would silently hide.
+ */
+@Service
+public class DataBackfillService {
+
+  private static final Logger logger = LoggerFactory.getLogger(DataBackfillService.class);
+
+  private final PrivateMessageRepository privateMessageRepository;
+  private final ConversationRepository conversationRepository;
+  private final FriendRequestRepository friendRequestRepository;
+  private final NotificationRepository notificationRepository;
+  private final TransactionTemplate transactionTemplate;
+
+  public DataBackfillService(
+      PrivateMessageRepository privateMessageRepository,
+      ConversationRepository conversationRepository,
+      FriendRequestRepository friendRequestRepository,
+      NotificationRepository notificationRepository,
+      TransactionTemplate transactionTemplate) {
+    this.privateMessageRepository = privateMessageRepository;
+    this.conversationRepository = conversationRepository;
+    this.friendRequestRepository = friendRequestRepository;
+    this.notificationRepository = notificationRepository;
+    this.transactionTemplate = transactionTemplate;
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void backfill() {
+    backfillConversations();
+    backfillFriendRequests();
+    backfillNotifications();
+  }
+
+  /** Not caught: without its conversation rows a pair's history and unread counts would be lost. */
+  private void backfillConversations() {
+    transactionTemplate.executeWithoutResult(
+        status -> {
+          int messages = privateMessageRepository.backfillCanonicalPairs();
+          if (messages == 0) {
+            return;
+          }
+          int conversations = conversationRepository.backfillFromPrivateMessages();
+          logger.info(
+              "Backfilled {} private messages into {} conversations", messages, conversations);
+        });
+  }
+
+  /** Not caught: a request left without its canonical pair drops out of every friendship check. */
+  private void backfillFriendRequests() {
+    Integer requests =
+        transactionTemplate.execute(status -> friendRequestRepository.backfillCanonicalPairs());
+    if (requests != null && requests > 0) {
+      logger.info("Backfilled canonical pairs of {} friend requests", requests);
+    }
+  }
+
+  private void backfillNotifications() {
+    try {
+      Integer notifications =
+          transactionTemplate.execute(status -> notificationRepository.backfillUpdatedAt());
+      if (notifications != null && notifications > 0) {
+        logger.info("Backfilled last-update time of {} notifications", notifications);
+      }
+    } catch (RuntimeException e) {
+      logger.warn("Notification backfill skipped: {}", e.getMessage());
+    }
+  }
+}
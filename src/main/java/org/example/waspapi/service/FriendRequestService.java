@@ -7,38 +7,56 @@ import static org.example.waspapi.Constants.FRIEND_REQUEST_ALREADY_EXISTS;
 import static org.example.waspapi.Constants.FRIEND_REQUEST_NOT_FOUND;
 import static org.example.waspapi.Constants.USER_NOT_FOUND;
 
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.function.Function;
+import org.example.waspapi.dto.Cursor;
+import org.example.waspapi.dto.responses.CursorPageResponse;
+import org.example.waspapi.dto.responses.friendrequest.GetFriendRequestResponse;
+import org.example.waspapi.dto.responses.friendrequest.GetFriendResponse;
+import org.example.waspapi.events.FriendshipChangedEvent;
 import org.example.waspapi.exceptions.HandledException;
 import org.example.waspapi.model.FriendRequest;
 import org.example.waspapi.model.User;
+import org.example.waspapi.model.UserPair;
 import org.example.waspapi.repository.FriendRequestRepository;
 import org.example.waspapi.repository.UserRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 @Service
 public class FriendRequestService {
 
   private static final Logger logger = LoggerFactory.getLogger(FriendRequestService.class);
+  private static final int MAX_PAGE_SIZE = 100;
 
   private final FriendRequestRepository friendRequestRepository;
   private final UserRepository userRepository;
-  private final NotificationService notificationService;
+  private final OutboxService outboxService;
+  private final SocialGraphService socialGraphService;
+  private final ApplicationEventPublisher eventPublisher;
 
   public FriendRequestService(
       FriendRequestRepository friendRequestRepository,
       UserRepository userRepository,
-      NotificationService notificationService) {
+      OutboxService outboxService,
+      SocialGraphService socialGraphService,
+      ApplicationEventPublisher eventPublisher) {
     this.friendRequestRepository = friendRequestRepository;
     this.userRepository = userRepository;
-    this.notificationService = notificationService;
+    this.outboxService = outboxService;
+    this.socialGraphService = socialGraphService;
+    this.eventPublisher = eventPublisher;
   }
 
+  @Transactional
   public FriendRequest create(UUID senderId, UUID receiverId) {
     logger.debug("Creating friend request from {} to {}", senderId, receiverId);
 
@@ -56,15 +74,13 @@ public class FriendRequestService {
             .findById(receiverId)
             .orElseThrow(() -> new HandledException(USER_NOT_FOUND, HttpStatus.NOT_FOUND));
 
-    // Check both directions for existing requests
-    Optional<FriendRequest> existingAtoB =
-        friendRequestRepository.findBySenderIdAndReceiverId(senderId, receiverId);
-    Optional<FriendRequest> existingBtoA =
-        friendRequestRepository.findBySenderIdAndReceiverId(receiverId, senderId);
+    // Requests in either direction share the same canonical pair, so one probe covers both
+    UserPair pair = UserPair.of(senderId, receiverId);
+    Optional<FriendRequest> existing =
+        friendRequestRepository.findByUserLowIdAndUserHighId(pair.getLow(), pair.getHigh());
 
-    if (existingAtoB.isPresent() || existingBtoA.isPresent()) {
-      FriendRequest existing = existingAtoB.orElseGet(existingBtoA::get);
-      if ("ACCEPTED".equals(existing.getStatus())) {
+    if (existing.isPresent()) {
+      if ("ACCEPTED".equals(existing.get().getStatus())) {
         throw new HandledException(ALREADY_FRIENDS, HttpStatus.CONFLICT);
       }
       throw new HandledException(FRIEND_REQUEST_ALREADY_EXISTS, HttpStatus.CONFLICT);
@@ -72,9 +88,24 @@ public class FriendRequestService {
 
     FriendRequest friendRequest = new FriendRequest(sender, receiver, "PENDING");
 
-    FriendRequest saved = friendRequestRepository.save(friendRequest);
+    FriendRequest saved;
+    try {
+      saved = friendRequestRepository.saveAndFlush(friendRequest);
+    } catch (DataIntegrityViolationException e) {
+      // Both users sent a request at the same time; the unique pair index kept only one
+      throw new HandledException(FRIEND_REQUEST_ALREADY_EXISTS, HttpStatus.CONFLICT);
+    }
     logger.info("Friend request created from {} to {}", senderId, receiverId);
-    notificationService.create(receiverId, "FRIEND_REQUEST", saved.getId());
+    outboxService.enqueue(
+        OutboxService.AGGREGATE_USER,
+        receiverId,
+        OutboxService.FRIEND_REQUEST_CREATED,
+        "friendRequestId",
+        saved.getId(),
+        "senderId",
+        senderId,
+        "receiverId",
+        receiverId);
     return saved;
   }
 
@@ -83,6 +114,26 @@ public class FriendRequestService {
     return friendRequestRepository.findByReceiverIdAndStatus(userId, "PENDING");
   }
 
+  /** Pending requests received by the user, newest first, with sender and receiver nicknames. */
+  public CursorPageResponse<GetFriendRequestResponse> getPendingReceivedPage(
+      UUID userId, String encodedCursor, int limit) {
+    logger.debug("Fetching a page of pending friend requests for user {}", userId);
+    int pageSize = pageSize(limit);
+    PageRequest page = PageRequest.of(0, pageSize + 1);
+
+    List<GetFriendRequestResponse> requests;
+    if (encodedCursor == null) {
+      requests = friendRequestRepository.findReceivedSummaries(userId, "PENDING", page);
+    } else {
+      Cursor cursor = Cursor.decode(encodedCursor);
+      requests =
+          friendRequestRepository.findReceivedSummariesBefore(
+              userId, "PENDING", cursor.getSortKeyAsInstant(), cursor.getId(), page);
+    }
+    return toPage(requests, pageSize, r -> Cursor.of(r.getCreatedAt(), r.getId()));
+  }
+
+  @Transactional
   public FriendRequest accept(UUID requestId, UUID userId) {
     logger.debug("Accepting friend request {}", requestId);
 
@@ -100,8 +151,19 @@ public class FriendRequestService {
     FriendRequest saved = friendRequestRepository.save(friendRequest);
 
     logger.info("Friend request {} accepted", requestId);
-    notificationService.create(
-        friendRequest.getSender().getId(), "FRIEND_REQUEST_ACCEPTED", saved.getId());
+    eventPublisher.publishEvent(
+        new FriendshipChangedEvent(
+            friendRequest.getSender().getId(), friendRequest.getReceiver().getId(), true));
+    outboxService.enqueue(
+        OutboxService.AGGREGATE_USER,
+        friendRequest.getSender().getId(),
+        OutboxService.FRIEND_REQUEST_ACCEPTED,
+        "friendRequestId",
+        saved.getId(),
+        "senderId",
+        friendRequest.getSender().getId(),
+        "acceptedBy",
+        userId);
     return saved;
   }
 
@@ -124,54 +186,66 @@ public class FriendRequestService {
     return friendRequestRepository.save(friendRequest);
   }
 
-  public List<User> getFriends(UUID userId) {
+  public List<GetFriendResponse> getFriends(UUID userId) {
     logger.debug("Fetching friends for user {}", userId);
+    return friendRequestRepository.findFriendSummaries(userId, "ACCEPTED");
+  }
 
-    List<FriendRequest> acceptedRequests =
-        friendRequestRepository.findByUserIdAndStatus(userId, "ACCEPTED");
-
-    List<User> friends = new ArrayList<>();
-    for (FriendRequest fr : acceptedRequests) {
-      if (fr.getSender().getId().equals(userId)) {
-        friends.add(fr.getReceiver());
-      } else {
-        friends.add(fr.getSender());
-      }
+  /** Friends of the user ordered by nickname, with their profile summary. */
+  public CursorPageResponse<GetFriendResponse> getFriendsPage(
+      UUID userId, String encodedCursor, int limit) {
+    logger.debug("Fetching a page of friends for user {}", userId);
+    int pageSize = pageSize(limit);
+    PageRequest page = PageRequest.of(0, pageSize + 1);
+
+    List<GetFriendResponse> friends;
+    if (encodedCursor == null) {
+      friends = friendRequestRepository.findFriendSummaries(userId, "ACCEPTED", page);
+    } else {
+      Cursor cursor = Cursor.decode(encodedCursor);
+      friends =
+          friendRequestRepository.findFriendSummariesAfter(
+              userId, "ACCEPTED", cursor.getSortKey(), cursor.getId(), page);
     }
-
-    return friends;
+    return toPage(friends, pageSize, f -> new Cursor(f.getNickname(), f.getUserId()));
   }
 
   public boolean areFriends(UUID userId, UUID friendUserId) {
-    Optional<FriendRequest> requestAtoB =
-        friendRequestRepository.findBySenderIdAndReceiverId(userId, friendUserId);
-    Optional<FriendRequest> requestBtoA =
-        friendRequestRepository.findBySenderIdAndReceiverId(friendUserId, userId);
-    return (requestAtoB.isPresent() && "ACCEPTED".equals(requestAtoB.get().getStatus()))
-        || (requestBtoA.isPresent() && "ACCEPTED".equals(requestBtoA.get().getStatus()));
+    if (socialGraphService.isReady()) {
+      return socialGraphService.areFriends(userId, friendUserId);
+    }
+    UserPair pair = UserPair.of(userId, friendUserId);
+    return friendRequestRepository.existsByUserLowIdAndUserHighIdAndStatus(
+        pair.getLow(), pair.getHigh(), "ACCEPTED");
   }
 
+  @Transactional
   public void removeFriend(UUID userId, UUID friendUserId) {
     logger.debug("Removing friendship between {} and {}", userId, friendUserId);
 
-    Optional<FriendRequest> requestAtoB =
-        friendRequestRepository.findBySenderIdAndReceiverId(userId, friendUserId);
-    Optional<FriendRequest> requestBtoA =
-        friendRequestRepository.findBySenderIdAndReceiverId(friendUserId, userId);
+    UserPair pair = UserPair.of(userId, friendUserId);
+    int removed =
+        friendRequestRepository.deleteByPairAndStatus(pair.getLow(), pair.getHigh(), "ACCEPTED");
 
-    FriendRequest friendRequest = null;
-    if (requestAtoB.isPresent() && "ACCEPTED".equals(requestAtoB.get().getStatus())) {
-      friendRequest = requestAtoB.get();
-    } else if (requestBtoA.isPresent() && "ACCEPTED".equals(requestBtoA.get().getStatus())) {
-      friendRequest = requestBtoA.get();
-    }
-
-    if (friendRequest == null) {
+    if (removed == 0) {
       throw new HandledException(FRIEND_NOT_FOUND, HttpStatus.NOT_FOUND);
     }
 
-    friendRequestRepository.delete(friendRequest);
-
     logger.info("Friendship removed between {} and {}", userId, friendUserId);
+    eventPublisher.publishEvent(new FriendshipChangedEvent(userId, friendUserId, false));
+  }
+
+  private static int pageSize(int limit) {
+    return Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+  }
+
+  /** Trims the extra row fetched to detect a next page and builds the cursor from the last row. */
+  private static <T> CursorPageResponse<T> toPage(
+      List<T> rows, int pageSize, Function<T, Cursor> cursorOf) {
+    boolean hasMore = rows.size() > pageSize;
+    List<T> items = hasMore ? rows.subList(0, pageSize) : rows;
+    String nextCursor =
+        items.isEmpty() ? null : cursorOf.apply(items.get(items.size() - 1)).encode();
+    return new CursorPageResponse<>(items, nextCursor, hasMore);
   }
 }
@@ -0,0 +1,123 @@
+package org.example.waspapi.service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Writes an iCalendar (RFC 5545) document straight to a stream, one event at a time, so a feed of
+ * any length is written in constant memory. Text values are escaped and lines longer than 75 octets
+ * are folded as the RFC requires.
+ */
+final class IcsWriter {
+
+  private static final String CRLF = "\r\n";
+  private static final int MAX_LINE_OCTETS = 75;
+  private static final DateTimeFormatter UTC_DATE_TIME =
+      DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss'Z'").withZone(ZoneOffset.UTC);
+
+  private final Writer writer;
+
+  IcsWriter(OutputStream out) {
+    this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+  }
+
+  void begin(String calendarName) throws IOException {
+    line("BEGIN:VCALENDAR");
+    line("VERSION:2.0");
+    line("PRODID:-//Wasp//Sessions//EN");
+    line("CALSCALE:GREGORIAN");
+    line("METHOD:PUBLISH");
+    line("X-WR-CALNAME:" + escape(calendarName));
+  }
+
+  /** Writes an event whose UID is {@code key}, unique within the application. */
+  void event(
+      String key,
+      Instant stamp,
+      Instant start,
+      Duration duration,
+      String summary,
+      String location,
+      String description)
+      throws IOException {
+    line("BEGIN:VEVENT");
+    line("UID:" + key + "@wasp");
+    line("DTSTAMP:" + UTC_DATE_TIME.format(stamp));
+    line("DTSTART:" + UTC_DATE_TIME.format(start));
+    line("DTEND:" + UTC_DATE_TIME.format(start.plus(duration)));
+    line("SUMMARY:" + escape(summary));
+    if (location != null && !location.trim().isEmpty()) {
+      line("LOCATION:" + escape(location));
+    }
+    if (description != null && !description.trim().isEmpty()) {
+      line("DESCRIPTION:" + escape(description));
+    }
+    line("END:VEVENT");
+  }
+
+  void end() throws IOException {
+    line("END:VCALENDAR");
+    writer.flush();
+  }
+
+  static String escape(String text) {
+    if (text == null) {
+      return "";
+    }
+    StringBuilder escaped = new StringBuilder(text.length() + 8);
+    for (int i = 0; i < text.length(); i++) {
+      char c = text.charAt(i);
+      switch (c) {
+        case '\\':
+        case ';':
+        case ',':
+          escaped.append('\\').append(c);
+          break;
+        case '\n':
+          escaped.append("\\n");
+          break;
+        case '\r':
+          break;
+        default:
+          escaped.append(c);
+      }
+    }
+    return escaped.toString();
+  }
+
+  /** Writes a content line, folding it before any character that would pass 75 octets. */
+  private void line(String content) throws IOException {
+    int octets = 0;
+    for (int i = 0; i < content.length(); ) {
+      int codePoint = content.codePointAt(i);
+      int width = utf8Length(codePoint);
+      if (octets + width > MAX_LINE_OCTETS) {
+        writer.write(CRLF);
+        writer.write(' ');
+        octets = 1;
+      }
+      writer.write(content, i, Character.charCount(codePoint));
+      octets += width;
+      i += Character.charCount(codePoint);
+    }
+    writer.write(CRLF);
+  }
+
+  private static int utf8Length(int codePoint) {
+    if (codePoint < 0x80) {
+      return 1;
+    }
+    if (codePoint < 0x800) {
+      return 2;
+    }
+    return codePoint < 0x10000 ? 3 : 4;
+  }
+}
@@ -10,7 +10,6 @@ import static org.example.waspapi.Constants.USER_NOT_FOUND;
 import java.time.Instant;
 import java.util.List;
 import java.util.UUID;
-import java.util.stream.Collectors;
 import org.example.waspapi.dto.requests.subscription.CreateSubscriptionRequest;
 import org.example.waspapi.exceptions.HandledException;
 import org.example.waspapi.model.Game;
@@ -24,6 +23,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 @Service
 public class JoinRequestService {
@@ -35,7 +35,7 @@ public class JoinRequestService {
   private final GameRepository gameRepository;
   private final SubscriptionRepository subscriptionRepository;
   private final SubscriptionService subscriptionService;
-  private final NotificationService notificationService;
+  private final OutboxService outboxService;
 
   public JoinRequestService(
       JoinRequestRepository joinRequestRepository,
@@ -43,15 +43,16 @@ public class JoinRequestService {
       GameRepository gameRepository,
       SubscriptionRepository subscriptionRepository,
       SubscriptionService subscriptionService,
-      NotificationService notificationService) {
+      OutboxService outboxService) {
     this.joinRequestRepository = joinRequestRepository;
     this.userRepository = userRepository;
     this.gameRepository = gameRepository;
     this.subscriptionRepository = subscriptionRepository;
     this.subscriptionService = subscriptionService;
-    this.notificationService = notificationService;
+    this.outboxService = outboxService;
   }
 
+  @Transactional
   public JoinRequest create(UUID userId, UUID gameId, String message) {
     logger.debug("Creating join request for user {} on game {}", userId, gameId);
 
@@ -84,12 +85,16 @@ public class JoinRequestService {
     JoinRequest saved = joinRequestRepository.save(joinRequest);
     logger.info("Join request created for user {} on game {}", userId, gameId);
 
-    List<UUID> adminIds =
-        subscriptionRepository.findByGameIdAndIsActiveTrue(gameId).stream()
-            .filter(s -> Boolean.TRUE.equals(s.getAdmin()))
-            .map(s -> s.getUser().getId())
-            .collect(Collectors.toList());
-    notificationService.createForMany(adminIds, "JOIN_REQUEST", saved.getId());
+    outboxService.enqueue(
+        OutboxService.AGGREGATE_GAME,
+        gameId,
+        OutboxService.JOIN_REQUEST_CREATED,
+        "joinRequestId",
+        saved.getId(),
+        "gameId",
+        gameId,
+        "userId",
+        userId);
     return saved;
   }
 
@@ -102,6 +107,7 @@ public class JoinRequestService {
     return joinRequestRepository.findByGameIdAndStatus(gameId, "PENDING");
   }
 
+  @Transactional
   public JoinRequest accept(UUID requestId, UUID adminUserId) {
     logger.debug("Accepting join request {}", requestId);
 
@@ -123,7 +129,16 @@ public class JoinRequestService {
 
     logger.info(
         "Join request {} accepted, subscription created for user {}", requestId, user.getId());
-    notificationService.create(user.getId(), "JOIN_REQUEST_ACCEPTED", joinRequest.getId());
+    outboxService.enqueue(
+        OutboxService.AGGREGATE_JOIN_REQUEST,
+        joinRequest.getId(),
+        OutboxService.JOIN_REQUEST_ACCEPTED,
+        "joinRequestId",
+        joinRequest.getId(),
+        "userId",
+        user.getId(),
+        "adminUserId",
+        adminUserId);
     return joinRequest;
   }
 
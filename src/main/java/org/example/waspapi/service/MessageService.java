@@ -5,9 +5,7 @@ import static org.example.waspapi.Constants.MESSAGE_CONTENT_EMPTY;
 import static org.example.waspapi.Constants.PHOTO_UPLOAD_FAILED;
 import static org.example.waspapi.Constants.USER_NOT_FOUND;
 
-import java.util.List;
 import java.util.UUID;
-import java.util.stream.Collectors;
 import org.example.waspapi.dto.requests.message.SendMessageRequest;
 import org.example.waspapi.exceptions.HandledException;
 import org.example.waspapi.model.Game;
@@ -15,7 +13,6 @@ import org.example.waspapi.model.Message;
 import org.example.waspapi.model.User;
 import org.example.waspapi.repository.GameRepository;
 import org.example.waspapi.repository.MessageRepository;
-import org.example.waspapi.repository.SubscriptionRepository;
 import org.example.waspapi.repository.UserRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -23,6 +20,8 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 @Service
 public class MessageService {
@@ -34,24 +33,25 @@ public class MessageService {
   private final GameRepository gameRepository;
   private final UserRepository userRepository;
   private final SupabaseStorageService storageService;
-  private final SubscriptionRepository subscriptionRepository;
-  private final NotificationService notificationService;
+  private final OutboxService outboxService;
+  private final TransactionTemplate transactionTemplate;
 
   public MessageService(
       MessageRepository messageRepository,
       GameRepository gameRepository,
       UserRepository userRepository,
       SupabaseStorageService storageService,
-      SubscriptionRepository subscriptionRepository,
-      NotificationService notificationService) {
+      OutboxService outboxService,
+      TransactionTemplate transactionTemplate) {
     this.messageRepository = messageRepository;
     this.gameRepository = gameRepository;
     this.userRepository = userRepository;
     this.storageService = storageService;
-    this.subscriptionRepository = subscriptionRepository;
-    this.notificationService = notificationService;
+    this.outboxService = outboxService;
+    this.transactionTemplate = transactionTemplate;
   }
 
+  @Transactional
   public Message send(UUID gameId, UUID userId, SendMessageRequest request) {
     logger.debug("User {} sending message to game {}", userId, gameId);
 
@@ -75,6 +75,7 @@ public class MessageService {
     return saved;
   }
 
+  /** Uploads the image outside any transaction, then saves the message with its outbox event. */
   public Message sendWithImage(
       UUID gameId, UUID userId, String content, byte[] imageData, String contentType) {
     logger.debug("User {} sending image message to game {}", userId, gameId);
@@ -97,9 +98,14 @@ public class MessageService {
 
     Message message = new Message(game, user, content);
     message.setImageUrl(path);
-    Message saved = messageRepository.save(message);
+    Message saved =
+        transactionTemplate.execute(
+            status -> {
+              Message persisted = messageRepository.save(message);
+              notifySubscribers(gameId, userId);
+              return persisted;
+            });
     logger.info("Image message sent by user {} in game {}", userId, gameId);
-    notifySubscribers(gameId, userId);
     return saved;
   }
 
@@ -111,14 +117,14 @@ public class MessageService {
   }
 
   private void notifySubscribers(UUID gameId, UUID senderId) {
-    List<UUID> subscriberIds =
-        subscriptionRepository.findByGameIdAndIsActiveTrue(gameId).stream()
-            .map(s -> s.getUser().getId())
-            .filter(id -> !id.equals(senderId))
-            .collect(Collectors.toList());
-    for (UUID subscriberId : subscriberIds) {
-      notificationService.createIfNotExists(subscriberId, "UNREAD_MESSAGES", gameId);
-    }
+    outboxService.enqueue(
+        OutboxService.AGGREGATE_GAME,
+        gameId,
+        OutboxService.MESSAGE_SENT,
+        "gameId",
+        gameId,
+        "senderId",
+        senderId);
   }
 
   public Page<Message> getByGameId(UUID gameId, Pageable pageable) {
@@ -0,0 +1,142 @@
+package org.example.waspapi.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import org.example.waspapi.repository.SubscriptionRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+/**
+ * Turns outbox events into notifications, resolving the recipients at dispatch time. Members who
+ * muted a type or take it as a digest are left out by the recipient queries.
+ */
+@Component
+public class NotificationOutboxHandler implements OutboxEventHandler {
+
+  private static final Logger logger = LoggerFactory.getLogger(NotificationOutboxHandler.class);
+
+  private static final Set<String> EVENT_TYPES =
+      Collections.unmodifiableSet(
+          new HashSet<>(
+              Arrays.asList(
+                  OutboxService.MESSAGE_SENT,
+                  OutboxService.SESSION_CREATED,
+                  OutboxService.SESSION_SERIES_CREATED,
+                  OutboxService.JOIN_REQUEST_CREATED,
+                  OutboxService.JOIN_REQUEST_ACCEPTED,
+                  OutboxService.FRIEND_REQUEST_CREATED,
+                  OutboxService.FRIEND_REQUEST_ACCEPTED)));
+
+  private final NotificationService notificationService;
+  private final SubscriptionRepository subscriptionRepository;
+  private final NotificationPreferenceService preferenceService;
+
+  public NotificationOutboxHandler(
+      NotificationService notificationService,
+      SubscriptionRepository subscriptionRepository,
+      NotificationPreferenceService preferenceService) {
+    this.notificationService = notificationService;
+    this.subscriptionRepository = subscriptionRepository;
+    this.preferenceService = preferenceService;
+  }
+
+  @Override
+  public Set<String> getEventTypes() {
+    return EVENT_TYPES;
+  }
+
+  @Override
+  public void handle(String eventType, JsonNode payload) {
+    switch (eventType) {
+      case OutboxService.MESSAGE_SENT:
+        notifyUnreadMessages(uuid(payload, "gameId"), uuid(payload, "senderId"));
+        break;
+      case OutboxService.SESSION_CREATED:
+        UUID gameId = uuid(payload, "gameId");
+        UUID sessionId = uuid(payload, "sessionId");
+        notificationService.createForMany(
+            subscriptionRepository.findNotifiableUserIds(gameId, "SESSION_CREATED"),
+            "SESSION_CREATED",
+            sessionId,
+            gameId,
+            null);
+        preferenceService.recordDigest(gameId, "SESSION_CREATED", sessionId, null);
+        break;
+      case OutboxService.SESSION_SERIES_CREATED:
+        // Follows the members' session preference; digests only count single sessions
+        UUID seriesGameId = uuid(payload, "gameId");
+        notificationService.createForMany(
+            subscriptionRepository.findNotifiableUserIds(seriesGameId, "SESSION_CREATED"),
+            "SESSION_SERIES_CREATED",
+            uuid(payload, "seriesId"),
+            seriesGameId,
+            null);
+        break;
+      case OutboxService.JOIN_REQUEST_CREATED:
+        UUID requestedGameId = uuid(payload, "gameId");
+        UUID joinRequestId = uuid(payload, "joinRequestId");
+        notificationService.createForMany(
+            subscriptionRepository.findNotifiableAdminIds(requestedGameId, "JOIN_REQUEST"),
+            "JOIN_REQUEST",
+            joinRequestId,
+            requestedGameId,
+            uuid(payload, "userId"));
+        preferenceService.recordDigest(requestedGameId, "JOIN_REQUEST", joinRequestId, null);
+        break;
+      case OutboxService.JOIN_REQUEST_ACCEPTED:
+        notifyOne(
+            uuid(payload, "userId"),
+            "JOIN_REQUEST_ACCEPTED",
+            uuid(payload, "joinRequestId"),
+            null,
+            uuid(payload, "adminUserId"));
+        break;
+      case OutboxService.FRIEND_REQUEST_CREATED:
+        UUID receiverId = uuid(payload, "receiverId");
+        notifyOne(
+            receiverId,
+            "FRIEND_REQUEST",
+            uuid(payload, "friendRequestId"),
+            receiverId,
+            uuid(payload, "senderId"));
+        break;
+      case OutboxService.FRIEND_REQUEST_ACCEPTED:
+        notifyOne(
+            uuid(payload, "senderId"),
+            "FRIEND_REQUEST_ACCEPTED",
+            uuid(payload, "friendRequestId"),
+            null,
+            uuid(payload, "acceptedBy"));
+        break;
+      default:
+        throw new IllegalArgumentException("Unsupported outbox event " + eventType);
+    }
+  }
+
+  private void notifyUnreadMessages(UUID gameId, UUID senderId) {
+    List<UUID> subscriberIds =
+        new ArrayList<>(subscriptionRepository.findNotifiableUserIds(gameId, "UNREAD_MESSAGES"));
+    subscriberIds.remove(senderId);
+    notificationService.createIfNotExists(subscriberIds, "UNREAD_MESSAGES", gameId);
+    preferenceService.recordDigest(gameId, "UNREAD_MESSAGES", gameId, senderId);
+  }
+
+  /** A recipient deleted since the event was written is skipped rather than retried. */
+  private void notifyOne(UUID userId, String type, UUID referenceId, UUID groupKey, UUID actorId) {
+    if (notificationService.create(userId, type, referenceId, groupKey, actorId) == null) {
+      logger.warn("Skipping {} notification for deleted user {}", type, userId);
+    }
+  }
+
+  private static UUID uuid(JsonNode payload, String field) {
+    JsonNode value = payload.get(field);
+    return value == null || value.isNull() ? null : UUID.fromString(value.asText());
+  }
+}
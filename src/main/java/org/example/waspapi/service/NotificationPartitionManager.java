@@ -0,0 +1,182 @@
+package org.example.waspapi.service;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Monthly range partitions of the notifications table on PostgreSQL.
+ *
+ * <p>Partitions are named {@code notifications_pYYYYMM} and hold the rows created in that month
+ * (UTC), plus a default partition for anything outside the prepared range. Expiring a month is a
+ * {@code DROP TABLE} of its partition instead of a large {@code DELETE}.
+ *
+ * <p>Hibernate creates {@code notifications} as a plain table, so {@link #convertIfNeeded} rebuilds
+ * it as a partitioned table once, copying the existing rows. PostgreSQL requires the partition key
+ * in every unique constraint, so the primary key becomes {@code (notification_id, created_at)}; ids
+ * are random UUIDs and stay unique in practice.
+ */
+@Component
+public class NotificationPartitionManager {
+
+  private static final Logger logger = LoggerFactory.getLogger(NotificationPartitionManager.class);
+
+  private static final String TABLE = "notifications";
+  private static final String PARTITION_PREFIX = TABLE + "_p";
+  private static final DateTimeFormatter SUFFIX = DateTimeFormatter.ofPattern("yyyyMM");
+
+  /** Rows covered by the unread dedup indexes: the unread ones of the deduplicated types. */
+  static final String DEDUP_WHERE =
+      "is_read = false AND type IN ("
+          + NotificationService.DEDUP_TYPES.stream()
+              .map(type -> "'" + type + "'")
+              .collect(Collectors.joining(", "))
+          + ")";
+
+  private final JdbcTemplate jdbcTemplate;
+  private final TransactionTemplate transactionTemplate;
+
+  public NotificationPartitionManager(
+      JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.transactionTemplate = transactionTemplate;
+  }
+
+  public boolean isPartitioned() {
+    Integer count =
+        jdbcTemplate.queryForObject(
+            "SELECT count(*) FROM pg_partitioned_table p JOIN pg_class c ON c.oid = p.partrelid"
+                + " WHERE c.relname = ? AND pg_table_is_visible(c.oid)",
+            Integer.class,
+            TABLE);
+    return count != null && count > 0;
+  }
+
+  /** Rebuilds the plain table as a partitioned one, in a single transaction. */
+  public void convertIfNeeded(int premakeMonths) {
+    if (isPartitioned()) {
+      return;
+    }
+    transactionTemplate.executeWithoutResult(
+        status -> {
+          Timestamp oldest =
+              jdbcTemplate.queryForObject("SELECT min(created_at) FROM " + TABLE, Timestamp.class);
+          YearMonth first =
+              oldest == null
+                  ? YearMonth.now(ZoneOffset.UTC)
+                  : YearMonth.from(oldest.toInstant().atOffset(ZoneOffset.UTC));
+
+          jdbcTemplate.execute("ALTER TABLE " + TABLE + " RENAME TO " + TABLE + "_legacy");
+          jdbcTemplate.execute(
+              "CREATE TABLE "
+                  + TABLE
+                  + " (LIKE "
+                  + TABLE
+                  + "_legacy INCLUDING DEFAULTS) PARTITION BY RANGE (created_at)");
+          jdbcTemplate.execute(
+              "CREATE TABLE " + TABLE + "_default PARTITION OF " + TABLE + " DEFAULT");
+          createPartitions(first, YearMonth.now(ZoneOffset.UTC).plusMonths(premakeMonths));
+
+          int copied =
+              jdbcTemplate.update("INSERT INTO " + TABLE + " SELECT * FROM " + TABLE + "_legacy");
+          // Dropping the old table frees its constraint and index names for the new one
+          jdbcTemplate.execute("DROP TABLE " + TABLE + "_legacy");
+          jdbcTemplate.execute(
+              "ALTER TABLE " + TABLE + " ADD PRIMARY KEY (notification_id, created_at)");
+          jdbcTemplate.execute(
+              "ALTER TABLE "
+                  + TABLE
+                  + " ADD CONSTRAINT notifications_user_id_fkey"
+                  + " FOREIGN KEY (user_id) REFERENCES users (user_id)");
+          jdbcTemplate.execute(
+              "CREATE INDEX IF NOT EXISTS notifications_user_type_group_idx"
+                  + " ON "
+                  + TABLE
+                  + " (user_id, type, group_key)");
+          logger.info("Converted {} to monthly partitions, {} rows copied", TABLE, copied);
+        });
+  }
+
+  /**
+   * Creates the unread dedup index of the {@link NotificationService#DEDUP_TYPES} on every
+   * partition. A unique index on the partitioned table itself would have to include {@code
+   * created_at}, which defeats it, so uniqueness holds per partition (month) only.
+   */
+  public void createDedupIndexes() {
+    for (String partition : listPartitions()) {
+      createDedupIndex(partition);
+    }
+  }
+
+  /** Creates the partitions of the current month and the next {@code premakeMonths}. */
+  public void ensureUpcoming(int premakeMonths) {
+    YearMonth now = YearMonth.now(ZoneOffset.UTC);
+    createPartitions(now, now.plusMonths(premakeMonths));
+  }
+
+  /** Drops the partitions that only hold rows older than {@code retentionMonths} whole months. */
+  public int dropExpired(int retentionMonths) {
+    String oldestKept = YearMonth.now(ZoneOffset.UTC).minusMonths(retentionMonths).format(SUFFIX);
+    int dropped = 0;
+    for (String partition : listPartitions()) {
+      String suffix = partition.substring(PARTITION_PREFIX.length());
+      if (suffix.length() == 6 && suffix.compareTo(oldestKept) < 0) {
+        jdbcTemplate.execute("DROP TABLE IF EXISTS " + partition);
+        logger.info("Dropped expired notification partition {}", partition);
+        dropped++;
+      }
+    }
+    return dropped;
+  }
+
+  private List<String> listPartitions() {
+    return jdbcTemplate.queryForList(
+        "SELECT c.relname FROM pg_inherits i"
+            + " JOIN pg_class c ON c.oid = i.inhrelid"
+            + " JOIN pg_class p ON p.oid = i.inhparent"
+            + " WHERE p.relname = ? AND c.relname LIKE ?",
+        String.class,
+        TABLE,
+        PARTITION_PREFIX + "%");
+  }
+
+  private void createPartitions(YearMonth from, YearMonth to) {
+    for (YearMonth month = from; !month.isAfter(to); month = month.plusMonths(1)) {
+      LocalDate start = month.atDay(1);
+      LocalDate end = month.plusMonths(1).atDay(1);
+      String partition = PARTITION_PREFIX + month.format(SUFFIX);
+      jdbcTemplate.execute(
+          "CREATE TABLE IF NOT EXISTS "
+              + partition
+              + " PARTITION OF "
+              + TABLE
+              + " FOR VALUES FROM ('"
+              + start
+              + "') TO ('"
+              + end
+              + "')");
+      createDedupIndex(partition);
+    }
+  }
+
+  private void createDedupIndex(String partition) {
+    // Replaces the earlier index, which covered every type
+    jdbcTemplate.execute("DROP INDEX IF EXISTS " + partition + "_dedup_idx");
+    jdbcTemplate.execute(
+        "CREATE UNIQUE INDEX IF NOT EXISTS "
+            + partition
+            + "_message_dedup_idx ON "
+            + partition
+            + " (user_id, type, reference_id) WHERE "
+            + DEDUP_WHERE);
+  }
+}
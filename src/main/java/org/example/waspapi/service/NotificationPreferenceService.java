@@ -0,0 +1,201 @@
+package org.example.waspapi.service;
+
+import static org.example.waspapi.Constants.INVALID_NOTIFICATION_PREFERENCE;
+import static org.example.waspapi.Constants.NOT_GAME_ADMIN;
+import static org.example.waspapi.Constants.NOT_SUBSCRIBED;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import org.example.waspapi.dto.responses.notification.GetNotificationPreferenceResponse;
+import org.example.waspapi.exceptions.HandledException;
+import org.example.waspapi.model.NotificationPreference;
+import org.example.waspapi.repository.GameRepository;
+import org.example.waspapi.repository.NotificationPreferenceRepository;
+import org.example.waspapi.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Per game mute and digest settings for the notification types that fan out to game members.
+ *
+ * <p>The fan-out queries leave out members whose setting is not {@code ON}, so no row is written
+ * for them. Digest occurrences are counted on the preference row, one update per event for all
+ * digest members together, and turned into a single notification per member by a scheduled job.
+ */
+@Service
+public class NotificationPreferenceService {
+
+  /** The types that can be configured, all of them sent to members of a game. */
+  public static final List<String> CONFIGURABLE_TYPES =
+      Collections.unmodifiableList(
+          Arrays.asList("UNREAD_MESSAGES", "SESSION_CREATED", "JOIN_REQUEST"));
+
+  private static final List<String> MODES =
+      Arrays.asList(
+          NotificationPreference.ON, NotificationPreference.MUTED, NotificationPreference.DIGEST);
+
+  private static final Logger logger = LoggerFactory.getLogger(NotificationPreferenceService.class);
+
+  private final NotificationPreferenceRepository preferenceRepository;
+  private final UserRepository userRepository;
+  private final GameRepository gameRepository;
+  private final SubscriptionService subscriptionService;
+  private final NotificationService notificationService;
+  private final TransactionTemplate transactionTemplate;
+
+  @Value("${wasp.notifications.digest.batch-size:500}")
+  private int digestBatchSize;
+
+  public NotificationPreferenceService(
+      NotificationPreferenceRepository preferenceRepository,
+      UserRepository userRepository,
+      GameRepository gameRepository,
+      SubscriptionService subscriptionService,
+      NotificationService notificationService,
+      TransactionTemplate transactionTemplate) {
+    this.preferenceRepository = preferenceRepository;
+    this.userRepository = userRepository;
+    this.gameRepository = gameRepository;
+    this.subscriptionService = subscriptionService;
+    this.notificationService = notificationService;
+    this.transactionTemplate = transactionTemplate;
+  }
+
+  /** The user's setting for every configurable type in the game, {@code ON} when never set. */
+  public List<GetNotificationPreferenceResponse> getPreferences(UUID userId, UUID gameId) {
+    requireSubscribed(userId, gameId);
+    Map<String, String> modes = new HashMap<>();
+    for (NotificationPreference preference :
+        preferenceRepository.findByUserIdAndGameId(userId, gameId)) {
+      modes.put(preference.getType(), preference.getMode());
+    }
+    List<GetNotificationPreferenceResponse> responses = new ArrayList<>();
+    for (String type : CONFIGURABLE_TYPES) {
+      responses.add(
+          new GetNotificationPreferenceResponse(
+              gameId, type, modes.getOrDefault(type, NotificationPreference.ON)));
+    }
+    return responses;
+  }
+
+  @Transactional
+  public GetNotificationPreferenceResponse setPreference(
+      UUID userId, UUID gameId, String type, String mode) {
+    if (!CONFIGURABLE_TYPES.contains(type) || mode == null || !MODES.contains(mode)) {
+      throw new HandledException(INVALID_NOTIFICATION_PREFERENCE, HttpStatus.BAD_REQUEST);
+    }
+    requireSubscribed(userId, gameId);
+    // Digests are counted per game, so only admins may hold a join request preference
+    if ("JOIN_REQUEST".equals(type) && !subscriptionService.isAdmin(userId, gameId)) {
+      throw new HandledException(NOT_GAME_ADMIN, HttpStatus.FORBIDDEN);
+    }
+
+    NotificationPreference preference =
+        preferenceRepository
+            .findByUserIdAndGameIdAndType(userId, gameId, type)
+            .orElseGet(
+                () ->
+                    new NotificationPreference(
+                        userRepository.getReferenceById(userId),
+                        gameRepository.getReferenceById(gameId),
+                        type,
+                        mode));
+    if (!mode.equals(preference.getMode())) {
+      preference.setMode(mode);
+      preference.setPendingCount(0);
+      preference.setPendingReferenceId(null);
+    }
+    preference.setUpdatedAt(Instant.now());
+    preferenceRepository.save(preference);
+    logger.info("User {} set {} notifications of game {} to {}", userId, type, gameId, mode);
+    return new GetNotificationPreferenceResponse(gameId, type, mode);
+  }
+
+  /**
+   * Counts an occurrence for the digest members of the game.
+   *
+   * @param actorId the member who caused it and should not hear about it, or null.
+   */
+  @Transactional
+  public void recordDigest(UUID gameId, String type, UUID referenceId, UUID actorId) {
+    int counted =
+        actorId == null
+            ? preferenceRepository.recordDigestOccurrence(gameId, type, referenceId)
+            : preferenceRepository.recordDigestOccurrenceExcept(gameId, type, referenceId, actorId);
+    if (counted > 0) {
+      logger.debug("Counted {} for {} digest members of game {}", type, counted, gameId);
+    }
+  }
+
+  /**
+   * Turns the pending digest counts into notifications. Each preference is delivered in its own
+   * transaction, so one that fails stays pending for the next run without holding up the others.
+   */
+  @Scheduled(cron = "${wasp.notifications.digest.cron:0 0 8 * * *}")
+  public void sendDigests() {
+    long delivered = 0;
+    int failed = 0;
+    // Pages by id rather than refetching the head, which a failed preference would stay at
+    UUID afterId = new UUID(0, 0);
+    while (true) {
+      List<NotificationPreference> batch =
+          preferenceRepository.findPendingDigests(afterId, PageRequest.of(0, digestBatchSize));
+      for (NotificationPreference preference : batch) {
+        try {
+          transactionTemplate.executeWithoutResult(
+              status -> {
+                deliver(preference);
+                preferenceRepository.consumeDigest(
+                    preference.getId(), preference.getPendingCount());
+              });
+          delivered++;
+        } catch (RuntimeException e) {
+          failed++;
+          logger.warn("Digest {} not delivered: {}", preference.getId(), e.getMessage());
+        }
+      }
+      if (batch.size() < digestBatchSize) {
+        break;
+      }
+      afterId = batch.get(batch.size() - 1).getId();
+    }
+    if (delivered > 0 || failed > 0) {
+      logger.info("Sent {} notification digests, {} failed", delivered, failed);
+    }
+  }
+
+  private void deliver(NotificationPreference preference) {
+    UUID userId = preference.getUser().getId();
+    UUID gameId = preference.getGame().getId();
+    if ("UNREAD_MESSAGES".equals(preference.getType())) {
+      // Refers to the game chat, so one unread notification says it all
+      notificationService.createIfNotExists(userId, "UNREAD_MESSAGES", gameId);
+      return;
+    }
+    notificationService.createDigest(
+        userId,
+        preference.getType(),
+        preference.getPendingReferenceId(),
+        gameId,
+        preference.getPendingCount());
+  }
+
+  private void requireSubscribed(UUID userId, UUID gameId) {
+    if (!subscriptionService.isSubscribed(userId, gameId)) {
+      throw new HandledException(NOT_SUBSCRIBED, HttpStatus.FORBIDDEN);
+    }
+  }
+}
@@ -0,0 +1,248 @@
+package org.example.waspapi.service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import org.example.waspapi.dto.responses.notification.GetNotificationReferenceResponse;
+import org.example.waspapi.dto.responses.notification.GetNotificationResponse;
+import org.example.waspapi.repository.FriendRequestRepository;
+import org.example.waspapi.repository.GameRepository;
+import org.example.waspapi.repository.JoinRequestRepository;
+import org.example.waspapi.repository.SessionRepository;
+import org.example.waspapi.repository.SessionSeriesRepository;
+import org.example.waspapi.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+/**
+ * Fills in what a page of notifications points to.
+ *
+ * <p>Reference ids are grouped by the kind of entity they name and each kind is loaded with one
+ * {@code IN} query, so a page costs at most one query per kind however many notifications it holds.
+ * References that no longer exist are left empty.
+ */
+@Service
+public class NotificationReferenceResolver {
+
+  private static final Logger logger = LoggerFactory.getLogger(NotificationReferenceResolver.class);
+
+  private enum Kind {
+    SESSION,
+    SESSION_SERIES,
+    JOIN_REQUEST,
+    FRIEND_REQUEST,
+    GAME,
+    USER
+  }
+
+  private final SessionRepository sessionRepository;
+  private final SessionSeriesRepository seriesRepository;
+  private final JoinRequestRepository joinRequestRepository;
+  private final FriendRequestRepository friendRequestRepository;
+  private final GameRepository gameRepository;
+  private final UserRepository userRepository;
+
+  public NotificationReferenceResolver(
+      SessionRepository sessionRepository,
+      SessionSeriesRepository seriesRepository,
+      JoinRequestRepository joinRequestRepository,
+      FriendRequestRepository friendRequestRepository,
+      GameRepository gameRepository,
+      UserRepository userRepository) {
+    this.sessionRepository = sessionRepository;
+    this.seriesRepository = seriesRepository;
+    this.joinRequestRepository = joinRequestRepository;
+    this.friendRequestRepository = friendRequestRepository;
+    this.gameRepository = gameRepository;
+    this.userRepository = userRepository;
+  }
+
+  /** Sets {@code reference} on each notification whose target still exists. */
+  public void hydrate(Collection<GetNotificationResponse> notifications) {
+    Map<Kind, Set<UUID>> idsByKind = new HashMap<>();
+    for (GetNotificationResponse notification : notifications) {
+      Kind kind = kindOf(notification.getType());
+      if (kind != null && notification.getReferenceId() != null) {
+        idsByKind
+            .computeIfAbsent(kind, k -> new LinkedHashSet<>())
+            .add(notification.getReferenceId());
+      }
+    }
+    if (idsByKind.isEmpty()) {
+      return;
+    }
+
+    Map<UUID, Object[]> sessions = load(idsByKind.get(Kind.SESSION), Kind.SESSION);
+    Map<UUID, Object[]> series = load(idsByKind.get(Kind.SESSION_SERIES), Kind.SESSION_SERIES);
+    Map<UUID, Object[]> joinRequests = load(idsByKind.get(Kind.JOIN_REQUEST), Kind.JOIN_REQUEST);
+    Map<UUID, Object[]> friendRequests =
+        load(idsByKind.get(Kind.FRIEND_REQUEST), Kind.FRIEND_REQUEST);
+    Map<UUID, Object[]> games = load(idsByKind.get(Kind.GAME), Kind.GAME);
+    Map<UUID, Object[]> users = load(idsByKind.get(Kind.USER), Kind.USER);
+    logger.debug("Resolved references of {} notifications", notifications.size());
+
+    for (GetNotificationResponse notification : notifications) {
+      Kind kind = kindOf(notification.getType());
+      if (kind == null) {
+        continue;
+      }
+      UUID referenceId = notification.getReferenceId();
+      switch (kind) {
+        case SESSION:
+          notification.setReference(session(sessions.get(referenceId)));
+          break;
+        case SESSION_SERIES:
+          // Same shape as a session, starting at the first occurrence
+          notification.setReference(session(series.get(referenceId)));
+          break;
+        case JOIN_REQUEST:
+          notification.setReference(joinRequest(joinRequests.get(referenceId)));
+          break;
+        case FRIEND_REQUEST:
+          // The receiver of a request sees the sender; the sender of an accepted one, the receiver
+          notification.setReference(
+              friendRequest(
+                  friendRequests.get(referenceId),
+                  "FRIEND_REQUEST_ACCEPTED".equals(notification.getType())));
+          break;
+        case GAME:
+          notification.setReference(game(games.get(referenceId)));
+          break;
+        case USER:
+          notification.setReference(user(users.get(referenceId)));
+          break;
+        default:
+          break;
+      }
+    }
+  }
+
+  private static Kind kindOf(String type) {
+    if (type == null) {
+      return null;
+    }
+    switch (type) {
+      case "SESSION_CREATED":
+      case "SESSION_REMINDER":
+        return Kind.SESSION;
+      case "SESSION_SERIES_CREATED":
+      case "SESSION_SERIES_REMINDER":
+        return Kind.SESSION_SERIES;
+      case "JOIN_REQUEST":
+      case "JOIN_REQUEST_ACCEPTED":
+        return Kind.JOIN_REQUEST;
+      case "FRIEND_REQUEST":
+      case "FRIEND_REQUEST_ACCEPTED":
+        return Kind.FRIEND_REQUEST;
+      case "UNREAD_MESSAGES":
+        return Kind.GAME;
+      case "UNREAD_PRIVATE_MESSAGES":
+        return Kind.USER;
+      default:
+        return null;
+    }
+  }
+
+  /** Rows of the kind keyed by their first column, the id. */
+  private Map<UUID, Object[]> load(Set<UUID> ids, Kind kind) {
+    Map<UUID, Object[]> rowsById = new HashMap<>();
+    if (ids == null || ids.isEmpty()) {
+      return rowsById;
+    }
+    List<UUID> idList = new ArrayList<>(ids);
+    List<Object[]> rows;
+    switch (kind) {
+      case SESSION:
+        rows = sessionRepository.findSummariesByIdIn(idList);
+        break;
+      case SESSION_SERIES:
+        rows = seriesRepository.findSummariesByIdIn(idList);
+        break;
+      case JOIN_REQUEST:
+        rows = joinRequestRepository.findSummariesByIdIn(idList);
+        break;
+      case FRIEND_REQUEST:
+        rows = friendRequestRepository.findSummariesByIdIn(idList);
+        break;
+      case GAME:
+        rows = gameRepository.findNamesByIdIn(idList);
+        break;
+      default:
+        rows = userRepository.findSummariesByIdIn(idList);
+        break;
+    }
+    for (Object[] row : rows) {
+      rowsById.put((UUID) row[0], row);
+    }
+    return rowsById;
+  }
+
+  private static GetNotificationReferenceResponse session(Object[] row) {
+    if (row == null) {
+      return null;
+    }
+    return new GetNotificationReferenceResponse(
+        (String) row[1],
+        (LocalDateTime) row[2],
+        (UUID) row[3],
+        (String) row[4],
+        null,
+        null,
+        null,
+        null);
+  }
+
+  private static GetNotificationReferenceResponse joinRequest(Object[] row) {
+    if (row == null) {
+      return null;
+    }
+    return new GetNotificationReferenceResponse(
+        null,
+        null,
+        (UUID) row[5],
+        (String) row[6],
+        (UUID) row[2],
+        (String) row[3],
+        (String) row[4],
+        (String) row[1]);
+  }
+
+  private static GetNotificationReferenceResponse friendRequest(Object[] row, boolean receiver) {
+    if (row == null) {
+      return null;
+    }
+    int user = receiver ? 5 : 2;
+    return new GetNotificationReferenceResponse(
+        null,
+        null,
+        null,
+        null,
+        (UUID) row[user],
+        (String) row[user + 1],
+        (String) row[user + 2],
+        (String) row[1]);
+  }
+
+  private static GetNotificationReferenceResponse game(Object[] row) {
+    if (row == null) {
+      return null;
+    }
+    return new GetNotificationReferenceResponse(
+        null, null, (UUID) row[0], (String) row[1], null, null, null, null);
+  }
+
+  private static GetNotificationReferenceResponse user(Object[] row) {
+    if (row == null) {
+      return null;
+    }
+    return new GetNotificationReferenceResponse(
+        null, null, null, null, (UUID) row[0], (String) row[1], (String) row[2], null);
+  }
+}
@@ -0,0 +1,161 @@
+package org.example.waspapi.service;
+
+import java.time.Duration;
+import java.time.Instant;
+import org.example.waspapi.repository.NotificationRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Keeps the notifications table from growing without bound.
+ *
+ * <p>Read notifications older than {@code wasp.notifications.retention.read-days} are deleted in
+ * small batches, each in its own transaction, so the purge never holds long locks. On PostgreSQL
+ * the table can also be split into monthly partitions ({@link NotificationPartitionManager}), in
+ * which case whole months past {@code partitioning.retention-months} are dropped. On PostgreSQL a
+ * partial index over unread rows serves the unread count and list, and a unique partial index on
+ * (user, type, reference) keeps at most one identical unread notification per user for the {@link
+ * NotificationService#DEDUP_TYPES}. Startup fails if that index cannot be built, since their
+ * deduplication relies on it.
+ */
+@Service
+public class NotificationRetentionService {
+
+  private static final Logger logger = LoggerFactory.getLogger(NotificationRetentionService.class);
+
+  /**
+   * Keeps the most recently updated of each set of identical unread notifications of the dedup
+   * types, which only exist if rows were written before the index.
+   */
+  private static final String MARK_DUPLICATES_READ =
+      "UPDATE notifications SET is_read = true WHERE notification_id IN ("
+          + "SELECT notification_id FROM (SELECT notification_id, row_number() OVER ("
+          + "PARTITION BY user_id, type, reference_id ORDER BY updated_at DESC, created_at DESC)"
+          + " AS position FROM notifications WHERE "
+          + NotificationPartitionManager.DEDUP_WHERE
+          + ") ranked WHERE position > 1)";
+
+  private final NotificationRepository notificationRepository;
+  private final NotificationPartitionManager partitionManager;
+  private final JdbcTemplate jdbcTemplate;
+  private final TransactionTemplate transactionTemplate;
+
+  @Value("${wasp.notifications.retention.enabled:true}")
+  private boolean enabled;
+
+  @Value("${wasp.notifications.retention.read-days:90}")
+  private int readRetentionDays;
+
+  @Value("${wasp.notifications.retention.batch-size:1000}")
+  private int batchSize;
+
+  @Value("${wasp.notifications.retention.partitioning.enabled:false}")
+  private boolean partitioningEnabled;
+
+  @Value("${wasp.notifications.retention.partitioning.retention-months:12}")
+  private int retentionMonths;
+
+  @Value("${wasp.notifications.retention.partitioning.premake-months:2}")
+  private int premakeMonths;
+
+  private volatile boolean postgres;
+
+  public NotificationRetentionService(
+      NotificationRepository notificationRepository,
+      NotificationPartitionManager partitionManager,
+      JdbcTemplate jdbcTemplate,
+      TransactionTemplate transactionTemplate) {
+    this.notificationRepository = notificationRepository;
+    this.partitionManager = partitionManager;
+    this.jdbcTemplate = jdbcTemplate;
+    this.transactionTemplate = transactionTemplate;
+  }
+
+  /**
+   * Prepares the indexes and, if enabled, the partitions. Only partitioning may fail without
+   * stopping startup; the table then stays unpartitioned.
+   */
+  @EventListener(ApplicationReadyEvent.class)
+  public void prepareStorage() {
+    postgres =
+        "PostgreSQL"
+            .equals(
+                jdbcTemplate.execute(
+                    (ConnectionCallback<String>)
+                        connection -> connection.getMetaData().getDatabaseProductName()));
+    if (!postgres) {
+      return;
+    }
+    // Unique indexes cannot be built over existing duplicates
+    int folded = jdbcTemplate.update(MARK_DUPLICATES_READ);
+    if (folded > 0) {
+      logger.warn("Marked {} duplicate unread notifications as read", folded);
+    }
+    if (partitioningEnabled) {
+      try {
+        partitionManager.convertIfNeeded(premakeMonths);
+      } catch (RuntimeException e) {
+        logger.warn("Notification partitioning skipped: {}", e.getMessage());
+      }
+    }
+    jdbcTemplate.execute(
+        "CREATE INDEX IF NOT EXISTS notifications_unread_idx"
+            + " ON notifications (user_id, updated_at DESC) WHERE is_read = false");
+    if (partitionManager.isPartitioned()) {
+      partitionManager.createDedupIndexes();
+    } else {
+      // Replaces the earlier index, which covered every type
+      jdbcTemplate.execute("DROP INDEX IF EXISTS notifications_unread_dedup_idx");
+      jdbcTemplate.execute(
+          "CREATE UNIQUE INDEX IF NOT EXISTS notifications_unread_message_dedup_idx"
+              + " ON notifications (user_id, type, reference_id) WHERE "
+              + NotificationPartitionManager.DEDUP_WHERE);
+    }
+  }
+
+  @Scheduled(cron = "${wasp.notifications.retention.cron:0 30 3 * * *}")
+  public void runRetention() {
+    if (!enabled) {
+      return;
+    }
+    if (postgres && partitioningEnabled) {
+      try {
+        partitionManager.ensureUpcoming(premakeMonths);
+        partitionManager.dropExpired(retentionMonths);
+      } catch (RuntimeException e) {
+        logger.warn("Notification partition maintenance failed: {}", e.getMessage());
+      }
+    }
+    purgeReadNotifications();
+  }
+
+  /** Deletes old read notifications batch by batch until none are left. */
+  public long purgeReadNotifications() {
+    Instant cutoff = Instant.now().minus(Duration.ofDays(readRetentionDays));
+    long total = 0;
+    while (true) {
+      Integer deleted =
+          transactionTemplate.execute(
+              status -> notificationRepository.deleteReadBefore(cutoff, batchSize));
+      if (deleted == null || deleted == 0) {
+        break;
+      }
+      total += deleted;
+      if (deleted < batchSize) {
+        break;
+      }
+    }
+    if (total > 0) {
+      logger.info("Purged {} read notifications older than {} days", total, readRetentionDays);
+    }
+    return total;
+  }
+}
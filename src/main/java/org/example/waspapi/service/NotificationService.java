@@ -1,87 +1,248 @@
 package org.example.waspapi.service;
 
+import static org.example.waspapi.Constants.INVALID_BULK_READ;
 import static org.example.waspapi.Constants.NOTIFICATION_NOT_FOUND;
 
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
+import org.example.waspapi.dto.responses.notification.GetNotificationResponse;
+import org.example.waspapi.events.NotificationsChangedEvent;
 import org.example.waspapi.exceptions.HandledException;
 import org.example.waspapi.model.Notification;
-import org.example.waspapi.model.User;
 import org.example.waspapi.repository.NotificationRepository;
-import org.example.waspapi.repository.UserRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
 
 @Service
 public class NotificationService {
 
   private static final Logger logger = LoggerFactory.getLogger(NotificationService.class);
 
+  private static final int MAX_BULK_READ_IDS = 500;
+
+  /**
+   * Types created through {@link #createIfNotExists}, whose unread rows a unique index keeps to one
+   * per (user, type, reference). Other types may have several unread rows with the same reference.
+   */
+  public static final List<String> DEDUP_TYPES =
+      Collections.unmodifiableList(Arrays.asList("UNREAD_MESSAGES", "UNREAD_PRIVATE_MESSAGES"));
+
   private final NotificationRepository notificationRepository;
-  private final UserRepository userRepository;
+  private final UnreadNotificationCounter unreadCounter;
+  private final ApplicationEventPublisher eventPublisher;
+
+  @Value("${wasp.notifications.aggregation.types:SESSION_CREATED,JOIN_REQUEST,FRIEND_REQUEST}")
+  private Set<String> aggregatedTypes;
+
+  @Value("${wasp.notifications.aggregation.window-minutes:60}")
+  private long aggregationWindowMinutes;
 
   public NotificationService(
-      NotificationRepository notificationRepository, UserRepository userRepository) {
+      NotificationRepository notificationRepository,
+      UnreadNotificationCounter unreadCounter,
+      ApplicationEventPublisher eventPublisher) {
     this.notificationRepository = notificationRepository;
-    this.userRepository = userRepository;
+    this.unreadCounter = unreadCounter;
+    this.eventPublisher = eventPublisher;
   }
 
   public Notification create(UUID userId, String type, UUID referenceId) {
+    return create(userId, type, referenceId, null, null);
+  }
+
+  /**
+   * Creates a notification, or folds it into the user's unread notification of the same type and
+   * group if that one was last updated within the aggregation window. Goes through the same
+   * statements as {@link #createForMany}, so a notification read while this runs gets a new one
+   * instead of absorbing the occurrence.
+   *
+   * @param groupKey what occurrences are grouped by, e.g. the game of a new session; null never
+   *     aggregates.
+   * @param actorId the user who caused the notification, if any.
+   * @return the created or aggregated notification, detached and without its user, or null if the
+   *     user does not exist
+   */
+  @Transactional
+  public Notification create(
+      UUID userId, String type, UUID referenceId, UUID groupKey, UUID actorId) {
     logger.debug("Creating notification type {} for user {}", type, userId);
-    User user =
-        userRepository
-            .findById(userId)
-            .orElseThrow(
-                () -> {
-                  logger.warn("Cannot create notification: user {} not found", userId);
-                  return new HandledException("User not found", HttpStatus.NOT_FOUND);
-                });
-
-    Notification notification = new Notification(user, type, referenceId);
-    Notification saved = notificationRepository.save(notification);
+    Instant now = Instant.now();
+    List<UUID> recipient = Collections.singletonList(userId);
+
+    if (groupKey != null && aggregatedTypes.contains(type)) {
+      Notification aggregated =
+          notificationRepository
+              .aggregateOpen(
+                  recipient,
+                  type,
+                  groupKey,
+                  referenceId,
+                  actorId,
+                  now.minus(Duration.ofMinutes(aggregationWindowMinutes)),
+                  now)
+              .get(userId);
+      if (aggregated != null) {
+        logger.info(
+            "Notification aggregated: type={}, user={}, ref={}, count={}",
+            type,
+            userId,
+            referenceId,
+            aggregated.getAggregateCount());
+        // Still one unread row, so the count does not change
+        eventPublisher.publishEvent(new NotificationsChangedEvent(userId, 0, aggregated));
+        return aggregated;
+      }
+    }
+
+    Notification created =
+        notificationRepository
+            .insertForUsers(recipient, type, referenceId, groupKey, actorId, now)
+            .get(userId);
+    if (created == null) {
+      // Not thrown: callers run inside their own transaction, which an exception would doom
+      logger.warn("Cannot create notification: user {} not found", userId);
+      return null;
+    }
     logger.info("Notification created: type={}, user={}, ref={}", type, userId, referenceId);
-    return saved;
+    eventPublisher.publishEvent(new NotificationsChangedEvent(userId, 1, created));
+    return created;
   }
 
+  /** Creates the notification unless the user already has the same one unread. */
   public void createIfNotExists(UUID userId, String type, UUID referenceId) {
-    if (notificationRepository.existsByUserIdAndTypeAndReferenceIdAndIsReadFalse(
-        userId, type, referenceId)) {
-      logger.debug(
-          "Notification type {} already exists for user {} ref {}", type, userId, referenceId);
-      return;
+    createIfNotExists(Collections.singletonList(userId), type, referenceId);
+  }
+
+  /**
+   * Creates the notification for each user that does not already have it unread. Dedup is a single
+   * insert per user; for the {@link #DEDUP_TYPES} it is backed by a unique index on unread
+   * notifications, so concurrent callers never create duplicates.
+   */
+  @Transactional
+  public void createIfNotExists(Collection<UUID> userIds, String type, UUID referenceId) {
+    Map<UUID, Notification> created =
+        notificationRepository.insertUnreadIfAbsent(userIds, type, referenceId, Instant.now());
+    for (Map.Entry<UUID, Notification> entry : created.entrySet()) {
+      eventPublisher.publishEvent(
+          new NotificationsChangedEvent(entry.getKey(), 1, entry.getValue()));
     }
-    create(userId, type, referenceId);
+    logger.debug(
+        "Notification type {} ref {}: {} created, {} already unread or unknown users",
+        type,
+        referenceId,
+        created.size(),
+        userIds.size() - created.size());
   }
 
   public void createForMany(List<UUID> userIds, String type, UUID referenceId) {
+    createForMany(userIds, type, referenceId, null, null);
+  }
+
+  /**
+   * Notifies every user in one pass: open groups of aggregated types are updated with one statement
+   * and the remaining users get their rows in a single insert batch. Ids that match no user are
+   * skipped by the insert rather than looked up beforehand.
+   */
+  @Transactional
+  public void createForMany(
+      List<UUID> userIds, String type, UUID referenceId, UUID groupKey, UUID actorId) {
     logger.debug("Creating notification type {} for {} users", type, userIds.size());
-    for (UUID userId : userIds) {
-      try {
-        create(userId, type, referenceId);
-      } catch (HandledException e) {
-        logger.warn("Skipping notification for user {}: {}", userId, e.getMessage());
-      }
+    Set<UUID> remaining = new LinkedHashSet<>(userIds);
+    if (remaining.isEmpty()) {
+      return;
     }
+    Instant now = Instant.now();
+
+    Map<UUID, Notification> aggregated = Collections.emptyMap();
+    if (groupKey != null && aggregatedTypes.contains(type)) {
+      aggregated =
+          notificationRepository.aggregateOpen(
+              remaining,
+              type,
+              groupKey,
+              referenceId,
+              actorId,
+              now.minus(Duration.ofMinutes(aggregationWindowMinutes)),
+              now);
+      remaining.removeAll(aggregated.keySet());
+    }
+    Map<UUID, Notification> created =
+        notificationRepository.insertForUsers(remaining, type, referenceId, groupKey, actorId, now);
+
+    for (Map.Entry<UUID, Notification> entry : aggregated.entrySet()) {
+      eventPublisher.publishEvent(
+          new NotificationsChangedEvent(entry.getKey(), 0, entry.getValue()));
+    }
+    for (Map.Entry<UUID, Notification> entry : created.entrySet()) {
+      eventPublisher.publishEvent(
+          new NotificationsChangedEvent(entry.getKey(), 1, entry.getValue()));
+    }
+    if (created.size() < remaining.size()) {
+      logger.warn(
+          "Skipped notification type {} for {} unknown users",
+          type,
+          remaining.size() - created.size());
+    }
+    logger.info(
+        "Notifications type={} ref={}: {} created, {} aggregated",
+        type,
+        referenceId,
+        created.size(),
+        aggregated.size());
+  }
+
+  /**
+   * Delivers a digest of {@code occurrences} events as one notification pointing to the latest,
+   * folded into the open notification of the group like any other occurrence.
+   *
+   * @return the notification, or null if the user does not exist
+   */
+  @Transactional
+  public Notification createDigest(
+      UUID userId, String type, UUID referenceId, UUID groupKey, int occurrences) {
+    Notification notification = create(userId, type, referenceId, groupKey, null);
+    if (notification != null && occurrences > 1) {
+      notificationRepository.addOccurrences(notification.getId(), occurrences - 1);
+      notification.setAggregateCount(notification.getAggregateCount() + occurrences - 1);
+    }
+    return notification;
   }
 
   public Page<Notification> getNotifications(UUID userId, Pageable pageable) {
     logger.debug("Fetching notifications for user {}", userId);
-    return notificationRepository.findByUserIdOrderByCreatedAtDesc(userId, pageable);
+    return notificationRepository.findByUserIdOrderByUpdatedAtDesc(userId, pageable);
   }
 
   public Page<Notification> getUnreadNotifications(UUID userId, Pageable pageable) {
     logger.debug("Fetching unread notifications for user {}", userId);
-    return notificationRepository.findByUserIdAndIsReadFalseOrderByCreatedAtDesc(userId, pageable);
+    return notificationRepository.findByUserIdAndIsReadFalseOrderByUpdatedAtDesc(userId, pageable);
   }
 
   public long getUnreadCount(UUID userId) {
-    logger.debug("Counting unread notifications for user {}", userId);
-    return notificationRepository.countByUserIdAndIsReadFalse(userId);
+    return unreadCounter.get(
+        userId,
+        id -> {
+          logger.debug("Counting unread notifications for user {}", id);
+          return notificationRepository.countByUserIdAndIsReadFalse(id);
+        });
   }
 
   @Transactional
@@ -96,17 +257,23 @@ public class NotificationService {
       throw new HandledException(NOTIFICATION_NOT_FOUND, HttpStatus.FORBIDDEN);
     }
 
+    boolean wasUnread = !Boolean.TRUE.equals(notification.getIsRead());
     notification.setIsRead(true);
     Notification saved = notificationRepository.save(notification);
     logger.info("Notification {} marked as read", notificationId);
+    if (wasUnread) {
+      eventPublisher.publishEvent(new NotificationsChangedEvent(userId, -1, null));
+    }
     return saved;
   }
 
   @Transactional
   public void markMessagesAsRead(UUID userId, UUID gameId) {
     logger.debug("Marking UNREAD_MESSAGES as read for user {} game {}", userId, gameId);
-    notificationRepository.markAsReadByUserIdAndTypeAndReferenceId(
-        userId, "UNREAD_MESSAGES", gameId);
+    int updated =
+        notificationRepository.markAsReadByUserIdAndTypeAndReferenceId(
+            userId, "UNREAD_MESSAGES", gameId);
+    publishRead(userId, updated);
     logger.info("UNREAD_MESSAGES marked as read for user {} game {}", userId, gameId);
   }
 
@@ -114,8 +281,10 @@ public class NotificationService {
   public void markPrivateMessagesAsRead(UUID userId, UUID friendUserId) {
     logger.debug(
         "Marking UNREAD_PRIVATE_MESSAGES as read for user {} friend {}", userId, friendUserId);
-    notificationRepository.markAsReadByUserIdAndTypeAndReferenceId(
-        userId, "UNREAD_PRIVATE_MESSAGES", friendUserId);
+    int updated =
+        notificationRepository.markAsReadByUserIdAndTypeAndReferenceId(
+            userId, "UNREAD_PRIVATE_MESSAGES", friendUserId);
+    publishRead(userId, updated);
     logger.info(
         "UNREAD_PRIVATE_MESSAGES marked as read for user {} friend {}", userId, friendUserId);
   }
@@ -123,7 +292,63 @@ public class NotificationService {
   @Transactional
   public void markAllAsRead(UUID userId) {
     logger.debug("Marking all notifications as read for user {}", userId);
-    notificationRepository.markAllAsReadByUserId(userId);
+    int updated = notificationRepository.markAllAsReadByUserId(userId);
+    publishRead(userId, updated);
     logger.info("All notifications marked as read for user {}", userId);
   }
+
+  /**
+   * Marks the user's notifications selected by exactly one of {@code ids}, {@code type} or {@code
+   * before} as read in a single update, and returns how many changed. Ownership is part of the
+   * update itself, so ids of other users' notifications are silently ignored.
+   */
+  @Transactional
+  public int markAsRead(UUID userId, List<UUID> ids, String type, Instant before) {
+    int criteria = (ids != null ? 1 : 0) + (type != null ? 1 : 0) + (before != null ? 1 : 0);
+    if (criteria != 1 || (ids != null && ids.size() > MAX_BULK_READ_IDS)) {
+      throw new HandledException(INVALID_BULK_READ, HttpStatus.BAD_REQUEST);
+    }
+    int updated;
+    if (ids != null) {
+      updated =
+          ids.isEmpty()
+              ? 0
+              : notificationRepository.markAsReadByUserIdAndIdIn(userId, new LinkedHashSet<>(ids));
+    } else if (type != null) {
+      updated = notificationRepository.markAsReadByUserIdAndType(userId, type);
+    } else {
+      updated = notificationRepository.markAsReadByUserIdAndUpdatedAtBefore(userId, before);
+    }
+    publishRead(userId, updated);
+    logger.info("{} notifications marked as read for user {}", updated, userId);
+    return updated;
+  }
+
+  public GetNotificationResponse toResponse(Notification notification) {
+    return new GetNotificationResponse(
+        notification.getId(),
+        notification.getType(),
+        notification.getReferenceId(),
+        notification.getIsRead(),
+        notification.getCreatedAt(),
+        notification.getAggregateCount(),
+        notification.getLatestActorId(),
+        notification.getUpdatedAt());
+  }
+
+  /**
+   * Keeps the cached unread count in step once the change is committed. Runs before the other
+   * listeners so that pushes read the updated count.
+   */
+  @Order(Ordered.HIGHEST_PRECEDENCE)
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onNotificationsChanged(NotificationsChangedEvent event) {
+    unreadCounter.adjust(event.getUserId(), event.getUnreadDelta());
+  }
+
+  private void publishRead(UUID userId, int updated) {
+    if (updated > 0) {
+      eventPublisher.publishEvent(new NotificationsChangedEvent(userId, -updated, null));
+    }
+  }
 }
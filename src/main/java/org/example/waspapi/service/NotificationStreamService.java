@@ -0,0 +1,145 @@
+package org.example.waspapi.service;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import org.example.waspapi.dto.responses.notification.GetNotificationResponse;
+import org.example.waspapi.dto.responses.notification.GetUnreadCountResponse;
+import org.example.waspapi.dto.responses.notification.NotificationPollResponse;
+import org.example.waspapi.events.NotificationsChangedEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * Pushes notification changes to connected clients once they are committed.
+ *
+ * <p>Clients either hold an event stream ({@link UserStreamService}), which receives a {@value
+ * #NOTIFICATION_EVENT} event per new notification and an {@value #UNREAD_COUNT_EVENT} event per
+ * count change, or long-poll {@link #poll}. Both are asynchronous requests, so idle clients hold no
+ * servlet thread. Pushes are written by the thread that committed the change.
+ */
+@Service
+public class NotificationStreamService {
+
+  public static final String NOTIFICATION_EVENT = "notification";
+  public static final String UNREAD_COUNT_EVENT = "unread-count";
+
+  private static final Logger logger = LoggerFactory.getLogger(NotificationStreamService.class);
+
+  private final NotificationService notificationService;
+  private final UserStreamService userStreamService;
+  private final Map<UUID, List<DeferredResult<NotificationPollResponse>>> waiters =
+      new ConcurrentHashMap<>();
+
+  @Value("${wasp.notifications.long-poll-timeout-ms:25000}")
+  private long longPollTimeoutMs;
+
+  @Value("${wasp.streams.max-per-user:5}")
+  private int maxPerUser;
+
+  public NotificationStreamService(
+      NotificationService notificationService, UserStreamService userStreamService) {
+    this.notificationService = notificationService;
+    this.userStreamService = userStreamService;
+  }
+
+  /** Opens the user's event stream and sends the current unread count as its first event. */
+  public SseEmitter connect(UUID userId) {
+    SseEmitter emitter = userStreamService.connect(userId);
+    userStreamService.send(
+        userId,
+        UNREAD_COUNT_EVENT,
+        new GetUnreadCountResponse(notificationService.getUnreadCount(userId)));
+    return emitter;
+  }
+
+  /**
+   * Waits until the user's notifications change.
+   *
+   * <p>Answers right away when the unread count already differs from {@code knownCount}, which
+   * covers changes made between two polls; otherwise the request is parked until the next change or
+   * the timeout, which answers with no notifications and the current count.
+   */
+  public DeferredResult<NotificationPollResponse> poll(UUID userId, Long knownCount) {
+    DeferredResult<NotificationPollResponse> result =
+        new DeferredResult<>(
+            longPollTimeoutMs,
+            () -> currentState(userId, Collections.<GetNotificationResponse>emptyList()));
+    result.onCompletion(() -> removeWaiter(userId, result));
+
+    // Register before reading the count so a change committed in between is not missed
+    List<DeferredResult<NotificationPollResponse>> userWaiters =
+        waiters.compute(
+            userId,
+            (id, current) -> {
+              List<DeferredResult<NotificationPollResponse>> list =
+                  current != null ? current : new CopyOnWriteArrayList<>();
+              list.add(result);
+              return list;
+            });
+    while (userWaiters.size() > maxPerUser) {
+      DeferredResult<NotificationPollResponse> oldest = userWaiters.remove(0);
+      oldest.setResult(currentState(userId, Collections.<GetNotificationResponse>emptyList()));
+    }
+
+    long unreadCount = notificationService.getUnreadCount(userId);
+    if (knownCount == null || knownCount != unreadCount) {
+      result.setResult(
+          new NotificationPollResponse(
+              Collections.<GetNotificationResponse>emptyList(), unreadCount));
+    }
+    return result;
+  }
+
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onNotificationsChanged(NotificationsChangedEvent event) {
+    UUID userId = event.getUserId();
+    List<DeferredResult<NotificationPollResponse>> userWaiters = waiters.remove(userId);
+    boolean streaming = userStreamService.isConnected(userId);
+    if (userWaiters == null && !streaming) {
+      return;
+    }
+
+    List<GetNotificationResponse> created =
+        event.getCreated() == null
+            ? Collections.<GetNotificationResponse>emptyList()
+            : Collections.singletonList(notificationService.toResponse(event.getCreated()));
+    NotificationPollResponse state = currentState(userId, created);
+
+    if (streaming) {
+      for (GetNotificationResponse notification : created) {
+        userStreamService.send(userId, NOTIFICATION_EVENT, notification);
+      }
+      userStreamService.send(
+          userId, UNREAD_COUNT_EVENT, new GetUnreadCountResponse(state.getUnreadCount()));
+    }
+    if (userWaiters != null) {
+      for (DeferredResult<NotificationPollResponse> waiter : userWaiters) {
+        waiter.setResult(state);
+      }
+      logger.debug("Answered {} long polls of user {}", userWaiters.size(), userId);
+    }
+  }
+
+  private NotificationPollResponse currentState(
+      UUID userId, List<GetNotificationResponse> notifications) {
+    return new NotificationPollResponse(notifications, notificationService.getUnreadCount(userId));
+  }
+
+  private void removeWaiter(UUID userId, DeferredResult<NotificationPollResponse> result) {
+    waiters.computeIfPresent(
+        userId,
+        (id, userWaiters) -> {
+          userWaiters.remove(result);
+          return userWaiters.isEmpty() ? null : userWaiters;
+        });
+  }
+}
@@ -0,0 +1,315 @@
+package org.example.waspapi.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.annotation.PreDestroy;
+import org.example.waspapi.events.OutboxEnqueuedEvent;
+import org.example.waspapi.model.OutboxEvent;
+import org.example.waspapi.repository.OutboxEventRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Drains the outbox on a single background thread.
+ *
+ * <p>A drain claims a batch of due events in one short transaction, leasing them by moving their
+ * {@code available_at} forward, then runs each event in its own transaction together with marking
+ * it done. A failed event is retried with exponential backoff until {@code
+ * wasp.outbox.max-attempts}, then marked {@code FAILED}. Only the earliest pending event of an
+ * aggregate is claimed, so later ones wait for it and each aggregate stays in order, also across
+ * instances. A crashed dispatcher's leases simply expire.
+ *
+ * <p>Drains start right after a transaction enqueues events, and on a slow poll that covers retries
+ * and events left by another instance. Dispatch lag (commit to completion) and the pending backlog
+ * are logged every {@code wasp.outbox.metrics-interval-ms}.
+ */
+@Service
+public class OutboxDispatcher {
+
+  private static final Logger logger = LoggerFactory.getLogger(OutboxDispatcher.class);
+
+  private static final int MAX_ERROR_LENGTH = 2000;
+
+  private final OutboxEventRepository outboxEventRepository;
+  private final TransactionTemplate transactionTemplate;
+  private final ObjectMapper objectMapper;
+  private final Map<String, OutboxEventHandler> handlers = new HashMap<>();
+
+  private final ExecutorService executor =
+      Executors.newSingleThreadExecutor(
+          runnable -> {
+            Thread thread = new Thread(runnable, "outbox-dispatcher");
+            thread.setDaemon(true);
+            return thread;
+          });
+  private final AtomicBoolean drainRequested = new AtomicBoolean();
+
+  // Since the last metrics report
+  private final AtomicLong dispatched = new AtomicLong();
+  private final AtomicLong retried = new AtomicLong();
+  private final AtomicLong failed = new AtomicLong();
+  private final AtomicLong totalLagMs = new AtomicLong();
+  private final AtomicLong maxLagMs = new AtomicLong();
+
+  @Value("${wasp.outbox.enabled:true}")
+  private boolean enabled;
+
+  @Value("${wasp.outbox.batch-size:100}")
+  private int batchSize;
+
+  @Value("${wasp.outbox.lease-seconds:60}")
+  private long leaseSeconds;
+
+  @Value("${wasp.outbox.max-attempts:8}")
+  private int maxAttempts;
+
+  @Value("${wasp.outbox.backoff-base-ms:1000}")
+  private long backoffBaseMs;
+
+  @Value("${wasp.outbox.backoff-max-ms:300000}")
+  private long backoffMaxMs;
+
+  @Value("${wasp.outbox.lag-warn-ms:10000}")
+  private long lagWarnMs;
+
+  @Value("${wasp.outbox.retention-hours:168}")
+  private long retentionHours;
+
+  public OutboxDispatcher(
+      OutboxEventRepository outboxEventRepository,
+      TransactionTemplate transactionTemplate,
+      ObjectMapper objectMapper,
+      List<OutboxEventHandler> handlerBeans) {
+    this.outboxEventRepository = outboxEventRepository;
+    this.transactionTemplate = transactionTemplate;
+    this.objectMapper = objectMapper;
+    for (OutboxEventHandler handler : handlerBeans) {
+      for (String eventType : handler.getEventTypes()) {
+        OutboxEventHandler previous = handlers.put(eventType, handler);
+        if (previous != null) {
+          throw new IllegalStateException("Two outbox handlers for " + eventType);
+        }
+      }
+    }
+  }
+
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onEnqueued(OutboxEnqueuedEvent event) {
+    requestDrain();
+  }
+
+  @Scheduled(
+      initialDelayString = "${wasp.outbox.poll-interval-ms:5000}",
+      fixedDelayString = "${wasp.outbox.poll-interval-ms:5000}")
+  public void poll() {
+    requestDrain();
+  }
+
+  /** Starts a drain unless one is already queued; a running drain picks up new events itself. */
+  public void requestDrain() {
+    if (!enabled || !drainRequested.compareAndSet(false, true)) {
+      return;
+    }
+    try {
+      executor.execute(this::drain);
+    } catch (RejectedExecutionException e) {
+      drainRequested.set(false);
+    }
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    executor.shutdown();
+  }
+
+  /**
+   * Runs due events until none are left. A batch holds one event per aggregate, so a short batch
+   * does not mean the outbox is drained.
+   */
+  void drain() {
+    drainRequested.set(false);
+    try {
+      while (true) {
+        List<OutboxEvent> batch = claim();
+        if (batch.isEmpty()) {
+          return;
+        }
+        process(batch);
+      }
+    } catch (RuntimeException e) {
+      logger.warn("Outbox drain stopped: {}", e.getMessage());
+    }
+  }
+
+  private List<OutboxEvent> claim() {
+    List<OutboxEvent> batch =
+        transactionTemplate.execute(
+            status -> {
+              Instant now = Instant.now();
+              List<OutboxEvent> events =
+                  outboxEventRepository.findClaimable(now, PageRequest.of(0, batchSize));
+              Instant leasedUntil = now.plusSeconds(leaseSeconds);
+              for (OutboxEvent event : events) {
+                event.setAttempts(event.getAttempts() + 1);
+                event.setAvailableAt(leasedUntil);
+              }
+              return events;
+            });
+    return batch == null ? Collections.<OutboxEvent>emptyList() : batch;
+  }
+
+  private void process(List<OutboxEvent> batch) {
+    for (OutboxEvent event : batch) {
+      try {
+        run(event);
+        recordLag(Duration.between(event.getCreatedAt(), Instant.now()).toMillis());
+      } catch (RuntimeException e) {
+        fail(event, e);
+      }
+    }
+  }
+
+  private void run(OutboxEvent event) {
+    OutboxEventHandler handler = handlers.get(event.getEventType());
+    if (handler == null) {
+      throw new IllegalStateException("No outbox handler for " + event.getEventType());
+    }
+    JsonNode payload;
+    try {
+      payload = objectMapper.readTree(event.getPayload());
+    } catch (IOException e) {
+      throw new IllegalStateException("Unreadable outbox payload", e);
+    }
+    transactionTemplate.executeWithoutResult(
+        status -> {
+          handler.handle(event.getEventType(), payload);
+          outboxEventRepository.markDone(event.getId(), Instant.now());
+        });
+  }
+
+  private void fail(OutboxEvent event, RuntimeException error) {
+    String message = String.valueOf(error.getMessage());
+    transactionTemplate.executeWithoutResult(
+        status ->
+            outboxEventRepository
+                .findById(event.getId())
+                .ifPresent(
+                    current -> {
+                      Instant now = Instant.now();
+                      current.setLastError(
+                          message.length() > MAX_ERROR_LENGTH
+                              ? message.substring(0, MAX_ERROR_LENGTH)
+                              : message);
+                      if (current.getAttempts() >= maxAttempts) {
+                        current.setStatus(OutboxEvent.FAILED);
+                        current.setProcessedAt(now);
+                      } else {
+                        current.setAvailableAt(now.plusMillis(backoff(current.getAttempts())));
+                      }
+                    }));
+    if (event.getAttempts() >= maxAttempts) {
+      failed.incrementAndGet();
+      logger.error(
+          "Outbox event {} ({}) failed after {} attempts: {}",
+          event.getId(),
+          event.getEventType(),
+          event.getAttempts(),
+          message);
+    } else {
+      retried.incrementAndGet();
+      logger.warn(
+          "Outbox event {} ({}) failed on attempt {}, retrying: {}",
+          event.getId(),
+          event.getEventType(),
+          event.getAttempts(),
+          message);
+    }
+  }
+
+  private long backoff(int attempts) {
+    long delay = backoffBaseMs << Math.min(attempts - 1, 20);
+    return Math.min(delay, backoffMaxMs);
+  }
+
+  private void recordLag(long lagMs) {
+    dispatched.incrementAndGet();
+    totalLagMs.addAndGet(lagMs);
+    maxLagMs.accumulateAndGet(lagMs, Math::max);
+  }
+
+  @Scheduled(
+      initialDelayString = "${wasp.outbox.metrics-interval-ms:60000}",
+      fixedRateString = "${wasp.outbox.metrics-interval-ms:60000}")
+  public void reportMetrics() {
+    if (!enabled) {
+      return;
+    }
+    long count = dispatched.getAndSet(0);
+    long lagSum = totalLagMs.getAndSet(0);
+    long lagMax = maxLagMs.getAndSet(0);
+    long retries = retried.getAndSet(0);
+    long failures = failed.getAndSet(0);
+    try {
+      long pending = outboxEventRepository.countByStatus(OutboxEvent.PENDING);
+      Instant oldest = outboxEventRepository.findOldestPendingCreatedAt();
+      long backlogMs = oldest == null ? 0 : Duration.between(oldest, Instant.now()).toMillis();
+      if (count == 0 && pending == 0 && retries == 0 && failures == 0) {
+        return;
+      }
+      String line =
+          "Outbox: {} dispatched (lag avg {} ms, max {} ms), {} retried, {} failed;"
+              + " {} pending, oldest {} ms";
+      Object[] values = {
+        count, count == 0 ? 0 : lagSum / count, lagMax, retries, failures, pending, backlogMs
+      };
+      if (backlogMs > lagWarnMs || lagMax > lagWarnMs) {
+        logger.warn(line, values);
+      } else {
+        logger.info(line, values);
+      }
+    } catch (RuntimeException e) {
+      logger.warn("Outbox metrics unavailable: {}", e.getMessage());
+    }
+  }
+
+  /** Deletes completed events past the retention window, batch by batch. */
+  @Scheduled(cron = "${wasp.outbox.cleanup-cron:0 45 3 * * *}")
+  public void purgeDone() {
+    Instant cutoff = Instant.now().minus(Duration.ofHours(retentionHours));
+    long total = 0;
+    int purgeBatch = batchSize * 10;
+    while (true) {
+      Integer deleted =
+          transactionTemplate.execute(
+              status -> outboxEventRepository.deleteDoneBefore(cutoff, purgeBatch));
+      if (deleted == null || deleted == 0) {
+        break;
+      }
+      total += deleted;
+      if (deleted < purgeBatch) {
+        break;
+      }
+    }
+    if (total > 0) {
+      logger.info("Purged {} dispatched outbox events", total);
+    }
+  }
+}
@@ -0,0 +1,16 @@
+package org.example.waspapi.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import java.util.Set;
+
+/**
+ * Runs outbox events of some types. Handlers run inside the transaction that marks the event done,
+ * so their database writes and the completion commit or roll back together; a handler that throws
+ * has its event retried later.
+ */
+public interface OutboxEventHandler {
+
+  Set<String> getEventTypes();
+
+  void handle(String eventType, JsonNode payload);
+}
@@ -0,0 +1,84 @@
+package org.example.waspapi.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import org.example.waspapi.events.OutboxEnqueuedEvent;
+import org.example.waspapi.model.OutboxEvent;
+import org.example.waspapi.repository.OutboxEventRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Records side effects in the transaction of the change that causes them.
+ *
+ * <p>Events are committed or rolled back together with the domain change, and {@link
+ * OutboxDispatcher} runs them after the commit, so a request no longer waits for its fan-out and a
+ * failed side effect is retried instead of lost.
+ */
+@Service
+public class OutboxService {
+
+  public static final String AGGREGATE_GAME = "GAME";
+  public static final String AGGREGATE_USER = "USER";
+  public static final String AGGREGATE_JOIN_REQUEST = "JOIN_REQUEST";
+
+  public static final String MESSAGE_SENT = "MESSAGE_SENT";
+  public static final String SESSION_CREATED = "SESSION_CREATED";
+  public static final String SESSION_SERIES_CREATED = "SESSION_SERIES_CREATED";
+  public static final String JOIN_REQUEST_CREATED = "JOIN_REQUEST_CREATED";
+  public static final String JOIN_REQUEST_ACCEPTED = "JOIN_REQUEST_ACCEPTED";
+  public static final String FRIEND_REQUEST_CREATED = "FRIEND_REQUEST_CREATED";
+  public static final String FRIEND_REQUEST_ACCEPTED = "FRIEND_REQUEST_ACCEPTED";
+
+  private static final Logger logger = LoggerFactory.getLogger(OutboxService.class);
+
+  private final OutboxEventRepository outboxEventRepository;
+  private final ObjectMapper objectMapper;
+  private final ApplicationEventPublisher eventPublisher;
+
+  public OutboxService(
+      OutboxEventRepository outboxEventRepository,
+      ObjectMapper objectMapper,
+      ApplicationEventPublisher eventPublisher) {
+    this.outboxEventRepository = outboxEventRepository;
+    this.objectMapper = objectMapper;
+    this.eventPublisher = eventPublisher;
+  }
+
+  /**
+   * Adds an event to the caller's transaction. Events with the same aggregate run in the order they
+   * were enqueued.
+   *
+   * @param fields the payload as alternating names and values.
+   */
+  @Transactional(propagation = Propagation.MANDATORY)
+  public OutboxEvent enqueue(
+      String aggregateType, UUID aggregateId, String eventType, Object... fields) {
+    if (fields.length % 2 != 0) {
+      throw new IllegalArgumentException("Outbox payload needs name/value pairs");
+    }
+    Map<String, Object> payload = new LinkedHashMap<>();
+    for (int i = 0; i < fields.length; i += 2) {
+      payload.put((String) fields[i], fields[i + 1]);
+    }
+    String json;
+    try {
+      json = objectMapper.writeValueAsString(payload);
+    } catch (JsonProcessingException e) {
+      throw new IllegalArgumentException("Outbox payload is not serializable", e);
+    }
+
+    OutboxEvent saved =
+        outboxEventRepository.save(new OutboxEvent(aggregateType, aggregateId, eventType, json));
+    logger.debug("Enqueued outbox event {} for {} {}", eventType, aggregateType, aggregateId);
+    eventPublisher.publishEvent(new OutboxEnqueuedEvent(eventType));
+    return saved;
+  }
+}
@@ -0,0 +1,138 @@
+package org.example.waspapi.service;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+
+/**
+ * Users seen recently, expired by a hashed timing wheel.
+ *
+ * <p>Each user has a deadline tick, and sits in the wheel slot of that tick. A heartbeat only moves
+ * the deadline forward; the user is not moved between slots. When the wheel reaches a slot, users
+ * whose deadline is still in the future are put back in the slot of their new deadline, and the
+ * rest expire. So a heartbeat costs one map update, and a tick only visits the users due in that
+ * slot. There are no per-user timers. The wheel has more slots than the TTL has ticks, so a
+ * deadline never wraps past its own slot.
+ *
+ * <p>{@link #advance} must be called from a single thread; everything else is thread-safe.
+ */
+final class PresenceRegistry {
+
+  private final int ttlTicks;
+  private final int maxUsers;
+  private final Set<UUID>[] wheel;
+  private final ConcurrentHashMap<UUID, AtomicLong> deadlines = new ConcurrentHashMap<>();
+  private volatile long currentTick;
+
+  @SuppressWarnings("unchecked")
+  PresenceRegistry(int ttlTicks, int maxUsers) {
+    this.ttlTicks = Math.max(1, ttlTicks);
+    this.maxUsers = maxUsers;
+    this.wheel = new Set[this.ttlTicks + 1];
+    for (int i = 0; i < wheel.length; i++) {
+      wheel[i] = ConcurrentHashMap.newKeySet();
+    }
+  }
+
+  /**
+   * Marks the user online for another TTL.
+   *
+   * @return false if the user was not online and the registry is full.
+   */
+  boolean touch(UUID userId) {
+    long deadline = currentTick + ttlTicks;
+    AtomicLong existing = deadlines.get(userId);
+    if (existing != null) {
+      existing.set(deadline);
+      // Still registered, i.e. not expired by a concurrent tick before the update
+      if (deadlines.get(userId) == existing) {
+        return true;
+      }
+    }
+    if (deadlines.size() >= maxUsers) {
+      return false;
+    }
+    boolean[] added = new boolean[1];
+    deadlines.compute(
+        userId,
+        (id, current) -> {
+          if (current == null) {
+            added[0] = true;
+            return new AtomicLong(deadline);
+          }
+          current.set(deadline);
+          return current;
+        });
+    if (added[0]) {
+      slot(deadline).add(userId);
+    }
+    return true;
+  }
+
+  /** Forgets the user right away, e.g. on an explicit sign-out. */
+  void remove(UUID userId) {
+    deadlines.remove(userId);
+  }
+
+  boolean isOnline(UUID userId) {
+    AtomicLong deadline = deadlines.get(userId);
+    return deadline != null && deadline.get() > currentTick;
+  }
+
+  /**
+   * Moves the wheel one tick and expires the users due in the new slot.
+   *
+   * @param keepAlive users for which it returns true (e.g. with an open event stream) are renewed
+   *     instead of expired.
+   * @return the users that went offline.
+   */
+  List<UUID> advance(Predicate<UUID> keepAlive) {
+    long tick = currentTick + 1;
+    currentTick = tick;
+    Set<UUID> due = slot(tick);
+    List<UUID> expired = new ArrayList<>();
+    List<UUID> renewed = new ArrayList<>();
+    for (Iterator<UUID> it = due.iterator(); it.hasNext(); ) {
+      UUID userId = it.next();
+      it.remove();
+      AtomicLong remaining =
+          deadlines.computeIfPresent(
+              userId,
+              (id, deadline) -> {
+                if (deadline.get() > tick) {
+                  return deadline;
+                }
+                if (keepAlive.test(id)) {
+                  deadline.set(tick + ttlTicks);
+                  return deadline;
+                }
+                return null;
+              });
+      if (remaining == null) {
+        expired.add(userId);
+      } else {
+        renewed.add(userId);
+      }
+    }
+    for (UUID userId : renewed) {
+      AtomicLong deadline = deadlines.get(userId);
+      if (deadline != null) {
+        slot(deadline.get()).add(userId);
+      }
+    }
+    return expired;
+  }
+
+  int size() {
+    return deadlines.size();
+  }
+
+  private Set<UUID> slot(long tick) {
+    return wheel[(int) (tick % wheel.length)];
+  }
+}
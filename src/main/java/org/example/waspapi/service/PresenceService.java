@@ -0,0 +1,98 @@
+package org.example.waspapi.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import org.example.waspapi.dto.responses.friendrequest.GetFriendResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * Who is online, fed by client heartbeats and open event streams.
+ *
+ * <p>A user is online while their last heartbeat is younger than the TTL or they hold an event
+ * stream. Expiry runs on a {@link PresenceRegistry} timing wheel advanced by one scheduled task,
+ * and the registry refuses new users beyond {@code wasp.presence.max-users}, so memory stays
+ * bounded however many clients connect.
+ */
+@Service
+public class PresenceService {
+
+  private static final Logger logger = LoggerFactory.getLogger(PresenceService.class);
+
+  private final PresenceRegistry registry;
+  private final UserStreamService userStreamService;
+  private final SubscriptionService subscriptionService;
+  private final SocialGraphService socialGraphService;
+  private final FriendRequestService friendRequestService;
+
+  public PresenceService(
+      UserStreamService userStreamService,
+      SubscriptionService subscriptionService,
+      SocialGraphService socialGraphService,
+      FriendRequestService friendRequestService,
+      @Value("${wasp.presence.tick-ms:5000}") long tickMs,
+      @Value("${wasp.presence.ttl-seconds:60}") long ttlSeconds,
+      @Value("${wasp.presence.max-users:100000}") int maxUsers) {
+    this.userStreamService = userStreamService;
+    this.subscriptionService = subscriptionService;
+    this.socialGraphService = socialGraphService;
+    this.friendRequestService = friendRequestService;
+    int ttlTicks = (int) Math.max(1, TimeUnit.SECONDS.toMillis(ttlSeconds) / Math.max(1, tickMs));
+    this.registry = new PresenceRegistry(ttlTicks, maxUsers);
+  }
+
+  public void heartbeat(UUID userId) {
+    if (!registry.touch(userId)) {
+      logger.warn("Presence registry full, heartbeat from {} ignored", userId);
+    }
+  }
+
+  public void signOff(UUID userId) {
+    registry.remove(userId);
+  }
+
+  public boolean isOnline(UUID userId) {
+    return registry.isOnline(userId) || userStreamService.isConnected(userId);
+  }
+
+  /** Active members of the game that are online right now. */
+  public List<UUID> getOnlineMembers(UUID gameId) {
+    return filterOnline(subscriptionService.getActiveMemberIds(gameId));
+  }
+
+  /** Friends of the user that are online right now. */
+  public List<UUID> getOnlineFriends(UUID userId) {
+    if (socialGraphService.isReady()) {
+      return filterOnline(socialGraphService.getFriendIds(userId));
+    }
+    return filterOnline(
+        friendRequestService.getFriends(userId).stream()
+            .map(GetFriendResponse::getUserId)
+            .collect(Collectors.toList()));
+  }
+
+  @Scheduled(fixedRateString = "${wasp.presence.tick-ms:5000}")
+  public void tick() {
+    List<UUID> expired = registry.advance(userStreamService::isConnected);
+    if (!expired.isEmpty()) {
+      logger.debug("{} users went offline, {} online", expired.size(), registry.size());
+    }
+  }
+
+  private List<UUID> filterOnline(Collection<UUID> userIds) {
+    List<UUID> online = new ArrayList<>();
+    for (UUID userId : userIds) {
+      if (isOnline(userId)) {
+        online.add(userId);
+      }
+    }
+    return online;
+  }
+}
@@ -5,45 +5,99 @@ import static org.example.waspapi.Constants.PHOTO_UPLOAD_FAILED;
 import static org.example.waspapi.Constants.PRIVATE_MESSAGE_CONTENT_EMPTY;
 import static org.example.waspapi.Constants.USER_NOT_FOUND;
 
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
 import java.util.UUID;
 import java.util.stream.Collectors;
+import org.example.waspapi.dto.Cursor;
+import org.example.waspapi.dto.responses.CursorPageResponse;
 import org.example.waspapi.dto.responses.privatemessage.GetConversationResponse;
+import org.example.waspapi.dto.responses.privatemessage.GetPrivateMessageResponse;
+import org.example.waspapi.events.PrivateMessageSentEvent;
 import org.example.waspapi.exceptions.HandledException;
+import org.example.waspapi.model.Conversation;
+import org.example.waspapi.model.ConversationId;
 import org.example.waspapi.model.PrivateMessage;
 import org.example.waspapi.model.User;
+import org.example.waspapi.model.UserPair;
+import org.example.waspapi.repository.ConversationRepository;
 import org.example.waspapi.repository.PrivateMessageRepository;
 import org.example.waspapi.repository.UserRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
 
 @Service
 public class PrivateMessageService {
 
   private static final Logger logger = LoggerFactory.getLogger(PrivateMessageService.class);
   private static final String PRIVATE_MESSAGE_PHOTOS_BUCKET = "private-message-photos";
+  private static final String PRIVATE_MESSAGE_EVENT = "private-message";
+  private static final int MAX_SYNC_LIMIT = 500;
+
+  /**
+   * Sync order: creation time, then id in PostgreSQL's uuid order (see {@link UserPair#compare}),
+   * so merged branches continue exactly where the cursor predicate expects.
+   */
+  private static final Comparator<PrivateMessage> SYNC_ORDER =
+      Comparator.comparing(PrivateMessage::getCreatedAt)
+          .thenComparing(PrivateMessage::getId, UserPair::compare);
 
   private final PrivateMessageRepository privateMessageRepository;
+  private final ConversationRepository conversationRepository;
   private final UserRepository userRepository;
   private final FriendRequestService friendRequestService;
   private final NotificationService notificationService;
   private final SupabaseStorageService storageService;
+  private final TransactionTemplate transactionTemplate;
+  private final ApplicationEventPublisher eventPublisher;
+  private final UserStreamService userStreamService;
+
+  /**
+   * Messages newer than this are left for the next sync. A message gets its timestamp before its
+   * transaction commits, so a cursor could otherwise move past a message that becomes visible a
+   * moment later.
+   *
+   * <p>The cursor is ordered by creation time, not by commit: a send whose transaction takes longer
+   * than the margin to commit can still be skipped by a sync that runs in between. The open event
+   * stream still delivers it, and {@link #persist} logs such slow commits.
+   */
+  @Value("${wasp.private-messages.sync-settle-margin-ms:2000}")
+  private long syncSettleMarginMs;
 
   public PrivateMessageService(
       PrivateMessageRepository privateMessageRepository,
+      ConversationRepository conversationRepository,
       UserRepository userRepository,
       FriendRequestService friendRequestService,
       NotificationService notificationService,
-      SupabaseStorageService storageService) {
+      SupabaseStorageService storageService,
+      TransactionTemplate transactionTemplate,
+      ApplicationEventPublisher eventPublisher,
+      UserStreamService userStreamService) {
     this.privateMessageRepository = privateMessageRepository;
+    this.conversationRepository = conversationRepository;
     this.userRepository = userRepository;
     this.friendRequestService = friendRequestService;
     this.notificationService = notificationService;
     this.storageService = storageService;
+    this.transactionTemplate = transactionTemplate;
+    this.eventPublisher = eventPublisher;
+    this.userStreamService = userStreamService;
   }
 
   public PrivateMessage send(UUID senderId, UUID receiverId, String content) {
@@ -67,7 +121,7 @@ public class PrivateMessageService {
             .orElseThrow(() -> new HandledException(USER_NOT_FOUND, HttpStatus.NOT_FOUND));
 
     PrivateMessage message = new PrivateMessage(sender, receiver, content);
-    PrivateMessage saved = privateMessageRepository.save(message);
+    PrivateMessage saved = persist(message);
     logger.info("Private message sent from {} to {}", senderId, receiverId);
     notificationService.createIfNotExists(receiverId, "UNREAD_PRIVATE_MESSAGES", senderId);
     return saved;
@@ -104,12 +158,74 @@ public class PrivateMessageService {
 
     PrivateMessage message = new PrivateMessage(sender, receiver, content);
     message.setImageUrl(path);
-    PrivateMessage saved = privateMessageRepository.save(message);
+    PrivateMessage saved = persist(message);
     logger.info("Image private message sent from {} to {}", senderId, receiverId);
     notificationService.createIfNotExists(receiverId, "UNREAD_PRIVATE_MESSAGES", senderId);
     return saved;
   }
 
+  /**
+   * Saves the message and moves its conversation forward in the same transaction. Open event
+   * streams of both participants receive the message once the transaction has committed; the
+   * response is built only then, as resolving an image URL may call the storage service.
+   */
+  private PrivateMessage persist(PrivateMessage message) {
+    PrivateMessage saved =
+        transactionTemplate.execute(
+            status -> {
+              PrivateMessage inserted = privateMessageRepository.save(message);
+              UUID senderId = inserted.getSender().getId();
+              boolean receiverIsLow = !inserted.getUserLowId().equals(senderId);
+              conversationRepository.upsertLastMessage(
+                  inserted.getUserLowId(),
+                  inserted.getUserHighId(),
+                  inserted.getId(),
+                  inserted.getCreatedAt(),
+                  preview(inserted.getContent()),
+                  senderId,
+                  receiverIsLow ? 1 : 0,
+                  receiverIsLow ? 0 : 1);
+              return inserted;
+            });
+    Duration commitDelay = Duration.between(saved.getCreatedAt(), Instant.now());
+    if (commitDelay.toMillis() >= syncSettleMarginMs) {
+      logger.warn(
+          "Private message {} committed {} ms after its timestamp; a concurrent sync may have"
+              + " skipped it",
+          saved.getId(),
+          commitDelay.toMillis());
+    }
+    eventPublisher.publishEvent(
+        new PrivateMessageSentEvent(
+            saved.getSender().getId(), saved.getReceiver().getId(), toResponse(saved)));
+    return saved;
+  }
+
+  private static String preview(String content) {
+    if (content == null || content.length() <= Conversation.PREVIEW_LENGTH) {
+      return content;
+    }
+    return content.substring(0, Conversation.PREVIEW_LENGTH);
+  }
+
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onPrivateMessageSent(PrivateMessageSentEvent event) {
+    userStreamService.send(event.getReceiverId(), PRIVATE_MESSAGE_EVENT, event.getMessage());
+    userStreamService.send(event.getSenderId(), PRIVATE_MESSAGE_EVENT, event.getMessage());
+  }
+
+  public GetPrivateMessageResponse toResponse(PrivateMessage message) {
+    return new GetPrivateMessageResponse(
+        message.getId(),
+        message.getContent(),
+        resolveImageUrl(message.getImageUrl()),
+        message.getCreatedAt(),
+        message.getSender().getId(),
+        message.getSender().getNickname(),
+        message.getSender().getProfilePhoto(),
+        message.getReceiver().getId());
+  }
+
   public String resolveImageUrl(String imageUrl) {
     if (imageUrl == null) {
       return null;
@@ -124,28 +240,91 @@ public class PrivateMessageService {
       throw new HandledException(NOT_FRIENDS, HttpStatus.FORBIDDEN);
     }
 
-    return privateMessageRepository.findConversation(userId, friendUserId, pageable);
+    UserPair pair = UserPair.of(userId, friendUserId);
+    Conversation conversation =
+        conversationRepository
+            .findById(new ConversationId(pair.getLow(), pair.getHigh()))
+            .orElse(null);
+    // Pairs the backfill has not reached yet have no row, so count their messages directly
+    long total =
+        conversation != null
+            ? conversation.getMessageCount()
+            : privateMessageRepository.countByUserLowIdAndUserHighId(pair.getLow(), pair.getHigh());
+    if (total == 0) {
+      return Page.empty(pageable);
+    }
+
+    List<PrivateMessage> messages =
+        privateMessageRepository.findConversation(pair.getLow(), pair.getHigh(), pageable);
+    return new PageImpl<>(messages, pageable, total);
   }
 
   public List<GetConversationResponse> getConversations(UUID userId) {
     logger.debug("Fetching conversations for user {}", userId);
 
-    List<PrivateMessage> latestMessages =
-        privateMessageRepository.findLatestMessagePerConversation(userId);
-
-    return latestMessages.stream()
+    return conversationRepository.findByUserId(userId).stream()
         .map(
-            msg -> {
-              User friend =
-                  msg.getSender().getId().equals(userId) ? msg.getReceiver() : msg.getSender();
+            conversation -> {
+              User friend = conversation.getOther(userId);
               return new GetConversationResponse(
                   friend.getId(),
                   friend.getNickname(),
                   friend.getProfilePhoto(),
-                  msg.getContent(),
-                  msg.getCreatedAt(),
-                  msg.getSender().getId());
+                  conversation.getLastMessagePreview(),
+                  conversation.getLastMessageAt(),
+                  conversation.getLastSenderId(),
+                  conversation.getUnreadFor(userId));
             })
         .collect(Collectors.toList());
   }
+
+  /**
+   * Returns the user's private messages, sent or received, after the cursor in commit-safe order.
+   *
+   * <p>Without a cursor nothing is returned and the cursor marks the current position, so a client
+   * can load history normally and keep the returned cursor for later catch-ups.
+   */
+  public CursorPageResponse<GetPrivateMessageResponse> sync(
+      UUID userId, String encodedCursor, int limit) {
+    logger.debug("Syncing private messages for user {}", userId);
+    int pageSize = Math.max(1, Math.min(limit, MAX_SYNC_LIMIT));
+    Instant until = Instant.now().minusMillis(syncSettleMarginMs);
+
+    if (encodedCursor == null) {
+      Cursor start = Cursor.of(until, new UUID(0L, 0L));
+      return new CursorPageResponse<>(Collections.emptyList(), start.encode(), false);
+    }
+
+    Cursor cursor = Cursor.decode(encodedCursor);
+    Instant after = cursor.getSortKeyAsInstant();
+    PageRequest page = PageRequest.of(0, pageSize + 1);
+    // Each branch returns its first pageSize + 1 rows, so the merge holds the union's first ones
+    List<PrivateMessage> messages =
+        new ArrayList<>(
+            privateMessageRepository.findSentSince(userId, after, cursor.getId(), until, page));
+    messages.addAll(
+        privateMessageRepository.findReceivedSince(userId, after, cursor.getId(), until, page));
+    messages.sort(SYNC_ORDER);
+
+    boolean hasMore = messages.size() > pageSize;
+    if (hasMore) {
+      messages = messages.subList(0, pageSize);
+    }
+    String nextCursor = encodedCursor;
+    if (!messages.isEmpty()) {
+      PrivateMessage last = messages.get(messages.size() - 1);
+      nextCursor = Cursor.of(last.getCreatedAt(), last.getId()).encode();
+    }
+    List<GetPrivateMessageResponse> items =
+        messages.stream().map(this::toResponse).collect(Collectors.toList());
+    return new CursorPageResponse<>(items, nextCursor, hasMore);
+  }
+
+  @Transactional
+  public void markConversationAsRead(UUID userId, UUID friendUserId) {
+    logger.debug("Marking conversation with {} as read for user {}", friendUserId, userId);
+    UserPair pair = UserPair.of(userId, friendUserId);
+    conversationRepository.resetUnread(pair.getLow(), pair.getHigh(), userId);
+    logger.info("Conversation with {} marked as read for user {}", friendUserId, userId);
+  }
 }
@@ -0,0 +1,120 @@
+package org.example.waspapi.service;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import org.example.waspapi.config.RateLimitProperties;
+import org.example.waspapi.config.RateLimitProperties.Policy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * Token buckets keyed by policy and user or game.
+ *
+ * <p>Buckets live in a {@link ConcurrentHashMap}, whose bins are updated independently, and each
+ * bucket is a single {@link AtomicLong} updated with compare-and-set, so acquiring a token never
+ * takes a lock. A bucket stores the instant at which it will be full again (the "theoretical
+ * arrival time" of the generic cell rate algorithm), which is equivalent to a token bucket of the
+ * policy's capacity refilled at {@code refillTokens / refillPeriodSeconds}.
+ */
+@Service
+public class RateLimiterService {
+
+  private static final Logger logger = LoggerFactory.getLogger(RateLimiterService.class);
+
+  private final RateLimitProperties properties;
+  private final ConcurrentHashMap<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+  private final ConcurrentHashMap<String, LongAdder> rejections = new ConcurrentHashMap<>();
+
+  public RateLimiterService(RateLimitProperties properties) {
+    this.properties = properties;
+  }
+
+  /**
+   * Takes one token from the bucket of the given policy and key.
+   *
+   * @return 0 if the request is allowed, otherwise the number of nanoseconds until a token is
+   *     available.
+   */
+  public long tryAcquire(Policy policy, String key) {
+    return tryAcquire(policy, key, System.nanoTime());
+  }
+
+  long tryAcquire(Policy policy, String key, long nowNanos) {
+    String bucketKey = policy.getName() + ":" + key;
+    TokenBucket bucket = buckets.computeIfAbsent(bucketKey, k -> new TokenBucket(policy, nowNanos));
+    long waitNanos = bucket.tryAcquire(nowNanos);
+    if (waitNanos > 0) {
+      rejections.computeIfAbsent(policy.getName(), k -> new LongAdder()).increment();
+      logger.debug("Rate limit {} exceeded for {}", policy.getName(), key);
+    }
+    return waitNanos;
+  }
+
+  /** Rejections per policy since startup. */
+  public Map<String, Long> getRejectionCounts() {
+    Map<String, Long> counts = new TreeMap<>();
+    rejections.forEach((policy, adder) -> counts.put(policy, adder.sum()));
+    return counts;
+  }
+
+  int bucketCount() {
+    return buckets.size();
+  }
+
+  @Scheduled(fixedDelayString = "${wasp.rate-limit.sweep-interval-ms:60000}")
+  public void evictIdleBuckets() {
+    evictIdleBuckets(System.nanoTime());
+  }
+
+  void evictIdleBuckets(long nowNanos) {
+    long idleNanos = TimeUnit.SECONDS.toNanos(properties.getIdleEvictionSeconds());
+    int before = buckets.size();
+    // A bucket that has been full for longer than the idle period behaves exactly like a new one,
+    // so dropping it only forgets state that no longer matters.
+    buckets.values().removeIf(bucket -> bucket.fullSince(nowNanos) > idleNanos);
+    int evicted = before - buckets.size();
+    if (evicted > 0) {
+      logger.debug("Evicted {} idle rate limit buckets, {} remaining", evicted, buckets.size());
+    }
+    if (!rejections.isEmpty()) {
+      logger.info("Rate limit rejections since startup: {}", getRejectionCounts());
+    }
+  }
+
+  static final class TokenBucket {
+    private final long emissionIntervalNanos;
+    private final long burstToleranceNanos;
+    private final AtomicLong fullAt;
+
+    TokenBucket(Policy policy, long nowNanos) {
+      long periodNanos = TimeUnit.SECONDS.toNanos(policy.getRefillPeriodSeconds());
+      this.emissionIntervalNanos = periodNanos / Math.max(1, policy.getRefillTokens());
+      this.burstToleranceNanos = emissionIntervalNanos * Math.max(0, policy.getCapacity() - 1);
+      this.fullAt = new AtomicLong(nowNanos);
+    }
+
+    long tryAcquire(long nowNanos) {
+      while (true) {
+        long current = fullAt.get();
+        long start = current - nowNanos > 0 ? current : nowNanos;
+        long wait = start - nowNanos - burstToleranceNanos;
+        if (wait > 0) {
+          return wait;
+        }
+        if (fullAt.compareAndSet(current, start + emissionIntervalNanos)) {
+          return 0;
+        }
+      }
+    }
+
+    long fullSince(long nowNanos) {
+      return nowNanos - fullAt.get();
+    }
+  }
+}
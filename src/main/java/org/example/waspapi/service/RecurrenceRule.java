@@ -0,0 +1,311 @@
+package org.example.waspapi.service;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * The subset of RFC 5545 recurrence rules that session series use: {@code FREQ} of {@code DAILY},
+ * {@code WEEKLY} or {@code MONTHLY}, with optional {@code INTERVAL}, {@code BYDAY} (weekly only),
+ * and either {@code COUNT} or {@code UNTIL}. Weeks start on Monday and monthly occurrences fall on
+ * the day of month of the first one, skipping months too short for it, as in the RFC.
+ *
+ * <p>Occurrences are computed for a requested range only. Daily and weekly rules jump straight to
+ * the first period of the range, so expanding a month of a years-old series costs the same as
+ * expanding its first month. Monthly rules walk the months from the start, at most twelve per year.
+ */
+public final class RecurrenceRule {
+
+  public enum Frequency {
+    DAILY,
+    WEEKLY,
+    MONTHLY
+  }
+
+  static final int MAX_COUNT = 1000;
+  static final int MAX_INTERVAL = 99;
+  private static final DateTimeFormatter UNTIL_DATE = DateTimeFormatter.ofPattern("yyyyMMdd");
+  private static final DateTimeFormatter UNTIL_DATE_TIME =
+      DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss");
+
+  private final Frequency frequency;
+  private final int interval;
+  private final List<DayOfWeek> byDay;
+  private final Integer count;
+  private final LocalDateTime until;
+
+  private RecurrenceRule(
+      Frequency frequency,
+      int interval,
+      List<DayOfWeek> byDay,
+      Integer count,
+      LocalDateTime until) {
+    this.frequency = frequency;
+    this.interval = interval;
+    this.byDay = byDay;
+    this.count = count;
+    this.until = until;
+  }
+
+  /**
+   * Parses a rule such as {@code FREQ=WEEKLY;INTERVAL=2;BYDAY=MO,TH;COUNT=10}.
+   *
+   * @throws IllegalArgumentException if the rule is malformed or uses unsupported parts.
+   */
+  public static RecurrenceRule parse(String rule) {
+    if (rule == null || rule.trim().isEmpty()) {
+      throw new IllegalArgumentException("Empty rule");
+    }
+    Frequency frequency = null;
+    int interval = 1;
+    Set<DayOfWeek> days = EnumSet.noneOf(DayOfWeek.class);
+    Integer count = null;
+    LocalDateTime until = null;
+    String text = rule.trim().toUpperCase(Locale.ROOT);
+    if (text.startsWith("RRULE:")) {
+      text = text.substring("RRULE:".length());
+    }
+    for (String part : text.split(";")) {
+      int equals = part.indexOf('=');
+      if (equals <= 0) {
+        throw new IllegalArgumentException("Malformed part " + part);
+      }
+      String name = part.substring(0, equals);
+      String value = part.substring(equals + 1);
+      switch (name) {
+        case "FREQ":
+          frequency = Frequency.valueOf(value);
+          break;
+        case "INTERVAL":
+          interval = Integer.parseInt(value);
+          break;
+        case "BYDAY":
+          for (String day : value.split(",")) {
+            days.add(dayOf(day));
+          }
+          break;
+        case "COUNT":
+          count = Integer.parseInt(value);
+          break;
+        case "UNTIL":
+          until = parseUntil(value);
+          break;
+        case "WKST":
+          if (!"MO".equals(value)) {
+            throw new IllegalArgumentException("Only WKST=MO is supported");
+          }
+          break;
+        default:
+          throw new IllegalArgumentException("Unsupported part " + name);
+      }
+    }
+    if (frequency == null) {
+      throw new IllegalArgumentException("FREQ is required");
+    }
+    if (interval < 1 || interval > MAX_INTERVAL) {
+      throw new IllegalArgumentException("INTERVAL must be between 1 and " + MAX_INTERVAL);
+    }
+    if (count != null && (count < 1 || count > MAX_COUNT)) {
+      throw new IllegalArgumentException("COUNT must be between 1 and " + MAX_COUNT);
+    }
+    if (count != null && until != null) {
+      throw new IllegalArgumentException("COUNT and UNTIL are exclusive");
+    }
+    if (!days.isEmpty() && frequency != Frequency.WEEKLY) {
+      throw new IllegalArgumentException("BYDAY is only supported with FREQ=WEEKLY");
+    }
+    return new RecurrenceRule(
+        frequency, interval, Collections.unmodifiableList(new ArrayList<>(days)), count, until);
+  }
+
+  /**
+   * Occurrences of a series first held at {@code start}, from {@code from} (inclusive) to {@code
+   * to}.
+   */
+  public List<LocalDateTime> occurrences(
+      LocalDateTime start, LocalDateTime from, LocalDateTime to) {
+    List<LocalDateTime> result = new ArrayList<>();
+    if (!to.isAfter(from) || !to.isAfter(start)) {
+      return result;
+    }
+    switch (frequency) {
+      case DAILY:
+        daily(start, from, to, result);
+        break;
+      case WEEKLY:
+        weekly(start, from, to, result);
+        break;
+      default:
+        monthly(start, from, to, result);
+        break;
+    }
+    return result;
+  }
+
+  /**
+   * Whether {@code candidate} is one of the occurrences of a series first held at {@code start}.
+   */
+  public boolean isOccurrence(LocalDateTime start, LocalDateTime candidate) {
+    return occurrences(start, candidate, candidate.plusNanos(1)).contains(candidate);
+  }
+
+  /** Start of the last occurrence, or null if the series never ends. */
+  public LocalDateTime lastOccurrence(LocalDateTime start) {
+    if (until != null) {
+      return until.isBefore(start) ? start : until;
+    }
+    if (count == null) {
+      return null;
+    }
+    // COUNT is bounded, so walking the rule with a generous range ends quickly
+    List<LocalDateTime> all =
+        occurrences(start, start, start.plusYears((long) MAX_COUNT * MAX_INTERVAL / 12 + 1));
+    return all.isEmpty() ? start : all.get(all.size() - 1);
+  }
+
+  public Frequency getFrequency() {
+    return frequency;
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder rule = new StringBuilder("FREQ=").append(frequency);
+    if (interval != 1) {
+      rule.append(";INTERVAL=").append(interval);
+    }
+    if (!byDay.isEmpty()) {
+      rule.append(";BYDAY=")
+          .append(
+              byDay.stream()
+                  .map(day -> day.name().substring(0, 2))
+                  .collect(Collectors.joining(",")));
+    }
+    if (count != null) {
+      rule.append(";COUNT=").append(count);
+    }
+    if (until != null) {
+      rule.append(";UNTIL=").append(UNTIL_DATE_TIME.format(until));
+    }
+    return rule.toString();
+  }
+
+  private void daily(
+      LocalDateTime start, LocalDateTime from, LocalDateTime to, List<LocalDateTime> result) {
+    long index = 0;
+    if (from.isAfter(start)) {
+      index = ChronoUnit.DAYS.between(start, from) / interval;
+    }
+    for (; ; index++) {
+      LocalDateTime occurrence = start.plusDays(index * interval);
+      if (!accept(occurrence, index, from, to, result)) {
+        return;
+      }
+    }
+  }
+
+  private void weekly(
+      LocalDateTime start, LocalDateTime from, LocalDateTime to, List<LocalDateTime> result) {
+    List<DayOfWeek> days =
+        byDay.isEmpty() ? Collections.singletonList(start.getDayOfWeek()) : byDay;
+    LocalDate firstMonday =
+        start.toLocalDate().with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+    int firstWeekCount = 0;
+    for (DayOfWeek day : days) {
+      if (day.compareTo(start.getDayOfWeek()) >= 0) {
+        firstWeekCount++;
+      }
+    }
+
+    long period = 0;
+    if (from.isAfter(start)) {
+      LocalDate fromMonday =
+          from.toLocalDate().with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+      period = ChronoUnit.WEEKS.between(firstMonday, fromMonday) / interval;
+    }
+    for (; ; period++) {
+      LocalDate monday = firstMonday.plusWeeks(period * interval);
+      long index = period == 0 ? 0 : firstWeekCount + (period - 1) * days.size();
+      for (DayOfWeek day : days) {
+        LocalDateTime occurrence = monday.plusDays(day.ordinal()).atTime(start.toLocalTime());
+        if (occurrence.isBefore(start)) {
+          continue;
+        }
+        if (!accept(occurrence, index++, from, to, result)) {
+          return;
+        }
+      }
+    }
+  }
+
+  private void monthly(
+      LocalDateTime start, LocalDateTime from, LocalDateTime to, List<LocalDateTime> result) {
+    int dayOfMonth = start.getDayOfMonth();
+    YearMonth first = YearMonth.from(start);
+    long index = 0;
+    for (long step = 0; ; step++) {
+      YearMonth month = first.plusMonths(step * interval);
+      if (!month.isValidDay(dayOfMonth)) {
+        if (month.atDay(1).atStartOfDay().isAfter(to)) {
+          return;
+        }
+        continue;
+      }
+      LocalDateTime occurrence = month.atDay(dayOfMonth).atTime(start.toLocalTime());
+      if (!accept(occurrence, index++, from, to, result)) {
+        return;
+      }
+    }
+  }
+
+  /** Adds the occurrence if it is in range; returns false once no later one can be. */
+  private boolean accept(
+      LocalDateTime occurrence,
+      long index,
+      LocalDateTime from,
+      LocalDateTime to,
+      List<LocalDateTime> result) {
+    if ((count != null && index >= count)
+        || (until != null && occurrence.isAfter(until))
+        || !occurrence.isBefore(to)) {
+      return false;
+    }
+    if (!occurrence.isBefore(from)) {
+      result.add(occurrence);
+    }
+    return true;
+  }
+
+  private static DayOfWeek dayOf(String day) {
+    for (DayOfWeek candidate : DayOfWeek.values()) {
+      if (candidate.name().startsWith(day) && day.length() == 2) {
+        return candidate;
+      }
+    }
+    throw new IllegalArgumentException("Unknown day " + day);
+  }
+
+  private static LocalDateTime parseUntil(String value) {
+    String text = value.endsWith("Z") ? value.substring(0, value.length() - 1) : value;
+    try {
+      if (text.length() == 8) {
+        // A date-only UNTIL includes the whole day
+        return LocalDate.parse(text, UNTIL_DATE).atTime(23, 59, 59);
+      }
+      return LocalDateTime.parse(text, UNTIL_DATE_TIME);
+    } catch (DateTimeParseException e) {
+      throw new IllegalArgumentException("Malformed UNTIL " + value);
+    }
+  }
+}
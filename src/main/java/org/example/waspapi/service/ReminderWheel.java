@@ -0,0 +1,134 @@
+package org.example.waspapi.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Timers held in a hierarchical timing wheel.
+ *
+ * <p>Each level has 64 slots; a slot of level {@code k} spans {@code 64^k} ticks. A timer goes to
+ * the lowest level whose range still covers it: the level where its due tick and the current tick
+ * only differ in that level's 6 bits or below. When the current tick reaches the start of a
+ * higher-level slot, the timers of that slot are cascaded into the levels below, so each timer is
+ * moved at most once per level. Scheduling and cancelling are O(1), and a tick only visits the
+ * timers due in it plus the cascaded ones. Timers beyond the top level wait in an overflow list
+ * that is re-examined each time the top level wraps.
+ *
+ * <p>Timers are identified by their value's {@code equals}: scheduling a value again replaces its
+ * timer. Cancelled timers are dropped lazily when their slot is reached. Not thread-safe.
+ */
+final class ReminderWheel<T> {
+
+  private static final int BITS = 6;
+  private static final int SLOTS = 1 << BITS;
+  private static final int MASK = SLOTS - 1;
+
+  private final int levels;
+  private final List<List<Timer<T>>> slots;
+  private final List<Timer<T>> overflow = new ArrayList<>();
+  private final Map<T, Timer<T>> timers = new HashMap<>();
+  private long currentTick;
+
+  ReminderWheel(int levels, long startTick) {
+    this.levels = Math.max(1, Math.min(levels, 63 / BITS));
+    this.slots = new ArrayList<>(this.levels * SLOTS);
+    for (int i = 0; i < this.levels * SLOTS; i++) {
+      slots.add(new ArrayList<>());
+    }
+    this.currentTick = startTick;
+  }
+
+  /** Schedules {@code value} for {@code dueTick}; a tick already passed fires on the next one. */
+  void schedule(T value, long dueTick) {
+    cancel(value);
+    Timer<T> timer = new Timer<>(value, Math.max(dueTick, currentTick + 1));
+    timers.put(value, timer);
+    place(timer);
+  }
+
+  boolean contains(T value) {
+    return timers.containsKey(value);
+  }
+
+  boolean cancel(T value) {
+    Timer<T> timer = timers.remove(value);
+    if (timer == null) {
+      return false;
+    }
+    timer.cancelled = true;
+    return true;
+  }
+
+  /** Moves the wheel up to {@code tick} and returns the values that came due, in tick order. */
+  List<T> advanceTo(long tick) {
+    List<T> due = new ArrayList<>();
+    while (currentTick < tick) {
+      long now = ++currentTick;
+      if ((now & ((1L << (BITS * levels)) - 1)) == 0) {
+        List<Timer<T>> waiting = new ArrayList<>(overflow);
+        overflow.clear();
+        for (Timer<T> timer : waiting) {
+          place(timer);
+        }
+      }
+      for (int level = levels - 1; level > 0; level--) {
+        if ((now & ((1L << (BITS * level)) - 1)) == 0) {
+          List<Timer<T>> slot = slot(level, now);
+          List<Timer<T>> cascaded = new ArrayList<>(slot);
+          slot.clear();
+          for (Timer<T> timer : cascaded) {
+            place(timer);
+          }
+        }
+      }
+      List<Timer<T>> slot = slot(0, now);
+      for (Timer<T> timer : slot) {
+        if (!timer.cancelled) {
+          timers.remove(timer.value);
+          due.add(timer.value);
+        }
+      }
+      slot.clear();
+    }
+    return due;
+  }
+
+  long currentTick() {
+    return currentTick;
+  }
+
+  int size() {
+    return timers.size();
+  }
+
+  private void place(Timer<T> timer) {
+    if (timer.cancelled) {
+      return;
+    }
+    for (int level = 0; level < levels; level++) {
+      int above = BITS * (level + 1);
+      if ((timer.dueTick >>> above) == (currentTick >>> above)) {
+        slot(level, timer.dueTick).add(timer);
+        return;
+      }
+    }
+    overflow.add(timer);
+  }
+
+  private List<Timer<T>> slot(int level, long tick) {
+    return slots.get(level * SLOTS + (int) ((tick >>> (BITS * level)) & MASK));
+  }
+
+  private static final class Timer<T> {
+    private final T value;
+    private final long dueTick;
+    private boolean cancelled;
+
+    Timer(T value, long dueTick) {
+      this.value = value;
+      this.dueTick = dueTick;
+    }
+  }
+}
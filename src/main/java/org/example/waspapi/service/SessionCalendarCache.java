@@ -0,0 +1,131 @@
+package org.example.waspapi.service;
+
+import java.time.YearMonth;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import org.example.waspapi.dto.responses.session.GetSessionResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Monthly session calendars per user, kept in memory because calendar views are opened far more
+ * often than sessions change.
+ *
+ * <p>Laid out like {@link UnreadNotificationCounter}: users are spread over lock stripes of
+ * access-ordered maps bounded in size, and each user holds the months they have looked at. Changes
+ * drop entries instead of patching them, and bump the stripe's generation so that a load racing
+ * with the change does not store what it read before it. Entries also expire after a TTL.
+ */
+@Component
+public class SessionCalendarCache {
+
+  private final Stripe[] stripes;
+  private final long ttlNanos;
+
+  public SessionCalendarCache(
+      @Value("${wasp.sessions.calendar-cache.max-users:20000}") int maxUsers,
+      @Value("${wasp.sessions.calendar-cache.ttl-seconds:300}") long ttlSeconds) {
+    int stripeCount =
+        Integer.highestOneBit(Math.max(1, Runtime.getRuntime().availableProcessors()) * 4);
+    this.stripes = new Stripe[stripeCount];
+    int perStripe = Math.max(1, maxUsers / stripeCount);
+    for (int i = 0; i < stripeCount; i++) {
+      stripes[i] = new Stripe(perStripe);
+    }
+    this.ttlNanos = TimeUnit.SECONDS.toNanos(ttlSeconds);
+  }
+
+  /** Cached calendar of the user for the month, loading it with {@code loader} on a miss. */
+  public List<GetSessionResponse> get(
+      UUID userId, YearMonth month, Supplier<List<GetSessionResponse>> loader) {
+    Stripe stripe = stripeFor(userId);
+    long generation;
+    synchronized (stripe) {
+      Map<YearMonth, Entry> months = stripe.users.get(userId);
+      Entry entry = months == null ? null : months.get(month);
+      if (entry != null && System.nanoTime() - entry.loadedAt < ttlNanos) {
+        return entry.sessions;
+      }
+      generation = stripe.generation;
+    }
+
+    List<GetSessionResponse> sessions = loader.get();
+    synchronized (stripe) {
+      if (stripe.generation == generation) {
+        stripe
+            .users
+            .computeIfAbsent(userId, id -> new HashMap<>())
+            .put(month, new Entry(sessions, System.nanoTime()));
+      }
+    }
+    return sessions;
+  }
+
+  /** Drops the user's calendar of one month. */
+  public void invalidate(UUID userId, YearMonth month) {
+    Stripe stripe = stripeFor(userId);
+    synchronized (stripe) {
+      Map<YearMonth, Entry> months = stripe.users.get(userId);
+      if (months != null) {
+        months.remove(month);
+      }
+      stripe.generation++;
+    }
+  }
+
+  /** Drops every month of the user, e.g. after they joined or left a game. */
+  public void invalidate(UUID userId) {
+    Stripe stripe = stripeFor(userId);
+    synchronized (stripe) {
+      stripe.users.remove(userId);
+      stripe.generation++;
+    }
+  }
+
+  int size() {
+    int size = 0;
+    for (Stripe stripe : stripes) {
+      synchronized (stripe) {
+        for (Map<YearMonth, Entry> months : stripe.users.values()) {
+          size += months.size();
+        }
+      }
+    }
+    return size;
+  }
+
+  private Stripe stripeFor(UUID userId) {
+    int hash = userId.hashCode();
+    return stripes[(hash ^ (hash >>> 16)) & (stripes.length - 1)];
+  }
+
+  private static final class Stripe {
+    private final Map<UUID, Map<YearMonth, Entry>> users;
+    private long generation;
+
+    Stripe(int capacity) {
+      this.users =
+          new LinkedHashMap<UUID, Map<YearMonth, Entry>>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<UUID, Map<YearMonth, Entry>> eldest) {
+              return size() > capacity;
+            }
+          };
+    }
+  }
+
+  private static final class Entry {
+    private final List<GetSessionResponse> sessions;
+    private final long loadedAt;
+
+    Entry(List<GetSessionResponse> sessions, long loadedAt) {
+      this.sessions = sessions;
+      this.loadedAt = loadedAt;
+    }
+  }
+}
@@ -0,0 +1,364 @@
+package org.example.waspapi.service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import javax.annotation.PreDestroy;
+import org.example.waspapi.events.SessionChangedEvent;
+import org.example.waspapi.events.SessionSeriesChangedEvent;
+import org.example.waspapi.repository.SessionRepository;
+import org.example.waspapi.repository.SubscriptionRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Sends {@value #REMINDER_TYPE} notifications a fixed time before each session (24 hours and 1 hour
+ * by default).
+ *
+ * <p>Reminders wait in a {@link ReminderWheel} advanced by one scheduled tick, instead of the
+ * sessions table being polled. Only reminders due within {@code horizon-hours} are held: the window
+ * is loaded when the application starts and extended by one small query every {@code
+ * refill-minutes}, and session changes reschedule the reminders that fall inside it. A change
+ * committed while the window is being extended wins over what the extension read. After a restart
+ * only the upcoming window is reloaded; reminders whose time passed while the application was down
+ * are skipped. Before sending, the session is checked to still start at the reminded time.
+ *
+ * <p>Occurrences of a {@link org.example.waspapi.model.SessionSeries} that are not stored as
+ * sessions are expanded into the same window and reminded as {@value #SERIES_REMINDER_TYPE}, keyed
+ * by series and occurrence start. Series changes reschedule the occurrences of that series; one
+ * cancelled or stored as a session since is skipped when its reminder comes due, the stored session
+ * having reminders of its own.
+ *
+ * <p>A due reminder is fanned out to the game's active members who have not declined, in batches
+ * through {@link NotificationService#createForMany(List, String, UUID)} on a thread of its own, so
+ * a large game does not hold up the other scheduled jobs. Each reminder is a notification of its
+ * own, referencing the session or, for a series occurrence, the series.
+ */
+@Service
+public class SessionReminderService {
+
+  public static final String REMINDER_TYPE = "SESSION_REMINDER";
+  public static final String SERIES_REMINDER_TYPE = "SESSION_SERIES_REMINDER";
+
+  private static final Logger logger = LoggerFactory.getLogger(SessionReminderService.class);
+  private static final int WHEEL_LEVELS = 3;
+
+  private final SessionRepository sessionRepository;
+  private final SessionSeriesService seriesService;
+  private final SubscriptionRepository subscriptionRepository;
+  private final NotificationService notificationService;
+
+  private final ExecutorService sender =
+      Executors.newSingleThreadExecutor(
+          runnable -> {
+            Thread thread = new Thread(runnable, "session-reminders");
+            thread.setDaemon(true);
+            return thread;
+          });
+  private final Object lock = new Object();
+  private volatile ReminderWheel<Reminder> wheel;
+  private Instant loadedUntil;
+  // End of the window being loaded; changes schedule up to it so that none fall between the two
+  private Instant loadingUntil;
+
+  @Value("${wasp.sessions.reminders.enabled:true}")
+  private boolean enabled;
+
+  @Value("${wasp.sessions.reminders.tick-ms:60000}")
+  private long tickMs;
+
+  @Value("${wasp.sessions.reminders.offsets-minutes:1440,60}")
+  private List<Long> offsetsMinutes;
+
+  @Value("${wasp.sessions.reminders.horizon-hours:48}")
+  private long horizonHours;
+
+  @Value("${wasp.sessions.reminders.refill-minutes:60}")
+  private long refillMinutes;
+
+  @Value("${wasp.sessions.reminders.batch-size:500}")
+  private int batchSize;
+
+  public SessionReminderService(
+      SessionRepository sessionRepository,
+      SessionSeriesService seriesService,
+      SubscriptionRepository subscriptionRepository,
+      NotificationService notificationService) {
+    this.sessionRepository = sessionRepository;
+    this.seriesService = seriesService;
+    this.subscriptionRepository = subscriptionRepository;
+    this.notificationService = notificationService;
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void start() {
+    if (!enabled) {
+      return;
+    }
+    Instant now = Instant.now();
+    synchronized (lock) {
+      wheel = new ReminderWheel<>(WHEEL_LEVELS, tickOf(now));
+      loadedUntil = now;
+      loadingUntil = now;
+    }
+    try {
+      refill(now, 0);
+    } catch (RuntimeException e) {
+      logger.warn("Loading upcoming session reminders failed: {}", e.getMessage());
+    }
+  }
+
+  @Scheduled(
+      initialDelayString = "${wasp.sessions.reminders.tick-ms:60000}",
+      fixedRateString = "${wasp.sessions.reminders.tick-ms:60000}")
+  public void tick() {
+    if (wheel == null) {
+      return;
+    }
+    Instant now = Instant.now();
+    List<Reminder> due;
+    synchronized (lock) {
+      due = wheel.advanceTo(tickOf(now));
+    }
+    for (Reminder reminder : due) {
+      sender.execute(() -> send(reminder));
+    }
+    try {
+      refill(now, refillMinutes);
+    } catch (RuntimeException e) {
+      logger.warn("Loading upcoming session reminders failed: {}", e.getMessage());
+    }
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    sender.shutdown();
+  }
+
+  /** Reschedules the reminders of a created, moved or deleted session after commit. */
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onSessionChanged(SessionChangedEvent event) {
+    if (wheel == null || Objects.equals(event.getPreviousDatetime(), event.getDatetime())) {
+      return;
+    }
+    Instant now = Instant.now();
+    synchronized (lock) {
+      for (Long offset : offsetsMinutes) {
+        wheel.cancel(Reminder.ofSession(event.getSessionId(), null, offset));
+      }
+      if (event.getDatetime() != null) {
+        schedule(event.getSessionId(), null, event.getDatetime(), now, loadingUntil, true);
+      }
+    }
+  }
+
+  /**
+   * Schedules the occurrences of a created series, or whose occurrence was cancelled, after commit.
+   * Reminders left for occurrences that are gone are skipped when they come due.
+   */
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onSessionSeriesChanged(SessionSeriesChangedEvent event) {
+    if (wheel == null) {
+      return;
+    }
+    Instant now = Instant.now();
+    Instant to;
+    synchronized (lock) {
+      to = loadingUntil;
+    }
+    try {
+      Map<UUID, List<LocalDateTime>> occurrences =
+          seriesService.occurrencesBySeries(
+              event.getSeriesId(), occurrenceStart(now), occurrenceEnd(to));
+      synchronized (lock) {
+        scheduleOccurrences(occurrences, now, loadingUntil);
+      }
+    } catch (RuntimeException e) {
+      logger.warn(
+          "Rescheduling reminders of series {} failed: {}", event.getSeriesId(), e.getMessage());
+    }
+  }
+
+  /**
+   * Loads the reminders due between the end of the loaded window and the horizon, once that gap is
+   * at least {@code minMinutes} long.
+   */
+  private void refill(Instant now, long minMinutes) {
+    Instant from;
+    Instant to = now.plus(Duration.ofHours(horizonHours));
+    synchronized (lock) {
+      from = loadedUntil;
+      if (!to.isAfter(from) || Duration.between(from, to).toMinutes() < minMinutes) {
+        return;
+      }
+      loadingUntil = to;
+    }
+    List<Object[]> rows =
+        sessionRepository.findScheduleRows(occurrenceStart(from), occurrenceEnd(to));
+    Map<UUID, List<LocalDateTime>> occurrences =
+        seriesService.occurrencesBySeries(null, occurrenceStart(from), occurrenceEnd(to));
+
+    int scheduled = 0;
+    int pending;
+    synchronized (lock) {
+      for (Object[] row : rows) {
+        scheduled += schedule((UUID) row[0], null, (LocalDateTime) row[1], from, to, false);
+      }
+      scheduled += scheduleOccurrences(occurrences, from, to);
+      loadedUntil = to;
+      pending = wheel.size();
+    }
+    logger.info("Session reminders loaded until {}: {} added, {} pending", to, scheduled, pending);
+  }
+
+  /** Schedules the occurrence reminders that fall in [from, to). Call holding the lock. */
+  private int scheduleOccurrences(
+      Map<UUID, List<LocalDateTime>> occurrences, Instant from, Instant to) {
+    int scheduled = 0;
+    for (Map.Entry<UUID, List<LocalDateTime>> entry : occurrences.entrySet()) {
+      for (LocalDateTime occurrence : entry.getValue()) {
+        scheduled += schedule(null, entry.getKey(), occurrence, from, to, false);
+      }
+    }
+    return scheduled;
+  }
+
+  /**
+   * Schedules the reminders of the session, or of the series occurrence starting at {@code
+   * datetime}, that fall in [from, to), keeping already scheduled ones unless {@code replace}. Call
+   * holding the lock.
+   */
+  private int schedule(
+      UUID sessionId,
+      UUID seriesId,
+      LocalDateTime datetime,
+      Instant from,
+      Instant to,
+      boolean replace) {
+    Instant start = datetime.atZone(ZoneId.systemDefault()).toInstant();
+    int scheduled = 0;
+    for (Long offset : offsetsMinutes) {
+      Reminder reminder =
+          sessionId != null
+              ? Reminder.ofSession(sessionId, datetime, offset)
+              : Reminder.ofOccurrence(seriesId, datetime, offset);
+      Instant at = start.minus(Duration.ofMinutes(offset));
+      if (!at.isBefore(from) && at.isBefore(to) && (replace || !wheel.contains(reminder))) {
+        // Round up so that a reminder never fires early
+        wheel.schedule(reminder, tickOf(at.plusMillis(tickMs - 1)));
+        scheduled++;
+      }
+    }
+    return scheduled;
+  }
+
+  private void send(Reminder reminder) {
+    boolean session = reminder.sessionId != null;
+    UUID referenceId = session ? reminder.sessionId : reminder.seriesId;
+    try {
+      List<UUID> userIds =
+          session
+              // The stored time may be more precise than the column, so allow a second either way
+              ? subscriptionRepository.findRemindableUserIds(
+                  reminder.sessionId,
+                  reminder.datetime.minusSeconds(1),
+                  reminder.datetime.plusSeconds(1))
+              : subscriptionRepository.findRemindableUserIdsForOccurrence(
+                  reminder.seriesId, reminder.datetime);
+      for (int i = 0; i < userIds.size(); i += batchSize) {
+        notificationService.createForMany(
+            userIds.subList(i, Math.min(i + batchSize, userIds.size())),
+            session ? REMINDER_TYPE : SERIES_REMINDER_TYPE,
+            referenceId);
+      }
+      logger.info(
+          "Reminder {} minutes before {} {} at {} sent to {} users",
+          reminder.offsetMinutes,
+          session ? "session" : "series",
+          referenceId,
+          reminder.datetime,
+          userIds.size());
+    } catch (RuntimeException e) {
+      logger.warn("Reminder for {} failed: {}", referenceId, e.getMessage());
+    }
+  }
+
+  /** Earliest start of a session with a reminder due at or after {@code from}. */
+  private LocalDateTime occurrenceStart(Instant from) {
+    return toLocal(from.plus(Duration.ofMinutes(Collections.min(offsetsMinutes))));
+  }
+
+  /** End of the starts of sessions with a reminder due before {@code to}. */
+  private LocalDateTime occurrenceEnd(Instant to) {
+    return toLocal(to.plus(Duration.ofMinutes(Collections.max(offsetsMinutes))));
+  }
+
+  private long tickOf(Instant instant) {
+    return Math.floorDiv(instant.toEpochMilli(), tickMs);
+  }
+
+  private static LocalDateTime toLocal(Instant instant) {
+    return LocalDateTime.ofInstant(instant, ZoneId.systemDefault());
+  }
+
+  /**
+   * One reminder of a session or of a series occurrence not stored as one. Equal per session and
+   * offset, or per series, occurrence start and offset, so rescheduling replaces it.
+   */
+  private static final class Reminder {
+    private final UUID sessionId;
+    private final UUID seriesId;
+    private final LocalDateTime datetime;
+    private final long offsetMinutes;
+
+    private Reminder(UUID sessionId, UUID seriesId, LocalDateTime datetime, long offsetMinutes) {
+      this.sessionId = sessionId;
+      this.seriesId = seriesId;
+      this.datetime = datetime;
+      this.offsetMinutes = offsetMinutes;
+    }
+
+    static Reminder ofSession(UUID sessionId, LocalDateTime datetime, long offsetMinutes) {
+      return new Reminder(sessionId, null, datetime, offsetMinutes);
+    }
+
+    static Reminder ofOccurrence(UUID seriesId, LocalDateTime occurrence, long offsetMinutes) {
+      return new Reminder(null, seriesId, occurrence, offsetMinutes);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (!(o instanceof Reminder)) {
+        return false;
+      }
+      Reminder other = (Reminder) o;
+      if (sessionId != null) {
+        return sessionId.equals(other.sessionId) && offsetMinutes == other.offsetMinutes;
+      }
+      return other.sessionId == null
+          && seriesId.equals(other.seriesId)
+          && datetime.equals(other.datetime)
+          && offsetMinutes == other.offsetMinutes;
+    }
+
+    @Override
+    public int hashCode() {
+      int key = sessionId != null ? sessionId.hashCode() : Objects.hash(seriesId, datetime);
+      return key * 31 + Long.hashCode(offsetMinutes);
+    }
+  }
+}
@@ -0,0 +1,329 @@
+package org.example.waspapi.service;
+
+import static org.example.waspapi.Constants.GAME_NOT_FOUND;
+import static org.example.waspapi.Constants.INVALID_RECURRENCE_RULE;
+import static org.example.waspapi.Constants.OCCURRENCE_CONFLICT;
+import static org.example.waspapi.Constants.OCCURRENCE_NOT_FOUND;
+import static org.example.waspapi.Constants.SESSION_SERIES_NOT_FOUND;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import org.example.waspapi.dto.requests.session.CreateSessionSeriesRequest;
+import org.example.waspapi.dto.responses.session.GetSessionResponse;
+import org.example.waspapi.events.SessionChangedEvent;
+import org.example.waspapi.events.SessionSeriesChangedEvent;
+import org.example.waspapi.exceptions.HandledException;
+import org.example.waspapi.model.Game;
+import org.example.waspapi.model.Session;
+import org.example.waspapi.model.SessionSeries;
+import org.example.waspapi.model.SessionSeriesCancellation;
+import org.example.waspapi.repository.GameRepository;
+import org.example.waspapi.repository.SessionRepository;
+import org.example.waspapi.repository.SessionSeriesCancellationRepository;
+import org.example.waspapi.repository.SessionSeriesRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Recurring sessions of a game, stored as one {@link SessionSeries} instead of one session per
+ * occurrence.
+ *
+ * <p>Occurrences are expanded from the rule for the range being read. An occurrence is stored as a
+ * {@link Session} only once it needs to be, when an admin moves or edits it or a member answers its
+ * attendance, and from then on is read like any other session; the expansion leaves it out by its
+ * original start. Cancelled occurrences are recorded as {@link SessionSeriesCancellation}s. A
+ * calendar read therefore costs a fixed number of queries however many series and occurrences it
+ * covers.
+ */
+@Service
+public class SessionSeriesService {
+
+  private static final Logger logger = LoggerFactory.getLogger(SessionSeriesService.class);
+
+  private final SessionSeriesRepository seriesRepository;
+  private final SessionSeriesCancellationRepository cancellationRepository;
+  private final SessionRepository sessionRepository;
+  private final GameRepository gameRepository;
+  private final OutboxService outboxService;
+  private final ApplicationEventPublisher eventPublisher;
+
+  public SessionSeriesService(
+      SessionSeriesRepository seriesRepository,
+      SessionSeriesCancellationRepository cancellationRepository,
+      SessionRepository sessionRepository,
+      GameRepository gameRepository,
+      OutboxService outboxService,
+      ApplicationEventPublisher eventPublisher) {
+    this.seriesRepository = seriesRepository;
+    this.cancellationRepository = cancellationRepository;
+    this.sessionRepository = sessionRepository;
+    this.gameRepository = gameRepository;
+    this.outboxService = outboxService;
+    this.eventPublisher = eventPublisher;
+  }
+
+  @Transactional
+  public SessionSeries create(CreateSessionSeriesRequest request, UUID gameId) {
+    logger.debug("Creating session series for game: {}", gameId);
+    Game game =
+        gameRepository
+            .findById(gameId)
+            .orElseThrow(() -> new HandledException(GAME_NOT_FOUND, HttpStatus.NOT_FOUND));
+    RecurrenceRule rule = parseRule(request.getRrule());
+
+    SessionSeries series = new SessionSeries();
+    series.setGame(game);
+    series.setName(request.getName());
+    series.setIsPresential(request.getIsPresential());
+    series.setPlace(request.getPlace());
+    series.setObservations(request.getObservations());
+    series.setStartDatetime(request.getStartDatetime());
+    series.setRrule(rule.toString());
+    series.setUntilDatetime(rule.lastOccurrence(request.getStartDatetime()));
+
+    SessionSeries saved = seriesRepository.save(series);
+    logger.info("Session series created with ID: {}", saved.getId());
+
+    // Members hear about the series once rather than about every occurrence
+    outboxService.enqueue(
+        OutboxService.AGGREGATE_GAME,
+        gameId,
+        OutboxService.SESSION_SERIES_CREATED,
+        "seriesId",
+        saved.getId(),
+        "gameId",
+        gameId);
+    eventPublisher.publishEvent(new SessionSeriesChangedEvent(saved.getId(), gameId));
+    return saved;
+  }
+
+  public List<SessionSeries> getByGameId(UUID gameId) {
+    logger.debug("Fetching session series for game: {}", gameId);
+    return seriesRepository.findByGameId(gameId);
+  }
+
+  /**
+   * Deletes the series and its future virtual occurrences. Occurrences already stored as sessions
+   * keep their attendance and stay as standalone sessions.
+   */
+  @Transactional
+  public void delete(UUID gameId, UUID seriesId) {
+    logger.debug("Deleting session series: {}", seriesId);
+    SessionSeries series = getById(gameId, seriesId);
+    int detached = sessionRepository.detachFromSeries(seriesId);
+    cancellationRepository.deleteBySeriesId(seriesId);
+    seriesRepository.delete(series);
+    logger.info("Session series deleted: {} ({} sessions kept)", seriesId, detached);
+    eventPublisher.publishEvent(new SessionSeriesChangedEvent(seriesId, gameId));
+  }
+
+  /**
+   * The session of the occurrence starting at {@code occurrence}, storing it first if needed, so
+   * that it can be edited or its attendance answered.
+   */
+  @Transactional
+  public Session materialize(UUID gameId, UUID seriesId, LocalDateTime occurrence) {
+    SessionSeries series = requireOccurrence(gameId, seriesId, occurrence);
+    Session existing =
+        sessionRepository.findBySeriesIdAndOccurrenceDatetime(seriesId, occurrence).orElse(null);
+    if (existing != null) {
+      return existing;
+    }
+
+    Session session = new Session();
+    session.setName(series.getName());
+    session.setIsPresential(series.getIsPresential());
+    session.setDatetime(occurrence);
+    session.setPlace(series.getPlace());
+    session.setObservations(series.getObservations());
+    session.setGame(series.getGame());
+    session.setSeries(series);
+    session.setOccurrenceDatetime(occurrence);
+
+    Session saved;
+    try {
+      saved = sessionRepository.saveAndFlush(session);
+    } catch (DataIntegrityViolationException e) {
+      // Stored by a concurrent request; the unique occurrence key kept only one
+      throw new HandledException(OCCURRENCE_CONFLICT, HttpStatus.CONFLICT);
+    }
+    logger.info(
+        "Occurrence {} of series {} stored as session {}", occurrence, seriesId, saved.getId());
+    eventPublisher.publishEvent(new SessionChangedEvent(saved.getId(), gameId, null, occurrence));
+    return saved;
+  }
+
+  /** Cancels the occurrence starting at {@code occurrence}, deleting its session if stored. */
+  @Transactional
+  public void cancelOccurrence(UUID gameId, UUID seriesId, LocalDateTime occurrence) {
+    SessionSeries series = requireOccurrence(gameId, seriesId, occurrence);
+    Session stored =
+        sessionRepository.findBySeriesIdAndOccurrenceDatetime(seriesId, occurrence).orElse(null);
+    if (stored != null) {
+      sessionRepository.delete(stored);
+      eventPublisher.publishEvent(
+          new SessionChangedEvent(stored.getId(), gameId, stored.getDatetime(), null));
+    }
+    recordCancellation(series, occurrence);
+    logger.info("Occurrence {} of series {} cancelled", occurrence, seriesId);
+    eventPublisher.publishEvent(new SessionSeriesChangedEvent(seriesId, gameId));
+  }
+
+  /** Keeps a deleted session's occurrence from being expanded again. */
+  @Transactional
+  public void recordCancellation(SessionSeries series, LocalDateTime occurrence) {
+    cancellationRepository.save(new SessionSeriesCancellation(series, occurrence));
+  }
+
+  /**
+   * The occurrences of the series of the user's games from {@code start} to {@code end} that are
+   * not stored as sessions nor cancelled, in start order. They have no id and no attendance yet.
+   */
+  public List<GetSessionResponse> expandForUser(
+      UUID userId, LocalDateTime start, LocalDateTime end) {
+    List<SessionSeries> seriesList = seriesRepository.findOverlappingByUserId(userId, start, end);
+    Map<UUID, List<LocalDateTime>> expanded = expand(seriesList, start, end);
+    List<GetSessionResponse> occurrences = new ArrayList<>();
+    for (SessionSeries series : seriesList) {
+      for (LocalDateTime occurrence : expanded.get(series.getId())) {
+        occurrences.add(toOccurrence(series, occurrence));
+      }
+    }
+    occurrences.sort(Comparator.comparing(GetSessionResponse::getDatetime));
+    return occurrences;
+  }
+
+  /**
+   * Starts of the occurrences not stored as sessions nor cancelled, from {@code start} to {@code
+   * end}, of the series of each user's games. Users without any are left out.
+   */
+  public Map<UUID, List<LocalDateTime>> occurrencesByUser(
+      Collection<UUID> userIds, LocalDateTime start, LocalDateTime end) {
+    Map<UUID, List<LocalDateTime>> byUser = new HashMap<>();
+    if (userIds.isEmpty()) {
+      return byUser;
+    }
+    List<Object[]> rows = seriesRepository.findOverlappingByUserIdIn(userIds, start, end);
+    Map<UUID, SessionSeries> seriesById = new LinkedHashMap<>();
+    for (Object[] row : rows) {
+      SessionSeries series = (SessionSeries) row[1];
+      seriesById.put(series.getId(), series);
+    }
+    // Each series is expanded once however many of the users play it
+    Map<UUID, List<LocalDateTime>> expanded = expand(seriesById.values(), start, end);
+    for (Object[] row : rows) {
+      byUser
+          .computeIfAbsent((UUID) row[0], id -> new ArrayList<>())
+          .addAll(expanded.get(((SessionSeries) row[1]).getId()));
+    }
+    return byUser;
+  }
+
+  /**
+   * Starts of the occurrences not stored as sessions nor cancelled, from {@code start} to {@code
+   * end}, by series id. Covers every series of a game not deleted, or only {@code seriesId} if set.
+   */
+  public Map<UUID, List<LocalDateTime>> occurrencesBySeries(
+      UUID seriesId, LocalDateTime start, LocalDateTime end) {
+    List<SessionSeries> seriesList =
+        seriesId == null
+            ? seriesRepository.findOverlapping(start, end)
+            : seriesRepository
+                .findById(seriesId)
+                .map(Collections::singletonList)
+                .orElse(Collections.emptyList());
+    return expand(seriesList, start, end);
+  }
+
+  /** Occurrences in the range of each series, less the cancelled and stored ones. */
+  private Map<UUID, List<LocalDateTime>> expand(
+      Collection<SessionSeries> seriesList, LocalDateTime start, LocalDateTime end) {
+    Map<UUID, List<LocalDateTime>> expanded = new HashMap<>();
+    if (seriesList.isEmpty()) {
+      return expanded;
+    }
+    List<UUID> seriesIds =
+        seriesList.stream().map(SessionSeries::getId).collect(Collectors.toList());
+    Map<UUID, Set<LocalDateTime>> skipped = new HashMap<>();
+    for (Object[] row : cancellationRepository.findKeysBySeriesIdIn(seriesIds, start, end)) {
+      skipped.computeIfAbsent((UUID) row[0], id -> new HashSet<>()).add((LocalDateTime) row[1]);
+    }
+    for (Object[] row : sessionRepository.findOccurrenceKeysBySeriesIdIn(seriesIds, start, end)) {
+      skipped.computeIfAbsent((UUID) row[0], id -> new HashSet<>()).add((LocalDateTime) row[1]);
+    }
+
+    for (SessionSeries series : seriesList) {
+      Set<LocalDateTime> seriesSkipped =
+          skipped.getOrDefault(series.getId(), Collections.emptySet());
+      List<LocalDateTime> occurrences =
+          RecurrenceRule.parse(series.getRrule())
+              .occurrences(series.getStartDatetime(), start, end);
+      occurrences.removeIf(seriesSkipped::contains);
+      expanded.put(series.getId(), occurrences);
+    }
+    return expanded;
+  }
+
+  private SessionSeries getById(UUID gameId, UUID seriesId) {
+    SessionSeries series =
+        seriesRepository
+            .findById(seriesId)
+            .orElseThrow(
+                () -> new HandledException(SESSION_SERIES_NOT_FOUND, HttpStatus.NOT_FOUND));
+    if (!series.getGame().getId().equals(gameId)) {
+      throw new HandledException(SESSION_SERIES_NOT_FOUND, HttpStatus.NOT_FOUND);
+    }
+    return series;
+  }
+
+  private SessionSeries requireOccurrence(UUID gameId, UUID seriesId, LocalDateTime occurrence) {
+    SessionSeries series = getById(gameId, seriesId);
+    if (!RecurrenceRule.parse(series.getRrule()).isOccurrence(series.getStartDatetime(), occurrence)
+        || cancellationRepository.existsBySeriesIdAndOccurrenceDatetime(seriesId, occurrence)) {
+      throw new HandledException(OCCURRENCE_NOT_FOUND, HttpStatus.NOT_FOUND);
+    }
+    return series;
+  }
+
+  private static RecurrenceRule parseRule(String rrule) {
+    try {
+      return RecurrenceRule.parse(rrule);
+    } catch (IllegalArgumentException e) {
+      logger.debug("Rejected recurrence rule {}: {}", rrule, e.getMessage());
+      throw new HandledException(INVALID_RECURRENCE_RULE, HttpStatus.BAD_REQUEST);
+    }
+  }
+
+  private static GetSessionResponse toOccurrence(SessionSeries series, LocalDateTime occurrence) {
+    GetSessionResponse response =
+        new GetSessionResponse(
+            null,
+            series.getName(),
+            series.getIsPresential(),
+            occurrence,
+            series.getPlace(),
+            series.getObservations(),
+            series.getGame().getId(),
+            series.getGame().getName(),
+            0);
+    response.setSeriesId(series.getId());
+    response.setOccurrenceDatetime(occurrence);
+    return response;
+  }
+}
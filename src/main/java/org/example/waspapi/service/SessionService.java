@@ -2,17 +2,31 @@ package org.example.waspapi.service;
 
 import static org.example.waspapi.Constants.ATTENDANCE_NOT_FOUND;
 import static org.example.waspapi.Constants.GAME_NOT_FOUND;
+import static org.example.waspapi.Constants.INVALID_DATE_RANGE;
 import static org.example.waspapi.Constants.SESSION_NOT_FOUND;
 import static org.example.waspapi.Constants.USER_NOT_FOUND;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
-import java.util.stream.Collectors;
 import org.example.waspapi.dto.requests.session.CreateSessionRequest;
 import org.example.waspapi.dto.requests.session.UpdateSessionRequest;
+import org.example.waspapi.dto.responses.session.GetAttendanceMatrixResponse;
+import org.example.waspapi.dto.responses.session.GetSessionResponse;
+import org.example.waspapi.events.SessionChangedEvent;
+import org.example.waspapi.events.SessionSeriesChangedEvent;
+import org.example.waspapi.events.SubscriptionChangedEvent;
 import org.example.waspapi.exceptions.HandledException;
 import org.example.waspapi.model.Game;
 import org.example.waspapi.model.Session;
@@ -21,24 +35,29 @@ import org.example.waspapi.model.User;
 import org.example.waspapi.repository.GameRepository;
 import org.example.waspapi.repository.SessionAttendanceRepository;
 import org.example.waspapi.repository.SessionRepository;
-import org.example.waspapi.repository.SubscriptionRepository;
 import org.example.waspapi.repository.UserRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
 
 @Service
 public class SessionService {
 
   private static final Logger logger = LoggerFactory.getLogger(SessionService.class);
+  private static final int MAX_MATRIX_DAYS = 366;
   private final SessionRepository sessionRepository;
   private final SessionAttendanceRepository attendanceRepository;
   private final GameRepository gameRepository;
   private final UserRepository userRepository;
   private final SubscriptionService subscriptionService;
-  private final SubscriptionRepository subscriptionRepository;
-  private final NotificationService notificationService;
+  private final OutboxService outboxService;
+  private final SessionCalendarCache calendarCache;
+  private final SessionSeriesService seriesService;
+  private final ApplicationEventPublisher eventPublisher;
 
   public SessionService(
       SessionRepository sessionRepository,
@@ -46,17 +65,22 @@ public class SessionService {
       GameRepository gameRepository,
       UserRepository userRepository,
       SubscriptionService subscriptionService,
-      SubscriptionRepository subscriptionRepository,
-      NotificationService notificationService) {
+      OutboxService outboxService,
+      SessionCalendarCache calendarCache,
+      SessionSeriesService seriesService,
+      ApplicationEventPublisher eventPublisher) {
     this.sessionRepository = sessionRepository;
     this.attendanceRepository = attendanceRepository;
     this.gameRepository = gameRepository;
     this.userRepository = userRepository;
     this.subscriptionService = subscriptionService;
-    this.subscriptionRepository = subscriptionRepository;
-    this.notificationService = notificationService;
+    this.outboxService = outboxService;
+    this.calendarCache = calendarCache;
+    this.seriesService = seriesService;
+    this.eventPublisher = eventPublisher;
   }
 
+  @Transactional
   public Session create(CreateSessionRequest request, UUID gameId) {
     logger.debug("Creating session for game: {}", gameId);
     Game game =
@@ -75,20 +99,27 @@ public class SessionService {
     Session saved = sessionRepository.save(session);
     logger.info("Session created with ID: {}", saved.getId());
 
-    List<UUID> subscriberIds =
-        subscriptionRepository.findByGameIdAndIsActiveTrue(gameId).stream()
-            .map(s -> s.getUser().getId())
-            .collect(Collectors.toList());
-    notificationService.createForMany(subscriberIds, "SESSION_CREATED", saved.getId());
+    outboxService.enqueue(
+        OutboxService.AGGREGATE_GAME,
+        gameId,
+        OutboxService.SESSION_CREATED,
+        "sessionId",
+        saved.getId(),
+        "gameId",
+        gameId);
+    eventPublisher.publishEvent(
+        new SessionChangedEvent(saved.getId(), gameId, null, saved.getDatetime()));
     return saved;
   }
 
+  @Transactional
   public Session update(UUID sessionId, UpdateSessionRequest request) {
     logger.debug("Updating session: {}", sessionId);
     Session session =
         sessionRepository
             .findById(sessionId)
             .orElseThrow(() -> new HandledException(SESSION_NOT_FOUND, HttpStatus.NOT_FOUND));
+    LocalDateTime previousDatetime = session.getDatetime();
 
     if (request.getName() != null) {
       session.setName(request.getName());
@@ -108,9 +139,13 @@ public class SessionService {
 
     Session saved = sessionRepository.save(session);
     logger.info("Session updated: {}", sessionId);
+    eventPublisher.publishEvent(
+        new SessionChangedEvent(
+            sessionId, session.getGame().getId(), previousDatetime, saved.getDatetime()));
     return saved;
   }
 
+  @Transactional
   public void delete(UUID sessionId) {
     logger.debug("Deleting session: {}", sessionId);
     Session session =
@@ -118,7 +153,13 @@ public class SessionService {
             .findById(sessionId)
             .orElseThrow(() -> new HandledException(SESSION_NOT_FOUND, HttpStatus.NOT_FOUND));
     sessionRepository.delete(session);
+    if (session.getSeries() != null) {
+      // Otherwise the series would bring the occurrence back
+      seriesService.recordCancellation(session.getSeries(), session.getOccurrenceDatetime());
+    }
     logger.info("Session deleted: {}", sessionId);
+    eventPublisher.publishEvent(
+        new SessionChangedEvent(sessionId, session.getGame().getId(), session.getDatetime(), null));
   }
 
   public Session getById(UUID sessionId) {
@@ -133,6 +174,7 @@ public class SessionService {
     return sessionRepository.findByGameId(gameId);
   }
 
+  @Transactional
   public SessionAttendance confirmAttendance(UUID userId, UUID sessionId) {
     logger.debug("Confirming attendance for user {} on session {}", userId, sessionId);
     User user =
@@ -158,9 +200,11 @@ public class SessionService {
 
     SessionAttendance saved = attendanceRepository.save(attendance);
     logger.info("Attendance confirmed for user {} on session {}", userId, sessionId);
+    publishAttendanceChanged(session);
     return saved;
   }
 
+  @Transactional
   public SessionAttendance cancelAttendance(UUID userId, UUID sessionId) {
     logger.debug("Cancelling attendance for user {} on session {}", userId, sessionId);
     SessionAttendance attendance =
@@ -171,9 +215,11 @@ public class SessionService {
 
     SessionAttendance saved = attendanceRepository.save(attendance);
     logger.info("Attendance cancelled for user {} on session {}", userId, sessionId);
+    publishAttendanceChanged(attendance.getSession());
     return saved;
   }
 
+  @Transactional
   public SessionAttendance resetAttendance(UUID userId, UUID sessionId) {
     logger.debug("Resetting attendance to pending for user {} on session {}", userId, sessionId);
     SessionAttendance attendance =
@@ -184,6 +230,7 @@ public class SessionService {
 
     SessionAttendance saved = attendanceRepository.save(attendance);
     logger.info("Attendance reset to pending for user {} on session {}", userId, sessionId);
+    publishAttendanceChanged(attendance.getSession());
     return saved;
   }
 
@@ -192,24 +239,178 @@ public class SessionService {
     return attendanceRepository.findBySessionId(sessionId);
   }
 
-  public List<Session> getByUserAndMonth(UUID userId, int year, int month) {
-    logger.debug("Fetching sessions for user {} in {}-{}", userId, year, month);
-    List<UUID> gameIds =
-        subscriptionService.getGamesByUserId(userId).stream()
-            .map(Game::getId)
-            .collect(Collectors.toList());
-    if (gameIds.isEmpty()) {
-      return Collections.emptyList();
-    }
+  /**
+   * Sessions of the user's games in the month, with confirmed counts and the user's own attendance,
+   * read with one query, merged with the occurrences of the games' series that are not stored as
+   * sessions, and cached per user and month.
+   */
+  public List<GetSessionResponse> getCalendar(UUID userId, int year, int month) {
     YearMonth ym = YearMonth.of(year, month);
-    LocalDateTime start = ym.atDay(1).atStartOfDay();
-    LocalDateTime end = ym.plusMonths(1).atDay(1).atStartOfDay();
-    return sessionRepository.findByGameIdsAndDateRange(gameIds, start, end);
+    return calendarCache.get(userId, ym, () -> loadCalendar(userId, ym));
+  }
+
+  /**
+   * Attendance of the game's active players to its sessions from {@code from} to {@code to}, both
+   * days included. Players and their rates come from one grouped query and the answers from one
+   * join, instead of one attendance list per session. Series occurrences that are not stored as
+   * sessions have no answers and are left out.
+   */
+  public GetAttendanceMatrixResponse getAttendanceMatrix(
+      UUID gameId, LocalDate from, LocalDate to) {
+    if (to.isBefore(from) || ChronoUnit.DAYS.between(from, to) >= MAX_MATRIX_DAYS) {
+      throw new HandledException(INVALID_DATE_RANGE, HttpStatus.BAD_REQUEST);
+    }
+    LocalDateTime start = from.atStartOfDay();
+    LocalDateTime end = to.plusDays(1).atStartOfDay();
+    logger.debug("Fetching attendance matrix of game {} from {} to {}", gameId, start, end);
+
+    List<GetAttendanceMatrixResponse.PlayerInfo> players = new ArrayList<>();
+    Map<UUID, Integer> indexes = new HashMap<>();
+    for (Object[] row : attendanceRepository.findMatrixPlayerRows(gameId, start, end)) {
+      indexes.put((UUID) row[0], players.size());
+      players.add(
+          new GetAttendanceMatrixResponse.PlayerInfo(
+              (UUID) row[0],
+              (String) row[1],
+              (String) row[2],
+              row[3] == null ? 0 : ((Number) row[3]).longValue(),
+              row[4] == null ? 0 : ((Number) row[4]).longValue(),
+              row[5] == null ? null : ((Number) row[5]).doubleValue()));
+    }
+
+    List<GetAttendanceMatrixResponse.SessionInfo> sessions = new ArrayList<>();
+    UUID current = null;
+    List<Integer> confirmed = new ArrayList<>();
+    List<Integer> declined = new ArrayList<>();
+    for (Object[] row : attendanceRepository.findMatrixCells(gameId, start, end)) {
+      if (!row[0].equals(current)) {
+        closeMatrixRow(sessions, confirmed, declined);
+        current = (UUID) row[0];
+        sessions.add(
+            new GetAttendanceMatrixResponse.SessionInfo(
+                current, (String) row[1], (LocalDateTime) row[2], null, null));
+      }
+      // Answers of players who left the game have no column
+      Integer index = row[3] == null ? null : indexes.get((UUID) row[3]);
+      if (index != null) {
+        ((Boolean) row[4] ? confirmed : declined).add(index);
+      }
+    }
+    closeMatrixRow(sessions, confirmed, declined);
+    return new GetAttendanceMatrixResponse(start, end, players, sessions);
   }
 
   public long countConfirmed(UUID sessionId) {
-    return attendanceRepository.findBySessionId(sessionId).stream()
-        .filter(a -> Boolean.TRUE.equals(a.getConfirmAssist()))
-        .count();
+    return attendanceRepository.countBySessionIdAndConfirmAssistTrue(sessionId);
+  }
+
+  /** Confirmed attendance per session in one grouped query; sessions without any map to 0. */
+  public Map<UUID, Long> countConfirmed(Collection<UUID> sessionIds) {
+    Map<UUID, Long> counts = new HashMap<>();
+    if (sessionIds.isEmpty()) {
+      return counts;
+    }
+    for (UUID sessionId : sessionIds) {
+      counts.put(sessionId, 0L);
+    }
+    for (Object[] row : attendanceRepository.countConfirmedBySessionIdIn(sessionIds)) {
+      counts.put((UUID) row[0], ((Number) row[1]).longValue());
+    }
+    return counts;
+  }
+
+  /**
+   * Drops the cached calendars the change shows up in: those of every member of the game, for the
+   * months the session was and is in.
+   */
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onSessionChanged(SessionChangedEvent event) {
+    Set<YearMonth> months = new HashSet<>();
+    if (event.getPreviousDatetime() != null) {
+      months.add(YearMonth.from(event.getPreviousDatetime()));
+    }
+    if (event.getDatetime() != null) {
+      months.add(YearMonth.from(event.getDatetime()));
+    }
+    if (months.isEmpty()) {
+      return;
+    }
+    for (UUID memberId : subscriptionService.getActiveMemberIds(event.getGameId())) {
+      for (YearMonth month : months) {
+        calendarCache.invalidate(memberId, month);
+      }
+    }
+  }
+
+  /** A series change may touch any month, so the members' whole calendars are dropped. */
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onSessionSeriesChanged(SessionSeriesChangedEvent event) {
+    for (UUID memberId : subscriptionService.getActiveMemberIds(event.getGameId())) {
+      calendarCache.invalidate(memberId);
+    }
+  }
+
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onSubscriptionChanged(SubscriptionChangedEvent event) {
+    calendarCache.invalidate(event.getUserId());
+  }
+
+  private List<GetSessionResponse> loadCalendar(UUID userId, YearMonth month) {
+    logger.debug("Fetching sessions for user {} in {}", userId, month);
+    LocalDateTime start = month.atDay(1).atStartOfDay();
+    LocalDateTime end = month.plusMonths(1).atDay(1).atStartOfDay();
+    List<Object[]> rows = sessionRepository.findCalendarRows(userId, start, end);
+    List<GetSessionResponse> occurrences = seriesService.expandForUser(userId, start, end);
+    List<GetSessionResponse> sessions = new ArrayList<>(rows.size() + occurrences.size());
+    for (Object[] row : rows) {
+      GetSessionResponse session =
+          new GetSessionResponse(
+              (UUID) row[0],
+              (String) row[1],
+              (Boolean) row[2],
+              (LocalDateTime) row[3],
+              (String) row[4],
+              (String) row[5],
+              (UUID) row[6],
+              (String) row[7],
+              ((Number) row[8]).longValue());
+      session.setMyAttendance(
+          row[9] == null ? "PENDING" : (Boolean) row[9] ? "CONFIRMED" : "DECLINED");
+      session.setSeriesId((UUID) row[10]);
+      session.setOccurrenceDatetime((LocalDateTime) row[11]);
+      sessions.add(session);
+    }
+    if (!occurrences.isEmpty()) {
+      for (GetSessionResponse occurrence : occurrences) {
+        occurrence.setMyAttendance("PENDING");
+        sessions.add(occurrence);
+      }
+      sessions.sort(Comparator.comparing(GetSessionResponse::getDatetime));
+    }
+    return Collections.unmodifiableList(sessions);
+  }
+
+  /** Sets the collected indexes on the last session of the matrix, in player order. */
+  private static void closeMatrixRow(
+      List<GetAttendanceMatrixResponse.SessionInfo> sessions,
+      List<Integer> confirmed,
+      List<Integer> declined) {
+    if (sessions.isEmpty()) {
+      return;
+    }
+    GetAttendanceMatrixResponse.SessionInfo session = sessions.get(sessions.size() - 1);
+    session.setConfirmed(confirmed.stream().mapToInt(Integer::intValue).sorted().toArray());
+    session.setDeclined(declined.stream().mapToInt(Integer::intValue).sorted().toArray());
+    confirmed.clear();
+    declined.clear();
+  }
+
+  private void publishAttendanceChanged(Session session) {
+    eventPublisher.publishEvent(
+        new SessionChangedEvent(
+            session.getId(),
+            session.getGame().getId(),
+            session.getDatetime(),
+            session.getDatetime()));
   }
 }
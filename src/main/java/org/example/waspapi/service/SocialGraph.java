@@ -0,0 +1,391 @@
+package org.example.waspapi.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Friendship graph and game memberships held in memory.
+ *
+ * <p>Users and games are interned to dense int ids, and each user keeps two sorted {@code int[]}
+ * rows: friends and games. Membership tests are binary searches, mutual friends and shared games
+ * are merge intersections, and friends-of-friends are counted in a per-thread array indexed by
+ * user, so queries allocate little beyond their results. Rows are replaced (copied) on every
+ * change, which is cheap because friendships change rarely compared to how often they are read. A
+ * read-write lock lets readers proceed in parallel.
+ */
+final class SocialGraph {
+
+  private static final int[] EMPTY = new int[0];
+  private static final ThreadLocal<Scratch> SCRATCH = ThreadLocal.withInitial(Scratch::new);
+
+  private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+  private final Map<UUID, Integer> userIndex = new HashMap<>();
+  private final List<UUID> users = new ArrayList<>();
+  private final Map<UUID, Integer> gameIndex = new HashMap<>();
+  private int[][] friends = new int[16][];
+  private int[][] games = new int[16][];
+  private long edgeCount;
+
+  /** Builds a graph from accepted friendships and active memberships, as (a, b) id pairs. */
+  static SocialGraph load(List<UUID[]> friendships, List<UUID[]> memberships) {
+    SocialGraph graph = new SocialGraph();
+    int[] friendDegree = new int[16];
+    int[] gameDegree = new int[16];
+    for (UUID[] edge : friendships) {
+      int a = graph.internUser(edge[0]);
+      int b = graph.internUser(edge[1]);
+      if (a == b) {
+        continue;
+      }
+      friendDegree = append(graph.friends, friendDegree, a, b);
+      friendDegree = append(graph.friends, friendDegree, b, a);
+    }
+    for (UUID[] membership : memberships) {
+      int user = graph.internUser(membership[0]);
+      int game = graph.internGame(membership[1]);
+      gameDegree = append(graph.games, gameDegree, user, game);
+    }
+    for (int i = 0; i < graph.users.size(); i++) {
+      graph.friends[i] =
+          sortedUnique(graph.friends[i], i < friendDegree.length ? friendDegree[i] : 0);
+      graph.games[i] = sortedUnique(graph.games[i], i < gameDegree.length ? gameDegree[i] : 0);
+      graph.edgeCount += graph.friends[i].length;
+    }
+    graph.edgeCount /= 2;
+    return graph;
+  }
+
+  void addFriendship(UUID userA, UUID userB) {
+    lock.writeLock().lock();
+    try {
+      int a = internUser(userA);
+      int b = internUser(userB);
+      if (a == b || contains(friends[a], b)) {
+        return;
+      }
+      friends[a] = insert(friends[a], b);
+      friends[b] = insert(friends[b], a);
+      edgeCount++;
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  void removeFriendship(UUID userA, UUID userB) {
+    lock.writeLock().lock();
+    try {
+      Integer a = userIndex.get(userA);
+      Integer b = userIndex.get(userB);
+      if (a == null || b == null || !contains(friends[a], b)) {
+        return;
+      }
+      friends[a] = remove(friends[a], b);
+      friends[b] = remove(friends[b], a);
+      edgeCount--;
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  void setMembership(UUID userId, UUID gameId, boolean active) {
+    lock.writeLock().lock();
+    try {
+      int user = internUser(userId);
+      int game = internGame(gameId);
+      if (active && !contains(games[user], game)) {
+        games[user] = insert(games[user], game);
+      } else if (!active && contains(games[user], game)) {
+        games[user] = remove(games[user], game);
+      }
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  boolean areFriends(UUID userA, UUID userB) {
+    lock.readLock().lock();
+    try {
+      Integer a = userIndex.get(userA);
+      Integer b = userIndex.get(userB);
+      return a != null && b != null && contains(friends[a], b);
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  List<UUID> friendsOf(UUID userId) {
+    lock.readLock().lock();
+    try {
+      Integer index = userIndex.get(userId);
+      if (index == null) {
+        return Collections.emptyList();
+      }
+      int[] row = friends[index];
+      List<UUID> result = new ArrayList<>(row.length);
+      for (int friend : row) {
+        result.add(users.get(friend));
+      }
+      return result;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  int mutualFriends(UUID userA, UUID userB) {
+    lock.readLock().lock();
+    try {
+      Integer a = userIndex.get(userA);
+      Integer b = userIndex.get(userB);
+      return a == null || b == null ? 0 : intersectionSize(friends[a], friends[b]);
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Friends of friends who are not yet friends of the user, ranked by {@code mutualWeight *
+   * mutualFriends + gameWeight * sharedGames}. Ties go to the candidate with more mutual friends.
+   */
+  List<Suggestion> suggest(UUID userId, int limit, int mutualWeight, int gameWeight) {
+    lock.readLock().lock();
+    try {
+      Integer index = userIndex.get(userId);
+      if (index == null || limit <= 0) {
+        return Collections.emptyList();
+      }
+      int user = index;
+      int[] own = friends[user];
+
+      // Number of paths user -> friend -> candidate, i.e. the mutual friend count. The user and
+      // their friends are marked with -1 so they are never counted as candidates.
+      Scratch scratch = SCRATCH.get().ensureCapacity(users.size());
+      int[] counts = scratch.counts;
+      int touched = 0;
+      counts[user] = -1;
+      for (int friend : own) {
+        counts[friend] = -1;
+      }
+      for (int friend : own) {
+        for (int candidate : friends[friend]) {
+          if (counts[candidate] == 0) {
+            touched = scratch.touch(touched, candidate);
+          }
+          if (counts[candidate] >= 0) {
+            counts[candidate]++;
+          }
+        }
+      }
+
+      Comparator<Suggestion> ranking =
+          Comparator.comparingInt(Suggestion::getScore)
+              .thenComparingInt(Suggestion::getMutualFriends);
+      PriorityQueue<Suggestion> top = new PriorityQueue<>(limit + 1, ranking);
+      int lowestKept = Integer.MIN_VALUE;
+      for (int i = 0; i < touched; i++) {
+        int candidate = scratch.touched[i];
+        int mutual = counts[candidate];
+        counts[candidate] = 0;
+        // Shared games can only raise the score, so skip the intersection for hopeless candidates
+        int upperBound = mutualWeight * mutual + gameWeight * games[user].length;
+        if (top.size() == limit && upperBound < lowestKept) {
+          continue;
+        }
+        int shared = intersectionSize(games[user], games[candidate]);
+        top.add(
+            new Suggestion(
+                users.get(candidate), mutual, shared, mutualWeight * mutual + gameWeight * shared));
+        if (top.size() > limit) {
+          top.poll();
+        }
+        if (top.size() == limit) {
+          lowestKept = top.peek().getScore();
+        }
+      }
+      counts[user] = 0;
+      for (int friend : own) {
+        counts[friend] = 0;
+      }
+
+      List<Suggestion> ranked = new ArrayList<>(top);
+      ranked.sort(ranking.reversed());
+      return ranked;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  int userCount() {
+    lock.readLock().lock();
+    try {
+      return users.size();
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  long edgeCount() {
+    lock.readLock().lock();
+    try {
+      return edgeCount;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  private int internUser(UUID userId) {
+    Integer existing = userIndex.get(userId);
+    if (existing != null) {
+      return existing;
+    }
+    int index = users.size();
+    users.add(userId);
+    userIndex.put(userId, index);
+    if (index == friends.length) {
+      friends = Arrays.copyOf(friends, index * 2);
+      games = Arrays.copyOf(games, index * 2);
+    }
+    friends[index] = EMPTY;
+    games[index] = EMPTY;
+    return index;
+  }
+
+  private int internGame(UUID gameId) {
+    Integer existing = gameIndex.get(gameId);
+    if (existing != null) {
+      return existing;
+    }
+    int index = gameIndex.size();
+    gameIndex.put(gameId, index);
+    return index;
+  }
+
+  /**
+   * Appends during bulk load, growing the row geometrically; returns the (possibly grown) sizes.
+   */
+  private static int[] append(int[][] rows, int[] sizes, int row, int value) {
+    if (row >= sizes.length) {
+      sizes = Arrays.copyOf(sizes, Math.max(row + 1, sizes.length * 2));
+    }
+    int[] current = rows[row];
+    int size = sizes[row];
+    if (size == current.length) {
+      current = Arrays.copyOf(current, Math.max(4, size * 2));
+      rows[row] = current;
+    }
+    current[size] = value;
+    sizes[row] = size + 1;
+    return sizes;
+  }
+
+  private static int[] sortedUnique(int[] row, int size) {
+    if (size == 0) {
+      return EMPTY;
+    }
+    Arrays.sort(row, 0, size);
+    int unique = 1;
+    for (int i = 1; i < size; i++) {
+      if (row[i] != row[unique - 1]) {
+        row[unique++] = row[i];
+      }
+    }
+    return Arrays.copyOf(row, unique);
+  }
+
+  private static boolean contains(int[] row, int value) {
+    return Arrays.binarySearch(row, value) >= 0;
+  }
+
+  private static int[] insert(int[] row, int value) {
+    int position = -Arrays.binarySearch(row, value) - 1;
+    int[] grown = new int[row.length + 1];
+    System.arraycopy(row, 0, grown, 0, position);
+    grown[position] = value;
+    System.arraycopy(row, position, grown, position + 1, row.length - position);
+    return grown;
+  }
+
+  private static int[] remove(int[] row, int value) {
+    int position = Arrays.binarySearch(row, value);
+    int[] shrunk = new int[row.length - 1];
+    System.arraycopy(row, 0, shrunk, 0, position);
+    System.arraycopy(row, position + 1, shrunk, position, row.length - position - 1);
+    return shrunk;
+  }
+
+  private static int intersectionSize(int[] a, int[] b) {
+    int i = 0;
+    int j = 0;
+    int count = 0;
+    while (i < a.length && j < b.length) {
+      if (a[i] < b[j]) {
+        i++;
+      } else if (a[i] > b[j]) {
+        j++;
+      } else {
+        count++;
+        i++;
+        j++;
+      }
+    }
+    return count;
+  }
+
+  /** Per-thread counters reused across suggestion queries so they allocate nothing per node. */
+  private static final class Scratch {
+    private int[] counts = EMPTY;
+    private int[] touched = new int[64];
+
+    Scratch ensureCapacity(int size) {
+      if (counts.length < size) {
+        counts = new int[Math.max(size, counts.length * 2)];
+      }
+      return this;
+    }
+
+    int touch(int size, int candidate) {
+      if (size == touched.length) {
+        touched = Arrays.copyOf(touched, size * 2);
+      }
+      touched[size] = candidate;
+      return size + 1;
+    }
+  }
+
+  static final class Suggestion {
+    private final UUID userId;
+    private final int mutualFriends;
+    private final int sharedGames;
+    private final int score;
+
+    Suggestion(UUID userId, int mutualFriends, int sharedGames, int score) {
+      this.userId = userId;
+      this.mutualFriends = mutualFriends;
+      this.sharedGames = sharedGames;
+      this.score = score;
+    }
+
+    UUID getUserId() {
+      return userId;
+    }
+
+    int getMutualFriends() {
+      return mutualFriends;
+    }
+
+    int getSharedGames() {
+      return sharedGames;
+    }
+
+    int getScore() {
+      return score;
+    }
+  }
+}
@@ -0,0 +1,200 @@
+package org.example.waspapi.service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import org.example.waspapi.dto.responses.friendrequest.GetFriendSuggestionResponse;
+import org.example.waspapi.events.FriendshipChangedEvent;
+import org.example.waspapi.events.SubscriptionChangedEvent;
+import org.example.waspapi.model.User;
+import org.example.waspapi.repository.FriendRequestRepository;
+import org.example.waspapi.repository.SubscriptionRepository;
+import org.example.waspapi.repository.UserRepository;
+import org.example.waspapi.service.SocialGraph.Suggestion;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Answers friendship questions from an in-memory {@link SocialGraph}.
+ *
+ * <p>The graph is loaded when the application starts and kept current from friendship and
+ * subscription events published after commit. A periodic reload picks up anything the events do not
+ * cover, such as deleted games. Until the first load finishes {@link #isReady()} is false and
+ * callers fall back to the database.
+ */
+@Service
+public class SocialGraphService {
+
+  private static final Logger logger = LoggerFactory.getLogger(SocialGraphService.class);
+
+  private final FriendRequestRepository friendRequestRepository;
+  private final SubscriptionRepository subscriptionRepository;
+  private final UserRepository userRepository;
+
+  private volatile SocialGraph graph;
+
+  // Changes applied while a reload is reading the database, replayed onto the new graph
+  private final Object reloadLock = new Object();
+  private List<Change> changesDuringReload;
+
+  @Value("${wasp.social.suggestion-mutual-weight:2}")
+  private int mutualWeight;
+
+  @Value("${wasp.social.suggestion-game-weight:1}")
+  private int gameWeight;
+
+  public SocialGraphService(
+      FriendRequestRepository friendRequestRepository,
+      SubscriptionRepository subscriptionRepository,
+      UserRepository userRepository) {
+    this.friendRequestRepository = friendRequestRepository;
+    this.subscriptionRepository = subscriptionRepository;
+    this.userRepository = userRepository;
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void load() {
+    reload();
+  }
+
+  @Scheduled(
+      initialDelayString = "${wasp.social.reload-interval-ms:3600000}",
+      fixedDelayString = "${wasp.social.reload-interval-ms:3600000}")
+  public void reload() {
+    synchronized (reloadLock) {
+      changesDuringReload = new ArrayList<>();
+    }
+    try {
+      long start = System.nanoTime();
+      SocialGraph loaded =
+          SocialGraph.load(
+              toPairs(friendRequestRepository.findPairsByStatus("ACCEPTED")),
+              toPairs(subscriptionRepository.findActiveMemberships()));
+      synchronized (reloadLock) {
+        for (Change change : changesDuringReload) {
+          change.applyTo(loaded);
+        }
+        changesDuringReload = null;
+        graph = loaded;
+      }
+      logger.info(
+          "Social graph loaded: {} users, {} friendships in {} ms",
+          loaded.userCount(),
+          loaded.edgeCount(),
+          (System.nanoTime() - start) / 1_000_000);
+    } catch (RuntimeException e) {
+      synchronized (reloadLock) {
+        changesDuringReload = null;
+      }
+      logger.warn("Social graph load failed: {}", e.getMessage());
+    }
+  }
+
+  public boolean isReady() {
+    return graph != null;
+  }
+
+  public boolean areFriends(UUID userId, UUID otherUserId) {
+    SocialGraph current = graph;
+    return current != null && current.areFriends(userId, otherUserId);
+  }
+
+  /** Ids of the user's friends, or an empty list until the graph is loaded. */
+  public List<UUID> getFriendIds(UUID userId) {
+    SocialGraph current = graph;
+    return current == null ? Collections.emptyList() : current.friendsOf(userId);
+  }
+
+  public int countMutualFriends(UUID userId, UUID otherUserId) {
+    SocialGraph current = graph;
+    return current == null ? 0 : current.mutualFriends(userId, otherUserId);
+  }
+
+  /** Friends of friends ranked by mutual friends and shared games, with their profile summary. */
+  public List<GetFriendSuggestionResponse> getSuggestions(UUID userId, int limit) {
+    SocialGraph current = graph;
+    if (current == null) {
+      return Collections.emptyList();
+    }
+    List<Suggestion> suggestions = current.suggest(userId, limit, mutualWeight, gameWeight);
+    if (suggestions.isEmpty()) {
+      return Collections.emptyList();
+    }
+
+    Map<UUID, User> usersById =
+        userRepository
+            .findAllById(
+                suggestions.stream().map(Suggestion::getUserId).collect(Collectors.toList()))
+            .stream()
+            .collect(Collectors.toMap(User::getId, Function.identity()));
+
+    List<GetFriendSuggestionResponse> responses = new ArrayList<>(suggestions.size());
+    for (Suggestion suggestion : suggestions) {
+      User user = usersById.get(suggestion.getUserId());
+      if (user == null) {
+        continue;
+      }
+      responses.add(
+          new GetFriendSuggestionResponse(
+              user.getId(),
+              user.getNickname(),
+              user.getProfilePhoto(),
+              suggestion.getMutualFriends(),
+              suggestion.getSharedGames()));
+    }
+    return responses;
+  }
+
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onFriendshipChanged(FriendshipChangedEvent event) {
+    apply(
+        g -> {
+          if (event.isFriends()) {
+            g.addFriendship(event.getUserId(), event.getFriendUserId());
+          } else {
+            g.removeFriendship(event.getUserId(), event.getFriendUserId());
+          }
+        });
+  }
+
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onSubscriptionChanged(SubscriptionChangedEvent event) {
+    apply(g -> g.setMembership(event.getUserId(), event.getGameId(), event.isActive()));
+  }
+
+  private void apply(Change change) {
+    synchronized (reloadLock) {
+      if (changesDuringReload != null) {
+        changesDuringReload.add(change);
+      }
+      SocialGraph current = graph;
+      if (current != null) {
+        change.applyTo(current);
+      }
+    }
+  }
+
+  private static List<UUID[]> toPairs(List<Object[]> rows) {
+    List<UUID[]> pairs = new ArrayList<>(rows.size());
+    for (Object[] row : rows) {
+      if (row[0] != null && row[1] != null) {
+        pairs.add(new UUID[] {(UUID) row[0], (UUID) row[1]});
+      }
+    }
+    return pairs;
+  }
+
+  private interface Change {
+    void applyTo(SocialGraph graph);
+  }
+}
@@ -11,6 +11,7 @@ import java.util.List;
 import java.util.UUID;
 import java.util.stream.Collectors;
 import org.example.waspapi.dto.requests.subscription.CreateSubscriptionRequest;
+import org.example.waspapi.events.SubscriptionChangedEvent;
 import org.example.waspapi.exceptions.HandledException;
 import org.example.waspapi.model.Game;
 import org.example.waspapi.model.Subscription;
@@ -18,6 +19,7 @@ import org.example.waspapi.model.User;
 import org.example.waspapi.repository.GameRepository;
 import org.example.waspapi.repository.SubscriptionRepository;
 import org.example.waspapi.repository.UserRepository;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 
@@ -27,14 +29,17 @@ public class SubscriptionService {
   private final SubscriptionRepository subscriptionRepository;
   private final UserRepository userRepository;
   private final GameRepository gameRepository;
+  private final ApplicationEventPublisher eventPublisher;
 
   public SubscriptionService(
       SubscriptionRepository subscriptionRepository,
       UserRepository userRepository,
-      GameRepository gameRepository) {
+      GameRepository gameRepository,
+      ApplicationEventPublisher eventPublisher) {
     this.subscriptionRepository = subscriptionRepository;
     this.userRepository = userRepository;
     this.gameRepository = gameRepository;
+    this.eventPublisher = eventPublisher;
   }
 
   /**
@@ -66,7 +71,9 @@ public class SubscriptionService {
     subscription.setRole(request.getRole());
     subscription.setAdmin(request.getAdmin());
 
-    return subscriptionRepository.save(subscription);
+    Subscription saved = subscriptionRepository.save(subscription);
+    eventPublisher.publishEvent(new SubscriptionChangedEvent(user.getId(), game.getId(), true));
+    return saved;
   }
 
   /**
@@ -96,6 +103,10 @@ public class SubscriptionService {
     return subscriptionRepository.findByGameIdAndIsActiveTrue(gameId);
   }
 
+  public List<UUID> getActiveMemberIds(UUID gameId) {
+    return subscriptionRepository.findActiveUserIdsByGameId(gameId);
+  }
+
   public List<Game> getGamesByUserId(UUID userId) {
     return subscriptionRepository.findByUserIdAndIsActiveTrue(userId).stream()
         .map(Subscription::getGame)
@@ -113,6 +124,7 @@ public class SubscriptionService {
     }
     subscription.setIsActive(false);
     subscriptionRepository.save(subscription);
+    eventPublisher.publishEvent(new SubscriptionChangedEvent(userId, gameId, false));
   }
 
   public void rejoinGame(UUID userId, UUID gameId) {
@@ -135,5 +147,6 @@ public class SubscriptionService {
 
     subscription.setIsActive(true);
     subscriptionRepository.save(subscription);
+    eventPublisher.publishEvent(new SubscriptionChangedEvent(userId, gameId, true));
   }
 }
@@ -0,0 +1,161 @@
+package org.example.waspapi.service;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToLongFunction;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Unread notification count per user, kept in memory so the badge endpoint does not query the
+ * database on every poll.
+ *
+ * <p>Users are spread over lock stripes, and each stripe is a small access-ordered {@link
+ * LinkedHashMap} that evicts its least recently used entry once full. So the cache is bounded, and
+ * callers for different users rarely contend. A missing count is loaded from the database. Creates
+ * and reads then adjust the cached count by a delta instead of reloading it.
+ *
+ * <p>A load and an adjustment can race: the load may read the database before a notification
+ * commits, and the adjustment may then find no entry to update. To guard against this, a stripe
+ * tracks the loads in flight per user, and an adjustment that misses marks the user's load stale. A
+ * load stores its result only if it was not marked while it ran, so a miss for one user does not
+ * discard the loads of others. Entries also expire after a TTL, which bounds any remaining drift.
+ */
+@Component
+public class UnreadNotificationCounter {
+
+  private final Stripe[] stripes;
+  private final long ttlNanos;
+
+  public UnreadNotificationCounter(
+      @Value("${wasp.notifications.unread-cache.max-users:50000}") int maxUsers,
+      @Value("${wasp.notifications.unread-cache.ttl-seconds:600}") long ttlSeconds) {
+    int stripeCount =
+        Integer.highestOneBit(Math.max(1, Runtime.getRuntime().availableProcessors()) * 4);
+    this.stripes = new Stripe[stripeCount];
+    int perStripe = Math.max(1, maxUsers / stripeCount);
+    for (int i = 0; i < stripeCount; i++) {
+      stripes[i] = new Stripe(perStripe);
+    }
+    this.ttlNanos = TimeUnit.SECONDS.toNanos(ttlSeconds);
+  }
+
+  /** Cached count of the user, loading it with {@code loader} on a miss. */
+  public long get(UUID userId, ToLongFunction<UUID> loader) {
+    Stripe stripe = stripeFor(userId);
+    Load load;
+    long version;
+    synchronized (stripe) {
+      Entry entry = stripe.entries.get(userId);
+      if (entry != null && System.nanoTime() - entry.loadedAt < ttlNanos) {
+        return entry.count;
+      }
+      load = stripe.loads.computeIfAbsent(userId, id -> new Load());
+      load.loaders++;
+      version = load.version;
+    }
+
+    long count = 0;
+    boolean loaded = false;
+    try {
+      count = loader.applyAsLong(userId);
+      loaded = true;
+    } finally {
+      synchronized (stripe) {
+        if (--load.loaders == 0) {
+          stripe.loads.remove(userId);
+        }
+        if (loaded && load.version == version) {
+          stripe.entries.put(userId, new Entry(count, System.nanoTime()));
+        }
+      }
+    }
+    return count;
+  }
+
+  /** Applies a committed change; users without a cached count are left to the next load. */
+  public void adjust(UUID userId, long delta) {
+    if (delta == 0) {
+      return;
+    }
+    Stripe stripe = stripeFor(userId);
+    synchronized (stripe) {
+      Entry entry = stripe.entries.get(userId);
+      if (entry == null) {
+        stripe.markStale(userId);
+        return;
+      }
+      entry.count += delta;
+      if (entry.count < 0) {
+        // Out of step with the database, start over from it
+        stripe.entries.remove(userId);
+        stripe.markStale(userId);
+      }
+    }
+  }
+
+  public void invalidate(UUID userId) {
+    Stripe stripe = stripeFor(userId);
+    synchronized (stripe) {
+      stripe.entries.remove(userId);
+      stripe.markStale(userId);
+    }
+  }
+
+  int size() {
+    int size = 0;
+    for (Stripe stripe : stripes) {
+      synchronized (stripe) {
+        size += stripe.entries.size();
+      }
+    }
+    return size;
+  }
+
+  private Stripe stripeFor(UUID userId) {
+    int hash = userId.hashCode();
+    return stripes[(hash ^ (hash >>> 16)) & (stripes.length - 1)];
+  }
+
+  private static final class Stripe {
+    private final Map<UUID, Entry> entries;
+    /** Loads in flight, only ever as many as there are concurrent callers. */
+    private final Map<UUID, Load> loads = new HashMap<>();
+
+    Stripe(int capacity) {
+      this.entries =
+          new LinkedHashMap<UUID, Entry>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<UUID, Entry> eldest) {
+              return size() > capacity;
+            }
+          };
+    }
+
+    void markStale(UUID userId) {
+      Load load = loads.get(userId);
+      if (load != null) {
+        load.version++;
+      }
+    }
+  }
+
+  /** The loads of one user that are running; each stores its count only if the version held. */
+  private static final class Load {
+    private int loaders;
+    private long version;
+  }
+
+  private static final class Entry {
+    private long count;
+    private final long loadedAt;
+
+    Entry(long count, long loadedAt) {
+      this.count = count;
+      this.loadedAt = loadedAt;
+    }
+  }
+}
@@ -0,0 +1,103 @@
+package org.example.waspapi.service;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * Server-Sent Events connections of each user.
+ *
+ * <p>Emitters are asynchronous requests, so an idle connection holds no servlet thread; events are
+ * written by whichever thread publishes them and a single scheduled task sends keep-alive comments.
+ * Each user may keep a few connections (one per device); opening more closes the oldest.
+ */
+@Service
+public class UserStreamService {
+
+  private static final Logger logger = LoggerFactory.getLogger(UserStreamService.class);
+
+  private final Map<UUID, List<SseEmitter>> emitters = new ConcurrentHashMap<>();
+
+  @Value("${wasp.streams.timeout-ms:1800000}")
+  private long timeoutMs;
+
+  @Value("${wasp.streams.max-per-user:5}")
+  private int maxPerUser;
+
+  public SseEmitter connect(UUID userId) {
+    SseEmitter emitter = new SseEmitter(timeoutMs);
+    List<SseEmitter> userEmitters =
+        emitters.compute(
+            userId,
+            (id, current) -> {
+              List<SseEmitter> list = current != null ? current : new CopyOnWriteArrayList<>();
+              list.add(emitter);
+              return list;
+            });
+    while (userEmitters.size() > maxPerUser) {
+      SseEmitter oldest = userEmitters.remove(0);
+      oldest.complete();
+    }
+
+    emitter.onCompletion(() -> remove(userId, emitter));
+    emitter.onTimeout(() -> remove(userId, emitter));
+    emitter.onError(e -> remove(userId, emitter));
+    logger.debug("User {} opened an event stream ({} open)", userId, userEmitters.size());
+    return emitter;
+  }
+
+  public boolean isConnected(UUID userId) {
+    List<SseEmitter> userEmitters = emitters.get(userId);
+    return userEmitters != null && !userEmitters.isEmpty();
+  }
+
+  /** Sends an event to every open connection of the user; a no-op when the user has none. */
+  public void send(UUID userId, String eventName, Object data) {
+    List<SseEmitter> userEmitters = emitters.get(userId);
+    if (userEmitters == null) {
+      return;
+    }
+    for (SseEmitter emitter : userEmitters) {
+      try {
+        emitter.send(SseEmitter.event().name(eventName).data(data));
+      } catch (IOException | IllegalStateException e) {
+        logger.debug("Dropping event stream of user {}: {}", userId, e.getMessage());
+        remove(userId, emitter);
+        emitter.completeWithError(e);
+      }
+    }
+  }
+
+  @Scheduled(fixedDelayString = "${wasp.streams.keep-alive-ms:25000}")
+  public void sendKeepAlive() {
+    emitters.forEach(
+        (userId, userEmitters) -> {
+          for (SseEmitter emitter : userEmitters) {
+            try {
+              emitter.send(SseEmitter.event().comment("keep-alive"));
+            } catch (IOException | IllegalStateException e) {
+              remove(userId, emitter);
+              emitter.completeWithError(e);
+            }
+          }
+        });
+  }
+
+  private void remove(UUID userId, SseEmitter emitter) {
+    emitters.computeIfPresent(
+        userId,
+        (id, userEmitters) -> {
+          userEmitters.remove(emitter);
+          return userEmitters.isEmpty() ? null : userEmitters;
+        });
+  }
+}
@@ -0,0 +1,237 @@
+package org.example.waspapi.service;
+
+import java.nio.ByteBuffer;
+import java.time.DayOfWeek;
+import java.time.LocalTime;
+import java.util.Arrays;
+
+/**
+ * A week of 15-minute slots, Monday 00:00 to Sunday 24:00, held as 672 bits in 11 longs. Slot
+ * {@code i} is bit {@code i % 64} of word {@code i / 64}; the last word uses its low 32 bits only.
+ *
+ * <p>Combining bitmaps works a word at a time: intersecting the availability of a whole table of
+ * players, or finding the starts from which a session of several slots fits, costs a few dozen long
+ * operations however the slots are spread.
+ */
+public final class WeeklyAvailability {
+
+  public static final int SLOT_MINUTES = 15;
+  public static final int SLOTS_PER_DAY = 24 * 60 / SLOT_MINUTES;
+  public static final int SLOTS = 7 * SLOTS_PER_DAY;
+
+  private static final int WORDS = (SLOTS + 63) / 64;
+  private static final long LAST_WORD_MASK = -1L >>> (WORDS * 64 - SLOTS);
+
+  private final long[] words;
+
+  private WeeklyAvailability(long[] words) {
+    this.words = words;
+  }
+
+  public static WeeklyAvailability empty() {
+    return new WeeklyAvailability(new long[WORDS]);
+  }
+
+  public static WeeklyAvailability full() {
+    long[] words = new long[WORDS];
+    Arrays.fill(words, -1L);
+    words[WORDS - 1] = LAST_WORD_MASK;
+    return new WeeklyAvailability(words);
+  }
+
+  /** Reads the form written by {@link #toBytes()}; null or malformed input gives an empty week. */
+  public static WeeklyAvailability fromBytes(byte[] bytes) {
+    WeeklyAvailability availability = empty();
+    if (bytes == null || bytes.length != WORDS * Long.BYTES) {
+      return availability;
+    }
+    ByteBuffer buffer = ByteBuffer.wrap(bytes);
+    for (int i = 0; i < WORDS; i++) {
+      availability.words[i] = buffer.getLong();
+    }
+    availability.words[WORDS - 1] &= LAST_WORD_MASK;
+    return availability;
+  }
+
+  public byte[] toBytes() {
+    ByteBuffer buffer = ByteBuffer.allocate(WORDS * Long.BYTES);
+    for (long word : words) {
+      buffer.putLong(word);
+    }
+    return buffer.array();
+  }
+
+  public static int slotOf(DayOfWeek day, LocalTime time) {
+    return (day.getValue() - 1) * SLOTS_PER_DAY
+        + (time.getHour() * 60 + time.getMinute()) / SLOT_MINUTES;
+  }
+
+  public boolean get(int slot) {
+    return (words[slot >>> 6] & (1L << slot)) != 0;
+  }
+
+  /**
+   * Sets the slots from {@code from} (inclusive) to {@code to} (exclusive), clipped to the week.
+   */
+  public void set(int from, int to) {
+    for (int slot = Math.max(from, 0); slot < Math.min(to, SLOTS); slot++) {
+      words[slot >>> 6] |= 1L << slot;
+    }
+  }
+
+  public boolean isEmpty() {
+    for (long word : words) {
+      if (word != 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  public int cardinality() {
+    int count = 0;
+    for (long word : words) {
+      count += Long.bitCount(word);
+    }
+    return count;
+  }
+
+  public WeeklyAvailability and(WeeklyAvailability other) {
+    long[] result = new long[WORDS];
+    for (int i = 0; i < WORDS; i++) {
+      result[i] = words[i] & other.words[i];
+    }
+    return new WeeklyAvailability(result);
+  }
+
+  public WeeklyAvailability or(WeeklyAvailability other) {
+    long[] result = new long[WORDS];
+    for (int i = 0; i < WORDS; i++) {
+      result[i] = words[i] | other.words[i];
+    }
+    return new WeeklyAvailability(result);
+  }
+
+  public WeeklyAvailability andNot(WeeklyAvailability other) {
+    long[] result = new long[WORDS];
+    for (int i = 0; i < WORDS; i++) {
+      result[i] = words[i] & ~other.words[i];
+    }
+    return new WeeklyAvailability(result);
+  }
+
+  /**
+   * The bitmap with slot {@code i} taken from slot {@code i + n}; the last {@code n} are cleared.
+   */
+  public WeeklyAvailability shiftDown(int n) {
+    long[] result = new long[WORDS];
+    int wordShift = n >>> 6;
+    int bitShift = n & 63;
+    for (int i = 0; i + wordShift < WORDS; i++) {
+      long low = words[i + wordShift] >>> bitShift;
+      long high =
+          bitShift == 0 || i + wordShift + 1 >= WORDS
+              ? 0
+              : words[i + wordShift + 1] << (64 - bitShift);
+      result[i] = low | high;
+    }
+    return new WeeklyAvailability(result);
+  }
+
+  /** Starts from which all of the next {@code length} slots are set. */
+  public WeeklyAvailability allOf(int length) {
+    WeeklyAvailability result = this;
+    // Doubling: after each step a bit stands for a run of twice the length
+    int covered = 1;
+    while (covered * 2 <= length) {
+      result = result.and(result.shiftDown(covered));
+      covered *= 2;
+    }
+    if (covered < length) {
+      result = result.and(result.shiftDown(length - covered));
+    }
+    return result;
+  }
+
+  /** Starts from which any of the next {@code length} slots is set. */
+  public WeeklyAvailability anyOf(int length) {
+    WeeklyAvailability result = this;
+    int covered = 1;
+    while (covered * 2 <= length) {
+      result = result.or(result.shiftDown(covered));
+      covered *= 2;
+    }
+    if (covered < length) {
+      result = result.or(result.shiftDown(length - covered));
+    }
+    return result;
+  }
+
+  /** Index of the first set slot at or after {@code from}, or -1. */
+  public int nextSetSlot(int from) {
+    if (from >= SLOTS) {
+      return -1;
+    }
+    int i = from >>> 6;
+    long word = words[i] & (-1L << from);
+    while (true) {
+      if (word != 0) {
+        return i * 64 + Long.numberOfTrailingZeros(word);
+      }
+      if (++i == WORDS) {
+        return -1;
+      }
+      word = words[i];
+    }
+  }
+
+  /**
+   * Per-slot counts of how many bitmaps are set, summed a word at a time into bit-sliced binary
+   * counters: plane {@code k} holds bit {@code k} of every slot's count.
+   */
+  public static final class Counter {
+
+    private long[][] planes = new long[0][];
+
+    public void add(WeeklyAvailability availability) {
+      long[] carry = availability.words.clone();
+      for (int k = 0; ; k++) {
+        if (k == planes.length) {
+          planes = Arrays.copyOf(planes, k + 1);
+          planes[k] = carry;
+          return;
+        }
+        boolean more = false;
+        for (int i = 0; i < WORDS; i++) {
+          long sum = planes[k][i] ^ carry[i];
+          carry[i] &= planes[k][i];
+          planes[k][i] = sum;
+          more |= carry[i] != 0;
+        }
+        if (!more) {
+          return;
+        }
+      }
+    }
+
+    public int count(int slot) {
+      int count = 0;
+      for (int k = 0; k < planes.length; k++) {
+        if ((planes[k][slot >>> 6] & (1L << slot)) != 0) {
+          count |= 1 << k;
+        }
+      }
+      return count;
+    }
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    return o instanceof WeeklyAvailability && Arrays.equals(words, ((WeeklyAvailability) o).words);
+  }
+
+  @Override
+  public int hashCode() {
+    return Arrays.hashCode(words);
+  }
+}
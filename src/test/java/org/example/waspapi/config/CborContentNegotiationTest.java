@@ -0,0 +1,116 @@
+package org.example.waspapi.config;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.UUID;
+import org.example.waspapi.controller.MessageController;
+import org.example.waspapi.controller.ThemeController;
+import org.example.waspapi.model.Message;
+import org.example.waspapi.model.Theme;
+import org.example.waspapi.model.User;
+import org.example.waspapi.repository.ThemeRepository;
+import org.example.waspapi.service.MessageService;
+import org.example.waspapi.service.RateLimiterService;
+import org.example.waspapi.service.SubscriptionService;
+import org.example.waspapi.service.SupabaseStorageService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+/**
+ * Negotiates through the converters the application actually registers, so a converter Boot adds on
+ * its own shows up here.
+ */
+@WebMvcTest(
+    controllers = {MessageController.class, ThemeController.class},
+    properties = "wasp.rate-limit.enabled=false")
+@AutoConfigureMockMvc(addFilters = false)
+@Import(RateLimitProperties.class)
+class CborContentNegotiationTest {
+
+  @Autowired private MockMvc mockMvc;
+
+  @MockBean private MessageService messageService;
+  @MockBean private SubscriptionService subscriptionService;
+  @MockBean private ThemeRepository themeRepository;
+  @MockBean private SupabaseStorageService storageService;
+  @MockBean private RateLimiterService rateLimiterService;
+
+  private final UUID userId = UUID.randomUUID();
+  private final UUID gameId = UUID.randomUUID();
+
+  @BeforeEach
+  void setUp() {
+    Jwt jwt = Jwt.withTokenValue("token").header("alg", "none").subject(userId.toString()).build();
+    SecurityContextHolder.getContext().setAuthentication(new JwtAuthenticationToken(jwt));
+  }
+
+  @AfterEach
+  void tearDown() {
+    SecurityContextHolder.clearContext();
+  }
+
+  @Test
+  void chatEndpoint_writesCborWithBinaryUuids() throws Exception {
+    Message message = new Message(null, new User(userId, "me@email.com", "Me"), "hi");
+    UUID messageId = UUID.randomUUID();
+    message.setId(messageId);
+    message.setCreatedAt(Instant.now());
+    when(subscriptionService.isSubscribed(userId, gameId)).thenReturn(true);
+    when(messageService.getByGameId(eq(gameId), any(Pageable.class)))
+        .thenReturn(new PageImpl<>(Collections.singletonList(message)));
+
+    MvcResult result =
+        mockMvc
+            .perform(get("/games/{gameId}/messages", gameId).accept(MediaType.APPLICATION_CBOR))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+            .andReturn();
+
+    JsonNode page =
+        new ObjectMapper(new CBORFactory()).readTree(result.getResponse().getContentAsByteArray());
+    JsonNode id = page.get("content").get(0).get("id");
+    assertTrue(id.isBinary());
+    assertEquals(16, id.binaryValue().length);
+  }
+
+  @Test
+  void otherEndpoint_isNotWrittenAsCbor() throws Exception {
+    Theme theme = new Theme();
+    theme.setId(UUID.randomUUID());
+    theme.setName("Fantasy");
+    when(themeRepository.findAll()).thenReturn(Collections.singletonList(theme));
+
+    mockMvc
+        .perform(get("/themes").accept(MediaType.APPLICATION_CBOR))
+        .andExpect(status().isNotAcceptable());
+    mockMvc
+        .perform(get("/themes").accept(MediaType.APPLICATION_CBOR, MediaType.APPLICATION_JSON))
+        .andExpect(status().isOk())
+        .andExpect(content().contentType(MediaType.APPLICATION_JSON));
+  }
+}
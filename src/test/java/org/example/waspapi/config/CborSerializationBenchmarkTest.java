@@ -0,0 +1,96 @@
+package org.example.waspapi.config;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ser.std.ToStringSerializer;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import java.util.Collection;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+/**
+ * CPU time to encode a page of chat messages or notifications as JSON, as CBOR with text UUIDs and
+ * as CBOR with binary UUIDs. Excluded from the default test run; run it with {@code mvn test
+ * -Pbenchmark}.
+ */
+@Tag("benchmark")
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CborSerializationBenchmarkTest {
+
+  @Param({"messages", "notifications"})
+  public String payload;
+
+  private Object page;
+  private ObjectMapper jsonMapper;
+  private ObjectMapper cborTextUuidMapper;
+  private ObjectMapper cborMapper;
+
+  @Setup
+  public void setUp() {
+    page =
+        "messages".equals(payload)
+            ? CompactCborHttpMessageConverterTest.messagePage()
+            : CompactCborHttpMessageConverterTest.notificationPage();
+    jsonMapper = Jackson2ObjectMapperBuilder.json().build();
+    cborTextUuidMapper =
+        Jackson2ObjectMapperBuilder.json()
+            .factory(new CBORFactory())
+            .serializerByType(UUID.class, ToStringSerializer.instance)
+            .build();
+    cborMapper = Jackson2ObjectMapperBuilder.json().factory(new CBORFactory()).build();
+  }
+
+  @Benchmark
+  public byte[] json() throws JsonProcessingException {
+    return jsonMapper.writeValueAsBytes(page);
+  }
+
+  @Benchmark
+  public byte[] cborTextUuids() throws JsonProcessingException {
+    return cborTextUuidMapper.writeValueAsBytes(page);
+  }
+
+  @Benchmark
+  public byte[] cbor() throws JsonProcessingException {
+    return cborMapper.writeValueAsBytes(page);
+  }
+
+  @Test
+  void run() throws RunnerException {
+    Options options =
+        new OptionsBuilder()
+            .include(CborSerializationBenchmarkTest.class.getName() + "\\.")
+            .shouldFailOnError(true)
+            .build();
+
+    // JMH prints the summary table; each encoding runs for both payloads
+    Collection<RunResult> results = new Runner(options).run();
+    assertEquals(6, results.size());
+  }
+}
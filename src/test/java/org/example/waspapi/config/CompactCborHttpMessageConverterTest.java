@@ -0,0 +1,145 @@
+package org.example.waspapi.config;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ser.std.ToStringSerializer;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import java.lang.reflect.Type;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import org.example.waspapi.dto.responses.game.GetGameResponse;
+import org.example.waspapi.dto.responses.message.GetMessageResponse;
+import org.example.waspapi.dto.responses.notification.GetNotificationResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+class CompactCborHttpMessageConverterTest {
+
+  private static final int PAGE_SIZE = 50;
+
+  private ObjectMapper jsonMapper;
+  private ObjectMapper cborMapper;
+  private ObjectMapper cborTextUuidMapper;
+
+  @BeforeEach
+  void setUp() {
+    jsonMapper = Jackson2ObjectMapperBuilder.json().build();
+    cborMapper = Jackson2ObjectMapperBuilder.json().factory(new CBORFactory()).build();
+    cborTextUuidMapper =
+        Jackson2ObjectMapperBuilder.json()
+            .factory(new CBORFactory())
+            .serializerByType(UUID.class, ToStringSerializer.instance)
+            .build();
+  }
+
+  // --- content negotiation tests ---
+
+  @Test
+  void canWrite_compactTypesAndTheirPages() {
+    CompactCborHttpMessageConverter converter = new CompactCborHttpMessageConverter(cborMapper);
+
+    Type messagePage = new TypeReference<Page<GetMessageResponse>>() {}.getType();
+    Type notificationList = new TypeReference<List<GetNotificationResponse>>() {}.getType();
+
+    assertTrue(converter.canWrite(messagePage, Page.class, MediaType.APPLICATION_CBOR));
+    assertTrue(converter.canWrite(notificationList, List.class, MediaType.APPLICATION_CBOR));
+    assertTrue(
+        converter.canWrite(
+            GetMessageResponse.class, GetMessageResponse.class, MediaType.APPLICATION_CBOR));
+  }
+
+  @Test
+  void canWrite_otherTypes_returnsFalse() {
+    CompactCborHttpMessageConverter converter = new CompactCborHttpMessageConverter(cborMapper);
+
+    Type gamePage = new TypeReference<Page<GetGameResponse>>() {}.getType();
+
+    assertFalse(converter.canWrite(gamePage, Page.class, MediaType.APPLICATION_CBOR));
+    assertFalse(converter.canWrite(GetGameResponse.class, MediaType.APPLICATION_CBOR));
+    assertFalse(
+        converter.canWrite(
+            GetMessageResponse.class, GetMessageResponse.class, MediaType.APPLICATION_JSON));
+  }
+
+  @Test
+  void cbor_roundTripsMessages() throws Exception {
+    List<GetMessageResponse> messages = messagePage();
+
+    byte[] encoded = cborMapper.writeValueAsBytes(messages);
+    List<GetMessageResponse> decoded =
+        cborMapper.readValue(encoded, new TypeReference<List<GetMessageResponse>>() {});
+
+    assertEquals(messages.size(), decoded.size());
+    assertEquals(messages.get(0).getId(), decoded.get(0).getId());
+    assertEquals(messages.get(0).getCreatedAt(), decoded.get(0).getCreatedAt());
+  }
+
+  // --- encoded size against JSON ---
+
+  @Test
+  void messagePage_cborIsSmallerThanJson() throws Exception {
+    List<GetMessageResponse> messages = messagePage();
+
+    int jsonBytes = jsonMapper.writeValueAsBytes(messages).length;
+    int cborTextUuidBytes = cborTextUuidMapper.writeValueAsBytes(messages).length;
+    int cborBytes = cborMapper.writeValueAsBytes(messages).length;
+
+    assertTrue(cborTextUuidBytes < jsonBytes);
+    assertTrue(cborBytes < cborTextUuidBytes);
+  }
+
+  @Test
+  void notificationPage_cborIsSmallerThanJson() throws Exception {
+    List<GetNotificationResponse> notifications = notificationPage();
+
+    int jsonBytes = jsonMapper.writeValueAsBytes(notifications).length;
+    int cborTextUuidBytes = cborTextUuidMapper.writeValueAsBytes(notifications).length;
+    int cborBytes = cborMapper.writeValueAsBytes(notifications).length;
+
+    assertTrue(cborTextUuidBytes < jsonBytes);
+    // Notifications are mostly UUIDs, so binary UUIDs should save at least a third.
+    assertTrue(cborBytes * 3 < jsonBytes * 2);
+  }
+
+  static List<GetMessageResponse> messagePage() {
+    List<GetMessageResponse> messages = new ArrayList<>();
+    Instant now = Instant.now();
+    for (int i = 0; i < PAGE_SIZE; i++) {
+      messages.add(
+          new GetMessageResponse(
+              UUID.randomUUID(),
+              "Roll for initiative, message " + i,
+              null,
+              now.minusSeconds(i * 30L),
+              UUID.randomUUID(),
+              "Player" + (i % 5),
+              null));
+    }
+    return messages;
+  }
+
+  static List<GetNotificationResponse> notificationPage() {
+    List<GetNotificationResponse> notifications = new ArrayList<>();
+    Instant now = Instant.now();
+    for (int i = 0; i < PAGE_SIZE; i++) {
+      notifications.add(
+          new GetNotificationResponse(
+              UUID.randomUUID(),
+              "UNREAD_MESSAGES",
+              UUID.randomUUID(),
+              false,
+              now.minusSeconds(i * 60L),
+              1,
+              null,
+              now.minusSeconds(i * 60L)));
+    }
+    return notifications;
+  }
+}
@@ -0,0 +1,15 @@
+package org.example.waspapi.config;
+
+import java.sql.Types;
+import org.hibernate.dialect.H2Dialect;
+
+/**
+ * H2 dialect for JPA slice tests on entities with {@code UUID} keys. The stock dialect stores them
+ * in fixed-length {@code binary(255)} columns, which H2 pads, so lookups by id never match.
+ */
+public class H2UuidDialect extends H2Dialect {
+
+  public H2UuidDialect() {
+    registerColumnType(Types.BINARY, "varbinary($l)");
+  }
+}
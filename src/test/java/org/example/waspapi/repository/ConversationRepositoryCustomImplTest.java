@@ -0,0 +1,204 @@
+package org.example.waspapi.repository;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import org.example.waspapi.model.UserPair;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+
+class ConversationRepositoryCustomImplTest {
+
+  private SingleConnectionDataSource dataSource;
+  private JdbcTemplate jdbc;
+  private ConversationRepositoryCustomImpl repository;
+
+  @BeforeEach
+  void setUp() {
+    dataSource =
+        new SingleConnectionDataSource(
+            "jdbc:h2:mem:conversations;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE", "sa", "", true);
+    jdbc = new JdbcTemplate(dataSource);
+    jdbc.execute("CREATE TABLE users (user_id uuid PRIMARY KEY, nickname varchar(255))");
+    jdbc.execute(
+        "CREATE TABLE private_messages (private_message_id uuid PRIMARY KEY,"
+            + " sender_id uuid NOT NULL REFERENCES users (user_id),"
+            + " receiver_id uuid NOT NULL REFERENCES users (user_id), user_low_id uuid,"
+            + " user_high_id uuid, content varchar(2000), created_at timestamp NOT NULL)");
+    jdbc.execute(
+        "CREATE TABLE conversations (user_low_id uuid NOT NULL REFERENCES users (user_id),"
+            + " user_high_id uuid NOT NULL REFERENCES users (user_id),"
+            + " last_message_id uuid NOT NULL, last_message_at timestamp NOT NULL,"
+            + " last_message_preview varchar(200), last_sender_id uuid NOT NULL,"
+            + " message_count bigint NOT NULL, unread_low integer NOT NULL,"
+            + " unread_high integer NOT NULL, PRIMARY KEY (user_low_id, user_high_id))");
+    repository = new ConversationRepositoryCustomImpl(new NamedParameterJdbcTemplate(jdbc));
+  }
+
+  @AfterEach
+  void tearDown() {
+    jdbc.execute("DROP ALL OBJECTS");
+    dataSource.destroy();
+  }
+
+  @Test
+  void upsertLastMessage_insertsOnceAndKeepsNewestLastMessage() {
+    UserPair pair = pair();
+    Instant now = Instant.now().truncatedTo(ChronoUnit.MILLIS);
+    UUID first = UUID.randomUUID();
+    UUID second = UUID.randomUUID();
+    UUID late = UUID.randomUUID();
+
+    repository.upsertLastMessage(
+        pair.getLow(), pair.getHigh(), first, now, "first", pair.getLow(), 0, 1);
+    repository.upsertLastMessage(
+        pair.getLow(), pair.getHigh(), second, now.plusSeconds(1), "second", pair.getHigh(), 1, 0);
+    // Committed after the second message but stamped before it
+    repository.upsertLastMessage(
+        pair.getLow(), pair.getHigh(), late, now.plusMillis(500), "late", pair.getLow(), 0, 1);
+
+    assertEquals(1, count("SELECT count(*) FROM conversations"));
+    Map<String, Object> row = conversation(pair);
+    assertEquals(second, row.get("last_message_id"));
+    assertEquals("second", row.get("last_message_preview"));
+    assertEquals(pair.getHigh(), row.get("last_sender_id"));
+    assertEquals(Timestamp.from(now.plusSeconds(1)), row.get("last_message_at"));
+    assertEquals(3L, ((Number) row.get("message_count")).longValue());
+  }
+
+  @Test
+  void unreadCounters_countPerParticipantAndResetOnlyForTheReader() {
+    UserPair pair = pair();
+    Instant now = Instant.now();
+    for (int i = 0; i < 3; i++) {
+      repository.upsertLastMessage(
+          pair.getLow(),
+          pair.getHigh(),
+          UUID.randomUUID(),
+          now.plusSeconds(i),
+          "to high",
+          pair.getLow(),
+          0,
+          1);
+    }
+    repository.upsertLastMessage(
+        pair.getLow(),
+        pair.getHigh(),
+        UUID.randomUUID(),
+        now.plusSeconds(3),
+        "to low",
+        pair.getHigh(),
+        1,
+        0);
+
+    assertEquals(1, unread(pair, "unread_low"));
+    assertEquals(3, unread(pair, "unread_high"));
+
+    assertEquals(1, repository.resetUnread(pair.getLow(), pair.getHigh(), pair.getHigh()));
+
+    assertEquals(1, unread(pair, "unread_low"));
+    assertEquals(0, unread(pair, "unread_high"));
+    assertEquals(0, repository.resetUnread(pair.getLow(), UUID.randomUUID(), pair.getLow()));
+  }
+
+  @Test
+  void backfillFromPrivateMessages_createsMissingConversationsFromLatestMessage() {
+    UserPair legacy = pair();
+    UserPair existing = pair();
+    Instant now = Instant.now().truncatedTo(ChronoUnit.MILLIS);
+    insertMessage(legacy, legacy.getLow(), "old", now);
+    UUID latest = insertMessage(legacy, legacy.getHigh(), "newest", now.plusSeconds(1));
+    insertMessage(existing, existing.getLow(), "hello", now);
+    repository.upsertLastMessage(
+        existing.getLow(),
+        existing.getHigh(),
+        UUID.randomUUID(),
+        now,
+        "hello",
+        existing.getLow(),
+        0,
+        1);
+
+    assertEquals(1, repository.backfillFromPrivateMessages());
+    assertEquals(0, repository.backfillFromPrivateMessages());
+
+    Map<String, Object> row = conversation(legacy);
+    assertEquals(latest, row.get("last_message_id"));
+    assertEquals("newest", row.get("last_message_preview"));
+    assertEquals(legacy.getHigh(), row.get("last_sender_id"));
+    assertEquals(2L, ((Number) row.get("message_count")).longValue());
+    assertEquals(0, unread(legacy, "unread_low"));
+    assertEquals(1, unread(existing, "unread_high"));
+  }
+
+  @Test
+  void backfillFromPrivateMessages_recountsPairsWithAMessageSentBeforeIt() {
+    UserPair pair = pair();
+    Instant now = Instant.now().truncatedTo(ChronoUnit.MILLIS);
+    insertMessage(pair, pair.getLow(), "old", now);
+    insertMessage(pair, pair.getHigh(), "older reply", now.plusSeconds(1));
+    // Sent after deployment, before the backfill got to run
+    UUID sent = insertMessage(pair, pair.getLow(), "new", now.plusSeconds(2));
+    repository.upsertLastMessage(
+        pair.getLow(), pair.getHigh(), sent, now.plusSeconds(2), "new", pair.getLow(), 0, 1);
+
+    assertEquals(1, repository.backfillFromPrivateMessages());
+    assertEquals(0, repository.backfillFromPrivateMessages());
+
+    Map<String, Object> row = conversation(pair);
+    assertEquals(sent, row.get("last_message_id"));
+    assertEquals(3L, ((Number) row.get("message_count")).longValue());
+    assertEquals(1, unread(pair, "unread_high"));
+  }
+
+  private UserPair pair() {
+    List<UUID> users = new ArrayList<>();
+    for (int i = 0; i < 2; i++) {
+      UUID id = UUID.randomUUID();
+      jdbc.update("INSERT INTO users (user_id, nickname) VALUES (?, ?)", id, "user" + i);
+      users.add(id);
+    }
+    return UserPair.of(users.get(0), users.get(1));
+  }
+
+  private UUID insertMessage(UserPair pair, UUID sender, String content, Instant createdAt) {
+    UUID id = UUID.randomUUID();
+    UUID receiver = sender.equals(pair.getLow()) ? pair.getHigh() : pair.getLow();
+    jdbc.update(
+        "INSERT INTO private_messages (private_message_id, sender_id, receiver_id, user_low_id,"
+            + " user_high_id, content, created_at) VALUES (?, ?, ?, ?, ?, ?, ?)",
+        id,
+        sender,
+        receiver,
+        pair.getLow(),
+        pair.getHigh(),
+        content,
+        Timestamp.from(createdAt));
+    return id;
+  }
+
+  private Map<String, Object> conversation(UserPair pair) {
+    return jdbc.queryForMap(
+        "SELECT * FROM conversations WHERE user_low_id = ? AND user_high_id = ?",
+        pair.getLow(),
+        pair.getHigh());
+  }
+
+  private int unread(UserPair pair, String column) {
+    return ((Number) conversation(pair).get(column)).intValue();
+  }
+
+  private int count(String sql) {
+    return jdbc.queryForObject(sql, Integer.class);
+  }
+}
@@ -0,0 +1,133 @@
+package org.example.waspapi.repository;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import org.example.waspapi.model.UserPair;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+
+class FriendRequestRepositoryCustomImplTest {
+
+  private SingleConnectionDataSource dataSource;
+  private JdbcTemplate jdbc;
+  private FriendRequestRepositoryCustomImpl repository;
+  private Instant now;
+
+  @BeforeEach
+  void setUp() {
+    dataSource =
+        new SingleConnectionDataSource(
+            "jdbc:h2:mem:friend_requests;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE", "sa", "", true);
+    jdbc = new JdbcTemplate(dataSource);
+    jdbc.execute("CREATE TABLE users (user_id uuid PRIMARY KEY, nickname varchar(255))");
+    jdbc.execute(
+        "CREATE TABLE friend_requests (friend_request_id uuid PRIMARY KEY,"
+            + " sender_id uuid NOT NULL REFERENCES users (user_id),"
+            + " receiver_id uuid NOT NULL REFERENCES users (user_id), user_low_id uuid,"
+            + " user_high_id uuid, status varchar(255) NOT NULL, created_at timestamp NOT NULL,"
+            + " CONSTRAINT friend_requests_user_pair_key UNIQUE (user_low_id, user_high_id))");
+    repository = new FriendRequestRepositoryCustomImpl(new NamedParameterJdbcTemplate(jdbc));
+    now = Instant.now();
+  }
+
+  @AfterEach
+  void tearDown() {
+    jdbc.execute("DROP ALL OBJECTS");
+    dataSource.destroy();
+  }
+
+  @Test
+  void backfillCanonicalPairs_keepsAcceptedRequestOfPairWithBothDirections() {
+    UUID a = createUser();
+    UUID b = createUser();
+    insertLegacy(a, b, "PENDING", now.minusSeconds(60));
+    UUID accepted = insertLegacy(b, a, "ACCEPTED", now);
+
+    assertEquals(1, repository.backfillCanonicalPairs());
+
+    assertEquals(Collections.singletonList(accepted), requestsOf(UserPair.of(a, b)));
+    assertEquals(1, countRequests());
+  }
+
+  @Test
+  void backfillCanonicalPairs_keepsOldestRequestWhenNoneIsAccepted() {
+    UUID a = createUser();
+    UUID b = createUser();
+    UUID oldest = insertLegacy(a, b, "PENDING", now.minusSeconds(60));
+    insertLegacy(b, a, "PENDING", now);
+    insertLegacy(a, b, "PENDING", now.plusSeconds(60));
+
+    assertEquals(1, repository.backfillCanonicalPairs());
+
+    assertEquals(Collections.singletonList(oldest), requestsOf(UserPair.of(a, b)));
+    assertEquals(1, countRequests());
+  }
+
+  @Test
+  void backfillCanonicalPairs_mergesLegacyRequestIntoBackfilledOneAndLeavesOtherPairs() {
+    UUID a = createUser();
+    UUID b = createUser();
+    UUID c = createUser();
+    UserPair ab = UserPair.of(a, b);
+    UUID current = UUID.randomUUID();
+    jdbc.update(
+        "INSERT INTO friend_requests VALUES (?, ?, ?, ?, ?, 'ACCEPTED', ?)",
+        current,
+        a,
+        b,
+        ab.getLow(),
+        ab.getHigh(),
+        Timestamp.from(now));
+    insertLegacy(b, a, "PENDING", now.minusSeconds(60));
+    UUID single = insertLegacy(a, c, "PENDING", now);
+
+    assertEquals(1, repository.backfillCanonicalPairs());
+    assertEquals(0, repository.backfillCanonicalPairs());
+
+    assertEquals(Collections.singletonList(current), requestsOf(ab));
+    assertEquals(Collections.singletonList(single), requestsOf(UserPair.of(a, c)));
+    assertEquals(2, countRequests());
+  }
+
+  private UUID createUser() {
+    UUID id = UUID.randomUUID();
+    jdbc.update("INSERT INTO users (user_id, nickname) VALUES (?, ?)", id, "user");
+    return id;
+  }
+
+  private UUID insertLegacy(UUID sender, UUID receiver, String status, Instant createdAt) {
+    UUID id = UUID.randomUUID();
+    jdbc.update(
+        "INSERT INTO friend_requests (friend_request_id, sender_id, receiver_id, status,"
+            + " created_at) VALUES (?, ?, ?, ?, ?)",
+        id,
+        sender,
+        receiver,
+        status,
+        Timestamp.from(createdAt));
+    return id;
+  }
+
+  /** Requests filed under the pair's canonical columns, as the friendship queries look them up. */
+  private List<UUID> requestsOf(UserPair pair) {
+    return jdbc.queryForList(
+        "SELECT friend_request_id FROM friend_requests"
+            + " WHERE user_low_id = ? AND user_high_id = ?",
+        UUID.class,
+        pair.getLow(),
+        pair.getHigh());
+  }
+
+  private int countRequests() {
+    return jdbc.queryForObject("SELECT COUNT(*) FROM friend_requests", Integer.class);
+  }
+}
@@ -0,0 +1,172 @@
+package org.example.waspapi.repository;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import org.example.waspapi.model.Notification;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+
+class NotificationRepositoryCustomImplTest {
+
+  private SingleConnectionDataSource dataSource;
+  private JdbcTemplate jdbc;
+  private NotificationRepositoryCustomImpl repository;
+
+  @BeforeEach
+  void setUp() {
+    dataSource =
+        new SingleConnectionDataSource(
+            "jdbc:h2:mem:notifications;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE", "sa", "", true);
+    jdbc = new JdbcTemplate(dataSource);
+    jdbc.execute("CREATE TABLE users (user_id uuid PRIMARY KEY, nickname varchar(255))");
+    jdbc.execute(
+        "CREATE TABLE notifications (notification_id uuid PRIMARY KEY,"
+            + " user_id uuid NOT NULL REFERENCES users (user_id), type varchar(255) NOT NULL,"
+            + " reference_id uuid NOT NULL, is_read boolean NOT NULL, created_at timestamp NOT NULL,"
+            + " group_key uuid, aggregate_count integer, latest_actor_id uuid, updated_at timestamp)");
+    repository = new NotificationRepositoryCustomImpl(new NamedParameterJdbcTemplate(jdbc));
+  }
+
+  @AfterEach
+  void tearDown() {
+    jdbc.execute("DROP ALL OBJECTS");
+    dataSource.destroy();
+  }
+
+  @Test
+  void insertForUsers_skipsUnknownUsers() {
+    List<UUID> users = createUsers(3);
+    UUID unknown = UUID.randomUUID();
+    UUID reference = UUID.randomUUID();
+
+    Map<UUID, Notification> inserted =
+        repository.insertForUsers(
+            Arrays.asList(users.get(0), unknown, users.get(1), users.get(2)),
+            "SESSION_CREATED",
+            reference,
+            null,
+            null,
+            Instant.now());
+
+    assertEquals(users, new ArrayList<>(inserted.keySet()));
+    assertEquals(3, count("SELECT count(*) FROM notifications WHERE reference_id = ?", reference));
+  }
+
+  @Test
+  void aggregateOpen_foldsIntoOpenGroupsOnly() {
+    List<UUID> users = createUsers(2);
+    UUID game = UUID.randomUUID();
+    Instant now = Instant.now();
+    repository.insertForUsers(
+        users.subList(0, 1), "SESSION_CREATED", UUID.randomUUID(), game, null, now);
+
+    UUID latest = UUID.randomUUID();
+    Map<UUID, Notification> aggregated =
+        repository.aggregateOpen(
+            users, "SESSION_CREATED", game, latest, null, now.minus(1, ChronoUnit.HOURS), now);
+
+    assertEquals(1, aggregated.size());
+    assertEquals(2, aggregated.get(users.get(0)).getAggregateCount());
+    assertEquals(
+        1,
+        count(
+            "SELECT count(*) FROM notifications WHERE reference_id = ? AND aggregate_count = 2",
+            latest));
+  }
+
+  @Test
+  void aggregateOpen_leavesNotificationReadAfterTheSelect() {
+    List<UUID> users = createUsers(2);
+    UUID game = UUID.randomUUID();
+    Instant now = Instant.now();
+    repository.insertForUsers(users, "SESSION_CREATED", UUID.randomUUID(), game, null, now);
+    // The first user reads their notification between the select and the update
+    NotificationRepositoryCustomImpl racing =
+        new NotificationRepositoryCustomImpl(
+            new NamedParameterJdbcTemplate(jdbc) {
+              @Override
+              public void query(String sql, SqlParameterSource params, RowCallbackHandler rch) {
+                super.query(sql, params, rch);
+                jdbc.update(
+                    "UPDATE notifications SET is_read = true WHERE user_id = ?", users.get(0));
+              }
+            });
+
+    UUID latest = UUID.randomUUID();
+    Map<UUID, Notification> aggregated =
+        racing.aggregateOpen(
+            users, "SESSION_CREATED", game, latest, null, now.minus(1, ChronoUnit.HOURS), now);
+
+    assertEquals(Arrays.asList(users.get(1)), new ArrayList<>(aggregated.keySet()));
+    assertEquals(
+        0,
+        count(
+            "SELECT count(*) FROM notifications WHERE user_id = ? AND aggregate_count > 1",
+            users.get(0)));
+    assertEquals(1, count("SELECT count(*) FROM notifications WHERE reference_id = ?", latest));
+  }
+
+  @Test
+  void insertUnreadIfAbsent_insertsOncePerUnreadNotification() {
+    List<UUID> users = createUsers(2);
+    UUID game = UUID.randomUUID();
+    List<UUID> recipients = Arrays.asList(users.get(0), users.get(1), UUID.randomUUID());
+
+    assertEquals(
+        2,
+        repository.insertUnreadIfAbsent(recipients, "UNREAD_MESSAGES", game, Instant.now()).size());
+    assertTrue(
+        repository
+            .insertUnreadIfAbsent(recipients, "UNREAD_MESSAGES", game, Instant.now())
+            .isEmpty());
+
+    jdbc.update("UPDATE notifications SET is_read = true WHERE user_id = ?", users.get(0));
+    Map<UUID, Notification> again =
+        repository.insertUnreadIfAbsent(recipients, "UNREAD_MESSAGES", game, Instant.now());
+
+    assertEquals(Arrays.asList(users.get(0)), new ArrayList<>(again.keySet()));
+    assertEquals(3, count("SELECT count(*) FROM notifications WHERE reference_id = ?", game));
+  }
+
+  @Test
+  void insertForUsers_insertsOneRowPerRecipientInOneBatch() {
+    List<UUID> users = createUsers(25);
+    UUID reference = UUID.randomUUID();
+
+    Map<UUID, Notification> inserted =
+        repository.insertForUsers(users, "SESSION_CREATED", reference, null, null, Instant.now());
+
+    assertEquals(users, new ArrayList<>(inserted.keySet()));
+    assertEquals(25, count("SELECT count(*) FROM notifications WHERE reference_id = ?", reference));
+  }
+
+  private List<UUID> createUsers(int count) {
+    List<UUID> users = new ArrayList<>(count);
+    List<Object[]> rows = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      UUID user = UUID.randomUUID();
+      users.add(user);
+      rows.add(new Object[] {user, "user" + i});
+    }
+    jdbc.batchUpdate("INSERT INTO users (user_id, nickname) VALUES (?, ?)", rows);
+    return users;
+  }
+
+  private int count(String sql, Object... args) {
+    Integer count = jdbc.queryForObject(sql, Integer.class, args);
+    return count == null ? 0 : count;
+  }
+}
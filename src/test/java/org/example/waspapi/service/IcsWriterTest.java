@@ -0,0 +1,63 @@
+package org.example.waspapi.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+
+class IcsWriterTest {
+
+  private static final UUID SESSION = UUID.fromString("00000000-0000-0000-0000-000000000001");
+
+  @Test
+  void event_writesUtcTimesAndEscapedText() throws IOException {
+    String ics =
+        write(
+            "Night, part 1; the \\end\\", "Tavern\nRoom 2", Instant.parse("2026-03-07T19:30:00Z"));
+
+    assertTrue(ics.startsWith("BEGIN:VCALENDAR\r\nVERSION:2.0\r\n"));
+    assertTrue(ics.contains("UID:00000000-0000-0000-0000-000000000001@wasp\r\n"));
+    assertTrue(ics.contains("DTSTART:20260307T193000Z\r\n"));
+    assertTrue(ics.contains("DTEND:20260307T223000Z\r\n"));
+    assertTrue(ics.contains("SUMMARY:Night\\, part 1\\; the \\\\end\\\\\r\n"));
+    assertTrue(ics.contains("LOCATION:Tavern\\nRoom 2\r\n"));
+    assertFalse(ics.contains("DESCRIPTION"));
+    assertTrue(ics.endsWith("END:VEVENT\r\nEND:VCALENDAR\r\n"));
+  }
+
+  @Test
+  void longLines_areFoldedAt75Octets() throws IOException {
+    StringBuilder summary = new StringBuilder();
+    for (int i = 0; i < 60; i++) {
+      summary.append("é");
+    }
+    String ics = write(summary.toString(), null, Instant.parse("2026-03-07T19:30:00Z"));
+
+    for (String line : ics.split("\r\n")) {
+      assertTrue(line.getBytes(StandardCharsets.UTF_8).length <= 75, line);
+    }
+    assertTrue(ics.contains("\r\n é"));
+    assertTrue(ics.replace("\r\n ", "").contains("SUMMARY:" + summary + "\r\n"));
+  }
+
+  private static String write(String summary, String location, Instant start) throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    IcsWriter writer = new IcsWriter(out);
+    writer.begin("Test");
+    writer.event(
+        SESSION.toString(),
+        Instant.parse("2026-03-01T00:00:00Z"),
+        start,
+        Duration.ofHours(3),
+        summary,
+        location,
+        null);
+    writer.end();
+    return new String(out.toByteArray(), StandardCharsets.UTF_8);
+  }
+}
@@ -0,0 +1,184 @@
+package org.example.waspapi.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+import java.util.UUID;
+import org.example.waspapi.model.Game;
+import org.example.waspapi.model.NotificationPreference;
+import org.example.waspapi.model.Subscription;
+import org.example.waspapi.model.User;
+import org.example.waspapi.repository.GameRepository;
+import org.example.waspapi.repository.NotificationPreferenceRepository;
+import org.example.waspapi.repository.SubscriptionRepository;
+import org.example.waspapi.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Runs digest counting and delivery against the JPA repositories on H2, outside a test transaction
+ * so that concurrent transactions see each other's commits.
+ */
+@DataJpaTest(
+    showSql = false,
+    properties = "spring.jpa.database-platform=org.example.waspapi.config.H2UuidDialect")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class NotificationPreferenceServiceTest {
+
+  private static final String TYPE = "SESSION_CREATED";
+
+  @Autowired private NotificationPreferenceRepository preferenceRepository;
+  @Autowired private SubscriptionRepository subscriptionRepository;
+  @Autowired private UserRepository userRepository;
+  @Autowired private GameRepository gameRepository;
+  @Autowired private TransactionTemplate transactionTemplate;
+
+  private NotificationService notificationService;
+  private NotificationPreferenceService preferenceService;
+  private Game game;
+
+  @BeforeEach
+  void setUp() {
+    notificationService = mock(NotificationService.class);
+    preferenceService =
+        new NotificationPreferenceService(
+            preferenceRepository,
+            userRepository,
+            gameRepository,
+            mock(SubscriptionService.class),
+            notificationService,
+            transactionTemplate);
+    ReflectionTestUtils.setField(preferenceService, "digestBatchSize", 500);
+    game = gameRepository.save(new Game("Game", null, null, (short) 5, true, null));
+  }
+
+  @AfterEach
+  void tearDown() {
+    preferenceRepository.deleteAll();
+    subscriptionRepository.deleteAll();
+    gameRepository.deleteAll();
+    userRepository.deleteAll();
+  }
+
+  @Test
+  void recordDigest_countsActiveMembersButNotTheActor() {
+    NotificationPreference member = digestMember(true);
+    NotificationPreference former = digestMember(false);
+    NotificationPreference actor = digestMember(true);
+
+    record(UUID.randomUUID(), actor.getUser().getId());
+    record(UUID.randomUUID(), null);
+
+    assertEquals(2, pending(member));
+    assertEquals(0, pending(former));
+    assertEquals(1, pending(actor));
+  }
+
+  @Test
+  void sendDigests_deliversPendingOccurrencesOnce() {
+    NotificationPreference member = digestMember(true);
+    record(UUID.randomUUID(), null);
+    UUID latest = UUID.randomUUID();
+    record(latest, null);
+
+    preferenceService.sendDigests();
+    preferenceService.sendDigests();
+
+    verify(notificationService, times(1))
+        .createDigest(member.getUser().getId(), TYPE, latest, game.getId(), 2);
+    assertEquals(0, pending(member));
+  }
+
+  @Test
+  void sendDigests_keepsOccurrenceCountedWhileDelivering() throws InterruptedException {
+    NotificationPreference member = digestMember(true);
+    UUID first = UUID.randomUUID();
+    UUID during = UUID.randomUUID();
+    record(first, null);
+    // Another transaction counts an occurrence after the batch was read, before it is consumed
+    when(notificationService.createDigest(
+            eq(member.getUser().getId()), eq(TYPE), eq(first), eq(game.getId()), anyInt()))
+        .thenAnswer(
+            invocation -> {
+              Thread thread = new Thread(() -> record(during, null));
+              thread.start();
+              thread.join();
+              return null;
+            });
+
+    preferenceService.sendDigests();
+
+    assertEquals(1, pending(member));
+    assertEquals(during, reload(member).getPendingReferenceId());
+
+    preferenceService.sendDigests();
+
+    verify(notificationService)
+        .createDigest(member.getUser().getId(), TYPE, first, game.getId(), 1);
+    verify(notificationService)
+        .createDigest(member.getUser().getId(), TYPE, during, game.getId(), 1);
+    assertEquals(0, pending(member));
+  }
+
+  @Test
+  void sendDigests_deliversTheOthersWhenOneFails() {
+    // One per batch, so a failure left at the head of the query would be read again and again
+    ReflectionTestUtils.setField(preferenceService, "digestBatchSize", 1);
+    NotificationPreference failing = digestMember(true);
+    NotificationPreference member = digestMember(true);
+    UUID referenceId = UUID.randomUUID();
+    record(referenceId, null);
+    when(notificationService.createDigest(
+            eq(failing.getUser().getId()), eq(TYPE), eq(referenceId), eq(game.getId()), anyInt()))
+        .thenThrow(new DataIntegrityViolationException("duplicate key"));
+
+    preferenceService.sendDigests();
+
+    verify(notificationService)
+        .createDigest(member.getUser().getId(), TYPE, referenceId, game.getId(), 1);
+    assertEquals(0, pending(member));
+    assertEquals(1, pending(failing));
+  }
+
+  /** Creates a user with a digest preference, in one transaction so the entities stay managed. */
+  private NotificationPreference digestMember(boolean active) {
+    return transactionTemplate.execute(
+        status -> {
+          UUID id = UUID.randomUUID();
+          User user = userRepository.save(new User(id, id + "@email.com", "user-" + id));
+          Subscription subscription = new Subscription();
+          subscription.setUser(user);
+          subscription.setGame(gameRepository.getById(game.getId()));
+          subscription.setIsActive(active);
+          subscriptionRepository.save(subscription);
+          return preferenceRepository.save(
+              new NotificationPreference(
+                  user, subscription.getGame(), TYPE, NotificationPreference.DIGEST));
+        });
+  }
+
+  private void record(UUID referenceId, UUID actorId) {
+    transactionTemplate.executeWithoutResult(
+        status -> preferenceService.recordDigest(game.getId(), TYPE, referenceId, actorId));
+  }
+
+  private NotificationPreference reload(NotificationPreference preference) {
+    return preferenceRepository
+        .findById(preference.getId())
+        .orElseThrow(IllegalStateException::new);
+  }
+
+  private int pending(NotificationPreference preference) {
+    return reload(preference).getPendingCount();
+  }
+}
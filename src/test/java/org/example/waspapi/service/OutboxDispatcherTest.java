@@ -0,0 +1,337 @@
+package org.example.waspapi.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import javax.persistence.QueryHint;
+import org.example.waspapi.model.OutboxEvent;
+import org.example.waspapi.repository.NotificationRepository;
+import org.example.waspapi.repository.OutboxEventRepository;
+import org.example.waspapi.repository.SubscriptionRepository;
+import org.hibernate.LockOptions;
+import org.hibernate.dialect.PostgreSQL10Dialect;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.TransactionManager;
+import org.springframework.transaction.annotation.AnnotationTransactionAttributeSource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.interceptor.TransactionInterceptor;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Runs the dispatcher against the JPA repository on H2. Tests are not wrapped in a transaction, so
+ * the dispatcher's own transactions commit and roll back for real.
+ */
+@DataJpaTest(
+    showSql = false,
+    properties = "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class OutboxDispatcherTest {
+
+  private static final String EVENT = "TEST_EVENT";
+  private static final String MARKER = "TEST_MARKER";
+
+  @Autowired private OutboxEventRepository outboxEventRepository;
+  @Autowired private TransactionTemplate transactionTemplate;
+  @Autowired private TransactionManager transactionManager;
+
+  private final List<Long> handled = Collections.synchronizedList(new ArrayList<>());
+  private Consumer<JsonNode> behaviour;
+  private OutboxDispatcher dispatcher;
+
+  @BeforeEach
+  void setUp() {
+    behaviour = payload -> {};
+    dispatcher = dispatcher(3);
+  }
+
+  @AfterEach
+  void tearDown() {
+    dispatcher.shutdown();
+    outboxEventRepository.deleteAll();
+  }
+
+  @Test
+  void claimQuery_skipsLockedRowsOnPostgres() throws NoSuchMethodException {
+    Method findClaimable =
+        OutboxEventRepository.class.getMethod("findClaimable", Instant.class, Pageable.class);
+    QueryHint hint = findClaimable.getAnnotation(QueryHints.class).value()[0];
+
+    assertEquals("javax.persistence.lock.timeout", hint.name());
+    assertEquals(LockOptions.SKIP_LOCKED, Integer.parseInt(hint.value()));
+    assertEquals(
+        " for update skip locked",
+        new PostgreSQL10Dialect().getWriteLockString(LockOptions.SKIP_LOCKED));
+  }
+
+  @Test
+  void claim_takesOnlyTheEarliestPendingEventOfAnAggregate() {
+    UUID aggregate = UUID.randomUUID();
+    Long first = enqueue(aggregate);
+    enqueue(aggregate);
+    Long unrelated = enqueue(UUID.randomUUID());
+
+    // A dispatcher that skips the locked first event must not take the second one instead
+    assertEquals(
+        Arrays.asList(first, unrelated),
+        claimableNow().stream().map(OutboxEvent::getId).collect(Collectors.toList()));
+  }
+
+  @Test
+  void drain_leasedEventsAreNotClaimedByAnotherDispatcher() {
+    OutboxDispatcher other = dispatcher(3);
+    List<Long> events =
+        Arrays.asList(
+            enqueue(UUID.randomUUID()), enqueue(UUID.randomUUID()), enqueue(UUID.randomUUID()));
+    List<Long> claimedByOther = new ArrayList<>();
+    behaviour =
+        payload -> {
+          if (handled.size() > 1) {
+            return;
+          }
+          // A second dispatcher drains while this one still holds its batch
+          Thread thread =
+              new Thread(
+                  () -> {
+                    int before = handled.size();
+                    other.drain();
+                    claimedByOther.add((long) (handled.size() - before));
+                  });
+          thread.start();
+          try {
+            thread.join();
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+          }
+        };
+
+    dispatcher.drain();
+    other.shutdown();
+
+    assertEquals(Collections.singletonList(0L), claimedByOther);
+    assertEquals(events, handled.stream().sorted().collect(Collectors.toList()));
+    assertEquals(3, outboxEventRepository.countByStatus(OutboxEvent.DONE));
+  }
+
+  @Test
+  void drain_holdsLaterEventsOfAggregateWhileEarlierOneBacksOff() {
+    UUID aggregate = UUID.randomUUID();
+    Long first = enqueue(aggregate);
+    Long second = enqueue(aggregate);
+    Long unrelated = enqueue(UUID.randomUUID());
+    behaviour =
+        payload -> {
+          if (payload.get("id").asLong() == first) {
+            throw new IllegalStateException("boom");
+          }
+        };
+
+    dispatcher.drain();
+
+    assertEquals(Arrays.asList(first, unrelated), handled);
+    assertEquals(OutboxEvent.PENDING, event(second).getStatus());
+    assertEquals(0, event(second).getAttempts());
+    assertTrue(claimableNow().isEmpty());
+
+    behaviour = payload -> {};
+    makeDue(first);
+    dispatcher.drain();
+
+    assertEquals(Arrays.asList(first, unrelated, first, second), handled);
+    assertEquals(3, outboxEventRepository.countByStatus(OutboxEvent.DONE));
+  }
+
+  @Test
+  void drain_backsOffExponentiallyThenMarksFailed() {
+    UUID aggregate = UUID.randomUUID();
+    Long event = enqueue(aggregate);
+    Long next = enqueue(aggregate);
+    behaviour =
+        payload -> {
+          if (payload.get("id").asLong() == event) {
+            throw new IllegalStateException("boom");
+          }
+        };
+
+    for (int attempt = 1; attempt <= 2; attempt++) {
+      Instant before = Instant.now();
+      dispatcher.drain();
+      OutboxEvent current = event(event);
+      assertEquals(OutboxEvent.PENDING, current.getStatus());
+      assertEquals(attempt, current.getAttempts());
+      assertEquals("boom", current.getLastError());
+      long delayMs = Duration.between(before, current.getAvailableAt()).toMillis();
+      long expectedMs = 1000L << (attempt - 1);
+      assertTrue(delayMs >= expectedMs && delayMs < expectedMs + 1000, "delay " + delayMs);
+      makeDue(event);
+    }
+    dispatcher.drain();
+
+    OutboxEvent failed = event(event);
+    assertEquals(OutboxEvent.FAILED, failed.getStatus());
+    assertEquals(3, failed.getAttempts());
+    assertNotNull(failed.getProcessedAt());
+    // A failed event no longer holds back its aggregate
+    assertEquals(OutboxEvent.DONE, event(next).getStatus());
+  }
+
+  @Test
+  void drain_rollsBackHandlerWritesTogetherWithMarkDone() {
+    Long event = enqueue(UUID.randomUUID());
+    behaviour =
+        payload -> {
+          outboxEventRepository.save(new OutboxEvent(MARKER, UUID.randomUUID(), MARKER, "{}"));
+          // Fails the commit after the handler and markDone have both run
+          TransactionSynchronizationManager.registerSynchronization(
+              new TransactionSynchronization() {
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                  throw new IllegalStateException("commit failed");
+                }
+              });
+        };
+
+    dispatcher.drain();
+
+    OutboxEvent current = event(event);
+    assertEquals(OutboxEvent.PENDING, current.getStatus());
+    assertEquals("commit failed", current.getLastError());
+    assertEquals(1, outboxEventRepository.count());
+
+    behaviour =
+        payload ->
+            outboxEventRepository.save(new OutboxEvent(MARKER, UUID.randomUUID(), MARKER, "{}"));
+    makeDue(event);
+    dispatcher.drain();
+
+    assertEquals(OutboxEvent.DONE, event(event).getStatus());
+    assertEquals(2, outboxEventRepository.count());
+  }
+
+  @Test
+  void drain_completesEventWhoseRecipientWasDeleted() {
+    NotificationService target =
+        new NotificationService(
+            mock(NotificationRepository.class),
+            mock(UnreadNotificationCounter.class),
+            mock(ApplicationEventPublisher.class));
+    ReflectionTestUtils.setField(
+        target, "aggregatedTypes", Collections.singleton("FRIEND_REQUEST"));
+    // Goes through the transactional proxy, which joins the dispatcher's transaction
+    ProxyFactory proxyFactory = new ProxyFactory(target);
+    proxyFactory.setProxyTargetClass(true);
+    proxyFactory.addAdvice(
+        new TransactionInterceptor(transactionManager, new AnnotationTransactionAttributeSource()));
+    NotificationService notificationService = (NotificationService) proxyFactory.getProxy();
+    OutboxDispatcher notifying =
+        dispatcher(
+            3,
+            new NotificationOutboxHandler(
+                notificationService,
+                mock(SubscriptionRepository.class),
+                mock(NotificationPreferenceService.class)));
+    OutboxEvent event =
+        outboxEventRepository.save(
+            new OutboxEvent(
+                "FRIEND_REQUEST",
+                UUID.randomUUID(),
+                OutboxService.FRIEND_REQUEST_CREATED,
+                "{\"receiverId\":\""
+                    + UUID.randomUUID()
+                    + "\",\"friendRequestId\":\""
+                    + UUID.randomUUID()
+                    + "\",\"senderId\":\""
+                    + UUID.randomUUID()
+                    + "\"}"));
+
+    notifying.drain();
+    notifying.shutdown();
+
+    OutboxEvent current = event(event.getId());
+    assertEquals(OutboxEvent.DONE, current.getStatus());
+    assertEquals(1, current.getAttempts());
+    assertNull(current.getLastError());
+  }
+
+  private OutboxDispatcher dispatcher(int maxAttempts) {
+    return dispatcher(
+        maxAttempts,
+        new OutboxEventHandler() {
+          @Override
+          public Set<String> getEventTypes() {
+            return Collections.singleton(EVENT);
+          }
+
+          @Override
+          public void handle(String eventType, JsonNode payload) {
+            handled.add(payload.get("id").asLong());
+            behaviour.accept(payload);
+          }
+        });
+  }
+
+  private OutboxDispatcher dispatcher(int maxAttempts, OutboxEventHandler handler) {
+    OutboxDispatcher created =
+        new OutboxDispatcher(
+            outboxEventRepository,
+            transactionTemplate,
+            new ObjectMapper(),
+            Collections.singletonList(handler));
+    ReflectionTestUtils.setField(created, "enabled", true);
+    ReflectionTestUtils.setField(created, "batchSize", 10);
+    ReflectionTestUtils.setField(created, "leaseSeconds", 60L);
+    ReflectionTestUtils.setField(created, "maxAttempts", maxAttempts);
+    ReflectionTestUtils.setField(created, "backoffBaseMs", 1000L);
+    ReflectionTestUtils.setField(created, "backoffMaxMs", 60000L);
+    return created;
+  }
+
+  /** Enqueues an event whose payload carries its own id, so the handler can tell events apart. */
+  private Long enqueue(UUID aggregateId) {
+    OutboxEvent event =
+        outboxEventRepository.save(new OutboxEvent("TEST", aggregateId, EVENT, "{}"));
+    event.setPayload("{\"id\":" + event.getId() + "}");
+    return outboxEventRepository.save(event).getId();
+  }
+
+  private OutboxEvent event(Long id) {
+    return outboxEventRepository.findById(id).orElseThrow(IllegalStateException::new);
+  }
+
+  /** Lets a backing-off event run now instead of waiting for its retry time. */
+  private void makeDue(Long id) {
+    OutboxEvent event = event(id);
+    event.setAvailableAt(Instant.now().minusMillis(1));
+    outboxEventRepository.save(event);
+  }
+
+  private List<OutboxEvent> claimableNow() {
+    return transactionTemplate.execute(
+        status -> outboxEventRepository.findClaimable(Instant.now(), PageRequest.of(0, 10)));
+  }
+}
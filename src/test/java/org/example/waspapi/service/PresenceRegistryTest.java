@@ -0,0 +1,63 @@
+package org.example.waspapi.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+import java.util.UUID;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class PresenceRegistryTest {
+
+  private static final int TTL_TICKS = 3;
+
+  private PresenceRegistry registry;
+  private final UUID user = UUID.randomUUID();
+
+  @BeforeEach
+  void setUp() {
+    registry = new PresenceRegistry(TTL_TICKS, 2);
+  }
+
+  @Test
+  void touch_expiresAfterTtlWithoutHeartbeat() {
+    registry.touch(user);
+
+    registry.advance(id -> false);
+    registry.advance(id -> false);
+    assertTrue(registry.isOnline(user));
+
+    List<UUID> expired = registry.advance(id -> false);
+    assertEquals(1, expired.size());
+    assertFalse(registry.isOnline(user));
+    assertEquals(0, registry.size());
+  }
+
+  @Test
+  void touch_heartbeatsKeepUserOnline() {
+    registry.touch(user);
+    for (int i = 0; i < 20; i++) {
+      registry.advance(id -> false);
+      registry.touch(user);
+    }
+    assertTrue(registry.isOnline(user));
+    assertEquals(1, registry.size());
+  }
+
+  @Test
+  void advance_keepAliveRenewsConnectedUsers() {
+    registry.touch(user);
+    for (int i = 0; i < 10; i++) {
+      assertTrue(registry.advance(id -> true).isEmpty());
+    }
+    assertTrue(registry.isOnline(user));
+  }
+
+  @Test
+  void touch_fullRegistry_rejectsNewUsersOnly() {
+    assertTrue(registry.touch(UUID.randomUUID()));
+    assertTrue(registry.touch(user));
+    assertFalse(registry.touch(UUID.randomUUID()));
+    assertTrue(registry.touch(user));
+  }
+}
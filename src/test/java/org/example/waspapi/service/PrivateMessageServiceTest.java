@@ -0,0 +1,177 @@
+package org.example.waspapi.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import org.example.waspapi.dto.Cursor;
+import org.example.waspapi.dto.responses.CursorPageResponse;
+import org.example.waspapi.dto.responses.privatemessage.GetPrivateMessageResponse;
+import org.example.waspapi.model.PrivateMessage;
+import org.example.waspapi.model.User;
+import org.example.waspapi.model.UserPair;
+import org.example.waspapi.repository.ConversationRepository;
+import org.example.waspapi.repository.PrivateMessageRepository;
+import org.example.waspapi.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.stubbing.Answer;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@ExtendWith(MockitoExtension.class)
+class PrivateMessageServiceTest {
+
+  @Mock private PrivateMessageRepository privateMessageRepository;
+  @Mock private ConversationRepository conversationRepository;
+  @Mock private UserRepository userRepository;
+  @Mock private FriendRequestService friendRequestService;
+  @Mock private NotificationService notificationService;
+  @Mock private SupabaseStorageService storageService;
+  @Mock private TransactionTemplate transactionTemplate;
+  @Mock private ApplicationEventPublisher eventPublisher;
+  @Mock private UserStreamService userStreamService;
+
+  @InjectMocks private PrivateMessageService privateMessageService;
+
+  private User me;
+  private User friend;
+  private User other;
+  private List<PrivateMessage> stored;
+
+  @BeforeEach
+  void setUp() {
+    ReflectionTestUtils.setField(privateMessageService, "syncSettleMarginMs", 2000L);
+    me = new User(UUID.randomUUID(), "me@email.com", "Me");
+    friend = new User(UUID.randomUUID(), "friend@email.com", "Friend");
+    other = new User(UUID.randomUUID(), "other@email.com", "Other");
+    stored = new ArrayList<>();
+  }
+
+  @Test
+  void sync_withoutCursor_returnsCurrentPosition() {
+    Instant before = Instant.now();
+
+    CursorPageResponse<GetPrivateMessageResponse> response =
+        privateMessageService.sync(me.getId(), null, 10);
+    Instant after = Instant.now();
+
+    assertTrue(response.getItems().isEmpty());
+    assertFalse(response.isHasMore());
+    Instant position = Cursor.decode(response.getNextCursor()).getSortKeyAsInstant();
+    assertFalse(position.isBefore(before.minusMillis(2000)));
+    assertFalse(position.isAfter(after.minusMillis(2000)));
+    verifyNoInteractions(privateMessageRepository);
+  }
+
+  @Test
+  void sync_pagesThroughSentAndReceivedInOrder() {
+    Instant base = Instant.now().minusSeconds(60);
+    // Same timestamp: ids whose order differs between signed and unsigned comparison
+    PrivateMessage tieLow = message(me, friend, base, new UUID(0x7000000000000000L, 1L));
+    PrivateMessage tieHigh = message(friend, me, base, new UUID(0x8000000000000000L, 1L));
+    PrivateMessage second = message(friend, me, base.plusSeconds(1), UUID.randomUUID());
+    message(friend, other, base.plusSeconds(2), UUID.randomUUID());
+    PrivateMessage third = message(me, friend, base.plusSeconds(3), UUID.randomUUID());
+    PrivateMessage fourth = message(friend, me, base.plusSeconds(4), UUID.randomUUID());
+    stubBranches();
+    String cursor = Cursor.of(base.minusSeconds(1), new UUID(0L, 0L)).encode();
+
+    List<UUID> synced = new ArrayList<>();
+    List<Boolean> hasMore = new ArrayList<>();
+    for (int page = 0; page < 4; page++) {
+      CursorPageResponse<GetPrivateMessageResponse> response =
+          privateMessageService.sync(me.getId(), cursor, 2);
+      synced.addAll(
+          response.getItems().stream()
+              .map(GetPrivateMessageResponse::getId)
+              .collect(Collectors.toList()));
+      hasMore.add(response.isHasMore());
+      cursor = response.getNextCursor();
+    }
+
+    assertEquals(
+        Arrays.asList(
+            tieLow.getId(), tieHigh.getId(), second.getId(), third.getId(), fourth.getId()),
+        synced);
+    assertEquals(Arrays.asList(true, true, false, false), hasMore);
+    Cursor last = Cursor.decode(cursor);
+    assertEquals(fourth.getId(), last.getId());
+    assertEquals(fourth.getCreatedAt(), last.getSortKeyAsInstant());
+  }
+
+  @Test
+  void sync_leavesMessagesInsideTheSettleMarginForLater() {
+    Instant now = Instant.now();
+    PrivateMessage settled = message(friend, me, now.minusSeconds(10), UUID.randomUUID());
+    PrivateMessage recent = message(friend, me, now, UUID.randomUUID());
+    stubBranches();
+    String cursor = Cursor.of(now.minusSeconds(60), new UUID(0L, 0L)).encode();
+
+    CursorPageResponse<GetPrivateMessageResponse> response =
+        privateMessageService.sync(me.getId(), cursor, 10);
+
+    assertEquals(1, response.getItems().size());
+    assertEquals(settled.getId(), response.getItems().get(0).getId());
+    ReflectionTestUtils.setField(privateMessageService, "syncSettleMarginMs", 0L);
+    response = privateMessageService.sync(me.getId(), response.getNextCursor(), 10);
+    assertEquals(recent.getId(), response.getItems().get(0).getId());
+  }
+
+  private PrivateMessage message(User sender, User receiver, Instant createdAt, UUID id) {
+    PrivateMessage message = new PrivateMessage(sender, receiver, "hi");
+    message.setId(id);
+    message.setCreatedAt(createdAt);
+    stored.add(message);
+    return message;
+  }
+
+  /** Both branch queries answer from {@link #stored} like the database would. */
+  private void stubBranches() {
+    when(privateMessageRepository.findSentSince(
+            eq(me.getId()), any(), any(), any(), any(Pageable.class)))
+        .thenAnswer(branch(message -> message.getSender().getId()));
+    when(privateMessageRepository.findReceivedSince(
+            eq(me.getId()), any(), any(), any(), any(Pageable.class)))
+        .thenAnswer(branch(message -> message.getReceiver().getId()));
+  }
+
+  private Answer<List<PrivateMessage>> branch(Function<PrivateMessage, UUID> userColumn) {
+    return invocation -> {
+      UUID userId = invocation.getArgument(0);
+      Instant after = invocation.getArgument(1);
+      UUID afterId = invocation.getArgument(2);
+      Instant until = invocation.getArgument(3);
+      Pageable pageable = invocation.getArgument(4);
+      return stored.stream()
+          .filter(message -> userColumn.apply(message).equals(userId))
+          .filter(
+              message ->
+                  message.getCreatedAt().isAfter(after)
+                      || (message.getCreatedAt().equals(after)
+                          && UserPair.compare(message.getId(), afterId) > 0))
+          .filter(message -> message.getCreatedAt().isBefore(until))
+          .sorted(
+              (a, b) -> {
+                int byTime = a.getCreatedAt().compareTo(b.getCreatedAt());
+                return byTime != 0 ? byTime : UserPair.compare(a.getId(), b.getId());
+              })
+          .limit(pageable.getPageSize())
+          .collect(Collectors.toList());
+    };
+  }
+}
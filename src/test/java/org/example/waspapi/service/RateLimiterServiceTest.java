@@ -0,0 +1,92 @@
+package org.example.waspapi.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.concurrent.TimeUnit;
+import org.example.waspapi.config.RateLimitProperties;
+import org.example.waspapi.config.RateLimitProperties.KeyType;
+import org.example.waspapi.config.RateLimitProperties.Policy;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class RateLimiterServiceTest {
+
+  private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+  private RateLimitProperties properties;
+  private RateLimiterService rateLimiterService;
+  private Policy policy;
+
+  @BeforeEach
+  void setUp() {
+    properties = new RateLimitProperties();
+    properties.setIdleEvictionSeconds(60);
+    rateLimiterService = new RateLimiterService(properties);
+    // 5 requests burst, refilled at one token per second
+    policy = new Policy("test", "POST", "/games/*/messages", KeyType.USER, 5, 60, 60);
+  }
+
+  @Test
+  void tryAcquire_withinCapacity_allowsBurst() {
+    long now = 1_000 * SECOND;
+    for (int i = 0; i < 5; i++) {
+      assertEquals(0, rateLimiterService.tryAcquire(policy, "user", now));
+    }
+  }
+
+  @Test
+  void tryAcquire_overCapacity_returnsWaitUntilNextToken() {
+    long now = 1_000 * SECOND;
+    for (int i = 0; i < 5; i++) {
+      rateLimiterService.tryAcquire(policy, "user", now);
+    }
+
+    assertEquals(SECOND, rateLimiterService.tryAcquire(policy, "user", now));
+    assertEquals(0, rateLimiterService.tryAcquire(policy, "user", now + SECOND));
+    assertEquals(1L, rateLimiterService.getRejectionCounts().get("test"));
+  }
+
+  @Test
+  void tryAcquire_differentKeys_haveIndependentBuckets() {
+    long now = 1_000 * SECOND;
+    for (int i = 0; i < 5; i++) {
+      rateLimiterService.tryAcquire(policy, "user-a", now);
+    }
+
+    assertTrue(rateLimiterService.tryAcquire(policy, "user-a", now) > 0);
+    assertEquals(0, rateLimiterService.tryAcquire(policy, "user-b", now));
+  }
+
+  @Test
+  void evictIdleBuckets_removesOnlyBucketsFullForLongerThanIdlePeriod() {
+    long now = 1_000 * SECOND;
+    rateLimiterService.tryAcquire(policy, "idle", now);
+    rateLimiterService.tryAcquire(policy, "active", now + 90 * SECOND);
+
+    rateLimiterService.evictIdleBuckets(now + 100 * SECOND);
+
+    assertEquals(1, rateLimiterService.bucketCount());
+  }
+
+  @Test
+  void tryAcquire_concurrentCallers_neverExceedCapacity() throws InterruptedException {
+    long now = 1_000 * SECOND;
+    Policy wide = new Policy("wide", "POST", "/x", KeyType.USER, 1_000, 1, 3_600);
+    Thread[] threads = new Thread[8];
+    for (int t = 0; t < threads.length; t++) {
+      threads[t] =
+          new Thread(
+              () -> {
+                for (int i = 0; i < 500; i++) {
+                  rateLimiterService.tryAcquire(wide, "shared", now);
+                }
+              });
+      threads[t].start();
+    }
+    for (Thread thread : threads) {
+      thread.join();
+    }
+
+    assertEquals(3_000L, rateLimiterService.getRejectionCounts().get("wide"));
+  }
+}
@@ -0,0 +1,99 @@
+package org.example.waspapi.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class RecurrenceRuleTest {
+
+  // A Wednesday
+  private static final LocalDateTime START = LocalDateTime.of(2026, 1, 7, 19, 0);
+
+  @Test
+  void weekly_byDay_expandsOnlyRequestedRange() {
+    RecurrenceRule rule = RecurrenceRule.parse("FREQ=WEEKLY;BYDAY=MO,WE");
+
+    List<LocalDateTime> march =
+        rule.occurrences(
+            START, LocalDateTime.of(2026, 3, 1, 0, 0), LocalDateTime.of(2026, 3, 10, 0, 0));
+
+    assertEquals(
+        Arrays.asList(
+            LocalDateTime.of(2026, 3, 2, 19, 0),
+            LocalDateTime.of(2026, 3, 4, 19, 0),
+            LocalDateTime.of(2026, 3, 9, 19, 0)),
+        march);
+  }
+
+  @Test
+  void weekly_count_countsFromFirstOccurrence() {
+    // The Monday of the first week is before the start, so it does not count
+    RecurrenceRule rule = RecurrenceRule.parse("FREQ=WEEKLY;INTERVAL=2;BYDAY=MO,WE;COUNT=4");
+
+    List<LocalDateTime> all = rule.occurrences(START, START, START.plusYears(1));
+
+    assertEquals(
+        Arrays.asList(
+            START,
+            LocalDateTime.of(2026, 1, 19, 19, 0),
+            LocalDateTime.of(2026, 1, 21, 19, 0),
+            LocalDateTime.of(2026, 2, 2, 19, 0)),
+        all);
+    assertEquals(LocalDateTime.of(2026, 2, 2, 19, 0), rule.lastOccurrence(START));
+    assertEquals(
+        rule.occurrences(START, LocalDateTime.of(2026, 1, 20, 0, 0), START.plusYears(1)),
+        all.subList(2, 4));
+  }
+
+  @Test
+  void daily_until_includesWholeLastDay() {
+    RecurrenceRule rule = RecurrenceRule.parse("FREQ=DAILY;INTERVAL=3;UNTIL=20260116");
+
+    assertEquals(
+        Arrays.asList(
+            START,
+            LocalDateTime.of(2026, 1, 10, 19, 0),
+            LocalDateTime.of(2026, 1, 13, 19, 0),
+            LocalDateTime.of(2026, 1, 16, 19, 0)),
+        rule.occurrences(START, START.minusDays(5), START.plusYears(1)));
+  }
+
+  @Test
+  void monthly_skipsMonthsWithoutTheDay() {
+    LocalDateTime start = LocalDateTime.of(2026, 1, 31, 20, 0);
+    RecurrenceRule rule = RecurrenceRule.parse("FREQ=MONTHLY;COUNT=3");
+
+    assertEquals(
+        Arrays.asList(
+            start, LocalDateTime.of(2026, 3, 31, 20, 0), LocalDateTime.of(2026, 5, 31, 20, 0)),
+        rule.occurrences(start, start, start.plusYears(1)));
+  }
+
+  @Test
+  void isOccurrence_matchesExactStartsOnly() {
+    RecurrenceRule rule = RecurrenceRule.parse("FREQ=WEEKLY");
+
+    assertTrue(rule.isOccurrence(START, START.plusWeeks(30)));
+    assertFalse(rule.isOccurrence(START, START.plusWeeks(30).plusHours(1)));
+    assertFalse(rule.isOccurrence(START, START.minusWeeks(1)));
+    assertNull(rule.lastOccurrence(START));
+  }
+
+  @Test
+  void parse_rejectsUnsupportedRules() {
+    assertThrows(IllegalArgumentException.class, () -> RecurrenceRule.parse("FREQ=YEARLY"));
+    assertThrows(IllegalArgumentException.class, () -> RecurrenceRule.parse("INTERVAL=2"));
+    assertThrows(IllegalArgumentException.class, () -> RecurrenceRule.parse("FREQ=DAILY;BYDAY=MO"));
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> RecurrenceRule.parse("FREQ=DAILY;COUNT=2;UNTIL=20260101"));
+    assertThrows(
+        IllegalArgumentException.class, () -> RecurrenceRule.parse("FREQ=WEEKLY;BYHOUR=3"));
+    assertEquals(
+        "FREQ=WEEKLY;INTERVAL=2;BYDAY=MO,FR;COUNT=5",
+        RecurrenceRule.parse("rrule:freq=weekly;byday=fr,mo;interval=2;count=5").toString());
+  }
+}
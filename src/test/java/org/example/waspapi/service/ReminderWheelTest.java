@@ -0,0 +1,95 @@
+package org.example.waspapi.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+class ReminderWheelTest {
+
+  @Test
+  void advanceTo_firesEachTimerAtItsTick_acrossLevels() {
+    long start = 1_000_003;
+    ReminderWheel<Long> wheel = new ReminderWheel<>(3, start);
+    List<Long> dueTicks =
+        Arrays.asList(start + 1, start + 63, start + 64, start + 4_095, start + 90_000);
+    for (Long due : dueTicks) {
+      wheel.schedule(due, due);
+    }
+
+    List<Long> fired = new ArrayList<>();
+    for (long tick = start + 1; tick <= start + 100_000; tick++) {
+      for (Long value : wheel.advanceTo(tick)) {
+        assertEquals(tick, value.longValue());
+        fired.add(value);
+      }
+    }
+    assertEquals(dueTicks, fired);
+    assertEquals(0, wheel.size());
+  }
+
+  @Test
+  void advanceTo_beyondTopLevel_waitsInOverflow() {
+    ReminderWheel<Long> wheel = new ReminderWheel<>(1, 0);
+    wheel.schedule(200L, 200);
+
+    assertTrue(wheel.advanceTo(199).isEmpty());
+    assertEquals(Collections.singletonList(200L), wheel.advanceTo(200));
+  }
+
+  @Test
+  void schedule_sameValue_replacesTimer() {
+    ReminderWheel<String> wheel = new ReminderWheel<>(3, 0);
+    wheel.schedule("session", 100);
+    wheel.schedule("session", 300);
+
+    assertTrue(wheel.advanceTo(299).isEmpty());
+    assertEquals(Collections.singletonList("session"), wheel.advanceTo(300));
+  }
+
+  @Test
+  void cancel_dropsTimer() {
+    ReminderWheel<String> wheel = new ReminderWheel<>(3, 0);
+    wheel.schedule("session", 5_000);
+
+    assertTrue(wheel.cancel("session"));
+    assertTrue(wheel.advanceTo(10_000).isEmpty());
+    assertEquals(0, wheel.size());
+  }
+
+  @Test
+  void schedule_inThePast_firesOnNextTick() {
+    ReminderWheel<String> wheel = new ReminderWheel<>(3, 50);
+    wheel.schedule("late", 10);
+
+    assertEquals(Collections.singletonList("late"), wheel.advanceTo(51));
+  }
+
+  @Test
+  void advanceTo_randomTimers_matchesSortedOrder() {
+    Random random = new Random(7);
+    ReminderWheel<Long> wheel = new ReminderWheel<>(3, 0);
+    List<Long> expected = new ArrayList<>();
+    for (int i = 0; i < 5_000; i++) {
+      long due = 1 + random.nextInt(300_000);
+      // Values double as due ticks, so keep them unique
+      if (!expected.contains(due)) {
+        expected.add(due);
+        wheel.schedule(due, due);
+      }
+    }
+    Collections.sort(expected);
+
+    List<Long> fired = new ArrayList<>();
+    long tick = 0;
+    while (tick < 300_000) {
+      tick += 1 + random.nextInt(500);
+      fired.addAll(wheel.advanceTo(tick));
+    }
+    assertEquals(expected, fired);
+  }
+}
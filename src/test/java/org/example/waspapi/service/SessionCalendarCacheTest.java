@@ -0,0 +1,89 @@
+package org.example.waspapi.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.YearMonth;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.example.waspapi.dto.responses.session.GetSessionResponse;
+import org.junit.jupiter.api.Test;
+
+class SessionCalendarCacheTest {
+
+  private final UUID user = UUID.randomUUID();
+  private final YearMonth march = YearMonth.of(2026, 3);
+  private final YearMonth april = YearMonth.of(2026, 4);
+
+  @Test
+  void get_loadsEachMonthOnce() {
+    SessionCalendarCache cache = new SessionCalendarCache(1_000, 300);
+    AtomicInteger loads = new AtomicInteger();
+
+    cache.get(user, march, () -> calendar(loads));
+    cache.get(user, march, () -> calendar(loads));
+    cache.get(user, april, () -> calendar(loads));
+
+    assertEquals(2, loads.get());
+    assertEquals(2, cache.size());
+  }
+
+  @Test
+  void invalidate_month_keepsOtherMonths() {
+    SessionCalendarCache cache = new SessionCalendarCache(1_000, 300);
+    AtomicInteger loads = new AtomicInteger();
+    cache.get(user, march, () -> calendar(loads));
+    cache.get(user, april, () -> calendar(loads));
+
+    cache.invalidate(user, march);
+    cache.get(user, march, () -> calendar(loads));
+    cache.get(user, april, () -> calendar(loads));
+
+    assertEquals(3, loads.get());
+  }
+
+  @Test
+  void invalidate_user_dropsAllMonths() {
+    SessionCalendarCache cache = new SessionCalendarCache(1_000, 300);
+    AtomicInteger loads = new AtomicInteger();
+    cache.get(user, march, () -> calendar(loads));
+    cache.get(user, april, () -> calendar(loads));
+
+    cache.invalidate(user);
+
+    assertEquals(0, cache.size());
+  }
+
+  @Test
+  void get_invalidationDuringLoad_isNotCached() {
+    SessionCalendarCache cache = new SessionCalendarCache(1_000, 300);
+    AtomicInteger loads = new AtomicInteger();
+
+    // A session changes while the calendar is being read from the database
+    cache.get(
+        user,
+        march,
+        () -> {
+          cache.invalidate(user, march);
+          return calendar(loads);
+        });
+
+    assertEquals(0, cache.size());
+  }
+
+  @Test
+  void get_beyondCapacity_evictsLeastRecentlyUsed() {
+    SessionCalendarCache cache = new SessionCalendarCache(64, 300);
+    AtomicInteger loads = new AtomicInteger();
+    for (int i = 0; i < 10_000; i++) {
+      cache.get(UUID.randomUUID(), march, () -> calendar(loads));
+    }
+    assertTrue(cache.size() <= 64);
+  }
+
+  private static List<GetSessionResponse> calendar(AtomicInteger loads) {
+    loads.incrementAndGet();
+    return Collections.emptyList();
+  }
+}
@@ -0,0 +1,102 @@
+package org.example.waspapi.service;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.*;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import org.example.waspapi.events.SessionSeriesChangedEvent;
+import org.example.waspapi.repository.SessionRepository;
+import org.example.waspapi.repository.SubscriptionRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+@ExtendWith(MockitoExtension.class)
+class SessionReminderServiceTest {
+
+  private static final long TICK_MS = 50;
+
+  @Mock private SessionRepository sessionRepository;
+  @Mock private SessionSeriesService seriesService;
+  @Mock private SubscriptionRepository subscriptionRepository;
+  @Mock private NotificationService notificationService;
+
+  @InjectMocks private SessionReminderService reminderService;
+
+  private final UUID seriesId = UUID.randomUUID();
+  private final UUID userId = UUID.randomUUID();
+
+  @BeforeEach
+  void setUp() {
+    ReflectionTestUtils.setField(reminderService, "enabled", true);
+    ReflectionTestUtils.setField(reminderService, "tickMs", TICK_MS);
+    // Remind at the start itself, so that tests only wait a few ticks
+    ReflectionTestUtils.setField(reminderService, "offsetsMinutes", Collections.singletonList(0L));
+    ReflectionTestUtils.setField(reminderService, "horizonHours", 48L);
+    ReflectionTestUtils.setField(reminderService, "refillMinutes", 60L);
+    ReflectionTestUtils.setField(reminderService, "batchSize", 500);
+  }
+
+  @AfterEach
+  void tearDown() {
+    reminderService.shutdown();
+  }
+
+  @Test
+  void start_remindsSeriesOccurrencesNotStoredAsSessions() throws InterruptedException {
+    LocalDateTime occurrence = LocalDateTime.now().plusNanos(200_000_000);
+    LocalDateTime later = occurrence.plusWeeks(1);
+    when(seriesService.occurrencesBySeries(isNull(), any(), any()))
+        .thenReturn(occurrences(occurrence, later));
+    when(subscriptionRepository.findRemindableUserIdsForOccurrence(seriesId, occurrence))
+        .thenReturn(Collections.singletonList(userId));
+
+    reminderService.start();
+    Thread.sleep(200 + 3 * TICK_MS);
+    reminderService.tick();
+
+    verify(notificationService, timeout(1000))
+        .createForMany(
+            Collections.singletonList(userId),
+            SessionReminderService.SERIES_REMINDER_TYPE,
+            seriesId);
+    verify(subscriptionRepository, never()).findRemindableUserIdsForOccurrence(seriesId, later);
+  }
+
+  @Test
+  void onSessionSeriesChanged_schedulesOccurrencesOfTheSeries() throws InterruptedException {
+    reminderService.start();
+    LocalDateTime occurrence = LocalDateTime.now().plusNanos(200_000_000);
+    when(seriesService.occurrencesBySeries(eq(seriesId), any(), any()))
+        .thenReturn(occurrences(occurrence));
+    // Cancelled or stored as a session meanwhile: nobody is left to remind
+    when(subscriptionRepository.findRemindableUserIdsForOccurrence(seriesId, occurrence))
+        .thenReturn(Collections.emptyList());
+
+    reminderService.onSessionSeriesChanged(new SessionSeriesChangedEvent(seriesId, null));
+    Thread.sleep(200 + 3 * TICK_MS);
+    reminderService.tick();
+
+    verify(subscriptionRepository, timeout(1000))
+        .findRemindableUserIdsForOccurrence(seriesId, occurrence);
+    verify(notificationService, never()).createForMany(anyList(), anyString(), any());
+  }
+
+  private Map<UUID, List<LocalDateTime>> occurrences(LocalDateTime... starts) {
+    return Collections.singletonMap(seriesId, Arrays.asList(starts));
+  }
+}
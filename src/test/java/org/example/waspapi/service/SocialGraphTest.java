@@ -0,0 +1,106 @@
+package org.example.waspapi.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import org.example.waspapi.service.SocialGraph.Suggestion;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class SocialGraphTest {
+
+  private final UUID alice = UUID.randomUUID();
+  private final UUID bob = UUID.randomUUID();
+  private final UUID carol = UUID.randomUUID();
+  private final UUID dave = UUID.randomUUID();
+  private final UUID erin = UUID.randomUUID();
+  private final UUID game = UUID.randomUUID();
+
+  private SocialGraph graph;
+
+  @BeforeEach
+  void setUp() {
+    // alice - bob, alice - carol, bob - dave, carol - dave, bob - erin
+    graph =
+        SocialGraph.load(
+            Arrays.asList(
+                new UUID[] {alice, bob},
+                new UUID[] {alice, carol},
+                new UUID[] {bob, dave},
+                new UUID[] {carol, dave},
+                new UUID[] {bob, erin},
+                new UUID[] {erin, bob}),
+            Arrays.asList(new UUID[] {alice, game}, new UUID[] {erin, game}));
+  }
+
+  @Test
+  void load_deduplicatesEdgesInBothDirections() {
+    assertEquals(5, graph.userCount());
+    assertEquals(5, graph.edgeCount());
+    assertTrue(graph.areFriends(bob, alice));
+    assertFalse(graph.areFriends(alice, dave));
+  }
+
+  @Test
+  void mutualFriends_countsSharedNeighbours() {
+    assertEquals(2, graph.mutualFriends(alice, dave));
+    assertEquals(0, graph.mutualFriends(alice, UUID.randomUUID()));
+  }
+
+  @Test
+  void suggest_ranksByMutualFriendsAndSharedGames() {
+    List<Suggestion> suggestions = graph.suggest(alice, 10, 2, 1);
+
+    assertEquals(2, suggestions.size());
+    assertEquals(dave, suggestions.get(0).getUserId());
+    assertEquals(2, suggestions.get(0).getMutualFriends());
+    assertEquals(erin, suggestions.get(1).getUserId());
+    assertEquals(1, suggestions.get(1).getSharedGames());
+
+    // A shared game outweighs a mutual friend when games weigh more
+    assertEquals(erin, graph.suggest(alice, 1, 1, 5).get(0).getUserId());
+  }
+
+  @Test
+  void addAndRemoveFriendship_updateSuggestions() {
+    graph.addFriendship(alice, dave);
+    assertTrue(graph.areFriends(dave, alice));
+    assertEquals(1, graph.suggest(alice, 10, 2, 1).size());
+
+    graph.removeFriendship(alice, bob);
+    assertFalse(graph.areFriends(alice, bob));
+    assertEquals(5, graph.edgeCount());
+  }
+
+  @Test
+  void suggest_largeGraph_answersQuickly() {
+    int users = 50_000;
+    List<UUID> ids = new ArrayList<>(users);
+    for (int i = 0; i < users; i++) {
+      ids.add(UUID.randomUUID());
+    }
+    List<UUID[]> edges = new ArrayList<>();
+    Random random = new Random(42);
+    for (int i = 0; i < users; i++) {
+      for (int j = 0; j < 30; j++) {
+        edges.add(new UUID[] {ids.get(i), ids.get(random.nextInt(users))});
+      }
+    }
+    SocialGraph large = SocialGraph.load(edges, new ArrayList<>());
+
+    int queries = 2_000;
+    long start = System.nanoTime();
+    for (int i = 0; i < queries; i++) {
+      large.suggest(ids.get(i), 10, 2, 1);
+      large.mutualFriends(ids.get(i), ids.get(i + 1));
+    }
+    long micros = (System.nanoTime() - start) / 1_000 / queries;
+    System.out.printf(
+        "suggest + mutual on %d users / %d edges: %d us%n", users, large.edgeCount(), micros);
+    assertTrue(large.areFriends(edges.get(0)[0], edges.get(0)[1]));
+  }
+}
@@ -0,0 +1,100 @@
+package org.example.waspapi.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+class UnreadNotificationCounterTest {
+
+  private final UUID user = UUID.randomUUID();
+
+  @Test
+  void get_loadsOnceThenAppliesAdjustments() {
+    UnreadNotificationCounter counter = new UnreadNotificationCounter(1_000, 600);
+    AtomicInteger loads = new AtomicInteger();
+
+    assertEquals(3, counter.get(user, id -> loads.incrementAndGet() * 3L));
+    counter.adjust(user, 2);
+    counter.adjust(user, -4);
+
+    assertEquals(1, counter.get(user, id -> loads.incrementAndGet() * 100L));
+    assertEquals(1, loads.get());
+  }
+
+  @Test
+  void get_adjustmentDuringLoad_isNotCached() {
+    UnreadNotificationCounter counter = new UnreadNotificationCounter(1_000, 600);
+
+    // A notification commits while the count is being read from the database
+    long loaded =
+        counter.get(
+            user,
+            id -> {
+              counter.adjust(user, 1);
+              return 5L;
+            });
+
+    assertEquals(5, loaded);
+    assertEquals(6, counter.get(user, id -> 6L));
+  }
+
+  @Test
+  void get_adjustmentOfOtherUsersDuringLoad_isCached() {
+    UnreadNotificationCounter counter = new UnreadNotificationCounter(100_000, 600);
+    AtomicInteger loads = new AtomicInteger();
+
+    // Enough users that some share the stripe of the one being loaded
+    counter.get(
+        user,
+        id -> {
+          for (int i = 0; i < 10_000; i++) {
+            counter.adjust(UUID.randomUUID(), 1);
+          }
+          loads.incrementAndGet();
+          return 5L;
+        });
+
+    assertEquals(5, counter.get(user, id -> loads.incrementAndGet() * 100L));
+    assertEquals(1, loads.get());
+  }
+
+  @Test
+  void get_failedLoad_doesNotBlockLaterOnes() {
+    UnreadNotificationCounter counter = new UnreadNotificationCounter(1_000, 600);
+
+    assertThrows(
+        IllegalStateException.class,
+        () ->
+            counter.get(
+                user,
+                id -> {
+                  throw new IllegalStateException("down");
+                }));
+    counter.get(user, id -> 2L);
+    counter.adjust(user, 1);
+
+    assertEquals(3, counter.get(user, id -> 100L));
+  }
+
+  @Test
+  void adjust_belowZero_dropsEntry() {
+    UnreadNotificationCounter counter = new UnreadNotificationCounter(1_000, 600);
+    counter.get(user, id -> 1L);
+
+    counter.adjust(user, -3);
+
+    assertEquals(0, counter.size());
+    assertEquals(0, counter.get(user, id -> 0L));
+  }
+
+  @Test
+  void get_beyondCapacity_evictsLeastRecentlyUsed() {
+    UnreadNotificationCounter counter = new UnreadNotificationCounter(64, 600);
+    for (int i = 0; i < 10_000; i++) {
+      counter.get(UUID.randomUUID(), id -> 1L);
+    }
+    assertTrue(counter.size() <= 64);
+  }
+}
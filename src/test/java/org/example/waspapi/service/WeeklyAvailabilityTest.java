@@ -0,0 +1,96 @@
+package org.example.waspapi.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.DayOfWeek;
+import java.time.LocalTime;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+class WeeklyAvailabilityTest {
+
+  @Test
+  void bytes_roundTrip() {
+    WeeklyAvailability availability = WeeklyAvailability.empty();
+    availability.set(0, 3);
+    availability.set(WeeklyAvailability.SLOTS - 2, WeeklyAvailability.SLOTS + 5);
+
+    WeeklyAvailability read = WeeklyAvailability.fromBytes(availability.toBytes());
+
+    assertEquals(availability, read);
+    assertEquals(5, read.cardinality());
+    assertTrue(read.get(WeeklyAvailability.SLOTS - 1));
+    assertEquals(WeeklyAvailability.SLOTS, WeeklyAvailability.full().cardinality());
+    assertTrue(WeeklyAvailability.fromBytes(new byte[3]).isEmpty());
+  }
+
+  @Test
+  void allOf_keepsStartsWhereTheWholeRunFits() {
+    // Friday 18:00 to 23:00 is 20 slots, crossing a word boundary
+    WeeklyAvailability availability = WeeklyAvailability.empty();
+    int from = WeeklyAvailability.slotOf(DayOfWeek.FRIDAY, LocalTime.of(18, 0));
+    availability.set(from, from + 20);
+
+    WeeklyAvailability starts = availability.allOf(12);
+
+    assertEquals(9, starts.cardinality());
+    assertEquals(from, starts.nextSetSlot(0));
+    assertTrue(starts.get(from + 8));
+    assertFalse(starts.get(from + 9));
+  }
+
+  @Test
+  void allOfAndAnyOf_matchNaiveWindows() {
+    Random random = new Random(11);
+    WeeklyAvailability availability = WeeklyAvailability.empty();
+    for (int slot = 0; slot < WeeklyAvailability.SLOTS; slot++) {
+      if (random.nextInt(10) < 8) {
+        availability.set(slot, slot + 1);
+      }
+    }
+    for (int length : new int[] {1, 2, 5, 12, 64, 70}) {
+      WeeklyAvailability all = availability.allOf(length);
+      WeeklyAvailability any = availability.anyOf(length);
+      for (int slot = 0; slot < WeeklyAvailability.SLOTS; slot++) {
+        boolean expectAll = slot + length <= WeeklyAvailability.SLOTS;
+        boolean expectAny = false;
+        for (int j = slot; j < slot + length; j++) {
+          boolean set = j < WeeklyAvailability.SLOTS && availability.get(j);
+          expectAll &= set;
+          expectAny |= set;
+        }
+        assertEquals(expectAll, all.get(slot), "allOf " + length + " at " + slot);
+        assertEquals(expectAny, any.get(slot), "anyOf " + length + " at " + slot);
+      }
+    }
+  }
+
+  @Test
+  void counter_countsBitmapsSetPerSlot() {
+    WeeklyAvailability.Counter counter = new WeeklyAvailability.Counter();
+    for (int i = 0; i < 9; i++) {
+      WeeklyAvailability availability = WeeklyAvailability.empty();
+      availability.set(i * 10, 200);
+      counter.add(availability);
+    }
+
+    assertEquals(1, counter.count(5));
+    assertEquals(5, counter.count(45));
+    assertEquals(9, counter.count(150));
+    assertEquals(0, counter.count(300));
+  }
+
+  @Test
+  void andNot_and_nextSetSlot() {
+    WeeklyAvailability a = WeeklyAvailability.empty();
+    a.set(100, 200);
+    WeeklyAvailability b = WeeklyAvailability.empty();
+    b.set(100, 150);
+
+    WeeklyAvailability rest = a.andNot(b);
+
+    assertEquals(150, rest.nextSetSlot(0));
+    assertEquals(-1, rest.nextSetSlot(200));
+    assertEquals(b, a.and(b));
+  }
+}